@@ -0,0 +1,75 @@
+package io.github.kilmajster.keycloak.slack.benchmark;
+
+import org.keycloak.events.Event;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.AdminEvent;
+import org.keycloak.events.admin.AuthDetails;
+import org.keycloak.events.admin.OperationType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+final class BenchmarkData {
+
+    static final String REALM_NAME = "benchmark-realm";
+    static final String HOST = "http://localhost:8080/auth/";
+
+    private BenchmarkData() {
+    }
+
+    static Event event(final EventType type) {
+        final Map<String, String> details = new HashMap<>();
+        details.put("auth_method", "openid-connect");
+        details.put("redirect_uri", "http://localhost:8080/auth/realms/" + REALM_NAME + "/account/");
+        details.put("username", "john.doe");
+
+        final Event event = new Event();
+        event.setId("4b2a4f6e-8c2d-4f4c-9d51-0f1a8e3b7c11");
+        event.setType(type);
+        event.setTime(System.currentTimeMillis());
+        event.setRealmId(REALM_NAME);
+        event.setClientId("account-console");
+        event.setUserId("0c6d6a1e-51a9-4fd4-8a43-8f0f4fe8a0b3");
+        event.setSessionId("e1c6f1a2-7c55-4c2b-9f0c-3a3c8f7d2b61");
+        event.setIpAddress("10.0.0.1");
+        event.setError(type.name().endsWith("_ERROR") ? "invalid_user_credentials" : null);
+        event.setDetails(details);
+
+        return event;
+    }
+
+    static AdminEvent adminEvent(final OperationType operationType) {
+        final AuthDetails authDetails = new AuthDetails();
+        authDetails.setRealmId(REALM_NAME);
+        authDetails.setClientId("security-admin-console");
+        authDetails.setUserId("0c6d6a1e-51a9-4fd4-8a43-8f0f4fe8a0b3");
+        authDetails.setIpAddress("10.0.0.1");
+
+        final AdminEvent adminEvent = new AdminEvent();
+        adminEvent.setId("9f8e7d6c-5b4a-4392-8170-6f5e4d3c2b1a");
+        adminEvent.setOperationType(operationType);
+        adminEvent.setTime(System.currentTimeMillis());
+        adminEvent.setRealmId(REALM_NAME);
+        adminEvent.setAuthDetails(authDetails);
+        adminEvent.setResourceTypeAsString("USER");
+        adminEvent.setResourcePath("users/0c6d6a1e-51a9-4fd4-8a43-8f0f4fe8a0b3");
+        adminEvent.setRepresentation("{\"username\":\"john.doe\",\"enabled\":true,\"emailVerified\":false}");
+
+        return adminEvent;
+    }
+
+    // realm update with whole realm json, which is the largest representation Keycloak sends
+    static AdminEvent largeAdminEvent(final int representationLength) {
+        final StringBuilder representation = new StringBuilder(representationLength + 64).append("{\"realm\":\"").append(REALM_NAME).append("\"");
+        for (int i = 0; representation.length() < representationLength; i++) {
+            representation.append(",\"attribute").append(i).append("\":\"value with \\\"quotes\\\" to escape\"");
+        }
+
+        final AdminEvent adminEvent = adminEvent(OperationType.UPDATE);
+        adminEvent.setResourceTypeAsString("REALM");
+        adminEvent.setResourcePath("");
+        adminEvent.setRepresentation(representation.append('}').toString());
+
+        return adminEvent;
+    }
+}
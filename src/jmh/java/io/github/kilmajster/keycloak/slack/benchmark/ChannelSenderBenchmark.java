@@ -0,0 +1,133 @@
+package io.github.kilmajster.keycloak.slack.benchmark;
+
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackOverloadPolicy;
+import io.github.kilmajster.keycloak.slack.delivery.SlackChannelScheduler;
+import io.github.kilmajster.keycloak.slack.delivery.SlackDeadLetterStore;
+import io.github.kilmajster.keycloak.slack.delivery.SlackRetryPolicy;
+import io.github.kilmajster.keycloak.slack.delivery.SlackTransport;
+import io.github.kilmajster.keycloak.slack.fake.FakeSlackApiServer;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+
+/**
+ * Messages per second posted by {@link SlackChannelScheduler} over http to {@link FakeSlackApiServer} with Slack
+ * latency, spread over many channels, with sender threads being platform or virtual ones. Platform senders are
+ * capped, so channels above the cap wait for a free one, while every channel gets its own virtual sender. Stacks
+ * of virtual threads live on the heap, so their memory shows up with {@code -prof gc}, while every platform sender
+ * keeps its own native stack. Virtual threads need Java 21+, on older runtimes {@code virtual} mode falls back
+ * to platform threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ChannelSenderBenchmark.MESSAGES)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = {
+        "--add-opens", "java.base/java.util=ALL-UNNAMED",
+        "--add-opens", "java.base/java.lang=ALL-UNNAMED"
+})
+public class ChannelSenderBenchmark {
+
+    static final int MESSAGES = 1000;
+    private static final int MESSAGES_PER_MINUTE = 1_000_000;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"64"})
+    public int channels;
+
+    @Param({"50", "200"})
+    public long latencyMillis;
+
+    private FakeSlackApiServer server;
+    private SlackTransport slackTransport;
+    private ScheduledExecutorService scheduler;
+    private SlackChannelScheduler channelScheduler;
+    private volatile CountDownLatch delivered;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = FakeSlackApiServer.builder()
+                .latencyMillis(latencyMillis)
+                .threads(2 * channels)
+                .build()
+                .start();
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_API_URL", server.getApiUrl())
+                .and("SLACK_TOKEN", "xoxb-benchmark")
+                .and("SLACK_HTTP_MAX_IDLE_CONNECTIONS", String.valueOf(channels))
+                .execute(SlackConfiguration::getConfig);
+        final SlackTransport webApiClient = SlackTransport.of(slackConfiguration);
+
+        slackTransport = webApiClient;
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        channelScheduler = new SlackChannelScheduler(
+                request -> posted(webApiClient.post(request)),
+                null,
+                SlackRetryPolicy.of(slackConfiguration),
+                new SlackDeadLetterStore(MESSAGES),
+                SlackMetrics.NOOP,
+                null,
+                null,
+                scheduler,
+                MESSAGES_PER_MINUTE,
+                MESSAGES,
+                MESSAGES,
+                SlackOverloadPolicy.DROP_NEWEST,
+                0,
+                realmName -> null,
+                "virtual".equals(threads)
+        );
+    }
+
+    @TearDown
+    public void tearDown() {
+        channelScheduler.close();
+        scheduler.shutdownNow();
+        slackTransport.close();
+        server.close();
+    }
+
+    @Benchmark
+    public void postToSlowSlack() throws InterruptedException {
+        delivered = new CountDownLatch(MESSAGES);
+
+        for (int i = 0; i < MESSAGES; i++) {
+            channelScheduler.submit(ChatPostMessageRequest.builder()
+                    .channel("#channel-" + i % channels)
+                    .text("benchmark message " + i)
+                    .build());
+        }
+
+        delivered.await();
+    }
+
+    private ChatPostMessageResponse posted(final ChatPostMessageResponse response) {
+        delivered.countDown();
+
+        return response;
+    }
+}
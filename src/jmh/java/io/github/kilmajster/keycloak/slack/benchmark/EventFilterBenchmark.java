@@ -0,0 +1,81 @@
+package io.github.kilmajster.keycloak.slack.benchmark;
+
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.OperationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+
+/**
+ * Cost of deciding whether an event should be forwarded, comparing the previous
+ * {@code List.contains} lookup with the compiled {@code EnumSet} filter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {
+        "--add-opens", "java.base/java.util=ALL-UNNAMED",
+        "--add-opens", "java.base/java.lang=ALL-UNNAMED"
+})
+public class EventFilterBenchmark {
+
+    // all events except a few, which is the worst case for a list lookup
+    private static final String EXCLUDED_EVENTS = "LOGIN, CODE_TO_TOKEN, REFRESH_TOKEN";
+
+    private List<EventType> supportedEventsList;
+    private SlackConfiguration slackConfiguration;
+
+    @Setup
+    public void setUp() throws Exception {
+        slackConfiguration = withEnvironmentVariable("SLACK_INCLUDE_ALL_EVENTS_EXCEPT", EXCLUDED_EVENTS)
+                .and("SLACK_INCLUDE_ADMIN_EVENTS", "DELETE")
+                .execute(SlackConfiguration::getConfig);
+
+        supportedEventsList = Stream.of(EventType.values())
+                .filter(slackConfiguration::isEventSupported)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    @Benchmark
+    public boolean listRejectedEvent() {
+        return supportedEventsList.contains(EventType.LOGIN);
+    }
+
+    @Benchmark
+    public boolean listAcceptedEvent() {
+        return supportedEventsList.contains(EventType.LOGOUT);
+    }
+
+    @Benchmark
+    public boolean enumSetRejectedEvent() {
+        return slackConfiguration.isEventSupported(EventType.LOGIN);
+    }
+
+    @Benchmark
+    public boolean enumSetAcceptedEvent() {
+        return slackConfiguration.isEventSupported(EventType.LOGOUT);
+    }
+
+    @Benchmark
+    public boolean enumSetRejectedAdminEvent() {
+        return slackConfiguration.isAdminEventSupported(OperationType.UPDATE);
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.kilmajster.keycloak.slack.benchmark;
+
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.delivery.SlackDeliveryExecutor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+
+/**
+ * Events per second handed over from several Keycloak threads to delivery workers, through the worker pool with
+ * {@code ArrayBlockingQueue} and through the ring buffer. Delivery itself only counts events, so handoff is all
+ * that's measured. Every producer waits until its events are delivered, so none of them are dropped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(EventHandoffBenchmark.EVENTS)
+@Threads(EventHandoffBenchmark.PRODUCERS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(value = 1, jvmArgsAppend = {
+        "--add-opens", "java.base/java.util=ALL-UNNAMED",
+        "--add-opens", "java.base/java.lang=ALL-UNNAMED"
+})
+public class EventHandoffBenchmark {
+
+    static final int EVENTS = 1000;
+    static final int PRODUCERS = 4;
+
+    private static final Consumer<Producer> DELIVERY = producer -> producer.delivered.incrementAndGet();
+
+    @Param({"queue", "ring"})
+    public String handoff;
+
+    @Param({"BLOCKING"})
+    public String waitStrategy;
+
+    @Param({"2"})
+    public int workerThreads;
+
+    private SlackDeliveryExecutor deliveryExecutor;
+
+    @State(Scope.Thread)
+    public static class Producer {
+
+        private final AtomicLong delivered = new AtomicLong();
+        private long published;
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_ASYNC_ENABLED", "true")
+                .and("SLACK_ASYNC_QUEUE_CAPACITY", String.valueOf(PRODUCERS * EVENTS))
+                .and("SLACK_ASYNC_WORKER_THREADS", String.valueOf(workerThreads))
+                .and("SLACK_ASYNC_VIRTUAL_THREADS_ENABLED", "false")
+                .and("SLACK_ASYNC_RING_BUFFER_ENABLED", String.valueOf("ring".equals(handoff)))
+                .and("SLACK_ASYNC_WAIT_STRATEGY", waitStrategy)
+                .execute(SlackConfiguration::getConfig);
+
+        deliveryExecutor = SlackDeliveryExecutor.of(slackConfiguration);
+    }
+
+    @TearDown
+    public void tearDown() {
+        deliveryExecutor.close();
+    }
+
+    @Benchmark
+    public void handOffEvents(final Producer producer) {
+        for (int i = 0; i < EVENTS; i++) {
+            deliveryExecutor.execute(DELIVERY, producer);
+        }
+        producer.published += EVENTS;
+
+        while (producer.delivered.get() < producer.published) {
+            Thread.yield();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.kilmajster.keycloak.slack.benchmark;
+
+import io.github.kilmajster.keycloak.slack.SlackEventListenerProvider;
+import io.github.kilmajster.keycloak.slack.SlackEventListenerTransaction;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfigurations;
+import io.github.kilmajster.keycloak.slack.delivery.SlackEventSampler;
+import io.github.kilmajster.keycloak.slack.metrics.MicrometerSlackMetrics;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.keycloak.events.Event;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.AdminEvent;
+import org.keycloak.events.admin.OperationType;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.RealmProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Per event cost of {@link SlackEventListenerProvider#onEvent} on the Keycloak thread, for events
+ * which are accepted and handed to the transaction, for events which are filtered out and for events
+ * of sampled types, with metrics disabled and with Micrometer counters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {
+        "--add-opens", "java.base/java.util=ALL-UNNAMED",
+        "--add-opens", "java.base/java.lang=ALL-UNNAMED"
+})
+public class EventListenerProviderBenchmark {
+
+    @Param({"noop", "micrometer"})
+    public String metrics;
+
+
+    private SlackMetrics slackMetrics;
+    private SlackEventListenerProvider provider;
+    private Event acceptedEvent;
+    private Event rejectedEvent;
+    private Event oneInSampledEvent;
+    private Event perMinuteSampledEvent;
+    private AdminEvent acceptedAdminEvent;
+    private AdminEvent rejectedAdminEvent;
+
+    @Setup
+    public void setUp(final Blackhole blackhole) throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_INCLUDE_EVENTS", "LOGIN_ERROR, UPDATE_PASSWORD, LOGIN, REFRESH_TOKEN")
+                .and("SLACK_INCLUDE_ADMIN_EVENTS", "DELETE")
+                .and("SLACK_SAMPLING", "LOGIN=1/100; REFRESH_TOKEN=10/min")
+                .execute(SlackConfiguration::getConfig);
+
+        // events are only consumed, otherwise the transaction would keep all of them until commit
+        final SlackRealmConfigurations realmConfigurations = new SlackRealmConfigurations(slackConfiguration);
+        final SlackEventListenerTransaction transaction = new SlackEventListenerTransaction(null, slackConfiguration, realmConfigurations, null, null, null, null) {
+            @Override
+            public void addEvent(final Event event) {
+                blackhole.consume(event);
+            }
+
+            @Override
+            public void addAdminEvent(final AdminEvent adminEvent, final boolean includeRepresentation) {
+                blackhole.consume(adminEvent);
+            }
+        };
+        slackMetrics = "micrometer".equals(metrics)
+                ? new MicrometerSlackMetrics(new SimpleMeterRegistry())
+                : SlackMetrics.NOOP;
+        provider = new SlackEventListenerProvider(realmConfigurations, realmSession(), transaction, slackMetrics, SlackEventSampler.of(slackConfiguration));
+
+        acceptedEvent = BenchmarkData.event(EventType.LOGIN_ERROR);
+        rejectedEvent = BenchmarkData.event(EventType.CODE_TO_TOKEN);
+        oneInSampledEvent = BenchmarkData.event(EventType.LOGIN);
+        perMinuteSampledEvent = BenchmarkData.event(EventType.REFRESH_TOKEN);
+        acceptedAdminEvent = BenchmarkData.adminEvent(OperationType.DELETE);
+        rejectedAdminEvent = BenchmarkData.adminEvent(OperationType.UPDATE);
+    }
+
+    @Benchmark
+    public void acceptedEvent() {
+        provider.onEvent(acceptedEvent);
+    }
+
+    @Benchmark
+    public void rejectedEvent() {
+        provider.onEvent(rejectedEvent);
+    }
+
+    @Benchmark
+    public void oneInSampledEvent() {
+        provider.onEvent(oneInSampledEvent);
+    }
+
+    // after first 10 events of the minute every event is sampled out
+    @Benchmark
+    public void perMinuteSampledEvent() {
+        provider.onEvent(perMinuteSampledEvent);
+    }
+
+    @Benchmark
+    public void acceptedAdminEvent() {
+        provider.onEvent(acceptedAdminEvent, true);
+    }
+
+    @Benchmark
+    public void rejectedAdminEvent() {
+        provider.onEvent(rejectedAdminEvent, true);
+    }
+
+    // realm attributes are only read by the first event, every measured event uses cached realm configuration
+    private static KeycloakSession realmSession() {
+        final RealmModel realm = mock(RealmModel.class);
+        when(realm.getAttributes()).thenReturn(Map.of());
+        final RealmProvider realms = mock(RealmProvider.class);
+        when(realms.getRealm(BenchmarkData.REALM_NAME)).thenReturn(realm);
+        final KeycloakSession session = mock(KeycloakSession.class);
+        when(session.realms()).thenReturn(realms);
+
+        return session;
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.kilmajster.keycloak.slack.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.google.gson.Gson;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.model.block.LayoutBlock;
+import com.slack.api.util.json.GsonFactory;
+import io.github.kilmajster.keycloak.slack.message.SlackEventMessage;
+import io.github.kilmajster.keycloak.slack.message.SlackEventSnapshot;
+import org.keycloak.events.EventType;
+import org.keycloak.util.JsonSerialization;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning an event into the payload sent to Slack: building blocks, writing the
+ * representation and serializing the final request the way Slack client does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageRenderingBenchmark {
+
+    private final Gson gson = GsonFactory.createSnakeCase();
+    private final ObjectWriter representationWriter = JsonSerialization.mapper.writer();
+
+    private SlackEventSnapshot snapshot;
+    private SlackEventSnapshot snapshotWithRepresentation;
+    private SlackEventSnapshot snapshotWithLargeRepresentation;
+    private ChatPostMessageRequest request;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        snapshot = SlackEventSnapshot.of(BenchmarkData.event(EventType.LOGIN_ERROR), BenchmarkData.REALM_NAME, BenchmarkData.HOST, false);
+        snapshotWithRepresentation = SlackEventSnapshot.of(BenchmarkData.event(EventType.LOGIN_ERROR), BenchmarkData.REALM_NAME, BenchmarkData.HOST, true);
+        snapshotWithLargeRepresentation = SlackEventSnapshot.of(BenchmarkData.largeAdminEvent(200_000), BenchmarkData.REALM_NAME, BenchmarkData.HOST, true);
+        request = ChatPostMessageRequest.builder()
+                .channel("#keycloak")
+                .text(SlackEventMessage.title(snapshotWithRepresentation))
+                .blocks(SlackEventMessage.getEventMessageBlocks(snapshotWithRepresentation))
+                .build();
+    }
+
+    @Benchmark
+    public List<LayoutBlock> blocksWithoutRepresentation() throws JsonProcessingException {
+        return SlackEventMessage.getEventMessageBlocks(snapshot);
+    }
+
+    @Benchmark
+    public List<LayoutBlock> blocksWithRepresentation() throws JsonProcessingException {
+        return SlackEventMessage.getEventMessageBlocks(snapshotWithRepresentation);
+    }
+
+    @Benchmark
+    public List<LayoutBlock> blocksWithLargeRepresentation() throws JsonProcessingException {
+        return SlackEventMessage.getEventMessageBlocks(snapshotWithLargeRepresentation);
+    }
+
+    @Benchmark
+    public String representation() throws JsonProcessingException {
+        return representationWriter.writeValueAsString(snapshotWithRepresentation.getRepresentation());
+    }
+
+    @Benchmark
+    public String requestSerialization() {
+        return gson.toJson(request);
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.kilmajster.keycloak.slack.benchmark;
+
+import io.github.kilmajster.keycloak.slack.config.SlackRoutingTable;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.OperationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of choosing the channel of an event, which shouldn't depend on the number of routes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+
+    @Param({"2", "64"})
+    private int routes;
+
+    private SlackRoutingTable routingTable;
+
+    @Setup
+    public void setUp() {
+        // realm routes first, so the security route is the last one to match
+        final String realmRoutes = IntStream.range(0, routes - 2)
+                .mapToObj(i -> "realm:realm-" + i + "&client:client-" + i + "=#channel-" + i)
+                .collect(Collectors.joining(";"));
+
+        routingTable = SlackRoutingTable.parse(
+                realmRoutes + ";operation:DELETE&resource:USER=#iam-audit;type:LOGIN_ERROR=#sec-alerts",
+                "#keycloak"
+        );
+    }
+
+    @Benchmark
+    public String matchedEvent() {
+        return routingTable.channelOf(EventType.LOGIN_ERROR, null, "master", "web-app", null);
+    }
+
+    @Benchmark
+    public String matchedAdminEvent() {
+        return routingTable.channelOf(null, OperationType.DELETE, "master", null, "USER");
+    }
+
+    @Benchmark
+    public String defaultChannelEvent() {
+        return routingTable.channelOf(EventType.LOGIN, null, "master", "web-app", null);
+    }
+}
@@ -1,37 +1,64 @@
 package io.github.kilmajster.keycloak.slack;
 
-import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfigurations;
+import io.github.kilmajster.keycloak.slack.delivery.SlackEventSampler;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.keycloak.events.Event;
 import org.keycloak.events.EventListenerProvider;
 import org.keycloak.events.admin.AdminEvent;
+import org.keycloak.events.admin.OperationType;
+import org.keycloak.events.admin.ResourceType;
+import org.keycloak.models.KeycloakSession;
 
 @Slf4j
 @RequiredArgsConstructor
 public class SlackEventListenerProvider implements EventListenerProvider {
 
-    private final SlackConfiguration slackConfiguration;
+    private final SlackRealmConfigurations slackRealmConfigurations;
+    private final KeycloakSession session;
     private final SlackEventListenerTransaction slackEventListenerTransaction;
+    private final SlackMetrics slackMetrics;
+    private final SlackEventSampler slackEventSampler;
 
     @Override
     public void onEvent(Event event) {
-        final boolean shouldSendEvent = slackConfiguration.getSupportedEvents().contains(event.getType());
+        final boolean shouldSendEvent = slackRealmConfigurations.get(event.getRealmId(), session)
+                .isEventSupported(event.getType());
 
-        if (shouldSendEvent) {
+        if (!shouldSendEvent) {
+            slackMetrics.eventRejected(event.getType());
+        } else if (!slackEventSampler.isSampled(event.getType(), event.getRealmId(), event.getTime())) {
+            slackMetrics.eventSampledOut(event.getType());
+        } else {
+            slackMetrics.eventAccepted(event.getType());
             slackEventListenerTransaction.addEvent(event);
         }
     }
 
     @Override
     public void onEvent(AdminEvent event, boolean includeRepresentation) {
-        final boolean shouldSendAdminEvent = slackConfiguration.getSupportedAdminEvents().contains(event.getOperationType());
+        if (isRealmUpdate(event)) {
+            slackEventListenerTransaction.invalidateRealmConfigurationOnCommit(event.getRealmId());
+        }
+
+        final boolean shouldSendAdminEvent = slackRealmConfigurations.get(event.getRealmId(), session)
+                .isAdminEventSupported(event.getOperationType());
 
         if (shouldSendAdminEvent) {
+            slackMetrics.adminEventAccepted(event.getOperationType());
             slackEventListenerTransaction.addAdminEvent(event, includeRepresentation);
+        } else {
+            slackMetrics.adminEventRejected(event.getOperationType());
         }
     }
 
+    private static boolean isRealmUpdate(final AdminEvent event) {
+        return event.getResourceType() == ResourceType.REALM
+                && (event.getOperationType() == OperationType.UPDATE || event.getOperationType() == OperationType.DELETE);
+    }
+
     @Override
     public void close() {
     }
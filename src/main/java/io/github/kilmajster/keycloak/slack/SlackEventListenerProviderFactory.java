@@ -1,52 +1,277 @@
 package io.github.kilmajster.keycloak.slack;
 
-import com.slack.api.Slack;
+import io.github.kilmajster.keycloak.slack.cluster.SlackCluster;
 import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfigurations;
+import io.github.kilmajster.keycloak.slack.delivery.SlackChannelScheduler;
+import io.github.kilmajster.keycloak.slack.delivery.SlackDeadLetter;
+import io.github.kilmajster.keycloak.slack.delivery.SlackDeadLetterStore;
+import io.github.kilmajster.keycloak.slack.delivery.SlackDeliveryExecutor;
+import io.github.kilmajster.keycloak.slack.delivery.SlackEventDigest;
+import io.github.kilmajster.keycloak.slack.delivery.SlackEventSampler;
+import io.github.kilmajster.keycloak.slack.delivery.SlackEventSuppressor;
+import io.github.kilmajster.keycloak.slack.delivery.SlackLiveCounters;
+import io.github.kilmajster.keycloak.slack.delivery.SlackMessageBatcher;
+import io.github.kilmajster.keycloak.slack.delivery.SlackOutbox;
+import io.github.kilmajster.keycloak.slack.delivery.SlackRetryPolicy;
+import io.github.kilmajster.keycloak.slack.delivery.SlackThreadCache;
+import io.github.kilmajster.keycloak.slack.delivery.SlackThreadFactory;
+import io.github.kilmajster.keycloak.slack.delivery.SlackTransport;
+import io.github.kilmajster.keycloak.slack.message.SlackEventSnapshot;
 import io.github.kilmajster.keycloak.slack.message.SlackMessageSender;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics;
+import lombok.extern.slf4j.Slf4j;
 import org.keycloak.Config;
+import org.keycloak.connections.infinispan.InfinispanConnectionProvider;
 import org.keycloak.events.EventListenerProvider;
 import org.keycloak.events.EventListenerProviderFactory;
 import org.keycloak.models.KeycloakSession;
 import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.utils.KeycloakModelUtils;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+@Slf4j
 public class SlackEventListenerProviderFactory implements EventListenerProviderFactory {
 
     private static final String PROVIDER_ID = "slack";
+    private static final String SCHEDULER_THREAD_NAME_PREFIX = "slack-scheduler";
+    private static final int SCHEDULER_THREADS = 2;
+    private static final long SCHEDULER_SHUTDOWN_TIMEOUT_SECONDS = 5;
+    private static final long BYTES_IN_MB = 1024 * 1024;
 
-    private final Slack slack = Slack.getInstance();
     private final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+    private final SlackRealmConfigurations slackRealmConfigurations = new SlackRealmConfigurations(slackConfiguration);
+    private final SlackDeadLetterStore slackDeadLetterStore = new SlackDeadLetterStore(slackConfiguration.getDeadLetterCapacity());
+    private final SlackEventSampler slackEventSampler = SlackEventSampler.of(slackConfiguration);
+    private SlackMetrics slackMetrics = SlackMetrics.NOOP;
+    private SlackCluster slackCluster;
+    private SlackTransport slackTransport;
+    private SlackDeliveryExecutor slackDeliveryExecutor;
+    private ScheduledExecutorService slackScheduler;
+    private SlackOutbox slackOutbox;
+    private SlackChannelScheduler slackChannelScheduler;
+    private SlackMessageBatcher slackMessageBatcher;
+    private SlackEventSuppressor slackEventSuppressor;
+    private SlackEventDigest slackEventDigest;
+    private SlackLiveCounters slackLiveCounters;
+    private Consumer<SlackEventSnapshot> slackEventConsumer;
+    private KeycloakSessionFactory sessionFactory;
 
     @Override
     public EventListenerProvider create(KeycloakSession session) {
-        final SlackMessageSender slackMessageSender = new SlackMessageSender(
-                slack,
-                slackConfiguration
-        );
-
         final SlackEventListenerTransaction slackEventListenerTransaction = new SlackEventListenerTransaction(
-                session.getContext(),
-                slackMessageSender
+                session,
+                slackConfiguration,
+                slackRealmConfigurations,
+                slackEventConsumer,
+                slackDeliveryExecutor,
+                slackEventDigest,
+                slackLiveCounters
         );
 
         session.getTransactionManager().enlistAfterCompletion(slackEventListenerTransaction);
 
-        return new SlackEventListenerProvider(slackConfiguration, slackEventListenerTransaction);
+        return new SlackEventListenerProvider(slackRealmConfigurations, session, slackEventListenerTransaction, slackMetrics, slackEventSampler);
     }
 
     @Override
     public void init(Config.Scope config) {
+        slackMetrics = SlackMetrics.of(slackConfiguration);
+        slackCluster = slackConfiguration.isClusterEnabled() ? new SlackCluster() : null;
+        slackTransport = SlackTransport.of(slackConfiguration);
+        slackDeliveryExecutor = SlackDeliveryExecutor.of(slackConfiguration, slackMetrics);
+        slackScheduler = Executors.newScheduledThreadPool(SCHEDULER_THREADS, new SlackThreadFactory(SCHEDULER_THREAD_NAME_PREFIX));
+        slackOutbox = openOutbox();
+        slackScheduler.scheduleWithFixedDelay(
+                slackRealmConfigurations::expire,
+                slackRealmConfigurations.getMaxAgeMillis(),
+                slackRealmConfigurations.getMaxAgeMillis(),
+                TimeUnit.MILLISECONDS
+        );
+        slackChannelScheduler = new SlackChannelScheduler(
+                slackTransport,
+                slackOutbox,
+                SlackRetryPolicy.of(slackConfiguration),
+                slackDeadLetterStore,
+                slackMetrics,
+                slackCluster,
+                slackConfiguration.isThreadingEnabled()
+                        ? new SlackThreadCache(slackConfiguration.getThreadCacheSize(), TimeUnit.MINUTES.toMillis(slackConfiguration.getThreadIdleMinutes()))
+                        : null,
+                slackScheduler,
+                slackConfiguration.getRateLimitMessagesPerMinute(),
+                slackConfiguration.getRateLimitBurst(),
+                slackConfiguration.getChannelQueueCapacity(),
+                slackConfiguration.getOverloadPolicy(),
+                slackConfiguration.getOverloadBlockTimeoutMillis(),
+                realmName -> slackRealmConfigurations.getToken(realmName, sessionFactory),
+                slackConfiguration.isAsyncVirtualThreadsEnabled()
+        );
+        // events still waiting for a delivery worker count as queued as well
+        slackMetrics.registerQueueDepth(() -> slackDeliveryExecutor.getPendingDeliveries() + slackChannelScheduler.getPendingMessages());
+
+        final SlackMessageSender slackMessageSender = new SlackMessageSender(slackChannelScheduler, slackConfiguration);
+        scheduleShedSummary(slackMessageSender);
+        slackEventConsumer = slackMessageSender::sendEventMessage;
+
+        if (slackConfiguration.isBatchEnabled() && !slackTransport.isBatchingSupported()) {
+            log.info("Slack {} transport doesn't batch messages, SLACK_BATCH_ENABLED is ignored", slackConfiguration.getTransport());
+        } else if (slackConfiguration.isBatchEnabled()) {
+            slackMessageBatcher = new SlackMessageBatcher(
+                    slackMessageSender,
+                    slackScheduler,
+                    slackConfiguration.getBatchWindowMillis(),
+                    slackConfiguration.getBatchMaxEvents()
+            );
+            slackEventConsumer = slackMessageBatcher;
+        }
+
+        if (slackConfiguration.isSuppressionEnabled()) {
+            slackEventSuppressor = new SlackEventSuppressor(
+                    slackEventConsumer,
+                    slackMessageSender,
+                    slackScheduler,
+                    slackCluster,
+                    slackConfiguration.getSuppressionKeyFields(),
+                    TimeUnit.SECONDS.toMillis(slackConfiguration.getSuppressionWindowSeconds()),
+                    slackConfiguration.getSuppressionMaxKeys()
+            );
+            slackEventConsumer = slackEventSuppressor;
+        }
+
+        if (slackConfiguration.isDigestEnabled()) {
+            slackEventDigest = new SlackEventDigest(
+                    slackMessageSender,
+                    slackScheduler,
+                    slackCluster,
+                    slackConfiguration.getDigestIntervalMinutes()
+            );
+        }
+
+        if (slackConfiguration.isLiveCounterEnabled() && !slackTransport.isUpdateSupported()) {
+            log.info("Slack {} transport can't update messages, SLACK_LIVE_COUNTER_EVENTS are sent as separate messages", slackConfiguration.getTransport());
+        } else if (slackConfiguration.isLiveCounterEnabled()) {
+            slackLiveCounters = new SlackLiveCounters(
+                    slackChannelScheduler,
+                    slackConfiguration,
+                    slackScheduler,
+                    TimeUnit.MINUTES.toMillis(slackConfiguration.getLiveCounterWindowMinutes()),
+                    TimeUnit.SECONDS.toMillis(slackConfiguration.getLiveCounterUpdateSeconds())
+            );
+        }
     }
 
     @Override
     public void postInit(KeycloakSessionFactory factory) {
+        sessionFactory = factory;
+        if (slackCluster != null) {
+            connectCluster(factory);
+        }
+        if (slackOutbox != null) {
+            slackOutbox.takeRecoveredMessages().forEach(slackChannelScheduler::replay);
+        }
     }
 
     @Override
     public void close() {
+        if (slackDeliveryExecutor != null) {
+            slackDeliveryExecutor.close();
+        }
+        if (slackEventDigest != null) {
+            slackEventDigest.close();
+        }
+        if (slackLiveCounters != null) {
+            slackLiveCounters.close();
+        }
+        if (slackEventSuppressor != null) {
+            slackEventSuppressor.close();
+        }
+        if (slackMessageBatcher != null) {
+            slackMessageBatcher.close();
+        }
+        if (slackChannelScheduler != null) {
+            slackChannelScheduler.close();
+        }
+        if (slackScheduler != null) {
+            shutdownScheduler();
+        }
+        if (slackOutbox != null) {
+            slackOutbox.close();
+        }
+        if (slackTransport != null) {
+            slackTransport.close();
+        }
+        slackMetrics.close();
     }
 
     @Override
     public String getId() {
         return PROVIDER_ID;
     }
+
+    public List<SlackDeadLetter> getDeadLetters() {
+        return slackDeadLetterStore.getDeadLetters();
+    }
+
+    private void connectCluster(final KeycloakSessionFactory factory) {
+        try {
+            KeycloakModelUtils.runJobInTransaction(factory, session -> slackCluster.connect(
+                    session.getProvider(InfinispanConnectionProvider.class).getCache(InfinispanConnectionProvider.WORK_CACHE_NAME)
+            ));
+        } catch (RuntimeException e) {
+            log.error("Failed to connect Slack listener to Keycloak cluster, node will act on its own!", e);
+        }
+    }
+
+    // periodic tasks, e.g. outbox sync, are let finish before what they use is closed
+    private void shutdownScheduler() {
+        slackScheduler.shutdownNow();
+        try {
+            if (!slackScheduler.awaitTermination(SCHEDULER_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Slack scheduler tasks didn't finish within {} seconds", SCHEDULER_SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // summary waits until overload is over, otherwise it would be shed as well
+    private void scheduleShedSummary(final SlackMessageSender slackMessageSender) {
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(slackConfiguration.getOverloadSummaryIntervalSeconds());
+
+        slackScheduler.scheduleWithFixedDelay(() -> {
+            slackChannelScheduler.takeShedEventsWhenRelieved(intervalNanos).forEach(slackMessageSender::sendShedSummary);
+        }, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private SlackOutbox openOutbox() {
+        if (!slackConfiguration.isOutboxEnabled()) {
+            return null;
+        }
+
+        try {
+            final SlackOutbox outbox = SlackOutbox.open(
+                    Paths.get(slackConfiguration.getOutboxDir()),
+                    slackConfiguration.getOutboxSegmentSizeMb() * BYTES_IN_MB
+            );
+            slackScheduler.scheduleWithFixedDelay(
+                    outbox::sync,
+                    slackConfiguration.getOutboxFsyncIntervalMillis(),
+                    slackConfiguration.getOutboxFsyncIntervalMillis(),
+                    TimeUnit.MILLISECONDS
+            );
+
+            return outbox;
+        } catch (IOException e) {
+            log.error("Failed to open Slack outbox in {}, messages won't survive restart!", slackConfiguration.getOutboxDir(), e);
+            return null;
+        }
+    }
 }
@@ -1,15 +1,107 @@
 package io.github.kilmajster.keycloak.slack;
 
-import io.github.kilmajster.keycloak.slack.message.SlackMessageSender;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfigurations;
+import io.github.kilmajster.keycloak.slack.delivery.SlackDeliveryExecutor;
+import io.github.kilmajster.keycloak.slack.delivery.SlackEventDigest;
+import io.github.kilmajster.keycloak.slack.delivery.SlackLiveCounters;
+import io.github.kilmajster.keycloak.slack.message.SlackEventSnapshot;
 import org.keycloak.events.EventListenerTransaction;
 import org.keycloak.models.KeycloakContext;
+import org.keycloak.models.KeycloakSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 
 public class SlackEventListenerTransaction extends EventListenerTransaction {
 
-    public SlackEventListenerTransaction(final KeycloakContext context, final SlackMessageSender slackMessageSender) {
+    private final SlackRealmConfigurations slackRealmConfigurations;
+    private final List<String> updatedRealmIds = new ArrayList<>();
+
+    public SlackEventListenerTransaction(
+            final KeycloakSession session,
+            final SlackConfiguration slackConfiguration,
+            final SlackRealmConfigurations slackRealmConfigurations,
+            final Consumer<SlackEventSnapshot> slackEventConsumer,
+            final SlackDeliveryExecutor slackDeliveryExecutor,
+            final SlackEventDigest slackEventDigest,
+            final SlackLiveCounters slackLiveCounters) {
         super(
-                (event, includeRepresentation) -> slackMessageSender.sendAdminEventMessage(context, event),
-                (event) -> slackMessageSender.sendEventMessage(context, event)
+                (event, includeRepresentation) -> {
+                    final KeycloakContext context = session.getContext();
+                    if (slackConfiguration.isDigestAdminEvent(event.getOperationType())) {
+                        slackEventDigest.record(
+                                context.getRealm().getName(),
+                                () -> getKeycloakHost(context),
+                                slackRealmConfigurations.get(event.getRealmId(), session),
+                                event.getResourceTypeAsString(),
+                                event.getOperationType().name()
+                        );
+                        return;
+                    }
+
+                    final SlackEventSnapshot snapshot = SlackEventSnapshot.of(
+                            event,
+                            context.getRealm().getName(),
+                            getKeycloakHost(context),
+                            slackRealmConfigurations.get(event.getRealmId(), session)
+                    );
+
+                    slackDeliveryExecutor.execute(slackEventConsumer, snapshot);
+                },
+                (event) -> {
+                    final KeycloakContext context = session.getContext();
+                    if (slackConfiguration.isDigestEvent(event.getType())) {
+                        slackEventDigest.record(
+                                context.getRealm().getName(),
+                                () -> getKeycloakHost(context),
+                                slackRealmConfigurations.get(event.getRealmId(), session),
+                                event.getClientId(),
+                                event.getType().name()
+                        );
+                        return;
+                    }
+                    // live counters are off when transport can't update messages, then events are sent one by one
+                    if (slackLiveCounters != null && slackConfiguration.isLiveCounterEvent(event.getType())) {
+                        slackLiveCounters.record(
+                                context.getRealm().getName(),
+                                () -> getKeycloakHost(context),
+                                slackRealmConfigurations.get(event.getRealmId(), session),
+                                event.getType(),
+                                event.getClientId(),
+                                event.getTime()
+                        );
+                        return;
+                    }
+
+                    final SlackEventSnapshot snapshot = SlackEventSnapshot.of(
+                            event,
+                            context.getRealm().getName(),
+                            getKeycloakHost(context),
+                            slackRealmConfigurations.get(event.getRealmId(), session)
+                    ).withSamplingRate(slackConfiguration.getSamplingRate(event.getType()));
+
+                    slackDeliveryExecutor.execute(slackEventConsumer, snapshot);
+                }
         );
+        this.slackRealmConfigurations = slackRealmConfigurations;
+    }
+
+    /**
+     * Realm configuration is reloaded once the realm update is committed, so uncommitted attributes are never cached.
+     */
+    public void invalidateRealmConfigurationOnCommit(final String realmId) {
+        updatedRealmIds.add(realmId);
+    }
+
+    @Override
+    protected void commitImpl() {
+        updatedRealmIds.forEach(slackRealmConfigurations::invalidate);
+        super.commitImpl();
+    }
+
+    private static String getKeycloakHost(final KeycloakContext context) {
+        return context.getUri().getBaseUri().toString();
     }
 }
@@ -0,0 +1,168 @@
+package io.github.kilmajster.keycloak.slack.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.infinispan.Cache;
+import org.infinispan.context.Flag;
+import org.infinispan.manager.EmbeddedCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * State shared by all Keycloak nodes, kept in Keycloak's replicated {@code work} cache under {@code slack:} keys.
+ * <p>
+ * Only strings and longs are stored, so it works with any marshaller Keycloak configures. Until connected,
+ * every node acts on its own: claims always succeed and each node is a sender.
+ */
+@Slf4j
+public class SlackCluster {
+
+    static final String KEY_PREFIX = "slack:";
+    static final String LOCAL_NODE = "local";
+
+    // conditional writes only fail when another node wrote in between, so this is rarely reached
+    private static final int MAX_CAS_ATTEMPTS = 16;
+
+    private volatile Cache<String, Object> cache;
+
+    public void connect(final Cache<String, Object> cache) {
+        this.cache = cache;
+        log.info("Slack listener coordinates with cluster through {} cache as node {}", cache.getName(), getNodeName());
+    }
+
+    public boolean isConnected() {
+        return cache != null;
+    }
+
+    /**
+     * Node which sends messages on behalf of the whole cluster, e.g. digests.
+     */
+    public boolean isSender() {
+        final Cache<String, Object> current = cache;
+        if (current == null) {
+            return true;
+        }
+        final EmbeddedCacheManager cacheManager = current.getCacheManager();
+
+        return !cacheManager.getCacheManagerConfiguration().isClustered() || cacheManager.isCoordinator();
+    }
+
+    public String getNodeName() {
+        final Cache<String, Object> current = cache;
+        if (current == null || current.getCacheManager().getAddress() == null) {
+            return LOCAL_NODE;
+        }
+
+        return current.getCacheManager().getAddress().toString();
+    }
+
+    /**
+     * @return true when no other node claimed the key within its lifespan
+     */
+    public boolean claim(final String key, final long lifespanMillis) {
+        final Cache<String, Object> current = cache;
+        if (current == null) {
+            return true;
+        }
+
+        return current.putIfAbsent(KEY_PREFIX + key, getNodeName(), lifespanMillis, TimeUnit.MILLISECONDS) == null;
+    }
+
+    /**
+     * Cluster wide rate limit as generic cell rate algorithm, the only shared state is a theoretical
+     * arrival time of the next message in epoch millis.
+     *
+     * @return 0 when message can be sent now, otherwise millis to wait before the next attempt
+     */
+    public long acquire(final String key, final long intervalMillis, final long toleranceMillis, final long nowMillis) {
+        final Cache<String, Object> current = cache;
+        final String cacheKey = KEY_PREFIX + key;
+        final long lifespanMillis = lifespanMillis(intervalMillis, toleranceMillis);
+
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            final Long stored = (Long) current.get(cacheKey);
+            final long arrival = stored == null ? nowMillis : Math.max(stored, nowMillis);
+
+            if (arrival - nowMillis > toleranceMillis) {
+                return arrival - nowMillis - toleranceMillis;
+            }
+            if (compareAndSet(current, cacheKey, stored, arrival + intervalMillis, lifespanMillis)) {
+                return 0;
+            }
+        }
+
+        return intervalMillis;
+    }
+
+    /**
+     * Holds back all nodes for given time, e.g. when Slack responded with rate limit error.
+     */
+    public void block(
+            final String key,
+            final long intervalMillis,
+            final long toleranceMillis,
+            final long nowMillis,
+            final long blockMillis) {
+        final Cache<String, Object> current = cache;
+        final String cacheKey = KEY_PREFIX + key;
+        final long arrival = nowMillis + blockMillis + toleranceMillis;
+        final long lifespanMillis = blockMillis + lifespanMillis(intervalMillis, toleranceMillis);
+
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            final Long stored = (Long) current.get(cacheKey);
+            if (stored != null && stored >= arrival) {
+                return;
+            }
+            if (compareAndSet(current, cacheKey, stored, arrival, lifespanMillis)) {
+                return;
+            }
+        }
+    }
+
+    public void publish(final String key, final String value, final long lifespanMillis) {
+        cache.put(KEY_PREFIX + key, value, lifespanMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Removes and returns values published under the prefix, a value is only returned to one node.
+     */
+    public List<String> take(final String keyPrefix) {
+        final Cache<String, Object> current = cache;
+        final String cacheKeyPrefix = KEY_PREFIX + keyPrefix;
+        final List<String> keys = new ArrayList<>();
+
+        // work cache is replicated, so local keys are all keys and nothing has to be marshalled to iterate them
+        for (String key : current.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL).keySet()) {
+            if (key.startsWith(cacheKeyPrefix)) {
+                keys.add(key);
+            }
+        }
+
+        final List<String> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            final Object value = current.remove(key);
+            if (value != null) {
+                values.add((String) value);
+            }
+        }
+
+        return values;
+    }
+
+    private static boolean compareAndSet(
+            final Cache<String, Object> cache,
+            final String key,
+            final Long expected,
+            final long value,
+            final long lifespanMillis) {
+        return expected == null
+                ? cache.putIfAbsent(key, value, lifespanMillis, TimeUnit.MILLISECONDS) == null
+                : cache.replace(key, expected, value, lifespanMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // state is useless once the arrival time passed, so it's expired instead of kept forever
+    private static long lifespanMillis(final long intervalMillis, final long toleranceMillis) {
+        return intervalMillis + toleranceMillis + TimeUnit.MINUTES.toMillis(1);
+    }
+}
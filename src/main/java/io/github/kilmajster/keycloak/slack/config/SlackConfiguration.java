@@ -4,16 +4,19 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.StringUtils;
 import org.keycloak.events.EventType;
 import org.keycloak.events.admin.OperationType;
 
 import java.util.Collections;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -24,22 +27,207 @@ public class SlackConfiguration {
 
     String token;
     String channel;
-    List<EventType> supportedEvents;
+    Set<EventType> supportedEvents;
     boolean includeEventRepresentationEnabled;
-    List<OperationType> supportedAdminEvents;
+    Set<OperationType> supportedAdminEvents;
     boolean includeAdminEventRepresentationEnabled;
+    boolean asyncEnabled;
+    int asyncQueueCapacity;
+    int asyncWorkerThreads;
+    boolean batchEnabled;
+    int batchWindowMillis;
+    int batchMaxEvents;
+    int rateLimitMessagesPerMinute;
+    int rateLimitBurst;
+    int channelQueueCapacity;
+    int httpConnectTimeoutMillis;
+    int httpReadTimeoutMillis;
+    int httpMaxIdleConnections;
+    int httpKeepAliveSeconds;
+    String apiUrl;
+    String outboxDir;
+    int outboxSegmentSizeMb;
+    int outboxFsyncIntervalMillis;
+    int retryMaxAttempts;
+    int retryInitialBackoffMillis;
+    int retryMaxBackoffMillis;
+    int deadLetterCapacity;
+    boolean suppressionEnabled;
+    Set<SlackSuppressionKeyField> suppressionKeyFields;
+    int suppressionWindowSeconds;
+    int suppressionMaxKeys;
+    Set<EventType> digestEvents;
+    Set<OperationType> digestAdminEvents;
+    int digestIntervalMinutes;
+    boolean metricsEnabled;
+    boolean clusterEnabled;
+    SlackRoutingTable routingTable;
+    int realmConfigCacheSeconds;
+    SlackTransportType transport;
+    String webhookUrl;
+    Map<String, String> webhookUrls;
+    String filePath;
+    boolean asyncVirtualThreadsEnabled;
+    SlackOverloadPolicy overloadPolicy;
+    int overloadBlockTimeoutMillis;
+    int overloadSummaryIntervalSeconds;
+    Map<EventType, SlackSamplingRate> samplingRates;
+    SlackThreadKey threadKey;
+    int threadCacheSize;
+    int threadIdleMinutes;
+    Set<EventType> liveCounterEvents;
+    int liveCounterWindowMinutes;
+    int liveCounterUpdateSeconds;
+    boolean asyncRingBufferEnabled;
+    SlackWaitStrategy asyncWaitStrategy;
 
     public static SlackConfiguration getConfig() {
         return SlackConfiguration.of(
                 EnvironmentVariableConfigReader.getToken(),
                 EnvironmentVariableConfigReader.getChannel(),
-                EnvironmentVariableConfigReader.getSupportedEvents(),
+                Collections.unmodifiableSet(EnvironmentVariableConfigReader.getSupportedEvents()),
                 EnvironmentVariableConfigReader.isIncludeEventRepresentationEnabled(),
-                EnvironmentVariableConfigReader.getSupportedAdminEvents(),
-                EnvironmentVariableConfigReader.isIncludeAdminEventRepresentationEnabled()
+                Collections.unmodifiableSet(EnvironmentVariableConfigReader.getSupportedAdminEvents()),
+                EnvironmentVariableConfigReader.isIncludeAdminEventRepresentationEnabled(),
+                EnvironmentVariableConfigReader.isAsyncEnabled(),
+                EnvironmentVariableConfigReader.getAsyncQueueCapacity(),
+                EnvironmentVariableConfigReader.getAsyncWorkerThreads(),
+                EnvironmentVariableConfigReader.isBatchEnabled(),
+                EnvironmentVariableConfigReader.getBatchWindowMillis(),
+                EnvironmentVariableConfigReader.getBatchMaxEvents(),
+                EnvironmentVariableConfigReader.getRateLimitMessagesPerMinute(),
+                EnvironmentVariableConfigReader.getRateLimitBurst(),
+                EnvironmentVariableConfigReader.getChannelQueueCapacity(),
+                EnvironmentVariableConfigReader.getHttpConnectTimeoutMillis(),
+                EnvironmentVariableConfigReader.getHttpReadTimeoutMillis(),
+                EnvironmentVariableConfigReader.getHttpMaxIdleConnections(),
+                EnvironmentVariableConfigReader.getHttpKeepAliveSeconds(),
+                EnvironmentVariableConfigReader.getApiUrl(),
+                EnvironmentVariableConfigReader.getOutboxDir(),
+                EnvironmentVariableConfigReader.getOutboxSegmentSizeMb(),
+                EnvironmentVariableConfigReader.getOutboxFsyncIntervalMillis(),
+                EnvironmentVariableConfigReader.getRetryMaxAttempts(),
+                EnvironmentVariableConfigReader.getRetryInitialBackoffMillis(),
+                EnvironmentVariableConfigReader.getRetryMaxBackoffMillis(),
+                EnvironmentVariableConfigReader.getDeadLetterCapacity(),
+                EnvironmentVariableConfigReader.isSuppressionEnabled(),
+                Collections.unmodifiableSet(EnvironmentVariableConfigReader.getSuppressionKeyFields()),
+                EnvironmentVariableConfigReader.getSuppressionWindowSeconds(),
+                EnvironmentVariableConfigReader.getSuppressionMaxKeys(),
+                Collections.unmodifiableSet(EnvironmentVariableConfigReader.getDigestEvents()),
+                Collections.unmodifiableSet(EnvironmentVariableConfigReader.getDigestAdminEvents()),
+                EnvironmentVariableConfigReader.getDigestIntervalMinutes(),
+                EnvironmentVariableConfigReader.isMetricsEnabled(),
+                EnvironmentVariableConfigReader.isClusterEnabled(),
+                EnvironmentVariableConfigReader.getRoutingTable(),
+                EnvironmentVariableConfigReader.getRealmConfigCacheSeconds(),
+                EnvironmentVariableConfigReader.getTransport(),
+                EnvironmentVariableConfigReader.getWebhookUrl(),
+                Collections.unmodifiableMap(EnvironmentVariableConfigReader.getWebhookUrls()),
+                EnvironmentVariableConfigReader.getFilePath(),
+                EnvironmentVariableConfigReader.isAsyncVirtualThreadsEnabled(),
+                EnvironmentVariableConfigReader.getOverloadPolicy(),
+                EnvironmentVariableConfigReader.getOverloadBlockTimeoutMillis(),
+                EnvironmentVariableConfigReader.getOverloadSummaryIntervalSeconds(),
+                Collections.unmodifiableMap(EnvironmentVariableConfigReader.getSamplingRates()),
+                EnvironmentVariableConfigReader.getThreadKey(),
+                EnvironmentVariableConfigReader.getThreadCacheSize(),
+                EnvironmentVariableConfigReader.getThreadIdleMinutes(),
+                Collections.unmodifiableSet(EnvironmentVariableConfigReader.getLiveCounterEvents()),
+                EnvironmentVariableConfigReader.getLiveCounterWindowMinutes(),
+                EnvironmentVariableConfigReader.getLiveCounterUpdateSeconds(),
+                EnvironmentVariableConfigReader.isAsyncRingBufferEnabled(),
+                EnvironmentVariableConfigReader.getAsyncWaitStrategy()
         );
     }
 
+    public boolean isOutboxEnabled() {
+        return StringUtils.isNotBlank(outboxDir);
+    }
+
+    public boolean isEventSupported(final EventType eventType) {
+        return supportedEvents.contains(eventType);
+    }
+
+    public boolean isAdminEventSupported(final OperationType operationType) {
+        return supportedAdminEvents.contains(operationType);
+    }
+
+    // null when all events of the type are sent
+    public SlackSamplingRate getSamplingRate(final EventType eventType) {
+        return samplingRates.get(eventType);
+    }
+
+    public boolean isThreadingEnabled() {
+        return threadKey != SlackThreadKey.NONE;
+    }
+
+    public boolean isDigestEnabled() {
+        return !digestEvents.isEmpty() || !digestAdminEvents.isEmpty();
+    }
+
+    public boolean isDigestEvent(final EventType eventType) {
+        return digestEvents.contains(eventType);
+    }
+
+    public boolean isDigestAdminEvent(final OperationType operationType) {
+        return digestAdminEvents.contains(operationType);
+    }
+
+    public boolean isLiveCounterEnabled() {
+        return !liveCounterEvents.isEmpty();
+    }
+
+    public boolean isLiveCounterEvent(final EventType eventType) {
+        return liveCounterEvents.contains(eventType);
+    }
+
+    /**
+     * Realm settings, where realm attributes override these from environment variables.
+     */
+    public SlackRealmConfiguration forRealm(final Map<String, String> realmAttributes) {
+        final String realmToken = realmAttributes.get(SlackRealmConfiguration.TOKEN_ATTRIBUTE);
+        final String realmChannel = realmAttributes.get(SlackRealmConfiguration.CHANNEL_ATTRIBUTE);
+        final String realmRoutes = realmAttributes.get(SlackRealmConfiguration.ROUTES_ATTRIBUTE);
+        final String realmEvents = realmAttributes.get(SlackRealmConfiguration.INCLUDE_EVENTS_ATTRIBUTE);
+        final String realmAdminEvents = realmAttributes.get(SlackRealmConfiguration.INCLUDE_ADMIN_EVENTS_ATTRIBUTE);
+        final String realmEventRepresentation = realmAttributes.get(SlackRealmConfiguration.INCLUDE_EVENT_REPRESENTATION_ATTRIBUTE);
+        final String realmAdminEventRepresentation = realmAttributes.get(SlackRealmConfiguration.INCLUDE_ADMIN_EVENT_REPRESENTATION_ATTRIBUTE);
+
+        return SlackRealmConfiguration.of(
+                StringUtils.isBlank(realmToken) ? null : realmToken.trim(),
+                StringUtils.isBlank(realmChannel) && Objects.isNull(realmRoutes)
+                        ? routingTable
+                        : SlackRoutingTable.parse(
+                        Objects.isNull(realmRoutes) ? routingTable.getRoutes() : realmRoutes,
+                        StringUtils.isBlank(realmChannel) ? channel : realmChannel.trim()
+                ),
+                Objects.isNull(realmEvents)
+                        ? supportedEvents
+                        : Collections.unmodifiableSet(withAlwaysSupportedEvents(EnvironmentVariableConfigReader.parseEventSet(realmEvents, EventType.class), digestEvents, liveCounterEvents)),
+                Objects.isNull(realmEventRepresentation)
+                        ? includeEventRepresentationEnabled
+                        : Boolean.parseBoolean(realmEventRepresentation.trim()),
+                Objects.isNull(realmAdminEvents)
+                        ? supportedAdminEvents
+                        : Collections.unmodifiableSet(withAlwaysSupportedEvents(EnvironmentVariableConfigReader.parseEventSet(realmAdminEvents, OperationType.class), digestAdminEvents, Collections.emptySet())),
+                Objects.isNull(realmAdminEventRepresentation)
+                        ? includeAdminEventRepresentationEnabled
+                        : Boolean.parseBoolean(realmAdminEventRepresentation.trim())
+        );
+    }
+
+    // digest and live counter events are always supported, also when realm overrides included events
+    private static <E extends Enum<E>> EnumSet<E> withAlwaysSupportedEvents(
+            final EnumSet<E> events,
+            final Set<E> digestEvents,
+            final Set<E> liveCounterEvents) {
+        events.addAll(digestEvents);
+        events.addAll(liveCounterEvents);
+
+        return events;
+    }
+
     private static final class EnvironmentVariableConfigReader {
 
         private static final boolean DEFAULT_SLACK_INCLUDE_REPRESENTATION = true;
@@ -59,6 +247,21 @@ public class SlackConfiguration {
             return System.getenv(EVN_SLACK_CHANNEL);
         }
 
+        // routing stuff, events not matching any route go to SLACK_CHANNEL
+        private static final String ENV_SLACK_ROUTES = "SLACK_ROUTES";
+
+        public static SlackRoutingTable getRoutingTable() {
+            return SlackRoutingTable.parse(System.getenv(ENV_SLACK_ROUTES), getChannel());
+        }
+
+        // realm configuration stuff
+        private static final String ENV_SLACK_REALM_CONFIG_CACHE_SECONDS = "SLACK_REALM_CONFIG_CACHE_SECONDS";
+        private static final int DEFAULT_SLACK_REALM_CONFIG_CACHE_SECONDS = 60;
+
+        public static int getRealmConfigCacheSeconds() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_REALM_CONFIG_CACHE_SECONDS, DEFAULT_SLACK_REALM_CONFIG_CACHE_SECONDS);
+        }
+
         // user events & error events stuff
         private static final String ENV_SLACK_INCLUDE_EVENTS = "SLACK_INCLUDE_EVENTS";
         private static final String ENV_SLACK_INCLUDE_ALL_EVENTS = "SLACK_INCLUDE_ALL_EVENTS";
@@ -66,48 +269,49 @@ public class SlackConfiguration {
         private static final String ENV_SLACK_INCLUDE_ALL_ERRORS = "SLACK_INCLUDE_ALL_ERRORS";
         private static final String ENV_SLACK_INCLUDE_ALL_ERRORS_EXCEPT = "SLACK_INCLUDE_ALL_ERRORS_EXCEPT";
 
-        private static List<EventType> getSupportedEvents() {
+        private static EnumSet<EventType> getSupportedEvents() {
             final boolean includeAllEvents = Boolean.parseBoolean(System.getenv(ENV_SLACK_INCLUDE_ALL_EVENTS));
             if (includeAllEvents) {
-                return List.of(EventType.values());
+                return EnumSet.allOf(EventType.class);
             }
 
-            return ListUtils.sum(
-                    getAllSupportedEvents(),
-                    getAllSupportedErrors()
-            );
+            final EnumSet<EventType> supportedEvents = getAllSupportedEvents();
+            supportedEvents.addAll(getAllSupportedErrors());
+            supportedEvents.addAll(getDigestEvents());
+            supportedEvents.addAll(getLiveCounterEvents());
+
+            return supportedEvents;
         }
 
-        private static List<EventType> getAllSupportedEvents() {
-            final List<EventType> includeEvents = loadEventListFromEnvVariable(ENV_SLACK_INCLUDE_EVENTS, EventType.class);
-            if (CollectionUtils.isNotEmpty(includeEvents)) {
+        private static EnumSet<EventType> getAllSupportedEvents() {
+            final EnumSet<EventType> includeEvents = loadEventSetFromEnvVariable(ENV_SLACK_INCLUDE_EVENTS, EventType.class);
+            if (!includeEvents.isEmpty()) {
                 return includeEvents;
             }
 
-            final List<EventType> excludedEvents = loadEventListFromEnvVariable(ENV_SLACK_INCLUDE_ALL_EVENTS_EXCEPT, EventType.class);
-            if (CollectionUtils.isNotEmpty(excludedEvents)) {
-                return Stream.of(EventType.values())
-                        .filter(eventType -> !excludedEvents.contains(eventType))
-                        .collect(Collectors.toList());
+            final EnumSet<EventType> excludedEvents = loadEventSetFromEnvVariable(ENV_SLACK_INCLUDE_ALL_EVENTS_EXCEPT, EventType.class);
+            if (!excludedEvents.isEmpty()) {
+                return EnumSet.complementOf(excludedEvents);
             }
 
-            return Collections.emptyList();
+            return EnumSet.noneOf(EventType.class);
         }
 
-        private static List<EventType> getAllSupportedErrors() {
+        private static EnumSet<EventType> getAllSupportedErrors() {
             final boolean includeAllErrors = Boolean.parseBoolean(System.getenv(ENV_SLACK_INCLUDE_ALL_ERRORS));
             if (includeAllErrors) {
                 return getAllErrorEvents();
             }
 
-            final List<EventType> excludedErrors = loadEventListFromEnvVariable(ENV_SLACK_INCLUDE_ALL_ERRORS_EXCEPT, EventType.class);
-            if (CollectionUtils.isNotEmpty(excludedErrors)) {
-                return getAllErrorEvents().stream()
-                        .filter(eventType -> !excludedErrors.contains(eventType))
-                        .collect(Collectors.toList());
+            final EnumSet<EventType> excludedErrors = loadEventSetFromEnvVariable(ENV_SLACK_INCLUDE_ALL_ERRORS_EXCEPT, EventType.class);
+            if (!excludedErrors.isEmpty()) {
+                final EnumSet<EventType> supportedErrors = getAllErrorEvents();
+                supportedErrors.removeAll(excludedErrors);
+
+                return supportedErrors;
             }
 
-            return Collections.emptyList();
+            return EnumSet.noneOf(EventType.class);
         }
 
         private final static String EVN_SLACK_INCLUDE_EVENT_REPRESENTATION = "SLACK_INCLUDE_EVENT_REPRESENTATION";
@@ -124,18 +328,16 @@ public class SlackConfiguration {
         private static final String ENV_SLACK_INCLUDE_ADMIN_EVENTS = "SLACK_INCLUDE_ADMIN_EVENTS";
         private static final String ENV_SLACK_INCLUDE_ALL_ADMIN_EVENTS = "SLACK_INCLUDE_ALL_ADMIN_EVENTS";
 
-        private static List<OperationType> getSupportedAdminEvents() {
+        private static EnumSet<OperationType> getSupportedAdminEvents() {
             final boolean includeAllAdminEvents = Boolean.parseBoolean(System.getenv(ENV_SLACK_INCLUDE_ALL_ADMIN_EVENTS));
             if (includeAllAdminEvents) {
-                return List.of(OperationType.values());
+                return EnumSet.allOf(OperationType.class);
             }
 
-            final List<OperationType> includeAdminEvents = loadEventListFromEnvVariable(ENV_SLACK_INCLUDE_ADMIN_EVENTS, OperationType.class);
-            if (CollectionUtils.isNotEmpty(includeAdminEvents)) {
-                return includeAdminEvents;
-            }
+            final EnumSet<OperationType> supportedAdminEvents = loadEventSetFromEnvVariable(ENV_SLACK_INCLUDE_ADMIN_EVENTS, OperationType.class);
+            supportedAdminEvents.addAll(getDigestAdminEvents());
 
-            return Collections.emptyList();
+            return supportedAdminEvents;
         }
 
         private final static String EVN_SLACK_INCLUDE_ADMIN_EVENT_REPRESENTATION = "SLACK_INCLUDE_ADMIN_EVENT_REPRESENTATION";
@@ -148,15 +350,406 @@ public class SlackConfiguration {
                     : Boolean.parseBoolean(includeAdminEventRepresentation);
         }
 
+        // async delivery stuff
+        private static final String ENV_SLACK_ASYNC_ENABLED = "SLACK_ASYNC_ENABLED";
+        private static final String ENV_SLACK_ASYNC_QUEUE_CAPACITY = "SLACK_ASYNC_QUEUE_CAPACITY";
+        private static final String ENV_SLACK_ASYNC_WORKER_THREADS = "SLACK_ASYNC_WORKER_THREADS";
+        private static final String ENV_SLACK_ASYNC_VIRTUAL_THREADS_ENABLED = "SLACK_ASYNC_VIRTUAL_THREADS_ENABLED";
+        private static final String ENV_SLACK_ASYNC_RING_BUFFER_ENABLED = "SLACK_ASYNC_RING_BUFFER_ENABLED";
+        private static final String ENV_SLACK_ASYNC_WAIT_STRATEGY = "SLACK_ASYNC_WAIT_STRATEGY";
+        private static final int DEFAULT_SLACK_ASYNC_QUEUE_CAPACITY = 10000;
+        private static final int DEFAULT_SLACK_ASYNC_WORKER_THREADS = 2;
+        private static final boolean DEFAULT_SLACK_ASYNC_VIRTUAL_THREADS_ENABLED = true;
+        private static final SlackWaitStrategy DEFAULT_SLACK_ASYNC_WAIT_STRATEGY = SlackWaitStrategy.BLOCKING;
+
+        public static boolean isAsyncEnabled() {
+            return Boolean.parseBoolean(System.getenv(ENV_SLACK_ASYNC_ENABLED));
+        }
+
+        public static int getAsyncQueueCapacity() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_ASYNC_QUEUE_CAPACITY, DEFAULT_SLACK_ASYNC_QUEUE_CAPACITY);
+        }
+
+        public static int getAsyncWorkerThreads() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_ASYNC_WORKER_THREADS, DEFAULT_SLACK_ASYNC_WORKER_THREADS);
+        }
+
+        // only used on Java 21+, older runtimes always use worker threads
+        public static boolean isAsyncVirtualThreadsEnabled() {
+            final String virtualThreadsEnabled = System.getenv(ENV_SLACK_ASYNC_VIRTUAL_THREADS_ENABLED);
+
+            return Objects.isNull(virtualThreadsEnabled)
+                    ? DEFAULT_SLACK_ASYNC_VIRTUAL_THREADS_ENABLED
+                    : Boolean.parseBoolean(virtualThreadsEnabled);
+        }
+
+        // takes precedence over virtual threads
+        public static boolean isAsyncRingBufferEnabled() {
+            return Boolean.parseBoolean(System.getenv(ENV_SLACK_ASYNC_RING_BUFFER_ENABLED));
+        }
+
+        public static SlackWaitStrategy getAsyncWaitStrategy() {
+            return loadEnumFromEnvVariable(ENV_SLACK_ASYNC_WAIT_STRATEGY, DEFAULT_SLACK_ASYNC_WAIT_STRATEGY);
+        }
+
+        // batching stuff
+        private static final String ENV_SLACK_BATCH_ENABLED = "SLACK_BATCH_ENABLED";
+        private static final String ENV_SLACK_BATCH_WINDOW_MILLIS = "SLACK_BATCH_WINDOW_MILLIS";
+        private static final String ENV_SLACK_BATCH_MAX_EVENTS = "SLACK_BATCH_MAX_EVENTS";
+        private static final int DEFAULT_SLACK_BATCH_WINDOW_MILLIS = 5000;
+        private static final int DEFAULT_SLACK_BATCH_MAX_EVENTS = 50;
+        private static final int MAX_SLACK_BATCH_MAX_EVENTS = 200;
+
+        public static boolean isBatchEnabled() {
+            return Boolean.parseBoolean(System.getenv(ENV_SLACK_BATCH_ENABLED));
+        }
+
+        public static int getBatchWindowMillis() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_BATCH_WINDOW_MILLIS, DEFAULT_SLACK_BATCH_WINDOW_MILLIS);
+        }
+
+        public static int getBatchMaxEvents() {
+            return Math.min(
+                    loadPositiveIntFromEnvVariable(ENV_SLACK_BATCH_MAX_EVENTS, DEFAULT_SLACK_BATCH_MAX_EVENTS),
+                    MAX_SLACK_BATCH_MAX_EVENTS
+            );
+        }
+
+        // rate limiting stuff
+        private static final String ENV_SLACK_RATE_LIMIT_MESSAGES_PER_MINUTE = "SLACK_RATE_LIMIT_MESSAGES_PER_MINUTE";
+        private static final String ENV_SLACK_RATE_LIMIT_BURST = "SLACK_RATE_LIMIT_BURST";
+        private static final String ENV_SLACK_CHANNEL_QUEUE_CAPACITY = "SLACK_CHANNEL_QUEUE_CAPACITY";
+        private static final int DEFAULT_SLACK_RATE_LIMIT_MESSAGES_PER_MINUTE = 60;
+        private static final int DEFAULT_SLACK_RATE_LIMIT_BURST = 3;
+        private static final int DEFAULT_SLACK_CHANNEL_QUEUE_CAPACITY = 1000;
+
+        public static int getRateLimitMessagesPerMinute() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_RATE_LIMIT_MESSAGES_PER_MINUTE, DEFAULT_SLACK_RATE_LIMIT_MESSAGES_PER_MINUTE);
+        }
+
+        public static int getRateLimitBurst() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_RATE_LIMIT_BURST, DEFAULT_SLACK_RATE_LIMIT_BURST);
+        }
+
+        public static int getChannelQueueCapacity() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_CHANNEL_QUEUE_CAPACITY, DEFAULT_SLACK_CHANNEL_QUEUE_CAPACITY);
+        }
+
+        // http client stuff
+        private static final String ENV_SLACK_HTTP_CONNECT_TIMEOUT_MILLIS = "SLACK_HTTP_CONNECT_TIMEOUT_MILLIS";
+        private static final String ENV_SLACK_HTTP_READ_TIMEOUT_MILLIS = "SLACK_HTTP_READ_TIMEOUT_MILLIS";
+        private static final String ENV_SLACK_HTTP_MAX_IDLE_CONNECTIONS = "SLACK_HTTP_MAX_IDLE_CONNECTIONS";
+        private static final String ENV_SLACK_HTTP_KEEP_ALIVE_SECONDS = "SLACK_HTTP_KEEP_ALIVE_SECONDS";
+        private static final int DEFAULT_SLACK_HTTP_CONNECT_TIMEOUT_MILLIS = 5000;
+        private static final int DEFAULT_SLACK_HTTP_READ_TIMEOUT_MILLIS = 10000;
+        private static final int DEFAULT_SLACK_HTTP_MAX_IDLE_CONNECTIONS = 5;
+        private static final int DEFAULT_SLACK_HTTP_KEEP_ALIVE_SECONDS = 300;
+
+        public static int getHttpConnectTimeoutMillis() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_HTTP_CONNECT_TIMEOUT_MILLIS, DEFAULT_SLACK_HTTP_CONNECT_TIMEOUT_MILLIS);
+        }
+
+        public static int getHttpReadTimeoutMillis() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_HTTP_READ_TIMEOUT_MILLIS, DEFAULT_SLACK_HTTP_READ_TIMEOUT_MILLIS);
+        }
+
+        public static int getHttpMaxIdleConnections() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_HTTP_MAX_IDLE_CONNECTIONS, DEFAULT_SLACK_HTTP_MAX_IDLE_CONNECTIONS);
+        }
+
+        public static int getHttpKeepAliveSeconds() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_HTTP_KEEP_ALIVE_SECONDS, DEFAULT_SLACK_HTTP_KEEP_ALIVE_SECONDS);
+        }
+
+        // e.g. local fake Slack server for load tests
+        private static final String ENV_SLACK_API_URL = "SLACK_API_URL";
+
+        public static String getApiUrl() {
+            return StringUtils.trimToNull(System.getenv(ENV_SLACK_API_URL));
+        }
+
+        // outbox stuff
+        private static final String ENV_SLACK_OUTBOX_DIR = "SLACK_OUTBOX_DIR";
+        private static final String ENV_SLACK_OUTBOX_SEGMENT_SIZE_MB = "SLACK_OUTBOX_SEGMENT_SIZE_MB";
+        private static final String ENV_SLACK_OUTBOX_FSYNC_INTERVAL_MILLIS = "SLACK_OUTBOX_FSYNC_INTERVAL_MILLIS";
+        private static final int DEFAULT_SLACK_OUTBOX_SEGMENT_SIZE_MB = 16;
+        private static final int DEFAULT_SLACK_OUTBOX_FSYNC_INTERVAL_MILLIS = 100;
+
+        public static String getOutboxDir() {
+            return StringUtils.trimToNull(System.getenv(ENV_SLACK_OUTBOX_DIR));
+        }
+
+        public static int getOutboxSegmentSizeMb() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_OUTBOX_SEGMENT_SIZE_MB, DEFAULT_SLACK_OUTBOX_SEGMENT_SIZE_MB);
+        }
+
+        public static int getOutboxFsyncIntervalMillis() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_OUTBOX_FSYNC_INTERVAL_MILLIS, DEFAULT_SLACK_OUTBOX_FSYNC_INTERVAL_MILLIS);
+        }
+
+        // retry stuff
+        private static final String ENV_SLACK_RETRY_MAX_ATTEMPTS = "SLACK_RETRY_MAX_ATTEMPTS";
+        private static final String ENV_SLACK_RETRY_INITIAL_BACKOFF_MILLIS = "SLACK_RETRY_INITIAL_BACKOFF_MILLIS";
+        private static final String ENV_SLACK_RETRY_MAX_BACKOFF_MILLIS = "SLACK_RETRY_MAX_BACKOFF_MILLIS";
+        private static final String ENV_SLACK_DEAD_LETTER_CAPACITY = "SLACK_DEAD_LETTER_CAPACITY";
+        private static final int DEFAULT_SLACK_RETRY_MAX_ATTEMPTS = 5;
+        private static final int DEFAULT_SLACK_RETRY_INITIAL_BACKOFF_MILLIS = 1000;
+        private static final int DEFAULT_SLACK_RETRY_MAX_BACKOFF_MILLIS = 60000;
+        private static final int DEFAULT_SLACK_DEAD_LETTER_CAPACITY = 100;
+
+        public static int getRetryMaxAttempts() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_RETRY_MAX_ATTEMPTS, DEFAULT_SLACK_RETRY_MAX_ATTEMPTS);
+        }
+
+        public static int getRetryInitialBackoffMillis() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_RETRY_INITIAL_BACKOFF_MILLIS, DEFAULT_SLACK_RETRY_INITIAL_BACKOFF_MILLIS);
+        }
+
+        public static int getRetryMaxBackoffMillis() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_RETRY_MAX_BACKOFF_MILLIS, DEFAULT_SLACK_RETRY_MAX_BACKOFF_MILLIS);
+        }
+
+        public static int getDeadLetterCapacity() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_DEAD_LETTER_CAPACITY, DEFAULT_SLACK_DEAD_LETTER_CAPACITY);
+        }
+
+        // storm suppression stuff
+        private static final String ENV_SLACK_SUPPRESSION_ENABLED = "SLACK_SUPPRESSION_ENABLED";
+        private static final String ENV_SLACK_SUPPRESSION_KEY_FIELDS = "SLACK_SUPPRESSION_KEY_FIELDS";
+        private static final String ENV_SLACK_SUPPRESSION_WINDOW_SECONDS = "SLACK_SUPPRESSION_WINDOW_SECONDS";
+        private static final String ENV_SLACK_SUPPRESSION_MAX_KEYS = "SLACK_SUPPRESSION_MAX_KEYS";
+        private static final int DEFAULT_SLACK_SUPPRESSION_WINDOW_SECONDS = 60;
+        private static final int DEFAULT_SLACK_SUPPRESSION_MAX_KEYS = 10000;
+
+        public static boolean isSuppressionEnabled() {
+            return Boolean.parseBoolean(System.getenv(ENV_SLACK_SUPPRESSION_ENABLED));
+        }
+
+        private static EnumSet<SlackSuppressionKeyField> getSuppressionKeyFields() {
+            final EnumSet<SlackSuppressionKeyField> keyFields = loadEventSetFromEnvVariable(ENV_SLACK_SUPPRESSION_KEY_FIELDS, SlackSuppressionKeyField.class);
+
+            return keyFields.isEmpty() ? EnumSet.allOf(SlackSuppressionKeyField.class) : keyFields;
+        }
+
+        public static int getSuppressionWindowSeconds() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_SUPPRESSION_WINDOW_SECONDS, DEFAULT_SLACK_SUPPRESSION_WINDOW_SECONDS);
+        }
+
+        public static int getSuppressionMaxKeys() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_SUPPRESSION_MAX_KEYS, DEFAULT_SLACK_SUPPRESSION_MAX_KEYS);
+        }
+
+        // digest stuff, digest events are always supported
+        private static final String ENV_SLACK_DIGEST_EVENTS = "SLACK_DIGEST_EVENTS";
+        private static final String ENV_SLACK_DIGEST_ADMIN_EVENTS = "SLACK_DIGEST_ADMIN_EVENTS";
+        private static final String ENV_SLACK_DIGEST_INTERVAL_MINUTES = "SLACK_DIGEST_INTERVAL_MINUTES";
+        private static final int DEFAULT_SLACK_DIGEST_INTERVAL_MINUTES = 15;
+
+        private static EnumSet<EventType> getDigestEvents() {
+            return loadEventSetFromEnvVariable(ENV_SLACK_DIGEST_EVENTS, EventType.class);
+        }
+
+        private static EnumSet<OperationType> getDigestAdminEvents() {
+            return loadEventSetFromEnvVariable(ENV_SLACK_DIGEST_ADMIN_EVENTS, OperationType.class);
+        }
+
+        public static int getDigestIntervalMinutes() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_DIGEST_INTERVAL_MINUTES, DEFAULT_SLACK_DIGEST_INTERVAL_MINUTES);
+        }
+
+        // metrics stuff
+        private static final String ENV_SLACK_METRICS_ENABLED = "SLACK_METRICS_ENABLED";
+        private static final boolean DEFAULT_SLACK_METRICS_ENABLED = true;
+
+        public static boolean isMetricsEnabled() {
+            final String metricsEnabled = System.getenv(ENV_SLACK_METRICS_ENABLED);
+
+            return Objects.isNull(metricsEnabled)
+                    ? DEFAULT_SLACK_METRICS_ENABLED
+                    : Boolean.parseBoolean(metricsEnabled);
+        }
+
+        // cluster stuff
+        private static final String ENV_SLACK_CLUSTER_ENABLED = "SLACK_CLUSTER_ENABLED";
+
+        public static boolean isClusterEnabled() {
+            return Boolean.parseBoolean(System.getenv(ENV_SLACK_CLUSTER_ENABLED));
+        }
+
+        // transport stuff
+        private static final String ENV_SLACK_TRANSPORT = "SLACK_TRANSPORT";
+        private static final String ENV_SLACK_WEBHOOK_URL = "SLACK_WEBHOOK_URL";
+        private static final String ENV_SLACK_WEBHOOK_URLS = "SLACK_WEBHOOK_URLS";
+        private static final String ENV_SLACK_FILE_PATH = "SLACK_FILE_PATH";
+        private static final SlackTransportType DEFAULT_SLACK_TRANSPORT = SlackTransportType.WEB_API;
+        private static final String DEFAULT_SLACK_FILE_PATH = "slack-messages.jsonl";
+        private static final String WEBHOOK_SEPARATOR = ";";
+        private static final String WEBHOOK_CHANNEL_SEPARATOR = "=";
+
+        public static SlackTransportType getTransport() {
+            return loadEnumFromEnvVariable(ENV_SLACK_TRANSPORT, DEFAULT_SLACK_TRANSPORT);
+        }
+
+        public static String getWebhookUrl() {
+            return StringUtils.trimToNull(System.getenv(ENV_SLACK_WEBHOOK_URL));
+        }
+
+        // e.g. #alerts=https://hooks.slack.com/services/...;#audit=https://hooks.slack.com/services/...
+        public static Map<String, String> getWebhookUrls() {
+            final Map<String, String> webhookUrls = new HashMap<>();
+
+            for (String webhook : StringUtils.split(StringUtils.defaultString(System.getenv(ENV_SLACK_WEBHOOK_URLS)), WEBHOOK_SEPARATOR)) {
+                final String[] channelAndUrl = StringUtils.split(webhook, WEBHOOK_CHANNEL_SEPARATOR, 2);
+                if (channelAndUrl.length != 2 || StringUtils.isBlank(channelAndUrl[0]) || StringUtils.isBlank(channelAndUrl[1])) {
+                    log.warn("Not recognized webhook in Slack configuration [{}], expected channel=url", webhook);
+                    continue;
+                }
+                webhookUrls.put(channelAndUrl[0].trim(), channelAndUrl[1].trim());
+            }
+
+            return webhookUrls;
+        }
+
+        public static String getFilePath() {
+            return StringUtils.defaultIfBlank(System.getenv(ENV_SLACK_FILE_PATH), DEFAULT_SLACK_FILE_PATH).trim();
+        }
+
+        // overload stuff
+        private static final String ENV_SLACK_OVERLOAD_POLICY = "SLACK_OVERLOAD_POLICY";
+        private static final String ENV_SLACK_OVERLOAD_BLOCK_TIMEOUT_MILLIS = "SLACK_OVERLOAD_BLOCK_TIMEOUT_MILLIS";
+        private static final String ENV_SLACK_OVERLOAD_SUMMARY_INTERVAL_SECONDS = "SLACK_OVERLOAD_SUMMARY_INTERVAL_SECONDS";
+        private static final SlackOverloadPolicy DEFAULT_SLACK_OVERLOAD_POLICY = SlackOverloadPolicy.DROP_NEWEST;
+        private static final int DEFAULT_SLACK_OVERLOAD_BLOCK_TIMEOUT_MILLIS = 500;
+        private static final int DEFAULT_SLACK_OVERLOAD_SUMMARY_INTERVAL_SECONDS = 30;
+
+        public static SlackOverloadPolicy getOverloadPolicy() {
+            return loadEnumFromEnvVariable(ENV_SLACK_OVERLOAD_POLICY, DEFAULT_SLACK_OVERLOAD_POLICY);
+        }
+
+        public static int getOverloadBlockTimeoutMillis() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_OVERLOAD_BLOCK_TIMEOUT_MILLIS, DEFAULT_SLACK_OVERLOAD_BLOCK_TIMEOUT_MILLIS);
+        }
+
+        public static int getOverloadSummaryIntervalSeconds() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_OVERLOAD_SUMMARY_INTERVAL_SECONDS, DEFAULT_SLACK_OVERLOAD_SUMMARY_INTERVAL_SECONDS);
+        }
+
+        // sampling stuff
+        private static final String ENV_SLACK_SAMPLING = "SLACK_SAMPLING";
+        private static final String SAMPLING_SEPARATOR = ";";
+        private static final String SAMPLING_RATE_SEPARATOR = "=";
+        private static final String ERROR_EVENT_SUFFIX = "_ERROR";
+
+        // e.g. LOGIN=1/100; REFRESH_TOKEN=10/min
+        public static Map<EventType, SlackSamplingRate> getSamplingRates() {
+            final Map<EventType, SlackSamplingRate> samplingRates = new EnumMap<>(EventType.class);
+
+            for (String sampling : StringUtils.split(StringUtils.defaultString(System.getenv(ENV_SLACK_SAMPLING)), SAMPLING_SEPARATOR)) {
+                if (StringUtils.isBlank(sampling)) {
+                    continue;
+                }
+                final String[] typeAndRate = StringUtils.split(sampling, SAMPLING_RATE_SEPARATOR, 2);
+                try {
+                    if (typeAndRate.length != 2) {
+                        throw new IllegalArgumentException("expected type=rate");
+                    }
+                    final EventType eventType = EventType.valueOf(typeAndRate[0].trim().toUpperCase(Locale.ROOT));
+                    if (eventType.name().endsWith(ERROR_EVENT_SUFFIX)) {
+                        throw new IllegalArgumentException("errors are never sampled");
+                    }
+                    samplingRates.put(eventType, SlackSamplingRate.parse(typeAndRate[1]));
+                } catch (IllegalArgumentException e) {
+                    log.warn("Not recognized sampling in Slack configuration [{}]: {}", sampling, e.getMessage());
+                }
+            }
+
+            return samplingRates;
+        }
+
+        // threads stuff
+        private static final String ENV_SLACK_THREAD_KEY = "SLACK_THREAD_KEY";
+        private static final String ENV_SLACK_THREAD_CACHE_SIZE = "SLACK_THREAD_CACHE_SIZE";
+        private static final String ENV_SLACK_THREAD_IDLE_MINUTES = "SLACK_THREAD_IDLE_MINUTES";
+        private static final SlackThreadKey DEFAULT_SLACK_THREAD_KEY = SlackThreadKey.NONE;
+        private static final int DEFAULT_SLACK_THREAD_CACHE_SIZE = 10000;
+        private static final int DEFAULT_SLACK_THREAD_IDLE_MINUTES = 60;
+
+        public static SlackThreadKey getThreadKey() {
+            return loadEnumFromEnvVariable(ENV_SLACK_THREAD_KEY, DEFAULT_SLACK_THREAD_KEY);
+        }
+
+        public static int getThreadCacheSize() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_THREAD_CACHE_SIZE, DEFAULT_SLACK_THREAD_CACHE_SIZE);
+        }
+
+        public static int getThreadIdleMinutes() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_THREAD_IDLE_MINUTES, DEFAULT_SLACK_THREAD_IDLE_MINUTES);
+        }
+
+        // live counter stuff, live counter events are always supported
+        private static final String ENV_SLACK_LIVE_COUNTER_EVENTS = "SLACK_LIVE_COUNTER_EVENTS";
+        private static final String ENV_SLACK_LIVE_COUNTER_WINDOW_MINUTES = "SLACK_LIVE_COUNTER_WINDOW_MINUTES";
+        private static final String ENV_SLACK_LIVE_COUNTER_UPDATE_SECONDS = "SLACK_LIVE_COUNTER_UPDATE_SECONDS";
+        private static final int DEFAULT_SLACK_LIVE_COUNTER_WINDOW_MINUTES = 60;
+        private static final int DEFAULT_SLACK_LIVE_COUNTER_UPDATE_SECONDS = 10;
+
+        private static EnumSet<EventType> getLiveCounterEvents() {
+            return loadEventSetFromEnvVariable(ENV_SLACK_LIVE_COUNTER_EVENTS, EventType.class);
+        }
+
+        public static int getLiveCounterWindowMinutes() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_LIVE_COUNTER_WINDOW_MINUTES, DEFAULT_SLACK_LIVE_COUNTER_WINDOW_MINUTES);
+        }
+
+        public static int getLiveCounterUpdateSeconds() {
+            return loadPositiveIntFromEnvVariable(ENV_SLACK_LIVE_COUNTER_UPDATE_SECONDS, DEFAULT_SLACK_LIVE_COUNTER_UPDATE_SECONDS);
+        }
+
         // helper methods
-        private static <E extends Enum<E>> List<E> loadEventListFromEnvVariable(final String envVariableName, Class<E> eventClass) {
+        private static <E extends Enum<E>> E loadEnumFromEnvVariable(final String envVariableName, final E defaultValue) {
+            final String value = StringUtils.deleteWhitespace(System.getenv(envVariableName));
+            if (StringUtils.isEmpty(value)) {
+                return defaultValue;
+            }
+
+            try {
+                return Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid value of {} in Slack configuration [{}], using default [{}]", envVariableName, value, defaultValue);
+                return defaultValue;
+            }
+        }
+
+        private static int loadPositiveIntFromEnvVariable(final String envVariableName, final int defaultValue) {
+            final String value = StringUtils.deleteWhitespace(System.getenv(envVariableName));
+            if (StringUtils.isEmpty(value)) {
+                return defaultValue;
+            }
+
+            try {
+                final int intValue = Integer.parseInt(value);
+                if (intValue > 0) {
+                    return intValue;
+                }
+            } catch (NumberFormatException ignored) {
+            }
+            log.warn("Invalid value of {} in Slack configuration [{}], using default [{}]", envVariableName, value, defaultValue);
+
+            return defaultValue;
+        }
+
+        private static <E extends Enum<E>> EnumSet<E> loadEventSetFromEnvVariable(final String envVariableName, Class<E> eventClass) {
+            return parseEventSet(System.getenv(envVariableName), eventClass);
+        }
+
+        private static <E extends Enum<E>> EnumSet<E> parseEventSet(final String value, Class<E> eventClass) {
             final String[] array = StringUtils.split(
-                    System.getenv(envVariableName),
+                    value,
                     EVENT_LIST_SEPARATOR
             );
 
             return ArrayUtils.isEmpty(array)
-                    ? Collections.emptyList()
+                    ? EnumSet.noneOf(eventClass)
                     : Stream.of(array)
                     .map(enumValue -> {
                         try {
@@ -166,13 +759,13 @@ public class SlackConfiguration {
                         }
                         return null;
                     }).filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+                    .collect(Collectors.toCollection(() -> EnumSet.noneOf(eventClass)));
         }
 
-        private static List<EventType> getAllErrorEvents() {
+        private static EnumSet<EventType> getAllErrorEvents() {
             return Stream.of(EventType.values())
                     .filter(eventType -> eventType.name().contains("_ERROR"))
-                    .collect(Collectors.toList());
+                    .collect(Collectors.toCollection(() -> EnumSet.noneOf(EventType.class)));
         }
     }
 }
@@ -0,0 +1,8 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+public enum SlackOverloadPolicy {
+    DROP_NEWEST,
+    DROP_OLDEST,
+    BLOCK,
+    SHED_INFO
+}
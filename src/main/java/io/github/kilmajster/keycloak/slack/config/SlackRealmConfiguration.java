@@ -0,0 +1,41 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.OperationType;
+
+import java.util.Set;
+
+/**
+ * Settings which can be overridden per realm with realm attributes, compiled once per realm.
+ */
+@Value
+@AllArgsConstructor(staticName = "of", access = AccessLevel.PACKAGE)
+public class SlackRealmConfiguration {
+
+    public static final String TOKEN_ATTRIBUTE = "slack.token";
+    public static final String CHANNEL_ATTRIBUTE = "slack.channel";
+    public static final String ROUTES_ATTRIBUTE = "slack.routes";
+    public static final String INCLUDE_EVENTS_ATTRIBUTE = "slack.includeEvents";
+    public static final String INCLUDE_ADMIN_EVENTS_ATTRIBUTE = "slack.includeAdminEvents";
+    public static final String INCLUDE_EVENT_REPRESENTATION_ATTRIBUTE = "slack.includeEventRepresentation";
+    public static final String INCLUDE_ADMIN_EVENT_REPRESENTATION_ATTRIBUTE = "slack.includeAdminEventRepresentation";
+
+    // null when realm uses token of the listener
+    String token;
+    SlackRoutingTable routingTable;
+    Set<EventType> supportedEvents;
+    boolean includeEventRepresentationEnabled;
+    Set<OperationType> supportedAdminEvents;
+    boolean includeAdminEventRepresentationEnabled;
+
+    public boolean isEventSupported(final EventType eventType) {
+        return supportedEvents.contains(eventType);
+    }
+
+    public boolean isAdminEventSupported(final OperationType operationType) {
+        return supportedAdminEvents.contains(operationType);
+    }
+}
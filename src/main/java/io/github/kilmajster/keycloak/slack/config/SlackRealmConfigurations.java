@@ -0,0 +1,115 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.utils.KeycloakModelUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compiled configuration per realm, so realm attributes are only read when realm is seen for the first time
+ * or when it was updated. Realm updates done on other cluster nodes aren't seen here, so entries are also
+ * periodically expired after {@code SLACK_REALM_CONFIG_CACHE_SECONDS}, outside of event processing.
+ */
+@Slf4j
+public class SlackRealmConfigurations {
+
+    private final SlackConfiguration slackConfiguration;
+    private final SlackRealmConfiguration defaultRealmConfiguration;
+    private final long maxAgeNanos;
+    private final Map<String, Entry> realmConfigurations = new ConcurrentHashMap<>();
+    // realm name to id, so queued messages can refer to realm token by name
+    private final Map<String, String> realmIds = new ConcurrentHashMap<>();
+
+    public SlackRealmConfigurations(final SlackConfiguration slackConfiguration) {
+        this.slackConfiguration = slackConfiguration;
+        this.defaultRealmConfiguration = slackConfiguration.forRealm(Map.of());
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(slackConfiguration.getRealmConfigCacheSeconds());
+    }
+
+    public SlackRealmConfiguration get(final String realmId, final KeycloakSession session) {
+        if (realmId == null) {
+            return defaultRealmConfiguration;
+        }
+
+        final Entry entry = realmConfigurations.get(realmId);
+        if (entry != null) {
+            return entry.realmConfiguration;
+        }
+
+        final Entry loaded = new Entry(load(realmId, session), System.nanoTime());
+        realmConfigurations.put(realmId, loaded);
+
+        return loaded.realmConfiguration;
+    }
+
+    /**
+     * Token of the realm for a message being posted, read from realm attributes again when its configuration
+     * is no longer cached, e.g. for messages recovered from outbox.
+     *
+     * @return null when realm uses token of the listener or doesn't exist anymore
+     */
+    public String getToken(final String realmName, final KeycloakSessionFactory sessionFactory) {
+        final String realmId = realmIds.get(realmName);
+        final Entry entry = realmId != null ? realmConfigurations.get(realmId) : null;
+        if (entry != null) {
+            return entry.realmConfiguration.getToken();
+        }
+
+        final AtomicReference<String> token = new AtomicReference<>();
+        KeycloakModelUtils.runJobInTransaction(sessionFactory, session -> {
+            final RealmModel realm = session.realms().getRealmByName(realmName);
+            if (realm != null) {
+                token.set(get(realm.getId(), session).getToken());
+            }
+        });
+
+        return token.get();
+    }
+
+    public void expire() {
+        final long nowNanos = System.nanoTime();
+        realmConfigurations.values().removeIf(entry -> nowNanos - entry.loadedAtNanos >= maxAgeNanos);
+    }
+
+    public long getMaxAgeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(maxAgeNanos);
+    }
+
+    public void invalidate(final String realmId) {
+        if (realmId != null) {
+            realmConfigurations.remove(realmId);
+        }
+    }
+
+    int size() {
+        return realmConfigurations.size();
+    }
+
+    private SlackRealmConfiguration load(final String realmId, final KeycloakSession session) {
+        final RealmModel realm = session.realms().getRealm(realmId);
+        if (realm == null) {
+            return defaultRealmConfiguration;
+        }
+        log.debug("Loading Slack configuration of realm {}", realm.getName());
+        realmIds.put(realm.getName(), realmId);
+
+        return slackConfiguration.forRealm(realm.getAttributes());
+    }
+
+    private static final class Entry {
+
+        private final SlackRealmConfiguration realmConfiguration;
+        private final long loadedAtNanos;
+
+        private Entry(final SlackRealmConfiguration realmConfiguration, final long loadedAtNanos) {
+            this.realmConfiguration = realmConfiguration;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.OperationType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Channel of an event, chosen by the first matching route, e.g.
+ * {@code type:LOGIN_ERROR,UPDATE_PASSWORD_ERROR=#sec-alerts; operation:DELETE&resource:USER=#iam-audit}.
+ * Events not matching any route go to the default channel.
+ * <p>
+ * Routes are compiled into one bit mask of matching routes per value of each field, so lookup costs
+ * a few map and array reads no matter how many routes there are: masks of event fields are and-ed,
+ * and the lowest bit left is the first matching route.
+ */
+@Slf4j
+public final class SlackRoutingTable {
+
+    // one bit per route in a long mask
+    static final int MAX_ROUTES = Long.SIZE;
+
+    private static final String ROUTE_SEPARATOR = ";";
+    private static final String CHANNEL_SEPARATOR = "=";
+    private static final String CONDITION_SEPARATOR = "&";
+    private static final String FIELD_SEPARATOR = ":";
+    private static final String VALUE_SEPARATOR = ",";
+
+    enum Field {
+        TYPE,
+        OPERATION,
+        REALM,
+        CLIENT,
+        RESOURCE
+    }
+
+    @Getter
+    private final String routes;
+    @Getter
+    private final String defaultChannel;
+    private final String[] channels;
+    private final long[] eventTypeMasks = new long[EventType.values().length];
+    private final long[] operationTypeMasks = new long[OperationType.values().length];
+    private final List<Map<String, Long>> valueMasks = new ArrayList<>(Field.values().length);
+    // routes matching event which has no value of a field, i.e. routes without condition on the field
+    private final long[] unconditionalMasks = new long[Field.values().length];
+
+    private SlackRoutingTable(final String source, final String defaultChannel, final List<Route> routes) {
+        this.routes = source;
+        this.defaultChannel = defaultChannel;
+        this.channels = new String[routes.size()];
+
+        for (Field field : Field.values()) {
+            long unconditional = 0;
+            for (int i = 0; i < routes.size(); i++) {
+                if (!routes.get(i).conditions.containsKey(field)) {
+                    unconditional |= 1L << i;
+                }
+            }
+            unconditionalMasks[field.ordinal()] = unconditional;
+            valueMasks.add(new HashMap<>());
+        }
+        Arrays.fill(eventTypeMasks, unconditionalMasks[Field.TYPE.ordinal()]);
+        Arrays.fill(operationTypeMasks, unconditionalMasks[Field.OPERATION.ordinal()]);
+
+        for (int i = 0; i < routes.size(); i++) {
+            final Route route = routes.get(i);
+            final long routeBit = 1L << i;
+            channels[i] = route.channel;
+
+            route.conditions.forEach((field, values) -> {
+                for (String value : values) {
+                    if (field == Field.TYPE) {
+                        eventTypeMasks[EventType.valueOf(value).ordinal()] |= routeBit;
+                    } else if (field == Field.OPERATION) {
+                        operationTypeMasks[OperationType.valueOf(value).ordinal()] |= routeBit;
+                    } else {
+                        valueMasks.get(field.ordinal()).merge(value, unconditionalMasks[field.ordinal()] | routeBit, (first, second) -> first | second);
+                    }
+                }
+            });
+        }
+    }
+
+    public static SlackRoutingTable parse(final String routes, final String defaultChannel) {
+        final List<Route> parsedRoutes = new ArrayList<>();
+
+        for (String route : StringUtils.split(StringUtils.defaultString(routes), ROUTE_SEPARATOR)) {
+            if (StringUtils.isBlank(route)) {
+                continue;
+            }
+            if (parsedRoutes.size() == MAX_ROUTES) {
+                log.warn("Too many routes in Slack configuration, max is {}, ignoring [{}]", MAX_ROUTES, route);
+                continue;
+            }
+            try {
+                parsedRoutes.add(Route.parse(route));
+            } catch (IllegalArgumentException e) {
+                log.warn("Not recognized route in Slack configuration [{}]: {}", route, e.getMessage());
+            }
+        }
+
+        return new SlackRoutingTable(routes, defaultChannel, parsedRoutes);
+    }
+
+    public String channelOf(
+            final EventType eventType,
+            final OperationType operationType,
+            final String realmName,
+            final String clientId,
+            final String resourceType) {
+        if (channels.length == 0) {
+            return defaultChannel;
+        }
+
+        final long matchingRoutes = (eventType == null ? unconditionalMasks[Field.TYPE.ordinal()] : eventTypeMasks[eventType.ordinal()])
+                & (operationType == null ? unconditionalMasks[Field.OPERATION.ordinal()] : operationTypeMasks[operationType.ordinal()])
+                & valueMask(Field.REALM, realmName)
+                & valueMask(Field.CLIENT, clientId)
+                & valueMask(Field.RESOURCE, resourceType);
+
+        return matchingRoutes == 0
+                ? defaultChannel
+                : channels[Long.numberOfTrailingZeros(matchingRoutes)];
+    }
+
+    public int getRoutesCount() {
+        return channels.length;
+    }
+
+    private long valueMask(final Field field, final String value) {
+        final Long mask = value == null ? null : valueMasks.get(field.ordinal()).get(value);
+
+        return mask == null ? unconditionalMasks[field.ordinal()] : mask;
+    }
+
+    private static final class Route {
+
+        private final Map<Field, List<String>> conditions = new EnumMap<>(Field.class);
+        private final String channel;
+
+        private Route(final String channel) {
+            this.channel = channel;
+        }
+
+        static Route parse(final String route) {
+            final String[] conditionsAndChannel = StringUtils.split(route, CHANNEL_SEPARATOR);
+            if (conditionsAndChannel.length != 2 || StringUtils.isBlank(conditionsAndChannel[1])) {
+                throw new IllegalArgumentException("expected conditions=channel");
+            }
+
+            final Route parsed = new Route(conditionsAndChannel[1].trim());
+
+            for (String condition : StringUtils.split(conditionsAndChannel[0], CONDITION_SEPARATOR)) {
+                final String[] fieldAndValues = StringUtils.split(condition, FIELD_SEPARATOR, 2);
+                if (fieldAndValues.length != 2) {
+                    throw new IllegalArgumentException("expected field:values in [" + condition.trim() + "]");
+                }
+
+                final Field field = Field.valueOf(fieldAndValues[0].trim().toUpperCase(Locale.ROOT));
+                final List<String> values = new ArrayList<>();
+                for (String value : StringUtils.split(fieldAndValues[1], VALUE_SEPARATOR)) {
+                    values.add(field == Field.TYPE || field == Field.OPERATION
+                            ? enumValue(field, value.trim())
+                            : value.trim());
+                }
+                parsed.conditions.put(field, values);
+            }
+
+            if (parsed.conditions.isEmpty()) {
+                throw new IllegalArgumentException("route has no conditions");
+            }
+
+            return parsed;
+        }
+
+        // validated while parsing, so compiled table never fails on unknown type
+        private static String enumValue(final Field field, final String value) {
+            return field == Field.TYPE
+                    ? EventType.valueOf(value).name()
+                    : OperationType.valueOf(value).name();
+        }
+    }
+}
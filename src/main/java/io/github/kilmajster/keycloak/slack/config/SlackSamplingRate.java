@@ -0,0 +1,63 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Share of events of a type sent to Slack, either every n-th event, e.g. {@code 1/100}, or at most
+ * n events per minute in each realm, e.g. {@code 10/min}.
+ */
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class SlackSamplingRate {
+
+    private static final String RATE_SEPARATOR = "/";
+    private static final String PER_MINUTE = "min";
+
+    // 0 when rate is per minute
+    int oneIn;
+    // 0 when every n-th event is sent
+    int perMinute;
+
+    public static SlackSamplingRate oneIn(final int oneIn) {
+        return new SlackSamplingRate(oneIn, 0);
+    }
+
+    public static SlackSamplingRate perMinute(final int perMinute) {
+        return new SlackSamplingRate(0, perMinute);
+    }
+
+    static SlackSamplingRate parse(final String rate) {
+        final String[] countAndPeriod = StringUtils.split(StringUtils.deleteWhitespace(rate), RATE_SEPARATOR);
+        if (countAndPeriod == null || countAndPeriod.length != 2) {
+            throw new IllegalArgumentException("expected 1/n or n/min");
+        }
+
+        try {
+            final int count = Integer.parseInt(countAndPeriod[0]);
+            if (PER_MINUTE.equalsIgnoreCase(countAndPeriod[1]) && count > 0) {
+                return perMinute(count);
+            }
+            final int oneIn = Integer.parseInt(countAndPeriod[1]);
+            if (count == 1 && oneIn > 0) {
+                return oneIn(oneIn);
+            }
+        } catch (NumberFormatException ignored) {
+        }
+
+        throw new IllegalArgumentException("expected 1/n or n/min");
+    }
+
+    public boolean isPerMinute() {
+        return perMinute > 0;
+    }
+
+    // e.g. "1 in 100", so readers can extrapolate the real volume
+    public String describe() {
+        return isPerMinute()
+                ? "up to " + perMinute + " per minute in realm"
+                : "1 in " + oneIn;
+    }
+}
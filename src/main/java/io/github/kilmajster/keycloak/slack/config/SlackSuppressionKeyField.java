@@ -0,0 +1,9 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+public enum SlackSuppressionKeyField {
+    TYPE,
+    REALM,
+    CLIENT,
+    ERROR,
+    IP_ADDRESS
+}
@@ -0,0 +1,9 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+public enum SlackThreadKey {
+    NONE,
+    USER,
+    SESSION,
+    IP_ADDRESS,
+    RESOURCE_PATH
+}
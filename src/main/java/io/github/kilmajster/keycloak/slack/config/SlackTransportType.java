@@ -0,0 +1,7 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+public enum SlackTransportType {
+    WEB_API,
+    WEBHOOK,
+    FILE
+}
@@ -0,0 +1,8 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+public enum SlackWaitStrategy {
+    BUSY_SPIN,
+    YIELDING,
+    SLEEPING,
+    BLOCKING
+}
@@ -0,0 +1,616 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.SlackApiTextResponse;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import io.github.kilmajster.keycloak.slack.cluster.SlackCluster;
+import io.github.kilmajster.keycloak.slack.config.SlackOverloadPolicy;
+import io.github.kilmajster.keycloak.slack.message.SlackEventSnapshot;
+import io.github.kilmajster.keycloak.slack.message.SlackShedCounts;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics.DropReason;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+@Slf4j
+public class SlackChannelScheduler implements AutoCloseable {
+
+    static final int HTTP_TOO_MANY_REQUESTS = 429;
+    static final String RETRY_AFTER_HEADER = "Retry-After";
+    static final String RATE_LIMITED_ERROR = "ratelimited";
+    static final long DEFAULT_RETRY_AFTER_SECONDS = 1;
+    static final String SENDER_THREAD_NAME_PREFIX = "slack-sender";
+    // each channel with a backlog holds one platform sender thread, channels above the limit wait for a free one
+    static final int MAX_SENDER_THREADS = 16;
+    static final long SENDER_KEEP_ALIVE_SECONDS = 60;
+    static final long CLOSE_TIMEOUT_SECONDS = 5;
+    static final long SHED_LOG_INTERVAL_SECONDS = 10;
+
+    private final SlackTransport slackTransport;
+    private final SlackOutbox slackOutbox;
+    private final SlackRetryPolicy slackRetryPolicy;
+    private final SlackDeadLetterStore slackDeadLetterStore;
+    private final SlackMetrics slackMetrics;
+    private final SlackCluster slackCluster;
+    private final SlackThreadCache slackThreadCache;
+    private final ScheduledExecutorService scheduler;
+    private final ExecutorService senderExecutor;
+    private final int messagesPerMinute;
+    private final int burst;
+    private final int queueCapacity;
+    private final SlackOverloadPolicy overloadPolicy;
+    private final long blockTimeoutNanos;
+    // realm name to its own token, or null when realm uses token of the listener
+    private final Function<String, String> realmTokens;
+    private final SlackShedEvents shedEvents = new SlackShedEvents();
+    private final AtomicLong shedSinceWarning = new AtomicLong();
+    private final AtomicLong nextShedWarningNanos = new AtomicLong(System.nanoTime());
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+
+    public SlackChannelScheduler(
+            final SlackTransport slackTransport,
+            final SlackOutbox slackOutbox,
+            final SlackRetryPolicy slackRetryPolicy,
+            final SlackDeadLetterStore slackDeadLetterStore,
+            final SlackMetrics slackMetrics,
+            final SlackCluster slackCluster,
+            final ScheduledExecutorService scheduler,
+            final int messagesPerMinute,
+            final int burst,
+            final int queueCapacity) {
+        this(slackTransport, slackOutbox, slackRetryPolicy, slackDeadLetterStore, slackMetrics, slackCluster, null, scheduler,
+                messagesPerMinute, burst, queueCapacity, SlackOverloadPolicy.DROP_NEWEST, 0);
+    }
+
+    public SlackChannelScheduler(
+            final SlackTransport slackTransport,
+            final SlackOutbox slackOutbox,
+            final SlackRetryPolicy slackRetryPolicy,
+            final SlackDeadLetterStore slackDeadLetterStore,
+            final SlackMetrics slackMetrics,
+            final SlackCluster slackCluster,
+            final SlackThreadCache slackThreadCache,
+            final ScheduledExecutorService scheduler,
+            final int messagesPerMinute,
+            final int burst,
+            final int queueCapacity,
+            final SlackOverloadPolicy overloadPolicy,
+            final long blockTimeoutMillis) {
+        this(slackTransport, slackOutbox, slackRetryPolicy, slackDeadLetterStore, slackMetrics, slackCluster, slackThreadCache, scheduler,
+                messagesPerMinute, burst, queueCapacity, overloadPolicy, blockTimeoutMillis, realmName -> null);
+    }
+
+    public SlackChannelScheduler(
+            final SlackTransport slackTransport,
+            final SlackOutbox slackOutbox,
+            final SlackRetryPolicy slackRetryPolicy,
+            final SlackDeadLetterStore slackDeadLetterStore,
+            final SlackMetrics slackMetrics,
+            final SlackCluster slackCluster,
+            final SlackThreadCache slackThreadCache,
+            final ScheduledExecutorService scheduler,
+            final int messagesPerMinute,
+            final int burst,
+            final int queueCapacity,
+            final SlackOverloadPolicy overloadPolicy,
+            final long blockTimeoutMillis,
+            final Function<String, String> realmTokens) {
+        this(slackTransport, slackOutbox, slackRetryPolicy, slackDeadLetterStore, slackMetrics, slackCluster, slackThreadCache, scheduler,
+                messagesPerMinute, burst, queueCapacity, overloadPolicy, blockTimeoutMillis, realmTokens, false);
+    }
+
+    public SlackChannelScheduler(
+            final SlackTransport slackTransport,
+            final SlackOutbox slackOutbox,
+            final SlackRetryPolicy slackRetryPolicy,
+            final SlackDeadLetterStore slackDeadLetterStore,
+            final SlackMetrics slackMetrics,
+            final SlackCluster slackCluster,
+            final SlackThreadCache slackThreadCache,
+            final ScheduledExecutorService scheduler,
+            final int messagesPerMinute,
+            final int burst,
+            final int queueCapacity,
+            final SlackOverloadPolicy overloadPolicy,
+            final long blockTimeoutMillis,
+            final Function<String, String> realmTokens,
+            final boolean virtualSenders) {
+        this.slackTransport = slackTransport;
+        this.slackOutbox = slackOutbox;
+        this.slackRetryPolicy = slackRetryPolicy;
+        this.slackDeadLetterStore = slackDeadLetterStore;
+        this.slackMetrics = slackMetrics;
+        this.slackCluster = slackCluster;
+        this.slackThreadCache = slackThreadCache;
+        this.scheduler = scheduler;
+        this.senderExecutor = senderExecutor(virtualSenders);
+        this.messagesPerMinute = messagesPerMinute;
+        this.burst = burst;
+        this.queueCapacity = queueCapacity;
+        this.overloadPolicy = overloadPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.realmTokens = realmTokens;
+    }
+
+    /**
+     * Sending is mostly waiting for Slack, so on Java 21+ every channel drain gets its own virtual thread. There is
+     * at most one drain per channel, so their number is bounded by the number of channels anyway.
+     */
+    private static ExecutorService senderExecutor(final boolean virtualSenders) {
+        if (virtualSenders && SlackVirtualThreads.isAvailable()) {
+            log.info("Slack messages are sent on virtual threads");
+            return SlackVirtualThreads.newThreadPerTaskExecutor(SENDER_THREAD_NAME_PREFIX);
+        }
+
+        final ThreadPoolExecutor senderExecutor = new ThreadPoolExecutor(
+                MAX_SENDER_THREADS,
+                MAX_SENDER_THREADS,
+                SENDER_KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new SlackThreadFactory(SENDER_THREAD_NAME_PREFIX)
+        );
+        senderExecutor.allowCoreThreadTimeOut(true);
+
+        return senderExecutor;
+    }
+
+    public void submit(final ChatPostMessageRequest request) {
+        submit(request, (String) null);
+    }
+
+    // summaries and other messages built by the listener itself are never shed as informational
+    public void submit(final ChatPostMessageRequest request, final String tokenRealm) {
+        enqueue(new SlackOutgoingMessage(request, tokenRealm, store(request, tokenRealm)));
+    }
+
+    public void submit(final ChatPostMessageRequest request, final List<SlackEventSnapshot> events) {
+        submit(request, null, events, null);
+    }
+
+    /**
+     * @param tokenRealm name of the realm whose own token posts the message, or null for token of the listener
+     */
+    public void submit(
+            final ChatPostMessageRequest request,
+            final String tokenRealm,
+            final List<SlackEventSnapshot> events,
+            final String threadKey) {
+        final List<String> eventTypes = new ArrayList<>(events.size());
+        boolean important = false;
+
+        for (SlackEventSnapshot event : events) {
+            eventTypes.add(event.isAdminEvent() ? "admin " + event.getTypeName() : event.getTypeName());
+            important |= event.isAdminEvent() || event.isError();
+        }
+
+        enqueue(new SlackOutgoingMessage(request, tokenRealm, store(request, tokenRealm), eventTypes, important, threadKey));
+    }
+
+    // messages recovered from outbox are already stored
+    public void replay(final SlackOutgoingMessage message) {
+        enqueue(message);
+    }
+
+    /**
+     * Live message which is still queued already carries the latest changes, so it's not queued twice.
+     *
+     * @return false when the message was already queued or being sent
+     */
+    boolean submitLive(final SlackLiveMessage message) {
+        if (!message.markQueued()) {
+            return false;
+        }
+        enqueue(message);
+        return true;
+    }
+
+    /**
+     * @return counts of shed events per destination and type, once nothing has been shed for {@code quietNanos} and
+     * every channel queue is at most half full, otherwise empty list and counts are kept for later
+     */
+    public List<SlackShedCounts> takeShedEventsWhenRelieved(final long quietNanos) {
+        final boolean relieved = channels.values().stream()
+                .allMatch(channel -> channel.pendingMessages() <= queueCapacity / 2);
+
+        return relieved
+                ? shedEvents.takeIfQuietFor(quietNanos, System.nanoTime())
+                : Collections.emptyList();
+    }
+
+    public int getPendingMessages() {
+        return channels.values().stream()
+                .mapToInt(Channel::pendingMessages)
+                .sum();
+    }
+
+    @Override
+    public void close() {
+        senderExecutor.shutdown();
+        try {
+            if (!senderExecutor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Slack senders didn't finish within {} seconds, interrupting them", CLOSE_TIMEOUT_SECONDS);
+                senderExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            senderExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        final int pendingMessages = getPendingMessages();
+        if (pendingMessages > 0 && slackOutbox != null) {
+            log.info("{} messages waiting for Slack rate limit are kept in outbox until restart", pendingMessages);
+        } else if (pendingMessages > 0) {
+            log.warn("{} messages waiting for Slack rate limit were dropped on shutdown!", pendingMessages);
+        }
+    }
+
+    private void enqueue(final SlackOutgoingMessage message) {
+        final Channel channel = channels.computeIfAbsent(StringUtils.defaultString(message.getRequest().getChannel()), Channel::new);
+
+        channel.lock.lock();
+        try {
+            if (channel.pending.size() >= queueCapacity) {
+                final SlackOutgoingMessage shedMessage = makeRoom(channel, message);
+                if (shedMessage != null) {
+                    shed(channel, shedMessage);
+                }
+                if (shedMessage == message) {
+                    return;
+                }
+            }
+            channel.pending.addLast(message);
+
+            if (channel.draining) {
+                return;
+            }
+            channel.draining = true;
+        } finally {
+            channel.lock.unlock();
+        }
+
+        startDrain(channel);
+    }
+
+    /**
+     * @return message shed to keep the queue bounded, which may be the incoming one, or null when there is room
+     */
+    private SlackOutgoingMessage makeRoom(final Channel channel, final SlackOutgoingMessage message) {
+        switch (overloadPolicy) {
+            case DROP_OLDEST:
+                return channel.pending.pollFirst();
+            case SHED_INFO:
+                if (!message.isImportant()) {
+                    return message;
+                }
+                final Iterator<SlackOutgoingMessage> pending = channel.pending.iterator();
+                while (pending.hasNext()) {
+                    final SlackOutgoingMessage queued = pending.next();
+                    if (!queued.isImportant()) {
+                        pending.remove();
+                        return queued;
+                    }
+                }
+                return message;
+            case BLOCK:
+                return awaitRoom(channel) ? null : message;
+            default:
+                return message;
+        }
+    }
+
+    // draining thread signals every time it takes a message from the queue, condition wait doesn't pin virtual threads
+    private boolean awaitRoom(final Channel channel) {
+        final long deadlineNanos = System.nanoTime() + blockTimeoutNanos;
+
+        try {
+            while (channel.pending.size() >= queueCapacity) {
+                final long remainingNanos = deadlineNanos - System.nanoTime();
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                channel.roomAvailable.awaitNanos(remainingNanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // whoever moves the deadline logs what was shed since, everyone else only counts, so overload doesn't flood the log
+    private void shed(final Channel channel, final SlackOutgoingMessage message) {
+        slackMetrics.messageDropped(DropReason.QUEUE_FULL);
+        shedSinceWarning.incrementAndGet();
+
+        final long now = System.nanoTime();
+        shedEvents.add(message, now);
+        acknowledge(message);
+
+        final long nextWarningNanos = nextShedWarningNanos.get();
+        if (now - nextWarningNanos >= 0
+                && nextShedWarningNanos.compareAndSet(nextWarningNanos, now + TimeUnit.SECONDS.toNanos(SHED_LOG_INTERVAL_SECONDS))) {
+            log.warn("Slack channel {} queue is full, {} messages dropped by {} overload policy since last warning!",
+                    channel.name, shedSinceWarning.getAndSet(0), overloadPolicy);
+        }
+    }
+
+    // posting happens on sender threads only, so neither callers nor the shared scheduler wait for Slack
+    private void startDrain(final Channel channel) {
+        try {
+            senderExecutor.execute(() -> drain(channel));
+        } catch (RejectedExecutionException e) {
+            channel.lock.lock();
+            try {
+                dropOnShutdown(channel);
+            } finally {
+                channel.lock.unlock();
+            }
+        }
+    }
+
+    // only one thread drains a channel at a time, which keeps per channel ordering and lets it use the rate limiter
+    // without holding the lock, so producers never wait for a cluster round trip
+    private void drain(final Channel channel) {
+        while (true) {
+            channel.lock.lock();
+            try {
+                if (channel.pending.isEmpty()) {
+                    channel.draining = false;
+                    return;
+                }
+            } finally {
+                channel.lock.unlock();
+            }
+
+            final long waitNanos = channel.rateLimiter.tryAcquire(System.nanoTime());
+            final SlackOutgoingMessage message;
+
+            channel.lock.lock();
+            try {
+                if (waitNanos > 0) {
+                    scheduleDrain(channel, waitNanos);
+                    return;
+                }
+                // overload policies replace queued messages but never empty the queue, so the head is still there
+                message = channel.pending.pollFirst();
+                channel.roomAvailable.signalAll();
+            } finally {
+                channel.lock.unlock();
+            }
+
+            // retried message stays at the head, the whole channel waits so ordering is kept
+            final Long retryAfterNanos = post(message);
+            if (retryAfterNanos != null) {
+                channel.lock.lock();
+                try {
+                    channel.pending.addFirst(message);
+                } finally {
+                    channel.lock.unlock();
+                }
+                channel.rateLimiter.blockFor(System.nanoTime(), retryAfterNanos);
+            }
+        }
+    }
+
+    // scheduler only keeps time, the drain itself goes back to sender threads
+    private void scheduleDrain(final Channel channel, final long delayNanos) {
+        try {
+            scheduler.schedule(() -> startDrain(channel), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            dropOnShutdown(channel);
+        }
+    }
+
+    private void dropOnShutdown(final Channel channel) {
+        channel.draining = false;
+        log.warn("Slack delivery is shut down, {} messages for channel {} dropped!", channel.pending.size(), channel.name);
+        channel.pending.forEach(message -> {
+            slackMetrics.messageDropped(DropReason.SHUTDOWN);
+            message.done();
+        });
+        channel.pending.clear();
+        channel.roomAvailable.signalAll();
+    }
+
+    private long store(final ChatPostMessageRequest request, final String tokenRealm) {
+        if (slackOutbox == null) {
+            return SlackOutgoingMessage.NOT_STORED;
+        }
+
+        try {
+            return slackOutbox.append(request, tokenRealm);
+        } catch (UncheckedIOException e) {
+            log.error("Failed to store message in Slack outbox, it won't survive restart!", e);
+            return SlackOutgoingMessage.NOT_STORED;
+        }
+    }
+
+    private void acknowledge(final SlackOutgoingMessage message) {
+        if (message.isStored()) {
+            slackOutbox.ack(message.getOutboxId());
+        }
+        message.done();
+    }
+
+    /**
+     * @return nanos to wait before sending the message again, or null when it's done
+     */
+    private Long post(final SlackOutgoingMessage message) {
+        final long startNanos = System.nanoTime();
+        try {
+            final SlackApiTextResponse response = send(message, startNanos);
+
+            if (response == null || response.isOk()) {
+                if (response != null) {
+                    slackMetrics.messageSent(System.nanoTime() - startNanos);
+                }
+                acknowledge(message);
+                return null;
+            }
+            slackMetrics.messageFailed(response.getError(), System.nanoTime() - startNanos);
+            if (RATE_LIMITED_ERROR.equals(response.getError())) {
+                return rateLimited(message, DEFAULT_RETRY_AFTER_SECONDS);
+            }
+
+            return failed(message, response.getError(), slackRetryPolicy.isTransientError(response.getError()), null);
+        } catch (SlackApiException e) {
+            final int httpStatus = e.getResponse() != null ? e.getResponse().code() : 0;
+            final String error = e.getError() != null ? e.getError().getError() : null;
+            slackMetrics.messageFailed(StringUtils.defaultIfEmpty(error, "http_" + httpStatus), System.nanoTime() - startNanos);
+            if (httpStatus == HTTP_TOO_MANY_REQUESTS) {
+                return rateLimited(message, retryAfterSeconds(e.getResponse().header(RETRY_AFTER_HEADER)));
+            }
+
+            return failed(
+                    message,
+                    StringUtils.defaultIfEmpty(error, "HTTP " + httpStatus),
+                    slackRetryPolicy.isTransientStatus(httpStatus) || slackRetryPolicy.isTransientError(error),
+                    e
+            );
+        } catch (IOException e) {
+            // exception class keeps error tag cardinality low, unlike its message
+            slackMetrics.messageFailed(e.getClass().getSimpleName(), System.nanoTime() - startNanos);
+            return failed(message, e.toString(), slackRetryPolicy.isTransient(e), e);
+        } catch (RuntimeException e) {
+            // sender thread keeps draining the channel, message is not retried as the failure is not expected to pass
+            slackMetrics.messageFailed(e.getClass().getSimpleName(), System.nanoTime() - startNanos);
+            return failed(message, e.toString(), false, e);
+        }
+    }
+
+    /**
+     * @return response of Slack, or null when live message had nothing new to send
+     */
+    private SlackApiTextResponse send(final SlackOutgoingMessage message, final long nowNanos) throws SlackApiException, IOException {
+        final String token = message.getTokenRealm() != null ? realmTokens.apply(message.getTokenRealm()) : null;
+        if (message instanceof SlackLiveMessage) {
+            return ((SlackLiveMessage) message).send(slackTransport, token);
+        }
+
+        // thread is looked up only now, its parent message was posted by then as channel keeps order
+        final boolean startsThread = replyInThread(message, nowNanos);
+        final ChatPostMessageResponse response = postWithToken(message.getRequest(), token);
+        if (response.isOk() && startsThread && response.getTs() != null) {
+            slackThreadCache.put(message.getThreadKey(), response.getTs(), nowNanos);
+        }
+
+        return response;
+    }
+
+    // token is only set for the call, so it never ends up in dead letters
+    private ChatPostMessageResponse postWithToken(final ChatPostMessageRequest request, final String token) throws SlackApiException, IOException {
+        request.setToken(token);
+        try {
+            return slackTransport.post(request);
+        } finally {
+            request.setToken(null);
+        }
+    }
+
+    /**
+     * @return true when message is the first one of its thread
+     */
+    private boolean replyInThread(final SlackOutgoingMessage message, final long nowNanos) {
+        if (message.getThreadKey() == null || slackThreadCache == null) {
+            return false;
+        }
+        message.getRequest().setThreadTs(slackThreadCache.get(message.getThreadKey(), nowNanos));
+
+        return message.getRequest().getThreadTs() == null;
+    }
+
+    private Long rateLimited(final SlackOutgoingMessage message, final long retryAfterSeconds) {
+        slackMetrics.messageRateLimited();
+        log.warn("Slack rate limit hit for channel {}, retrying after {} seconds", message.getRequest().getChannel(), retryAfterSeconds);
+
+        return TimeUnit.SECONDS.toNanos(retryAfterSeconds);
+    }
+
+    private Long failed(final SlackOutgoingMessage message, final String reason, final boolean transientFailure, final Exception e) {
+        final int failedAttempts = message.recordFailedAttempt();
+
+        if (transientFailure && slackRetryPolicy.canRetry(failedAttempts)) {
+            final long backoffMillis = slackRetryPolicy.backoffMillis(failedAttempts);
+            log.warn("Failed to send message to Slack channel {}, reason = {}, retrying in {} ms",
+                    message.getRequest().getChannel(), reason, backoffMillis);
+            slackMetrics.messageRetried();
+
+            return TimeUnit.MILLISECONDS.toNanos(backoffMillis);
+        }
+
+        if (e != null) {
+            log.error("An error occurred while sending message to Slack!", e);
+        }
+        slackDeadLetterStore.add(message.getRequest(), reason, failedAttempts);
+        slackMetrics.messageDropped(DropReason.DEAD_LETTER);
+        acknowledge(message);
+
+        return null;
+    }
+
+    static long retryAfterSeconds(final String retryAfterHeader) {
+        final long retryAfterSeconds = NumberUtils.toLong(retryAfterHeader, DEFAULT_RETRY_AFTER_SECONDS);
+
+        return Math.max(retryAfterSeconds, DEFAULT_RETRY_AFTER_SECONDS);
+    }
+
+    private final class Channel {
+
+        private final String name;
+        private final Deque<SlackOutgoingMessage> pending = new ArrayDeque<>();
+        private final SlackRateLimiter rateLimiter;
+        private final Lock lock = new ReentrantLock();
+        private final Condition roomAvailable = lock.newCondition();
+        private boolean draining;
+
+        private Channel(final String name) {
+            this.name = name;
+            this.rateLimiter = rateLimiter(name);
+        }
+
+        // cluster limiter is only created in cluster mode, otherwise each node keeps its own limit
+        private SlackRateLimiter rateLimiter(final String name) {
+            if (!slackTransport.isRateLimited()) {
+                return SlackRateLimiter.UNLIMITED;
+            }
+
+            return slackCluster != null
+                    ? new SlackClusterRateLimiter(slackCluster, name, messagesPerMinute, burst, System.nanoTime())
+                    : new SlackTokenBucket(messagesPerMinute, burst, System.nanoTime());
+        }
+
+        private int pendingMessages() {
+            lock.lock();
+            try {
+                return pending.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.cluster.SlackCluster;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limit of a channel shared by all cluster nodes. Local bucket is used until cluster is connected,
+ * and when shared state can't be reached, so delivery never stops because of the cluster.
+ */
+@Slf4j
+class SlackClusterRateLimiter implements SlackRateLimiter {
+
+    private static final String KEY_PREFIX = "rate:";
+
+    private final SlackCluster slackCluster;
+    private final String key;
+    private final long intervalMillis;
+    private final long toleranceMillis;
+    private final SlackTokenBucket localBucket;
+
+    SlackClusterRateLimiter(
+            final SlackCluster slackCluster,
+            final String channel,
+            final int messagesPerMinute,
+            final int burst,
+            final long nowNanos) {
+        this.slackCluster = slackCluster;
+        this.key = KEY_PREFIX + channel;
+        this.intervalMillis = Math.max(1, TimeUnit.MINUTES.toMillis(1) / messagesPerMinute);
+        this.toleranceMillis = (burst - 1) * intervalMillis;
+        this.localBucket = new SlackTokenBucket(messagesPerMinute, burst, nowNanos);
+    }
+
+    @Override
+    public long tryAcquire(final long nowNanos) {
+        if (slackCluster.isConnected()) {
+            try {
+                return TimeUnit.MILLISECONDS.toNanos(slackCluster.acquire(key, intervalMillis, toleranceMillis, System.currentTimeMillis()));
+            } catch (RuntimeException e) {
+                log.warn("Failed to acquire cluster wide Slack rate limit for {}, using local one", key, e);
+            }
+        }
+
+        return localBucket.tryAcquire(nowNanos);
+    }
+
+    @Override
+    public void blockFor(final long nowNanos, final long nanos) {
+        localBucket.blockFor(nowNanos, nanos);
+
+        if (slackCluster.isConnected()) {
+            try {
+                slackCluster.block(key, intervalMillis, toleranceMillis, System.currentTimeMillis(), TimeUnit.NANOSECONDS.toMillis(nanos));
+            } catch (RuntimeException e) {
+                log.warn("Failed to block cluster wide Slack rate limit for {}", key, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import lombok.Value;
+
+import java.time.Instant;
+
+@Value
+public class SlackDeadLetter {
+
+    ChatPostMessageRequest request;
+    String reason;
+    int attempts;
+    Instant failedAt;
+}
@@ -0,0 +1,50 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent messages which could not be delivered to Slack, the oldest are evicted when it's full.
+ */
+@Slf4j
+public class SlackDeadLetterStore {
+
+    private final int capacity;
+    private final Deque<SlackDeadLetter> deadLetters = new ArrayDeque<>();
+    private long evictedDeadLetters;
+
+    public SlackDeadLetterStore(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void add(final ChatPostMessageRequest request, final String reason, final int attempts) {
+        log.error("Message for Slack channel {} was not delivered after {} attempts, reason = {}, text = {}",
+                request.getChannel(), attempts, reason, request.getText());
+
+        synchronized (deadLetters) {
+            if (deadLetters.size() >= capacity) {
+                deadLetters.pollFirst();
+                evictedDeadLetters++;
+            }
+            deadLetters.addLast(new SlackDeadLetter(request, reason, attempts, Instant.now()));
+        }
+    }
+
+    public List<SlackDeadLetter> getDeadLetters() {
+        synchronized (deadLetters) {
+            return new ArrayList<>(deadLetters);
+        }
+    }
+
+    public long getEvictedDeadLetters() {
+        synchronized (deadLetters) {
+            return evictedDeadLetters;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics.DropReason;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs delivery off Keycloak threads when async delivery is enabled. Delivery is mostly waiting for Slack, so on Java 21+
+ * every delivery gets its own virtual thread, with number of deliveries in progress bounded by the queue capacity.
+ * Older runtimes use fixed pool of worker threads with a bounded queue.
+ * <p>
+ * With ring buffer enabled, worker threads take events from a preallocated {@link SlackRingBuffer} instead, so handing
+ * an event over from Keycloak thread takes neither a lock nor an allocation.
+ * <p>
+ * Events which don't fit are dropped and counted, warning about them is logged at most once per
+ * {@value #DROP_LOG_INTERVAL_SECONDS} seconds, so overload doesn't flood the log as well.
+ */
+@Slf4j
+public class SlackDeliveryExecutor implements Executor, AutoCloseable {
+
+    private static final String WORKER_THREAD_NAME_PREFIX = "slack-delivery";
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    static final long DROP_LOG_INTERVAL_SECONDS = 10;
+
+    private final ExecutorService executorService;
+    // only bounds virtual threads, worker pool has its own bounded queue
+    private final Semaphore virtualThreadPermits;
+    private final int virtualThreadCapacity;
+    private final SlackRingBuffer ringBuffer;
+    private final List<Thread> ringBufferWorkers = new ArrayList<>();
+    private final SlackMetrics slackMetrics;
+    private final AtomicLong droppedSinceWarning = new AtomicLong();
+    private final AtomicLong nextDropWarningNanos = new AtomicLong(System.nanoTime());
+
+    private SlackDeliveryExecutor(final ExecutorService executorService, final int virtualThreadCapacity, final SlackMetrics slackMetrics) {
+        this.executorService = executorService;
+        this.virtualThreadPermits = virtualThreadCapacity > 0 ? new Semaphore(virtualThreadCapacity) : null;
+        this.virtualThreadCapacity = virtualThreadCapacity;
+        this.ringBuffer = null;
+        this.slackMetrics = slackMetrics;
+    }
+
+    private SlackDeliveryExecutor(final SlackRingBuffer ringBuffer, final int workerThreads, final SlackMetrics slackMetrics) {
+        this.executorService = null;
+        this.virtualThreadPermits = null;
+        this.virtualThreadCapacity = 0;
+        this.ringBuffer = ringBuffer;
+        this.slackMetrics = slackMetrics;
+
+        final SlackThreadFactory threadFactory = new SlackThreadFactory(WORKER_THREAD_NAME_PREFIX);
+        for (int i = 0; i < workerThreads; i++) {
+            final Thread worker = threadFactory.newThread(this::runRingBufferWorker);
+            ringBufferWorkers.add(worker);
+            worker.start();
+        }
+    }
+
+    public static SlackDeliveryExecutor of(final SlackConfiguration slackConfiguration) {
+        return of(slackConfiguration, SlackMetrics.NOOP);
+    }
+
+    public static SlackDeliveryExecutor of(final SlackConfiguration slackConfiguration, final SlackMetrics slackMetrics) {
+        if (!slackConfiguration.isAsyncEnabled()) {
+            return new SlackDeliveryExecutor((ExecutorService) null, 0, slackMetrics);
+        }
+
+        if (slackConfiguration.isAsyncRingBufferEnabled()) {
+            final SlackRingBuffer ringBuffer = new SlackRingBuffer(slackConfiguration.getAsyncQueueCapacity(), slackConfiguration.getAsyncWaitStrategy());
+            log.info("Slack delivery takes events from ring buffer of {} slots, workers wait with {} strategy", ringBuffer.capacity(), slackConfiguration.getAsyncWaitStrategy());
+            return new SlackDeliveryExecutor(ringBuffer, slackConfiguration.getAsyncWorkerThreads(), slackMetrics);
+        }
+
+        if (slackConfiguration.isAsyncVirtualThreadsEnabled() && SlackVirtualThreads.isAvailable()) {
+            log.info("Slack delivery runs on virtual threads");
+            return new SlackDeliveryExecutor(
+                    SlackVirtualThreads.newThreadPerTaskExecutor(WORKER_THREAD_NAME_PREFIX),
+                    slackConfiguration.getAsyncQueueCapacity(),
+                    slackMetrics
+            );
+        }
+
+        return new SlackDeliveryExecutor(new ThreadPoolExecutor(
+                slackConfiguration.getAsyncWorkerThreads(),
+                slackConfiguration.getAsyncWorkerThreads(),
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(slackConfiguration.getAsyncQueueCapacity()),
+                new SlackThreadFactory(WORKER_THREAD_NAME_PREFIX),
+                new ThreadPoolExecutor.AbortPolicy()
+        ), 0, slackMetrics);
+    }
+
+    public boolean isAsync() {
+        return executorService != null || ringBuffer != null;
+    }
+
+    public boolean isVirtual() {
+        return virtualThreadPermits != null;
+    }
+
+    public boolean isRingBuffer() {
+        return ringBuffer != null;
+    }
+
+    /**
+     * @return events handed over but not delivered yet, on virtual threads including deliveries in progress
+     */
+    public int getPendingDeliveries() {
+        if (isRingBuffer()) {
+            return ringBuffer.size();
+        }
+        if (isVirtual()) {
+            return virtualThreadCapacity - virtualThreadPermits.availablePermits();
+        }
+        if (executorService instanceof ThreadPoolExecutor) {
+            return ((ThreadPoolExecutor) executorService).getQueue().size();
+        }
+        return 0;
+    }
+
+    /**
+     * Same as {@link #execute(Runnable)}, with event passed along instead of captured, so ring buffer takes it
+     * without allocating a task.
+     */
+    public <T> void execute(final Consumer<? super T> delivery, final T event) {
+        if (ringBuffer == null) {
+            if (isAsync()) {
+                execute(() -> delivery.accept(event));
+            } else {
+                delivery.accept(event);
+            }
+        } else if (!ringBuffer.offer(delivery, event)) {
+            dropped();
+        }
+    }
+
+    @Override
+    public void execute(final Runnable delivery) {
+        if (!isAsync()) {
+            delivery.run();
+            return;
+        }
+
+        if (isRingBuffer()) {
+            execute(Runnable::run, delivery);
+            return;
+        }
+
+        if (isVirtual()) {
+            executeOnVirtualThread(delivery);
+            return;
+        }
+
+        try {
+            executorService.execute(delivery);
+        } catch (RejectedExecutionException e) {
+            dropped();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!isAsync()) {
+            return;
+        }
+
+        if (isRingBuffer()) {
+            closeRingBuffer();
+            return;
+        }
+
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Slack delivery queue was not drained within {} seconds, pending messages dropped!", SHUTDOWN_TIMEOUT_SECONDS);
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runRingBufferWorker() {
+        int idleRounds = 0;
+        try {
+            while (!ringBuffer.isClosed() || !ringBuffer.isEmpty()) {
+                if (ringBuffer.runNext()) {
+                    idleRounds = 0;
+                } else {
+                    ringBuffer.await(idleRounds);
+                    idleRounds = idleRounds < Integer.MAX_VALUE ? idleRounds + 1 : idleRounds;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void closeRingBuffer() {
+        ringBuffer.close();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(SHUTDOWN_TIMEOUT_SECONDS);
+        try {
+            for (Thread worker : ringBufferWorkers) {
+                worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!ringBuffer.isEmpty()) {
+            log.warn("Slack delivery queue was not drained within {} seconds, pending messages dropped!", SHUTDOWN_TIMEOUT_SECONDS);
+        }
+        ringBufferWorkers.forEach(Thread::interrupt);
+    }
+
+    private void executeOnVirtualThread(final Runnable delivery) {
+        if (!virtualThreadPermits.tryAcquire()) {
+            dropped();
+            return;
+        }
+
+        try {
+            executorService.execute(() -> {
+                try {
+                    delivery.run();
+                } finally {
+                    virtualThreadPermits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            virtualThreadPermits.release();
+            dropped();
+        }
+    }
+
+    // whoever moves the deadline logs what was dropped since, everyone else only counts
+    private void dropped() {
+        slackMetrics.messageDropped(DropReason.ASYNC_QUEUE_FULL);
+        droppedSinceWarning.incrementAndGet();
+
+        final long now = System.nanoTime();
+        final long nextWarningNanos = nextDropWarningNanos.get();
+        if (now - nextWarningNanos >= 0
+                && nextDropWarningNanos.compareAndSet(nextWarningNanos, now + TimeUnit.SECONDS.toNanos(DROP_LOG_INTERVAL_SECONDS))) {
+            log.warn("Slack delivery queue is full or closed, {} event messages dropped since last warning!", droppedSinceWarning.getAndSet(0));
+        }
+    }
+}
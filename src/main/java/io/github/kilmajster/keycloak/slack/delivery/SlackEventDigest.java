@@ -0,0 +1,214 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import io.github.kilmajster.keycloak.slack.cluster.SlackCluster;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfiguration;
+import io.github.kilmajster.keycloak.slack.message.SlackDigestEntry;
+import io.github.kilmajster.keycloak.slack.message.SlackMessageSender;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Counts events per realm, client and type, and periodically sends them as a digest message per channel and token
+ * of the realms, so realms with their own channel or workspace never see counts of other realms.
+ * <p>
+ * Recording an event already seen is only map lookups and a {@link LongAdder} increment. Counters which stayed at zero
+ * for a whole interval are removed, with clients left without counters, so client ids which show up once, e.g. made up
+ * ones of failed logins, don't pile up in memory.
+ * <p>
+ * In cluster mode only the elected sender node sends digests. Other nodes publish their counts to the shared
+ * cache, and sender merges them into its next digest.
+ */
+@Slf4j
+public class SlackEventDigest implements AutoCloseable {
+
+    static final String NO_CLIENT = "-";
+    static final String CLUSTER_KEY_PREFIX = "digest:";
+
+    private static final Gson GSON = new Gson();
+    private static final Type ENTRIES_TYPE = new TypeToken<List<SlackDigestEntry>>() {
+    }.getType();
+
+    private static final Comparator<SlackDigestEntry> DIGEST_ORDER = Comparator
+            .comparing(SlackDigestEntry::getRealmName)
+            .thenComparing(SlackDigestEntry::getClientId)
+            .thenComparing(SlackDigestEntry::getTypeName);
+
+    private final SlackMessageSender slackMessageSender;
+    private final SlackCluster slackCluster;
+    private final long intervalMinutes;
+    private final AtomicLong publishedDigests = new AtomicLong();
+    private final Map<String, RealmCounters> realms = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> scheduledDigest;
+
+    public SlackEventDigest(
+            final SlackMessageSender slackMessageSender,
+            final ScheduledExecutorService scheduler,
+            final SlackCluster slackCluster,
+            final long intervalMinutes) {
+        this.slackMessageSender = slackMessageSender;
+        this.slackCluster = slackCluster;
+        this.intervalMinutes = intervalMinutes;
+        this.scheduledDigest = scheduler.scheduleAtFixedRate(this::flush, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    // host is only resolved the first time realm is seen, configuration is kept up to date for the next digest
+    public void record(
+            final String realmName,
+            final Supplier<String> host,
+            final SlackRealmConfiguration realmConfiguration,
+            final String clientId,
+            final String typeName) {
+        RealmCounters realm = realms.get(realmName);
+        if (realm == null) {
+            realm = realms.computeIfAbsent(realmName, name -> new RealmCounters(host.get()));
+        }
+        if (realm.realmConfiguration != realmConfiguration) {
+            realm.realmConfiguration = realmConfiguration;
+        }
+
+        final String clientKey = clientId != null ? clientId : NO_CLIENT;
+        Map<String, LongAdder> client = realm.clients.get(clientKey);
+        if (client == null) {
+            client = realm.clients.computeIfAbsent(clientKey, key -> new ConcurrentHashMap<>());
+        }
+
+        LongAdder counter = client.get(typeName);
+        if (counter == null) {
+            counter = client.computeIfAbsent(typeName, key -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    public void flush() {
+        final List<SlackDigestEntry> localEntries = new ArrayList<>();
+
+        realms.forEach((realmName, realm) -> {
+            final SlackRealmConfiguration realmConfiguration = realm.realmConfiguration;
+            // digest gathers events of many types and clients, so it's routed by realm only
+            final String channel = realmConfiguration == null
+                    ? null
+                    : realmConfiguration.getRoutingTable().channelOf(null, null, realmName, null, null);
+            final String tokenRealm = realmConfiguration == null || realmConfiguration.getToken() == null ? null : realmName;
+
+            realm.clients.forEach((clientId, client) -> {
+                client.forEach((typeName, counter) -> {
+                    long count = counter.sumThenReset();
+                    if (count == 0) {
+                        // read again once removed, so only an event racing with the removal itself can be missed
+                        client.remove(typeName, counter);
+                        count = counter.sumThenReset();
+                    }
+                    if (count > 0) {
+                        localEntries.add(new SlackDigestEntry(realmName, realm.host, clientId, typeName, count, channel, tokenRealm));
+                    }
+                });
+                if (client.isEmpty()) {
+                    realm.clients.remove(clientId, client);
+                }
+            });
+        });
+
+        final List<SlackDigestEntry> entries = slackCluster != null && slackCluster.isConnected()
+                ? shareWithCluster(localEntries)
+                : localEntries;
+
+        if (!entries.isEmpty()) {
+            entries.sort(DIGEST_ORDER);
+            slackMessageSender.sendDigestMessage(entries, intervalMinutes);
+        }
+    }
+
+    int countersSize() {
+        return realms.values().stream()
+                .flatMap(realm -> realm.clients.values().stream())
+                .mapToInt(Map::size)
+                .sum();
+    }
+
+    @Override
+    public void close() {
+        scheduledDigest.cancel(false);
+        flush();
+    }
+
+    /**
+     * @return entries this node should send, which is nothing when it's not the sender
+     */
+    private List<SlackDigestEntry> shareWithCluster(final List<SlackDigestEntry> entries) {
+        final long lifespanMillis = TimeUnit.MINUTES.toMillis(3 * intervalMinutes);
+
+        try {
+            if (!slackCluster.isSender()) {
+                if (!entries.isEmpty()) {
+                    slackCluster.publish(
+                            CLUSTER_KEY_PREFIX + slackCluster.getNodeName() + ":" + publishedDigests.incrementAndGet(),
+                            GSON.toJson(entries, ENTRIES_TYPE),
+                            lifespanMillis
+                    );
+                }
+                return new ArrayList<>();
+            }
+
+            final List<SlackDigestEntry> clusterEntries = new ArrayList<>(entries);
+            for (String published : slackCluster.take(CLUSTER_KEY_PREFIX)) {
+                clusterEntries.addAll(GSON.<List<SlackDigestEntry>>fromJson(published, ENTRIES_TYPE));
+            }
+
+            return merge(clusterEntries);
+        } catch (RuntimeException e) {
+            log.warn("Failed to share Slack digest with cluster, sending counts of this node only", e);
+            return entries;
+        }
+    }
+
+    private static List<SlackDigestEntry> merge(final List<SlackDigestEntry> entries) {
+        final Map<List<String>, SlackDigestEntry> merged = new LinkedHashMap<>();
+
+        for (SlackDigestEntry entry : entries) {
+            merged.merge(
+                    Arrays.asList(entry.getRealmName(), entry.getClientId(), entry.getTypeName()),
+                    entry,
+                    (first, second) -> new SlackDigestEntry(
+                            first.getRealmName(),
+                            first.getHost(),
+                            first.getClientId(),
+                            first.getTypeName(),
+                            first.getCount() + second.getCount(),
+                            first.getChannel(),
+                            first.getTokenRealm()
+                    )
+            );
+        }
+
+        return new ArrayList<>(merged.values());
+    }
+
+    private static final class RealmCounters {
+
+        private final String host;
+        private final Map<String, Map<String, LongAdder>> clients = new ConcurrentHashMap<>();
+        // null when global routing and token are used
+        private volatile SlackRealmConfiguration realmConfiguration;
+
+        private RealmCounters(final String host) {
+            this.host = host;
+        }
+    }
+}
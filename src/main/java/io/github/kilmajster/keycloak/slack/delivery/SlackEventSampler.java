@@ -0,0 +1,85 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackSamplingRate;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang.StringUtils;
+import org.keycloak.events.EventType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Picks events of sampled types on Keycloak thread, without locks and without allocation once realm was seen.
+ * Every n-th event is picked with a counter per event type. Events per minute are counted per realm and type,
+ * in a window packed into a single long, minute in high bits and count in low bits, so it's updated with one CAS.
+ */
+@Slf4j
+public final class SlackEventSampler {
+
+    private static final int MINUTE_SHIFT = Integer.SIZE;
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+    // null when all events of the type are sent
+    private final SlackSamplingRate[] rates = new SlackSamplingRate[EventType.values().length];
+    private final AtomicLongArray oneInCounters = new AtomicLongArray(EventType.values().length);
+    private final Map<String, AtomicLongArray> realmWindows = new ConcurrentHashMap<>();
+
+    public SlackEventSampler(final Map<EventType, SlackSamplingRate> samplingRates) {
+        samplingRates.forEach((eventType, rate) -> rates[eventType.ordinal()] = rate);
+    }
+
+    // digest and live counters already sum up every event of their types, sampling them would only make counts wrong
+    public static SlackEventSampler of(final SlackConfiguration slackConfiguration) {
+        final SlackEventSampler sampler = new SlackEventSampler(slackConfiguration.getSamplingRates());
+
+        for (EventType eventType : slackConfiguration.getSamplingRates().keySet()) {
+            if (slackConfiguration.isDigestEvent(eventType) || slackConfiguration.isLiveCounterEvent(eventType)) {
+                log.warn("Slack {} event {} is never sampled", slackConfiguration.isDigestEvent(eventType) ? "digest" : "live counter", eventType);
+                sampler.rates[eventType.ordinal()] = null;
+            }
+        }
+
+        return sampler;
+    }
+
+    public boolean isSampled(final EventType eventType, final String realmId, final long timeMillis) {
+        final SlackSamplingRate rate = rates[eventType.ordinal()];
+        if (rate == null) {
+            return true;
+        }
+
+        return rate.isPerMinute()
+                ? tryAcquire(windowsOf(realmId), eventType.ordinal(), rate.getPerMinute(), TimeUnit.MILLISECONDS.toMinutes(timeMillis))
+                : oneInCounters.getAndIncrement(eventType.ordinal()) % rate.getOneIn() == 0;
+    }
+
+    private AtomicLongArray windowsOf(final String realmId) {
+        final String realm = StringUtils.defaultString(realmId);
+        final AtomicLongArray windows = realmWindows.get(realm);
+        if (windows != null) {
+            return windows;
+        }
+
+        return realmWindows.computeIfAbsent(realm, key -> new AtomicLongArray(EventType.values().length));
+    }
+
+    // events of a past minute, coming late from another thread, count towards the current window
+    private static boolean tryAcquire(final AtomicLongArray windows, final int ordinal, final int perMinute, final long minute) {
+        while (true) {
+            final long window = windows.get(ordinal);
+            final long windowMinute = window >>> MINUTE_SHIFT;
+            final long count = windowMinute < minute ? 0 : window & COUNT_MASK;
+            if (count >= perMinute) {
+                return false;
+            }
+
+            final long next = (Math.max(windowMinute, minute) << MINUTE_SHIFT) | (count + 1);
+            if (windows.compareAndSet(ordinal, window, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.cluster.SlackCluster;
+import io.github.kilmajster.keycloak.slack.config.SlackSuppressionKeyField;
+import io.github.kilmajster.keycloak.slack.message.SlackEventSnapshot;
+import io.github.kilmajster.keycloak.slack.message.SlackMessageSender;
+import io.github.kilmajster.keycloak.slack.message.SlackSuppressedEvents;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Sends the first occurrence of an event straight away and folds identical ones into a periodic summary.
+ * <p>
+ * Event is tracked as long as it keeps occurring within the window. When there are too many tracked
+ * events, new ones are tracked only by type and realm, so memory stays bounded even when the attacker
+ * keeps changing ip address.
+ * <p>
+ * In cluster mode the first occurrence is claimed in the shared cache, so only one node sends it. Repeated
+ * occurrences are counted by every node on its own, and each node sends a summary of what it has seen.
+ */
+@Slf4j
+public class SlackEventSuppressor implements Consumer<SlackEventSnapshot>, AutoCloseable {
+
+    private static final String OVERFLOW_KEY = "overflow";
+    private static final String CLUSTER_KEY_PREFIX = "dedup:";
+    private static final Set<SlackSuppressionKeyField> OVERFLOW_KEY_FIELDS =
+            Collections.unmodifiableSet(EnumSet.of(SlackSuppressionKeyField.TYPE, SlackSuppressionKeyField.REALM));
+
+    private final Consumer<SlackEventSnapshot> slackEventConsumer;
+    private final SlackMessageSender slackMessageSender;
+    private final SlackCluster slackCluster;
+    private final Set<SlackSuppressionKeyField> keyFields;
+    private final long windowMillis;
+    private final int maxKeys;
+    private final Map<List<Object>, Occurrences> occurrences = new ConcurrentHashMap<>();
+    private final ScheduledFuture<?> scheduledSummary;
+
+    public SlackEventSuppressor(
+            final Consumer<SlackEventSnapshot> slackEventConsumer,
+            final SlackMessageSender slackMessageSender,
+            final ScheduledExecutorService scheduler,
+            final SlackCluster slackCluster,
+            final Set<SlackSuppressionKeyField> keyFields,
+            final long windowMillis,
+            final int maxKeys) {
+        this.slackEventConsumer = slackEventConsumer;
+        this.slackMessageSender = slackMessageSender;
+        this.slackCluster = slackCluster;
+        this.keyFields = keyFields;
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+        this.scheduledSummary = scheduler.scheduleAtFixedRate(this::flush, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void accept(final SlackEventSnapshot snapshot) {
+        List<Object> key = key(snapshot);
+        Set<SlackSuppressionKeyField> occurrencesKeyFields = keyFields;
+
+        while (!countSuppressed(key)) {
+            if (occurrencesKeyFields != OVERFLOW_KEY_FIELDS && occurrences.size() >= maxKeys) {
+                key = overflowKey(snapshot);
+                occurrencesKeyFields = OVERFLOW_KEY_FIELDS;
+                continue;
+            }
+
+            if (occurrences.putIfAbsent(key, new Occurrences(snapshot, occurrencesKeyFields)) == null
+                    && isClaimedByThisNode(key)) {
+                slackEventConsumer.accept(snapshot);
+                return;
+            }
+            // otherwise another node already sent it, or another thread started tracking it, so it's counted next round
+        }
+    }
+
+    public synchronized void flush() {
+        final long nowMillis = System.currentTimeMillis();
+        final List<SlackSuppressedEvents> suppressedEvents = new ArrayList<>();
+
+        for (Map.Entry<List<Object>, Occurrences> entry : occurrences.entrySet()) {
+            final Occurrences current = entry.getValue();
+            // removed under the same lock as counting, so once it's gone occurrences start a new entry instead of being lost
+            occurrences.computeIfPresent(entry.getKey(), (key, tracked) ->
+                    tracked == current && nowMillis - tracked.lastSeenMillis >= windowMillis ? null : tracked);
+
+            final long suppressedCount = current.takeUnreported();
+            if (suppressedCount > 0) {
+                suppressedEvents.add(new SlackSuppressedEvents(current.firstEvent, current.keyFields, suppressedCount));
+            }
+        }
+
+        if (!suppressedEvents.isEmpty()) {
+            slackMessageSender.sendSuppressionSummary(suppressedEvents, TimeUnit.MILLISECONDS.toSeconds(windowMillis), nodeName());
+        }
+    }
+
+    public int getTrackedEvents() {
+        return occurrences.size();
+    }
+
+    @Override
+    public void close() {
+        scheduledSummary.cancel(false);
+        flush();
+    }
+
+    /**
+     * @return false when the event isn't tracked, e.g. because flush has just removed it
+     */
+    private boolean countSuppressed(final List<Object> key) {
+        return occurrences.computeIfPresent(key, (ignored, tracked) -> {
+            tracked.suppressed.increment();
+            tracked.lastSeenMillis = System.currentTimeMillis();
+            return tracked;
+        }) != null;
+    }
+
+    private boolean isClaimedByThisNode(final List<Object> key) {
+        if (slackCluster == null) {
+            return true;
+        }
+
+        try {
+            return slackCluster.claim(CLUSTER_KEY_PREFIX + key, windowMillis);
+        } catch (RuntimeException e) {
+            log.warn("Failed to claim event occurrence in cluster, sending it from this node", e);
+            return true;
+        }
+    }
+
+    private String nodeName() {
+        return slackCluster != null && slackCluster.isConnected() ? slackCluster.getNodeName() : null;
+    }
+
+    private List<Object> key(final SlackEventSnapshot snapshot) {
+        final Object[] key = new Object[SlackSuppressionKeyField.values().length];
+
+        for (SlackSuppressionKeyField keyField : keyFields) {
+            key[keyField.ordinal()] = keyValue(snapshot, keyField);
+        }
+
+        return Arrays.asList(key);
+    }
+
+    private static List<Object> overflowKey(final SlackEventSnapshot snapshot) {
+        return Arrays.asList(OVERFLOW_KEY, snapshot.getTypeName(), snapshot.getRealmName());
+    }
+
+    private static Object keyValue(final SlackEventSnapshot snapshot, final SlackSuppressionKeyField keyField) {
+        switch (keyField) {
+            case TYPE:
+                return snapshot.getTypeName();
+            case REALM:
+                return snapshot.getRealmName();
+            case CLIENT:
+                return snapshot.isAdminEvent() ? snapshot.getResourceType() : snapshot.getClientId();
+            case ERROR:
+                return snapshot.getError();
+            case IP_ADDRESS:
+                return snapshot.getIpAddress();
+            default:
+                throw new IllegalArgumentException("Unknown suppression key field " + keyField);
+        }
+    }
+
+    private static final class Occurrences {
+
+        private final SlackEventSnapshot firstEvent;
+        private final Set<SlackSuppressionKeyField> keyFields;
+        private final LongAdder suppressed = new LongAdder();
+        private volatile long lastSeenMillis = System.currentTimeMillis();
+        // only touched by flush
+        private long reported;
+
+        private Occurrences(final SlackEventSnapshot firstEvent, final Set<SlackSuppressionKeyField> keyFields) {
+            this.firstEvent = firstEvent;
+            this.keyFields = keyFields;
+        }
+
+        // sum only grows, unlike sumThenReset it can't lose increments racing with the flush
+        private long takeUnreported() {
+            final long total = suppressed.sum();
+            final long unreported = total - reported;
+            reported = total;
+
+            return unreported;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.google.gson.Gson;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.util.json.GsonFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends every message as one line of JSON, in incoming webhook payload format, to a local file instead of
+ * sending it to Slack, e.g. in air-gapped environments or to run the pipeline without network.
+ * Appending a line is cheap and isn't limited by anyone, so messages are neither paced nor batched.
+ * Lines only go to the page cache, file is not synced.
+ */
+@Slf4j
+public class SlackFileTransport implements SlackTransport {
+
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private final Gson gson = GsonFactory.createSnakeCase();
+    private final AtomicLong messageTs = new AtomicLong();
+    private final Path path;
+    private final FileChannel fileChannel;
+
+    private SlackFileTransport(final Path path, final FileChannel fileChannel) {
+        this.path = path;
+        this.fileChannel = fileChannel;
+    }
+
+    public static SlackFileTransport open(final Path path) throws IOException {
+        final Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        log.info("Slack messages are written to file {}", path.toAbsolutePath());
+
+        return new SlackFileTransport(
+                path,
+                FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)
+        );
+    }
+
+    @Override
+    public ChatPostMessageResponse post(final ChatPostMessageRequest request) throws IOException {
+        final byte[] json = gson.toJson(SlackWebhookTransport.payloadOf(request)).getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer line = ByteBuffer.allocate(json.length + 1)
+                .put(json)
+                .put(LINE_SEPARATOR)
+                .flip();
+
+        // lines of concurrent channels must not interleave
+        synchronized (fileChannel) {
+            while (line.hasRemaining()) {
+                fileChannel.write(line);
+            }
+        }
+
+        final ChatPostMessageResponse response = SlackWebhookTransport.response(request, true, null);
+        response.setTs(nextTs());
+
+        return response;
+    }
+
+    @Override
+    public boolean isRateLimited() {
+        return false;
+    }
+
+    @Override
+    public boolean isBatchingSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() {
+        try {
+            fileChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close Slack messages file {}", path, e);
+        }
+    }
+
+    // unique like ts of a posted message, so messages can be referenced the same way
+    private String nextTs() {
+        final long sequence = messageTs.incrementAndGet();
+
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + "." + String.format("%06d", sequence % 1_000_000);
+    }
+}
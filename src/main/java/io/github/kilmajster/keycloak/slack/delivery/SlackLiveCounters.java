@@ -0,0 +1,264 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.SlackApiTextResponse;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.request.chat.ChatUpdateRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.methods.response.chat.ChatUpdateResponse;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRoutingTable;
+import io.github.kilmajster.keycloak.slack.message.SlackLiveCount;
+import io.github.kilmajster.keycloak.slack.message.SlackLiveCounterMessage;
+import org.keycloak.events.EventType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * Counts events of noisy types per realm and type, each count shown in a single Slack message per window, which is
+ * posted once and then edited in place with {@code chat.update}. Events between updates are coalesced, so every
+ * counter costs at most one Slack call per update interval, however many events it counts.
+ * <p>
+ * Counters are indexed by event type within realm, so recording an event of a running window is a map lookup and
+ * an atomic increment. Counters are local to the node, in cluster mode every node keeps its own messages.
+ * <p>
+ * Counters are sent as {@link SlackLiveMessage} through the channel queues, so they respect rate limit of the channel
+ * and are retried like other messages, the last update of a closed window included. Counter which Slack rejected
+ * for good, e.g. because its channel doesn't exist, is dropped instead of being queued again.
+ */
+public class SlackLiveCounters implements AutoCloseable {
+
+    static final String MESSAGE_NOT_FOUND = "message_not_found";
+
+    private final SlackChannelScheduler slackChannelScheduler;
+    private final SlackConfiguration slackConfiguration;
+    private final SlackRetryPolicy slackRetryPolicy;
+    private final long windowMillis;
+    private final Map<String, AtomicReferenceArray<Counter>> realms = new ConcurrentHashMap<>();
+    // replaced by the next window before their last update was sent
+    private final Queue<Counter> closedCounters = new ConcurrentLinkedQueue<>();
+    private final ScheduledFuture<?> scheduledUpdate;
+
+    public SlackLiveCounters(
+            final SlackChannelScheduler slackChannelScheduler,
+            final SlackConfiguration slackConfiguration,
+            final ScheduledExecutorService scheduler,
+            final long windowMillis,
+            final long updateIntervalMillis) {
+        this.slackChannelScheduler = slackChannelScheduler;
+        this.slackConfiguration = slackConfiguration;
+        this.slackRetryPolicy = SlackRetryPolicy.of(slackConfiguration);
+        this.windowMillis = windowMillis;
+        this.scheduledUpdate = scheduler.scheduleWithFixedDelay(this::flush, updateIntervalMillis, updateIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // host and destination are only resolved when window of the counter starts
+    public void record(
+            final String realmName,
+            final Supplier<String> host,
+            final SlackRealmConfiguration realmConfiguration,
+            final EventType eventType,
+            final String clientId,
+            final long timeMillis) {
+        AtomicReferenceArray<Counter> counters = realms.get(realmName);
+        if (counters == null) {
+            counters = realms.computeIfAbsent(realmName, name -> new AtomicReferenceArray<>(EventType.values().length));
+        }
+
+        final int ordinal = eventType.ordinal();
+        Counter counter = counters.get(ordinal);
+        while (counter == null || timeMillis >= counter.untilMillis) {
+            final Counter next = new Counter(realmName, host.get(), realmConfiguration, eventType, timeMillis, timeMillis + windowMillis);
+            if (counters.compareAndSet(ordinal, counter, next)) {
+                if (counter != null) {
+                    closedCounters.add(counter);
+                }
+                counter = next;
+            } else {
+                counter = counters.get(ordinal);
+            }
+        }
+
+        counter.lastClientId = clientId;
+        counter.lastMillis = timeMillis;
+        counter.count.incrementAndGet();
+        // flush closed the counter after it was looked up, its final update may miss this event, so it's sent once more
+        if (counter.closed) {
+            closedCounters.add(counter);
+        }
+    }
+
+    public void flush() {
+        flush(System.currentTimeMillis());
+    }
+
+    // only queues the updates, they are sent by the sender threads of the channels
+    synchronized void flush(final long nowMillis) {
+        // closed counters which can't be queued yet are put back, so they're only taken once per flush
+        final List<Counter> closed = new ArrayList<>();
+        Counter polled;
+        while ((polled = closedCounters.poll()) != null) {
+            closed.add(polled);
+        }
+        closed.forEach(closedCounter -> queue(closedCounter, true));
+
+        realms.values().forEach(counters -> {
+            for (int ordinal = 0; ordinal < counters.length(); ordinal++) {
+                final Counter counter = counters.get(ordinal);
+                if (counter == null) {
+                    continue;
+                }
+                if (nowMillis >= counter.untilMillis && counters.compareAndSet(ordinal, counter, null)) {
+                    queue(counter, true);
+                } else {
+                    queue(counter, false);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        scheduledUpdate.cancel(false);
+        flush();
+    }
+
+    private void queue(final Counter counter, final boolean closed) {
+        if (closed) {
+            counter.closed = true;
+        }
+        if (counter.hasChanged() && !slackChannelScheduler.submitLive(counter) && closed) {
+            // previous update may be sent without the latest events, nobody else would queue closed counter again
+            closedCounters.add(counter);
+        }
+    }
+
+    private final class Counter extends SlackLiveMessage {
+
+        private final String realmName;
+        private final String host;
+        private final String typeName;
+        private final long sinceMillis;
+        private final long untilMillis;
+        private final AtomicLong count = new AtomicLong();
+        private volatile String lastClientId;
+        private volatile long lastMillis;
+        private volatile boolean closed;
+
+        // written only by the thread draining the channel, flush reads them to tell whether to queue the counter
+        private volatile long sentCount;
+        private volatile boolean sentClosed;
+        // e.g. channel_not_found or invalid_auth, trying again would only fail the same way, next window tries anew
+        private volatile boolean failedPermanently;
+        private String channelId;
+        private String ts;
+
+        private Counter(
+                final String realmName,
+                final String host,
+                final SlackRealmConfiguration realmConfiguration,
+                final EventType eventType,
+                final long sinceMillis,
+                final long untilMillis) {
+            // counter gathers events of many clients, so it's routed by event type and realm only
+            super(
+                    routingTable(realmConfiguration).channelOf(eventType, null, realmName, null, null),
+                    realmConfiguration == null || realmConfiguration.getToken() == null ? null : realmName
+            );
+            this.realmName = realmName;
+            this.host = host;
+            this.typeName = eventType.name();
+            this.sinceMillis = sinceMillis;
+            this.untilMillis = untilMillis;
+        }
+
+        private boolean hasChanged() {
+            final long count = this.count.get();
+            return !failedPermanently && count > 0 && (count != sentCount || closed != sentClosed);
+        }
+
+        @Override
+        SlackApiTextResponse send(final SlackTransport slackTransport, final String token) throws IOException, SlackApiException {
+            final boolean closed = this.closed;
+            final long count = this.count.get();
+            if (failedPermanently || count == 0 || count == sentCount && closed == sentClosed) {
+                return null;
+            }
+
+            final SlackLiveCount liveCount = new SlackLiveCount(
+                    realmName,
+                    host,
+                    typeName,
+                    count,
+                    lastClientId,
+                    sinceMillis,
+                    lastMillis,
+                    untilMillis,
+                    closed
+            );
+            final ChatPostMessageRequest request = getRequest();
+            request.setText(SlackLiveCounterMessage.title(liveCount));
+            request.setBlocks(SlackLiveCounterMessage.getMessageBlocks(liveCount));
+
+            if (ts != null) {
+                final ChatUpdateResponse response = slackTransport.update(ChatUpdateRequest.builder()
+                        .token(token)
+                        .channel(channelId)
+                        .ts(ts)
+                        .text(request.getText())
+                        .blocks(request.getBlocks())
+                        .build());
+                if (!MESSAGE_NOT_FOUND.equals(response.getError())) {
+                    sent(response, count, closed);
+                    return response;
+                }
+                // deleted from channel, counter is posted again
+                ts = null;
+            }
+
+            // request of the message itself is kept for dead letters, so token only goes into a copy
+            final ChatPostMessageResponse response = slackTransport.post(ChatPostMessageRequest.builder()
+                    .token(token)
+                    .channel(request.getChannel())
+                    .text(request.getText())
+                    .blocks(request.getBlocks())
+                    .build());
+            if (response.isOk()) {
+                // chat.update only takes channel id, not the name messages were posted to
+                channelId = response.getChannel();
+                ts = response.getTs();
+            }
+            sent(response, count, closed);
+            return response;
+        }
+
+        private void sent(final SlackApiTextResponse response, final long count, final boolean closed) {
+            if (response.isOk()) {
+                sentCount = count;
+                sentClosed = closed;
+            } else if (!SlackChannelScheduler.RATE_LIMITED_ERROR.equals(response.getError())
+                    && !slackRetryPolicy.isTransientError(response.getError())) {
+                failedPermanently = true;
+            }
+        }
+    }
+
+    private SlackRoutingTable routingTable(final SlackRealmConfiguration realmConfiguration) {
+        return realmConfiguration == null
+                ? slackConfiguration.getRoutingTable()
+                : realmConfiguration.getRoutingTable();
+    }
+}
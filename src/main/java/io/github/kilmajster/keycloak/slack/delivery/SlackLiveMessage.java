@@ -0,0 +1,44 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.SlackApiTextResponse;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Message posted once and then edited in place, e.g. live counter. It goes through the channel queue like any other
+ * message, so it shares rate limit, Retry-After and retries of its channel, but it's never stored in outbox, and it's
+ * rendered only when its turn comes, so it carries whatever changed while it waited. It's queued at most once at
+ * a time, so any number of changes in the meantime costs a single Slack call.
+ */
+abstract class SlackLiveMessage extends SlackOutgoingMessage {
+
+    private final AtomicBoolean queued = new AtomicBoolean();
+
+    SlackLiveMessage(final String channel, final String tokenRealm) {
+        // request only carries channel until the message is rendered, and the last rendering afterwards
+        super(ChatPostMessageRequest.builder().channel(channel).build(), tokenRealm, NOT_STORED);
+    }
+
+    /**
+     * Posts or updates the message with its current state, called by the thread draining its channel.
+     *
+     * @param token token of the realm, or null for token of the listener
+     * @return response of Slack, or null when nothing changed since the last successful call
+     */
+    abstract SlackApiTextResponse send(SlackTransport slackTransport, String token) throws IOException, SlackApiException;
+
+    /**
+     * @return false when the message is still waiting in the queue, or being sent
+     */
+    boolean markQueued() {
+        return queued.compareAndSet(false, true);
+    }
+
+    @Override
+    void done() {
+        queued.set(false);
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.message.SlackEventSnapshot;
+import io.github.kilmajster.keycloak.slack.message.SlackMessageSender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+public class SlackMessageBatcher implements Consumer<SlackEventSnapshot>, AutoCloseable {
+
+    private final SlackMessageSender slackMessageSender;
+    private final ScheduledExecutorService scheduler;
+    private final long windowMillis;
+    private final int maxEvents;
+
+    private List<SlackEventSnapshot> pendingEvents;
+    private ScheduledFuture<?> scheduledFlush;
+
+    public SlackMessageBatcher(
+            final SlackMessageSender slackMessageSender,
+            final ScheduledExecutorService scheduler,
+            final long windowMillis,
+            final int maxEvents) {
+        this.slackMessageSender = slackMessageSender;
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+        this.maxEvents = maxEvents;
+        this.pendingEvents = new ArrayList<>(maxEvents);
+    }
+
+    @Override
+    public void accept(final SlackEventSnapshot snapshot) {
+        final List<SlackEventSnapshot> fullBatch;
+
+        synchronized (this) {
+            pendingEvents.add(snapshot);
+
+            if (pendingEvents.size() < maxEvents) {
+                if (scheduledFlush == null) {
+                    scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                }
+                return;
+            }
+            fullBatch = takePendingEvents();
+        }
+
+        send(fullBatch);
+    }
+
+    public void flush() {
+        final List<SlackEventSnapshot> batch;
+
+        synchronized (this) {
+            batch = takePendingEvents();
+        }
+
+        send(batch);
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private List<SlackEventSnapshot> takePendingEvents() {
+        final List<SlackEventSnapshot> batch = pendingEvents;
+        pendingEvents = new ArrayList<>(maxEvents);
+
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+
+        return batch;
+    }
+
+    private void send(final List<SlackEventSnapshot> batch) {
+        if (batch.size() == 1) {
+            slackMessageSender.sendEventMessage(batch.get(0));
+        } else if (!batch.isEmpty()) {
+            slackMessageSender.sendBatchMessage(batch);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.google.gson.Gson;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.util.json.GsonFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of messages waiting for delivery, split into segment files.
+ * <p>
+ * Every record is {@code [payload length][type][id][crc32][payload]}, where type is either a message
+ * or an acknowledgement of earlier message. Acknowledgements go to the active segment, so they may refer to messages
+ * of older segments. Segment is deleted once all its messages are acknowledged and all older segments are deleted,
+ * otherwise its acknowledgements would be lost. Not acknowledged messages are recovered on startup.
+ * <p>
+ * Token of a realm is never stored, only name of the realm it belongs to. Writes only go to the page cache,
+ * {@link #sync()} is expected to be called periodically to group fsync calls.
+ */
+@Slf4j
+public class SlackOutbox implements AutoCloseable {
+
+    static final String SEGMENT_FILE_PREFIX = "outbox-";
+    static final String SEGMENT_FILE_SUFFIX = ".log";
+
+    private static final byte MESSAGE_RECORD = 1;
+    private static final byte ACK_RECORD = 2;
+    private static final int RECORD_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES + Integer.BYTES;
+
+    private final Gson gson = GsonFactory.createSnakeCase();
+    private final Path directory;
+    private final long segmentSizeBytes;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final Map<Long, Segment> pendingMessages = new HashMap<>();
+    // full segments from the oldest one, active segment is not included
+    private final Deque<Segment> fullSegments = new ArrayDeque<>();
+    private final List<SlackOutgoingMessage> recoveredMessages = new ArrayList<>();
+
+    private long nextId;
+    private Segment activeSegment;
+
+    private SlackOutbox(final Path directory, final long segmentSizeBytes) {
+        this.directory = directory;
+        this.segmentSizeBytes = segmentSizeBytes;
+    }
+
+    public static SlackOutbox open(final Path directory, final long segmentSizeBytes) throws IOException {
+        Files.createDirectories(directory);
+
+        final SlackOutbox outbox = new SlackOutbox(directory, segmentSizeBytes);
+        outbox.recover();
+
+        return outbox;
+    }
+
+    public synchronized long append(final ChatPostMessageRequest request, final String tokenRealm) {
+        final long id = nextId++;
+        final byte[] payload = gson.toJson(new StoredMessage(tokenRealm, request)).getBytes(StandardCharsets.UTF_8);
+
+        try {
+            rollSegmentIfFull();
+            write(MESSAGE_RECORD, id, payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write message to Slack outbox", e);
+        }
+        activeSegment.pendingMessages++;
+        pendingMessages.put(id, activeSegment);
+
+        return id;
+    }
+
+    public synchronized void ack(final long id) {
+        final Segment segment = pendingMessages.remove(id);
+        if (segment == null) {
+            return;
+        }
+
+        try {
+            write(ACK_RECORD, id, new byte[0]);
+        } catch (IOException e) {
+            log.warn("Failed to acknowledge message in Slack outbox, it will be sent again after restart", e);
+        }
+
+        segment.pendingMessages--;
+        deleteAcknowledgedSegments();
+    }
+
+    /**
+     * Messages that were not acknowledged before previous shutdown, already stored again under new ids.
+     */
+    public synchronized List<SlackOutgoingMessage> takeRecoveredMessages() {
+        final List<SlackOutgoingMessage> messages = new ArrayList<>(recoveredMessages);
+        recoveredMessages.clear();
+
+        return messages;
+    }
+
+    public synchronized int getPendingMessages() {
+        return pendingMessages.size();
+    }
+
+    public void sync() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+
+        synchronized (this) {
+            // close may have happened since, and it forces the segment on its own
+            if (activeSegment == null) {
+                return;
+            }
+            try {
+                activeSegment.channel.force(false);
+            } catch (IOException e) {
+                dirty.set(true);
+                log.warn("Failed to sync Slack outbox", e);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (activeSegment == null) {
+            return;
+        }
+
+        try {
+            activeSegment.channel.force(false);
+            activeSegment.channel.close();
+            if (activeSegment.pendingMessages == 0 && fullSegments.isEmpty()) {
+                Files.deleteIfExists(activeSegment.path);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to close Slack outbox", e);
+        }
+        activeSegment = null;
+    }
+
+    private void recover() throws IOException {
+        final List<Path> oldSegments = listSegments();
+        final Map<Long, StoredMessage> notAcknowledged = new LinkedHashMap<>();
+
+        for (Path segment : oldSegments) {
+            readSegment(segment, notAcknowledged);
+        }
+
+        activeSegment = createSegment();
+        for (StoredMessage stored : notAcknowledged.values()) {
+            recoveredMessages.add(new SlackOutgoingMessage(
+                    stored.request,
+                    stored.tokenRealm,
+                    append(stored.request, stored.tokenRealm)
+            ));
+        }
+        activeSegment.channel.force(false);
+
+        for (Path segment : oldSegments) {
+            if (!segment.equals(activeSegment.path)) {
+                Files.deleteIfExists(segment);
+            }
+        }
+
+        if (!recoveredMessages.isEmpty()) {
+            log.info("Recovered {} not delivered messages from Slack outbox", recoveredMessages.size());
+        }
+    }
+
+    private void readSegment(final Path segment, final Map<Long, StoredMessage> notAcknowledged) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+
+        while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+            final int payloadLength = buffer.getInt();
+            final byte type = buffer.get();
+            final long id = buffer.getLong();
+            final int checksum = buffer.getInt();
+
+            if (payloadLength < 0 || payloadLength > buffer.remaining()) {
+                log.warn("Slack outbox segment {} ends with incomplete record, skipping it", segment.getFileName());
+                return;
+            }
+
+            final byte[] payload = new byte[payloadLength];
+            buffer.get(payload);
+            if (checksum(type, id, payload) != checksum) {
+                log.warn("Slack outbox segment {} contains corrupted record, skipping rest of segment", segment.getFileName());
+                return;
+            }
+
+            if (type == MESSAGE_RECORD) {
+                notAcknowledged.put(id, gson.fromJson(new String(payload, StandardCharsets.UTF_8), StoredMessage.class));
+            } else if (type == ACK_RECORD) {
+                notAcknowledged.remove(id);
+            }
+            nextId = Math.max(nextId, id + 1);
+        }
+    }
+
+    private void write(final byte type, final long id, final byte[] payload) throws IOException {
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length)
+                .putInt(payload.length)
+                .put(type)
+                .putLong(id)
+                .putInt(checksum(type, id, payload))
+                .put(payload);
+        record.flip();
+
+        while (record.hasRemaining()) {
+            activeSegment.size += activeSegment.channel.write(record);
+        }
+        dirty.set(true);
+    }
+
+    private void rollSegmentIfFull() throws IOException {
+        if (activeSegment.size < segmentSizeBytes) {
+            return;
+        }
+
+        final Segment fullSegment = activeSegment;
+        fullSegment.channel.force(false);
+        fullSegment.channel.close();
+        fullSegments.addLast(fullSegment);
+        activeSegment = createSegment();
+
+        deleteAcknowledgedSegments();
+    }
+
+    // only the oldest segments are deleted, newer ones still keep acknowledgements of messages in older ones
+    private void deleteAcknowledgedSegments() {
+        while (!fullSegments.isEmpty() && fullSegments.peekFirst().pendingMessages == 0) {
+            deleteSegment(fullSegments.pollFirst());
+        }
+    }
+
+    private Segment createSegment() throws IOException {
+        final Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_FILE_PREFIX, nextId, SEGMENT_FILE_SUFFIX));
+
+        return new Segment(path, FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE
+        ));
+    }
+
+    private void deleteSegment(final Segment segment) {
+        try {
+            segment.channel.close();
+            Files.deleteIfExists(segment.path);
+        } catch (IOException e) {
+            log.warn("Failed to delete Slack outbox segment {}", segment.path, e);
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            final List<Path> segments = files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_FILE_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_FILE_SUFFIX))
+                    .collect(Collectors.toList());
+            Collections.sort(segments);
+
+            return segments;
+        }
+    }
+
+    private static int checksum(final byte type, final long id, final byte[] payload) {
+        final CRC32 crc32 = new CRC32();
+        crc32.update(type);
+        crc32.update(ByteBuffer.allocate(Long.BYTES).putLong(0, id));
+        crc32.update(payload);
+
+        return (int) crc32.getValue();
+    }
+
+    private static final class StoredMessage {
+
+        private final String tokenRealm;
+        private final ChatPostMessageRequest request;
+
+        private StoredMessage(final String tokenRealm, final ChatPostMessageRequest request) {
+            this.tokenRealm = tokenRealm;
+            this.request = request;
+        }
+    }
+
+    private static final class Segment {
+
+        private final Path path;
+        private final FileChannel channel;
+        private long size;
+        private int pendingMessages;
+
+        private Segment(final Path path, final FileChannel channel) {
+            this.path = path;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+@Getter
+public class SlackOutgoingMessage {
+
+    public static final long NOT_STORED = -1;
+
+    private final ChatPostMessageRequest request;
+    // realm whose own token posts the message, null for token of the listener, token itself is only looked up when posting
+    private final String tokenRealm;
+    private final long outboxId;
+    // types of events in the message, empty for summaries and messages recovered from outbox
+    private final List<String> eventTypes;
+    // errors and admin events are kept when informational events are shed
+    private final boolean important;
+    // related messages are posted to the same Slack thread, null when message isn't grouped
+    private final String threadKey;
+    // only touched by the thread draining the channel
+    private int failedAttempts;
+
+    public SlackOutgoingMessage(final ChatPostMessageRequest request, final String tokenRealm, final long outboxId) {
+        this(request, tokenRealm, outboxId, Collections.emptyList(), true, null);
+    }
+
+    public SlackOutgoingMessage(
+            final ChatPostMessageRequest request,
+            final String tokenRealm,
+            final long outboxId,
+            final List<String> eventTypes,
+            final boolean important,
+            final String threadKey) {
+        this.request = request;
+        this.tokenRealm = tokenRealm;
+        this.outboxId = outboxId;
+        this.eventTypes = eventTypes;
+        this.important = important;
+        this.threadKey = threadKey;
+    }
+
+    public boolean isStored() {
+        return outboxId != NOT_STORED;
+    }
+
+    public int recordFailedAttempt() {
+        return ++failedAttempts;
+    }
+
+    // called once the message leaves its channel queue for good, whether it was delivered or not
+    void done() {
+    }
+}
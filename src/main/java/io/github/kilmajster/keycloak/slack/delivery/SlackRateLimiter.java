@@ -0,0 +1,23 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+// not thread safe, used only by the thread draining the owning channel
+interface SlackRateLimiter {
+
+    SlackRateLimiter UNLIMITED = new SlackRateLimiter() {
+        @Override
+        public long tryAcquire(final long nowNanos) {
+            return 0;
+        }
+
+        @Override
+        public void blockFor(final long nowNanos, final long nanos) {
+        }
+    };
+
+    /**
+     * Takes a token and returns 0, or returns how many nanos to wait before the next attempt.
+     */
+    long tryAcquire(long nowNanos);
+
+    void blockFor(long nowNanos, long nanos);
+}
@@ -0,0 +1,80 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class SlackRetryPolicy {
+
+    static final Set<String> TRANSIENT_ERRORS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "service_unavailable",
+            "internal_error",
+            "fatal_error",
+            "request_timeout"
+    )));
+    static final int HTTP_SERVER_ERROR = 500;
+    private static final int MAX_BACKOFF_SHIFT = 30;
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public SlackRetryPolicy(final int maxAttempts, final long initialBackoffMillis, final long maxBackoffMillis) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoffMillis);
+    }
+
+    public static SlackRetryPolicy of(final SlackConfiguration slackConfiguration) {
+        return new SlackRetryPolicy(
+                slackConfiguration.getRetryMaxAttempts(),
+                slackConfiguration.getRetryInitialBackoffMillis(),
+                slackConfiguration.getRetryMaxBackoffMillis()
+        );
+    }
+
+    public boolean isTransientError(final String error) {
+        return TRANSIENT_ERRORS.contains(error);
+    }
+
+    public boolean isTransientStatus(final int httpStatus) {
+        return httpStatus >= HTTP_SERVER_ERROR;
+    }
+
+    /**
+     * Only failures where the request surely did not reach Slack are transient. Read timeout is ambiguous,
+     * message could have been already posted and sending it again would duplicate it in the channel.
+     */
+    public boolean isTransient(final IOException e) {
+        if (e instanceof SocketTimeoutException) {
+            return StringUtils.containsIgnoreCase(e.getMessage(), "connect");
+        }
+
+        return e instanceof ConnectException
+                || e instanceof NoRouteToHostException
+                || e instanceof UnknownHostException;
+    }
+
+    public boolean canRetry(final int failedAttempts) {
+        return failedAttempts < maxAttempts;
+    }
+
+    // capped exponential backoff with equal jitter, so retries of many channels don't hit Slack at once
+    public long backoffMillis(final int failedAttempts) {
+        final int shift = Math.min(Math.max(failedAttempts - 1, 0), MAX_BACKOFF_SHIFT);
+        final long backoffMillis = Math.min(maxBackoffMillis, initialBackoffMillis << shift);
+        final long halfBackoffMillis = backoffMillis / 2;
+
+        return halfBackoffMillis + ThreadLocalRandom.current().nextLong(backoffMillis - halfBackoffMillis + 1);
+    }
+}
@@ -0,0 +1,209 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.config.SlackWaitStrategy;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer multi-consumer ring buffer of deliveries, with slots allocated once and reused on every lap.
+ * Each slot has a sequence telling whether it's free for a producer, or published for a consumer of the current lap,
+ * so producers and consumers only race with a CAS on their own cursor, and handing an event over allocates nothing.
+ * <p>
+ * Only the {@link SlackWaitStrategy#BLOCKING} strategy takes a lock, and producers take it only when a consumer sleeps.
+ */
+@Slf4j
+final class SlackRingBuffer {
+
+    // sequences of a single slot can't tell free slot from published one
+    private static final int MIN_CAPACITY = 2;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long SLEEP_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    // plain slots, visible to consumer through the sequence published after them
+    private final Consumer<Object>[] deliveries;
+    private final Object[] events;
+    private final AtomicLong producerCursor = new AtomicLong();
+    private final AtomicLong consumerCursor = new AtomicLong();
+    private final SlackWaitStrategy waitStrategy;
+    private final AtomicInteger sleepingConsumers = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition published = lock.newCondition();
+    private volatile boolean closed;
+
+    @SuppressWarnings("unchecked")
+    SlackRingBuffer(final int capacity, final SlackWaitStrategy waitStrategy) {
+        final int size = capacity <= MIN_CAPACITY ? MIN_CAPACITY : Integer.highestOneBit(Math.min(capacity, MAX_CAPACITY) - 1) << 1;
+
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        this.deliveries = new Consumer[size];
+        this.events = new Object[size];
+        this.waitStrategy = waitStrategy;
+        for (int index = 0; index < size; index++) {
+            sequences.set(index, index);
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * @return false when the buffer is full or closed, delivery is then dropped
+     */
+    @SuppressWarnings("unchecked")
+    <T> boolean offer(final Consumer<? super T> delivery, final T event) {
+        if (closed) {
+            return false;
+        }
+
+        long position = producerCursor.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long lap = sequences.get(index) - position;
+            if (lap == 0) {
+                if (producerCursor.compareAndSet(position, position + 1)) {
+                    deliveries[index] = (Consumer<Object>) delivery;
+                    events[index] = event;
+                    sequences.set(index, position + 1);
+                    break;
+                }
+                position = producerCursor.get();
+            } else if (lap < 0) {
+                return false;
+            } else {
+                position = producerCursor.get();
+            }
+        }
+
+        if (sleepingConsumers.get() > 0) {
+            lock.lock();
+            try {
+                published.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Runs the next published delivery on calling thread.
+     *
+     * @return false when there was nothing to run
+     */
+    boolean runNext() {
+        long position = consumerCursor.get();
+        while (true) {
+            final int index = (int) position & mask;
+            final long lap = sequences.get(index) - (position + 1);
+            if (lap == 0) {
+                if (consumerCursor.compareAndSet(position, position + 1)) {
+                    final Consumer<Object> delivery = deliveries[index];
+                    final Object event = events[index];
+                    deliveries[index] = null;
+                    events[index] = null;
+                    sequences.set(index, position + mask + 1);
+
+                    run(delivery, event);
+                    return true;
+                }
+                position = consumerCursor.get();
+            } else if (lap < 0) {
+                return false;
+            } else {
+                position = consumerCursor.get();
+            }
+        }
+    }
+
+    /**
+     * Waits until something may have been published, for how long depends on wait strategy and idle rounds so far.
+     */
+    void await(final int idleRounds) throws InterruptedException {
+        switch (waitStrategy) {
+            case BUSY_SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELDING:
+                if (idleRounds < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    Thread.yield();
+                }
+                break;
+            case SLEEPING:
+                if (idleRounds < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else if (idleRounds < SPIN_TRIES + YIELD_TRIES) {
+                    Thread.yield();
+                } else {
+                    LockSupport.parkNanos(SLEEP_NANOS);
+                }
+                break;
+            default:
+                sleep();
+        }
+    }
+
+    // only a snapshot, cursors move while it's read
+    int size() {
+        return (int) Math.max(0, producerCursor.get() - consumerCursor.get());
+    }
+
+    boolean isEmpty() {
+        return consumerCursor.get() == producerCursor.get();
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops accepting deliveries and wakes up sleeping consumers, so they can drain what's left.
+     */
+    void close() {
+        closed = true;
+        lock.lock();
+        try {
+            published.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // producer checks sleeping consumers after publishing, so either it signals or consumer sees the delivery
+    private void sleep() throws InterruptedException {
+        sleepingConsumers.incrementAndGet();
+        lock.lock();
+        try {
+            while (isEmpty() && !closed) {
+                published.await();
+            }
+        } finally {
+            lock.unlock();
+            sleepingConsumers.decrementAndGet();
+        }
+    }
+
+    private static void run(final Consumer<Object> delivery, final Object event) {
+        try {
+            delivery.accept(event);
+        } catch (RuntimeException e) {
+            log.error("An error occurred while delivering event to Slack!", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.message.SlackShedCounts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Exact counts of events shed by overload policy, per channel and token they were meant for and per event type.
+ * There are only so many event types and channels, so memory stays bounded no matter how long Slack is unavailable.
+ */
+final class SlackShedEvents {
+
+    static final String OTHER_MESSAGES = "other messages";
+
+    private final Map<List<String>, Map<String, Long>> counts = new LinkedHashMap<>();
+    private long lastShedNanos;
+
+    synchronized void add(final SlackOutgoingMessage message, final long nowNanos) {
+        final Map<String, Long> destinationCounts = counts.computeIfAbsent(
+                Arrays.asList(message.getRequest().getChannel(), message.getTokenRealm()),
+                destination -> new TreeMap<>()
+        );
+        if (message.getEventTypes().isEmpty()) {
+            destinationCounts.merge(OTHER_MESSAGES, 1L, Long::sum);
+        }
+        for (String eventType : message.getEventTypes()) {
+            destinationCounts.merge(eventType, 1L, Long::sum);
+        }
+        lastShedNanos = nowNanos;
+    }
+
+    // counts stay until nothing has been shed for a while, so one summary per destination covers whole overload
+    synchronized List<SlackShedCounts> takeIfQuietFor(final long quietNanos, final long nowNanos) {
+        if (counts.isEmpty() || nowNanos - lastShedNanos < quietNanos) {
+            return Collections.emptyList();
+        }
+        final List<SlackShedCounts> taken = new ArrayList<>();
+        counts.forEach((destination, destinationCounts) ->
+                taken.add(new SlackShedCounts(destination.get(0), destination.get(1), destinationCounts)));
+        counts.clear();
+
+        return taken;
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timestamps of thread parent messages by thread key, so related events are posted as replies. Memory is bounded
+ * by the number of threads: when cache is full, the least recently used thread is evicted. Thread without a reply
+ * for the idle time is forgotten as well, so the next related event starts a new thread.
+ */
+public class SlackThreadCache {
+
+    private final long idleNanos;
+    private final Map<String, Thread> threads;
+
+    public SlackThreadCache(final int maxThreads, final long idleMillis) {
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        this.threads = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Thread> eldest) {
+                return size() > maxThreads;
+            }
+        };
+    }
+
+    /**
+     * @return ts of thread parent message to reply to, or null when new thread should be started
+     */
+    public synchronized String get(final String threadKey, final long nowNanos) {
+        final Thread thread = threads.get(threadKey);
+        if (thread == null) {
+            return null;
+        }
+        if (nowNanos - thread.lastReplyNanos >= idleNanos) {
+            threads.remove(threadKey);
+            return null;
+        }
+        thread.lastReplyNanos = nowNanos;
+
+        return thread.ts;
+    }
+
+    public synchronized void put(final String threadKey, final String ts, final long nowNanos) {
+        threads.put(threadKey, new Thread(ts, nowNanos));
+    }
+
+    synchronized int size() {
+        return threads.size();
+    }
+
+    private static final class Thread {
+
+        private final String ts;
+        private long lastReplyNanos;
+
+        private Thread(final String ts, final long lastReplyNanos) {
+            this.ts = ts;
+            this.lastReplyNanos = lastReplyNanos;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import java.util.concurrent.TimeUnit;
+
+// not thread safe, guarded by the owning channel
+class SlackTokenBucket implements SlackRateLimiter {
+
+    private final double tokensPerNano;
+    private final double capacity;
+
+    private double tokens;
+    private long lastRefillNanos;
+    private long blockedUntilNanos;
+
+    SlackTokenBucket(final int tokensPerMinute, final int capacity, final long nowNanos) {
+        this.tokensPerNano = tokensPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    @Override
+    public long tryAcquire(final long nowNanos) {
+        if (nowNanos - blockedUntilNanos < 0) {
+            return blockedUntilNanos - nowNanos;
+        }
+
+        tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = nowNanos;
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+
+    @Override
+    public void blockFor(final long nowNanos, final long nanos) {
+        blockedUntilNanos = nowNanos + nanos;
+        tokens = 1;
+        lastRefillNanos = blockedUntilNanos;
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.request.chat.ChatUpdateRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.methods.response.chat.ChatUpdateResponse;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * Way messages leave the listener. Besides posting, every transport tells how the pipeline should treat it,
+ * e.g. local sink has no rate limit to respect and gains nothing from batching.
+ */
+@FunctionalInterface
+public interface SlackTransport extends AutoCloseable {
+
+    static SlackTransport of(final SlackConfiguration slackConfiguration) {
+        switch (slackConfiguration.getTransport()) {
+            case WEBHOOK:
+                return SlackWebhookTransport.of(slackConfiguration);
+            case FILE:
+                try {
+                    return SlackFileTransport.open(Paths.get(slackConfiguration.getFilePath()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to open Slack messages file " + slackConfiguration.getFilePath(), e);
+                }
+            default:
+                return SlackWebApiClient.of(slackConfiguration);
+        }
+    }
+
+    ChatPostMessageResponse post(ChatPostMessageRequest request) throws SlackApiException, IOException;
+
+    /**
+     * Whether messages have to be paced per channel, with {@code SLACK_RATE_LIMIT_*} settings.
+     */
+    default boolean isRateLimited() {
+        return true;
+    }
+
+    /**
+     * Whether grouping events into one message pays off, i.e. every message is costly or counted by a rate limit.
+     */
+    default boolean isBatchingSupported() {
+        return true;
+    }
+
+    /**
+     * Whether posted messages can be edited in place, with channel id and {@code ts} from the post response.
+     */
+    default boolean isUpdateSupported() {
+        return false;
+    }
+
+    default ChatUpdateResponse update(final ChatUpdateRequest request) throws SlackApiException, IOException {
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " can't update posted messages");
+    }
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual threads of Java 21+ runtime. Listener is built for Java 11, so they are looked up reflectively,
+ * once, and are reported as not available on older runtimes. Java 19 and 20 have them as a preview API, which fails
+ * without {@code --enable-preview}, so they're only used from Java 21 on, and only once a probe executor was created.
+ */
+@Slf4j
+final class SlackVirtualThreads {
+
+    static final int MIN_JAVA_VERSION = 21;
+
+    private static final MethodHandle OF_VIRTUAL = lookupOfVirtual();
+
+    private SlackVirtualThreads() {
+    }
+
+    static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * @return executor starting new virtual thread for every task, named {@code namePrefix-1, namePrefix-2, ...}
+     */
+    static ExecutorService newThreadPerTaskExecutor(final String namePrefix) {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("Virtual threads are not available on Java " + Runtime.version().feature());
+        }
+
+        try {
+            return (ExecutorService) OF_VIRTUAL.invoke(namePrefix + "-", 1L);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+
+    // Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(prefix, start).factory())
+    private static MethodHandle lookupOfVirtual() {
+        if (Runtime.version().feature() < MIN_JAVA_VERSION) {
+            log.debug("Virtual threads are not available on Java {}", Runtime.version().feature());
+            return null;
+        }
+
+        try {
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+
+            final MethodHandle ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+            final MethodHandle name = lookup.findVirtual(ofVirtualClass, "name", MethodType.methodType(ofVirtualClass, String.class, long.class));
+            final MethodHandle factory = lookup.findVirtual(builderClass, "factory", MethodType.methodType(ThreadFactory.class));
+            final MethodHandle newThreadPerTaskExecutor = lookup.findStatic(
+                    Executors.class,
+                    "newThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class, ThreadFactory.class)
+            );
+
+            // (String prefix, long start) -> ExecutorService
+            final MethodHandle namedBuilder = MethodHandles.collectArguments(name, 0, ofVirtual);
+            final MethodHandle namedFactory = MethodHandles.filterReturnValue(namedBuilder, factory.asType(MethodType.methodType(ThreadFactory.class, ofVirtualClass)));
+
+            final MethodHandle executor = MethodHandles.filterReturnValue(namedFactory, newThreadPerTaskExecutor);
+            probe(executor);
+
+            return executor;
+        } catch (Throwable e) {
+            log.warn("Virtual threads are not available on Java {}, platform threads are used instead", Runtime.version().feature(), e);
+            return null;
+        }
+    }
+
+    // found methods may still refuse to run, e.g. on a runtime started with virtual threads disabled
+    private static void probe(final MethodHandle executor) throws Throwable {
+        final ExecutorService probe = (ExecutorService) executor.invoke("slack-probe-", 1L);
+        probe.shutdown();
+    }
+}
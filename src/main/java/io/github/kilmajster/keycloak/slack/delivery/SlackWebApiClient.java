@@ -0,0 +1,100 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.Slack;
+import com.slack.api.SlackConfig;
+import com.slack.api.methods.MethodsClient;
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.request.chat.ChatUpdateRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.methods.response.chat.ChatUpdateResponse;
+import com.slack.api.util.http.SlackHttpClient;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class SlackWebApiClient implements SlackTransport {
+
+    private final Slack slack;
+    private final MethodsClient methodsClient;
+
+    SlackWebApiClient(final Slack slack, final String token) {
+        this.slack = slack;
+        this.methodsClient = slack.methods(token);
+    }
+
+    public static SlackWebApiClient of(final SlackConfiguration slackConfiguration) {
+        return new SlackWebApiClient(slack(slackConfiguration), slackConfiguration.getToken());
+    }
+
+    // shared with webhook transport, so both use the same http client settings
+    static Slack slack(final SlackConfiguration slackConfiguration) {
+        final SlackConfig slackConfig = new SlackConfig();
+        slackConfig.setHttpClientReadTimeoutMillis(slackConfiguration.getHttpReadTimeoutMillis());
+        slackConfig.setHttpClientWriteTimeoutMillis(slackConfiguration.getHttpReadTimeoutMillis());
+        // stats are only used by async clients and would start their own background threads
+        slackConfig.getMethodsConfig().setStatsEnabled(false);
+        if (slackConfiguration.getApiUrl() != null) {
+            final String apiUrl = slackConfiguration.getApiUrl();
+            slackConfig.setMethodsEndpointUrlPrefix(apiUrl.endsWith("/") ? apiUrl : apiUrl + "/");
+        }
+
+        final OkHttpClient okHttpClient = SlackHttpClient.buildOkHttpClient(slackConfig)
+                .newBuilder()
+                .connectTimeout(slackConfiguration.getHttpConnectTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(
+                        slackConfiguration.getHttpMaxIdleConnections(),
+                        slackConfiguration.getHttpKeepAliveSeconds(),
+                        TimeUnit.SECONDS
+                ))
+                .build();
+
+        return Slack.getInstance(slackConfig, new SlackHttpClient(okHttpClient));
+    }
+
+    @Override
+    public ChatPostMessageResponse post(final ChatPostMessageRequest request) throws SlackApiException, IOException {
+        return methodsClient.chatPostMessage(request);
+    }
+
+    @Override
+    public boolean isUpdateSupported() {
+        return true;
+    }
+
+    @Override
+    public ChatUpdateResponse update(final ChatUpdateRequest request) throws SlackApiException, IOException {
+        return methodsClient.chatUpdate(request);
+    }
+
+    @Override
+    public void close() {
+        close(slack);
+    }
+
+    static void close(final Slack slack) {
+        final SlackConfig slackConfig = slack.getConfig();
+        if (slackConfig != null) {
+            // every SlackConfig starts cleanup threads for its rate limit metrics
+            closeQuietly(slackConfig.getMethodsConfig().getMetricsDatastore());
+            closeQuietly(slackConfig.getAuditConfig().getMetricsDatastore());
+            closeQuietly(slackConfig.getSCIMConfig().getMetricsDatastore());
+        }
+        closeQuietly(slack);
+    }
+
+    private static void closeQuietly(final Object closeable) {
+        if (closeable instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) closeable).close();
+            } catch (Exception e) {
+                log.warn("Failed to close Slack client resource {}", closeable.getClass().getSimpleName(), e);
+            }
+        }
+    }
+}
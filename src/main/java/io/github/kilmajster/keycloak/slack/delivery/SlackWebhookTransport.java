@@ -0,0 +1,96 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.Slack;
+import com.slack.api.methods.SlackApiErrorResponse;
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.webhook.Payload;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Posts messages to Slack incoming webhooks. Webhook is bound to a single channel, so every channel needs its own url,
+ * channels without one go to the default webhook. Tokens aren't used at all, also these configured per realm.
+ */
+@Slf4j
+public class SlackWebhookTransport implements SlackTransport {
+
+    static final String NO_WEBHOOK_ERROR = "no_webhook";
+    // webhook errors are plain text like invalid_payload, anything else (e.g. html error page) is reported by status
+    private static final Pattern ERROR_CODE = Pattern.compile("[a-z_]{1,64}");
+
+    private final Slack slack;
+    private final String defaultWebhookUrl;
+    private final Map<String, String> webhookUrls;
+
+    SlackWebhookTransport(final Slack slack, final String defaultWebhookUrl, final Map<String, String> webhookUrls) {
+        this.slack = slack;
+        this.defaultWebhookUrl = defaultWebhookUrl;
+        this.webhookUrls = webhookUrls;
+    }
+
+    public static SlackWebhookTransport of(final SlackConfiguration slackConfiguration) {
+        if (slackConfiguration.getWebhookUrl() == null && slackConfiguration.getWebhookUrls().isEmpty()) {
+            log.warn("Slack webhook transport is enabled, but there is no webhook url configured!");
+        }
+
+        return new SlackWebhookTransport(
+                SlackWebApiClient.slack(slackConfiguration),
+                slackConfiguration.getWebhookUrl(),
+                slackConfiguration.getWebhookUrls()
+        );
+    }
+
+    @Override
+    public ChatPostMessageResponse post(final ChatPostMessageRequest request) throws SlackApiException, IOException {
+        final String webhookUrl = webhookUrls.getOrDefault(request.getChannel(), defaultWebhookUrl);
+        if (webhookUrl == null) {
+            return response(request, false, NO_WEBHOOK_ERROR);
+        }
+
+        try (Response response = slack.getHttpClient().postJsonBody(webhookUrl, payloadOf(request))) {
+            final ResponseBody body = response.body();
+            final String responseBody = body != null ? body.string() : "";
+            if (response.isSuccessful()) {
+                return response(request, true, null);
+            }
+
+            final SlackApiErrorResponse error = new SlackApiErrorResponse();
+            error.setError(ERROR_CODE.matcher(responseBody.trim()).matches() ? responseBody.trim() : null);
+            throw new SlackApiException(response, responseBody, error);
+        }
+    }
+
+    @Override
+    public void close() {
+        SlackWebApiClient.close(slack);
+    }
+
+    // also keeps token of request away from anything else than Web API
+    static Payload payloadOf(final ChatPostMessageRequest request) {
+        return Payload.builder()
+                .channel(request.getChannel())
+                .threadTs(request.getThreadTs())
+                .text(request.getText())
+                .blocks(request.getBlocks())
+                .unfurlLinks(request.isUnfurlLinks())
+                .unfurlMedia(request.isUnfurlMedia())
+                .build();
+    }
+
+    static ChatPostMessageResponse response(final ChatPostMessageRequest request, final boolean ok, final String error) {
+        final ChatPostMessageResponse response = new ChatPostMessageResponse();
+        response.setOk(ok);
+        response.setError(error);
+        response.setChannel(request.getChannel());
+
+        return response;
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import com.slack.api.model.block.ContextBlock;
+import com.slack.api.model.block.LayoutBlock;
+import com.slack.api.model.block.SectionBlock;
+import com.slack.api.model.block.composition.MarkdownTextObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class SlackBatchEventMessage {
+
+    public static final int MAX_MESSAGE_BLOCKS = 50;
+    public static final int MAX_SECTION_TEXT_LENGTH = 3000;
+
+    // header and "more events" footer are always reserved
+    private static final int MAX_EVENT_SECTIONS = MAX_MESSAGE_BLOCKS - 2;
+
+    public static String batchTitle(final String host, final int eventsCount) {
+        return eventsCount + " new events have just occurred in Keycloak at " + host;
+    }
+
+    public static List<LayoutBlock> getBatchMessageBlocks(final List<SlackEventSnapshot> snapshots) {
+        final List<String> eventLines = new ArrayList<>(snapshots.size());
+        for (SlackEventSnapshot snapshot : snapshots) {
+            eventLines.add(eventLine(snapshot));
+        }
+
+        return getLinesMessageBlocks(batchTitle(snapshots.get(0).getHost(), snapshots.size()), eventLines, "events");
+    }
+
+    // packs lines into as few sections as possible, lines which don't fit into message are only counted
+    static List<LayoutBlock> getLinesMessageBlocks(final String title, final List<String> lines, final String linesName) {
+        final List<LayoutBlock> blocks = new ArrayList<>();
+        blocks.add(headerBlock(title));
+
+        int sections = 0;
+        int renderedLines = 0;
+        StringBuilder sectionText = new StringBuilder();
+
+        for (String line : lines) {
+            // a line too long for any section is cut instead, so it never leaves an empty section behind
+            if (sectionText.length() > 0 && sectionText.length() + line.length() + 1 > MAX_SECTION_TEXT_LENGTH) {
+                if (sections + 1 == MAX_EVENT_SECTIONS) {
+                    break;
+                }
+                blocks.add(linesSectionBlock(sectionText.toString()));
+                sections++;
+                sectionText = new StringBuilder();
+            }
+
+            if (sectionText.length() > 0) {
+                sectionText.append('\n');
+            }
+            sectionText.append(line, 0, Math.min(line.length(), MAX_SECTION_TEXT_LENGTH));
+            renderedLines++;
+        }
+        blocks.add(linesSectionBlock(sectionText.toString()));
+
+        if (renderedLines < lines.size()) {
+            blocks.add(moreLinesBlock(lines.size() - renderedLines, linesName));
+        }
+
+        return blocks;
+    }
+
+    private static String eventLine(final SlackEventSnapshot snapshot) {
+        final String time = SlackMessageTemplates.dateToken(snapshot.getTime());
+
+        if (snapshot.isAdminEvent()) {
+            return "`" + snapshot.getTypeName() + "` realm *" + snapshot.getRealmName() + "*, resource *" + snapshot.getResourceType() + "* at " + time;
+        }
+
+        final String line = "`" + snapshot.getTypeName() + "` realm *" + snapshot.getRealmName() + "*, client *" + snapshot.getClientId() + "* at " + time;
+
+        return snapshot.isSampled()
+                ? line + " _(sampled " + snapshot.getSamplingRate().describe() + ")_"
+                : line;
+    }
+
+    private static SectionBlock headerBlock(final String title) {
+        return SectionBlock.builder()
+                .text(MarkdownTextObject.builder()
+                        .text(title)
+                        .build()
+                ).build();
+    }
+
+    private static SectionBlock linesSectionBlock(final String lines) {
+        return SectionBlock.builder()
+                .text(MarkdownTextObject.builder()
+                        .text(lines)
+                        .build()
+                ).build();
+    }
+
+    private static ContextBlock moreLinesBlock(final int skippedLines, final String linesName) {
+        return ContextBlock.builder()
+                .elements(List.of(
+                        MarkdownTextObject.builder()
+                                .text("...and " + skippedLines + " more " + linesName)
+                                .build()
+                )).build();
+    }
+}
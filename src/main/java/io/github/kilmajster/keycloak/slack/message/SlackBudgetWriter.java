@@ -0,0 +1,94 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Keeps at most {@code budget} characters and fails the write which goes over it, so serializer
+ * stops as soon as the text can't be sent anyway instead of writing the whole value.
+ */
+final class SlackBudgetWriter extends Writer {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final StringBuilder text = new StringBuilder(INITIAL_CAPACITY);
+    private final int budget;
+    private boolean exceeded;
+
+    SlackBudgetWriter(final int budget) {
+        this.budget = budget;
+    }
+
+    boolean isExceeded() {
+        return exceeded;
+    }
+
+    @Override
+    public void write(final char[] chars, final int offset, final int length) throws IOException {
+        final int remaining = remaining();
+        if (length <= remaining) {
+            text.append(chars, offset, length);
+            return;
+        }
+        text.append(chars, offset, remaining);
+        exceed();
+    }
+
+    @Override
+    public void write(final String string, final int offset, final int length) throws IOException {
+        final int remaining = remaining();
+        if (length <= remaining) {
+            text.append(string, offset, offset + length);
+            return;
+        }
+        text.append(string, offset, offset + remaining);
+        exceed();
+    }
+
+    @Override
+    public void write(final int character) throws IOException {
+        if (remaining() == 0) {
+            exceed();
+        }
+        text.append((char) character);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        return text.toString();
+    }
+
+    private int remaining() {
+        return exceeded ? 0 : budget - text.length();
+    }
+
+    private void exceed() throws BudgetExceededException {
+        // cut surrogate pair can't be encoded
+        if (text.length() > 0 && Character.isHighSurrogate(text.charAt(text.length() - 1))) {
+            text.setLength(text.length() - 1);
+        }
+        exceeded = true;
+        throw new BudgetExceededException();
+    }
+
+    static final class BudgetExceededException extends IOException {
+
+        BudgetExceededException() {
+            super("Text budget exceeded");
+        }
+
+        // only stops serialization, stack trace is never needed
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import lombok.Value;
+
+@Value
+public class SlackDigestEntry {
+
+    String realmName;
+    String host;
+    String clientId;
+    String typeName;
+    long count;
+    // channel of the realm, null for the default channel of the listener
+    String channel;
+    // null when token of the listener is used
+    String tokenRealm;
+}
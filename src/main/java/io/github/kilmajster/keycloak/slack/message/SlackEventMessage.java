@@ -5,15 +5,8 @@ import com.slack.api.model.block.ContextBlock;
 import com.slack.api.model.block.LayoutBlock;
 import com.slack.api.model.block.SectionBlock;
 import com.slack.api.model.block.composition.MarkdownTextObject;
-import org.keycloak.events.Event;
-import org.keycloak.events.admin.AdminEvent;
-import org.keycloak.models.utils.ModelToRepresentation;
-import org.keycloak.util.JsonSerialization;
-
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
+
+import java.util.ArrayList;
 import java.util.List;
 
 public final class SlackEventMessage {
@@ -26,64 +19,79 @@ public final class SlackEventMessage {
         return "New admin event has just occurred in Keycloak at " + host;
     }
 
-    public static List<LayoutBlock> getEventMessageBlocks(
-            final Event event,
-            final String realmName,
-            final String host,
-            final boolean includeEventRepresentationEnabled) throws JsonProcessingException {
-        if (includeEventRepresentationEnabled) {
-            return List.of(
-                    headerBlock(eventTitle(host)),
-                    eventTypeAndTimeBlock(event.getType().name(), event.getTime()),
-                    realmAndClientBlock(realmName, event.getClientId()),
-                    representationBlock(event)
-            );
+    public static String title(final SlackEventSnapshot snapshot) {
+        return snapshot.isAdminEvent()
+                ? adminEventTitle(snapshot.getHost())
+                : eventTitle(snapshot.getHost());
+    }
+
+    public static String digestTitle(final String host, final long eventsCount, final long intervalMinutes) {
+        return eventsCount + " events have occurred in Keycloak at " + host + " in the last " + intervalMinutes + " minutes";
+    }
+
+    public static List<LayoutBlock> getDigestMessageBlocks(final List<SlackDigestEntry> entries, final long intervalMinutes) {
+        final List<String> digestLines = new ArrayList<>();
+        long eventsCount = 0;
+        StringBuilder line = null;
+        SlackDigestEntry previous = null;
+
+        // entries are sorted, so one line per realm and client
+        for (SlackDigestEntry entry : entries) {
+            if (previous == null
+                    || !previous.getRealmName().equals(entry.getRealmName())
+                    || !previous.getClientId().equals(entry.getClientId())) {
+                if (line != null) {
+                    digestLines.add(line.toString());
+                }
+                line = new StringBuilder("realm *").append(entry.getRealmName())
+                        .append("*, client *").append(entry.getClientId()).append("*:");
+            } else {
+                line.append(',');
+            }
+            line.append(" `").append(entry.getTypeName()).append("` ").append(entry.getCount());
+            eventsCount += entry.getCount();
+            previous = entry;
+        }
+        if (line != null) {
+            digestLines.add(line.toString());
         }
 
-        return List.of(
-                headerBlock(eventTitle(host)),
-                eventTypeAndTimeBlock(event.getType().name(), event.getTime()),
-                realmAndClientBlock(realmName, event.getClientId())
+        return SlackBatchEventMessage.getLinesMessageBlocks(
+                digestTitle(entries.get(0).getHost(), eventsCount, intervalMinutes),
+                digestLines,
+                "clients"
         );
     }
 
-    public static List<LayoutBlock> getEventMessageBlocks(
-            final AdminEvent adminEvent,
-            final String realmName,
-            final String host,
-            final boolean includeAdminEventRepresentationEnabled) throws JsonProcessingException {
-        if (includeAdminEventRepresentationEnabled) {
-            return List.of(
-                    headerBlock(adminEventTitle(host)),
-                    eventTypeAndTimeBlock(adminEvent.getOperationType().name(), adminEvent.getTime()),
-                    realmAndResourceBlock(realmName, adminEvent.getResourceTypeAsString()),
-                    representationBlock(adminEvent)
-            );
+    public static List<LayoutBlock> getEventMessageBlocks(final SlackEventSnapshot snapshot) throws JsonProcessingException {
+        final SectionBlock detailsBlock = snapshot.isAdminEvent()
+                ? realmAndResourceBlock(snapshot.getRealmName(), snapshot.getResourceType())
+                : realmAndClientBlock(snapshot.getRealmName(), snapshot.getClientId());
+
+        final List<LayoutBlock> blocks = new ArrayList<>(5);
+        blocks.add(SlackMessageTemplates.headerBlock(snapshot));
+        blocks.add(eventTypeAndTimeBlock(snapshot));
+        blocks.add(detailsBlock);
+        if (snapshot.hasRepresentation()) {
+            blocks.add(representationBlock(snapshot.getRepresentation()));
+        }
+        if (snapshot.isSampled()) {
+            blocks.add(samplingBlock(snapshot));
         }
 
-        return List.of(
-                headerBlock(adminEventTitle(host)),
-                eventTypeAndTimeBlock(adminEvent.getOperationType().name(), adminEvent.getTime()),
-                realmAndClientBlock(realmName, adminEvent.getResourceTypeAsString())
-        );
+        return blocks;
     }
 
-    private static SectionBlock headerBlock(final String title) {
-        return SectionBlock.builder()
-                .text(MarkdownTextObject.builder()
-                        .text(title)
-                        .build()
-                ).build();
+    public static String samplingText(final SlackEventSnapshot snapshot) {
+        return "`" + snapshot.getTypeName() + "` events are sampled: " + snapshot.getSamplingRate().describe() + " sent";
     }
 
-    private static SectionBlock eventTypeAndTimeBlock(final String eventType, final long eventTime) {
+    private static SectionBlock eventTypeAndTimeBlock(final SlackEventSnapshot snapshot) {
         return SectionBlock.builder()
                 .fields(List.of(
+                        SlackMessageTemplates.eventTypeField(snapshot),
                         MarkdownTextObject.builder()
-                                .text("*Event type:*\n" + eventType)
-                                .build(),
-                        MarkdownTextObject.builder()
-                                .text("*When:*\n" + ZonedDateTime.ofInstant(Instant.ofEpochMilli(eventTime), ZoneId.systemDefault()))
+                                .text(SlackMessageTemplates.whenField(snapshot.getTime()))
                                 .build()
                 )).build();
     }
@@ -112,27 +120,21 @@ public final class SlackEventMessage {
                 )).build();
     }
 
-    private static ContextBlock representationBlock(final Event event) throws JsonProcessingException {
+    private static ContextBlock samplingBlock(final SlackEventSnapshot snapshot) {
         return ContextBlock.builder()
                 .elements(List.of(
                         MarkdownTextObject.builder()
-                                .text("```"
-                                        + JsonSerialization.prettyMapper
-                                        .writeValueAsString(ModelToRepresentation.toRepresentation(event))
-                                        + "```"
-                                ).build()
+                                .text(samplingText(snapshot))
+                                .build()
                 )).build();
     }
 
-    private static ContextBlock representationBlock(final AdminEvent event) throws JsonProcessingException {
+    private static ContextBlock representationBlock(final Object representation) throws JsonProcessingException {
         return ContextBlock.builder()
                 .elements(List.of(
                         MarkdownTextObject.builder()
-                                .text("```"
-                                        + JsonSerialization.prettyMapper
-                                        .writeValueAsString(ModelToRepresentation.toRepresentation(event))
-                                        + "```"
-                                ).build()
+                                .text(SlackMessageTemplates.representationText(representation))
+                                .build()
                 )).build();
     }
 }
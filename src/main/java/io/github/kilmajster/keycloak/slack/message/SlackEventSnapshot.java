@@ -0,0 +1,140 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackSamplingRate;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.With;
+import org.keycloak.events.Event;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.AdminEvent;
+import org.keycloak.events.admin.OperationType;
+import org.keycloak.models.utils.ModelToRepresentation;
+
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class SlackEventSnapshot {
+
+    EventType eventType;
+    OperationType operationType;
+    long time;
+    String realmName;
+    String host;
+    String clientId;
+    String resourceType;
+    String error;
+    String ipAddress;
+    String userId;
+    String sessionId;
+    String resourcePath;
+    Object representation;
+    // routing and token of the realm, null when global ones are used
+    SlackRealmConfiguration realmConfiguration;
+    // null when all events of the type are sent
+    @With
+    SlackSamplingRate samplingRate;
+
+    public static SlackEventSnapshot of(
+            final Event event,
+            final String realmName,
+            final String host,
+            final boolean includeEventRepresentationEnabled) {
+        return of(event, realmName, host, includeEventRepresentationEnabled, null);
+    }
+
+    public static SlackEventSnapshot of(
+            final Event event,
+            final String realmName,
+            final String host,
+            final SlackRealmConfiguration realmConfiguration) {
+        return of(event, realmName, host, realmConfiguration.isIncludeEventRepresentationEnabled(), realmConfiguration);
+    }
+
+    public static SlackEventSnapshot of(
+            final AdminEvent adminEvent,
+            final String realmName,
+            final String host,
+            final boolean includeAdminEventRepresentationEnabled) {
+        return of(adminEvent, realmName, host, includeAdminEventRepresentationEnabled, null);
+    }
+
+    public static SlackEventSnapshot of(
+            final AdminEvent adminEvent,
+            final String realmName,
+            final String host,
+            final SlackRealmConfiguration realmConfiguration) {
+        return of(adminEvent, realmName, host, realmConfiguration.isIncludeAdminEventRepresentationEnabled(), realmConfiguration);
+    }
+
+    private static SlackEventSnapshot of(
+            final Event event,
+            final String realmName,
+            final String host,
+            final boolean includeEventRepresentationEnabled,
+            final SlackRealmConfiguration realmConfiguration) {
+        return new SlackEventSnapshot(
+                event.getType(),
+                null,
+                event.getTime(),
+                realmName,
+                host,
+                event.getClientId(),
+                null,
+                event.getError(),
+                event.getIpAddress(),
+                event.getUserId(),
+                event.getSessionId(),
+                null,
+                includeEventRepresentationEnabled ? ModelToRepresentation.toRepresentation(event) : null,
+                realmConfiguration,
+                null
+        );
+    }
+
+    private static SlackEventSnapshot of(
+            final AdminEvent adminEvent,
+            final String realmName,
+            final String host,
+            final boolean includeAdminEventRepresentationEnabled,
+            final SlackRealmConfiguration realmConfiguration) {
+        return new SlackEventSnapshot(
+                null,
+                adminEvent.getOperationType(),
+                adminEvent.getTime(),
+                realmName,
+                host,
+                null,
+                adminEvent.getResourceTypeAsString(),
+                adminEvent.getError(),
+                adminEvent.getAuthDetails() != null ? adminEvent.getAuthDetails().getIpAddress() : null,
+                adminEvent.getAuthDetails() != null ? adminEvent.getAuthDetails().getUserId() : null,
+                null,
+                adminEvent.getResourcePath(),
+                includeAdminEventRepresentationEnabled ? ModelToRepresentation.toRepresentation(adminEvent) : null,
+                realmConfiguration,
+                null
+        );
+    }
+
+    public boolean isAdminEvent() {
+        return operationType != null;
+    }
+
+    // *_ERROR events count as errors even when Keycloak left their error empty
+    public boolean isError() {
+        return error != null || (eventType != null && eventType.name().endsWith("_ERROR"));
+    }
+
+    public String getTypeName() {
+        return isAdminEvent() ? operationType.name() : eventType.name();
+    }
+
+    public boolean isSampled() {
+        return samplingRate != null;
+    }
+
+    public boolean hasRepresentation() {
+        return representation != null;
+    }
+}
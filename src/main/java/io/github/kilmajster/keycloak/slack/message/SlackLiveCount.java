@@ -0,0 +1,18 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import lombok.Value;
+
+@Value
+public class SlackLiveCount {
+
+    String realmName;
+    String host;
+    String typeName;
+    long count;
+    // null when last event had no client
+    String lastClientId;
+    long sinceMillis;
+    long lastMillis;
+    long untilMillis;
+    boolean closed;
+}
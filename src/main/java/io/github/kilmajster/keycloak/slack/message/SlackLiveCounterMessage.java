@@ -0,0 +1,51 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import com.slack.api.model.block.ContextBlock;
+import com.slack.api.model.block.LayoutBlock;
+import com.slack.api.model.block.SectionBlock;
+import com.slack.api.model.block.composition.MarkdownTextObject;
+
+import java.util.List;
+import java.util.Locale;
+
+public final class SlackLiveCounterMessage {
+
+    public static String title(final SlackLiveCount liveCount) {
+        return liveCount.getTypeName() + " in realm " + liveCount.getRealmName() + ": "
+                + countText(liveCount)
+                + (liveCount.getLastClientId() == null ? "" : ", last from client " + liveCount.getLastClientId());
+    }
+
+    public static List<LayoutBlock> getMessageBlocks(final SlackLiveCount liveCount) {
+        return List.of(
+                SectionBlock.builder()
+                        .text(MarkdownTextObject.builder()
+                                .text("`" + liveCount.getTypeName() + "` in realm *" + liveCount.getRealmName() + "*: *"
+                                        + countText(liveCount) + "*"
+                                        + (liveCount.getLastClientId() == null ? "" : ", last from client *" + liveCount.getLastClientId() + "*"))
+                                .build()
+                        ).build(),
+                ContextBlock.builder()
+                        .elements(List.of(
+                                MarkdownTextObject.builder()
+                                        .text(periodText(liveCount))
+                                        .build()
+                        )).build()
+        );
+    }
+
+    private static String countText(final SlackLiveCount liveCount) {
+        return String.format(Locale.ROOT, "%,d", liveCount.getCount()) + (liveCount.isClosed() ? " in total" : " so far");
+    }
+
+    private static String periodText(final SlackLiveCount liveCount) {
+        final String keycloak = "Keycloak at " + liveCount.getHost() + ", ";
+
+        return liveCount.isClosed()
+                ? keycloak + "counted from " + SlackMessageTemplates.dateToken(liveCount.getSinceMillis())
+                + " to " + SlackMessageTemplates.dateToken(liveCount.getLastMillis())
+                : keycloak + "counting since " + SlackMessageTemplates.dateToken(liveCount.getSinceMillis())
+                + ", last event at " + SlackMessageTemplates.dateToken(liveCount.getLastMillis())
+                + ", this message is updated until " + SlackMessageTemplates.dateToken(liveCount.getUntilMillis());
+    }
+}
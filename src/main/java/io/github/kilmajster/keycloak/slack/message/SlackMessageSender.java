@@ -1,78 +1,200 @@
 package io.github.kilmajster.keycloak.slack.message;
 
-import com.slack.api.Slack;
-import com.slack.api.methods.SlackApiException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.slack.api.methods.request.chat.ChatPostMessageRequest;
-import com.slack.api.methods.response.chat.ChatPostMessageResponse;
 import com.slack.api.model.block.LayoutBlock;
 import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRoutingTable;
+import io.github.kilmajster.keycloak.slack.delivery.SlackChannelScheduler;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
-import org.keycloak.events.Event;
-import org.keycloak.events.admin.AdminEvent;
-import org.keycloak.models.KeycloakContext;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Slf4j
 @RequiredArgsConstructor
 public class SlackMessageSender {
 
-    private final Slack slack;
+    private final SlackChannelScheduler slackChannelScheduler;
     private final SlackConfiguration slackConfiguration;
 
-    public void sendEventMessage(KeycloakContext context, Event event) {
+    public void sendEventMessage(SlackEventSnapshot snapshot) {
         try {
-            final String host = getKeycloakHost(context);
+            final List<LayoutBlock> messageBlocks = SlackEventMessage.getEventMessageBlocks(snapshot);
 
-            final List<LayoutBlock> messageBlocks = SlackEventMessage.getEventMessageBlocks(
-                    event,
-                    context.getRealm().getName(),
-                    host,
-                    slackConfiguration.isIncludeEventRepresentationEnabled()
-            );
+            final Destination destination = destinationOf(snapshot);
 
-            sendSlackMessage(SlackEventMessage.eventTitle(host), messageBlocks);
-        } catch (SlackApiException | IOException e) {
-            log.error("An error occurred while sending event message to Slack!", e);
+            sendSlackMessage(destination, SlackEventMessage.title(snapshot), messageBlocks, List.of(snapshot), threadKeyOf(destination, snapshot));
+        } catch (JsonProcessingException e) {
+            log.error("An error occurred while building {} message for Slack!", snapshot.isAdminEvent() ? "admin event" : "event", e);
         }
     }
 
+    // batch is split per channel, keeping order of events within each of them
+    public void sendBatchMessage(List<SlackEventSnapshot> snapshots) {
+        groupByDestination(snapshots, this::destinationOf).forEach((destination, channelSnapshots) -> {
+            if (channelSnapshots.size() == 1) {
+                sendEventMessage(channelSnapshots.get(0));
+                return;
+            }
+            final List<LayoutBlock> messageBlocks = SlackBatchEventMessage.getBatchMessageBlocks(channelSnapshots);
 
-    public void sendAdminEventMessage(KeycloakContext context, AdminEvent event) {
-        try {
-            final String host = getKeycloakHost(context);
+            sendSlackMessage(
+                    destination,
+                    SlackBatchEventMessage.batchTitle(channelSnapshots.get(0).getHost(), channelSnapshots.size()),
+                    messageBlocks,
+                    channelSnapshots,
+                    null
+            );
+        });
+    }
+
+    // digest is split per channel and token of the realms, entries without channel go to the default one
+    public void sendDigestMessage(final List<SlackDigestEntry> entries, final long intervalMinutes) {
+        groupByDestination(entries, this::destinationOf).forEach((destination, channelEntries) -> {
+            final List<LayoutBlock> messageBlocks = SlackEventMessage.getDigestMessageBlocks(channelEntries, intervalMinutes);
+            final long eventsCount = channelEntries.stream()
+                    .mapToLong(SlackDigestEntry::getCount)
+                    .sum();
 
-            final List<LayoutBlock> messageBlocks = SlackEventMessage.getEventMessageBlocks(
-                    event,
-                    context.getRealm().getName(),
-                    host,
-                    slackConfiguration.isIncludeEventRepresentationEnabled()
+            sendSlackMessage(
+                    destination,
+                    SlackEventMessage.digestTitle(channelEntries.get(0).getHost(), eventsCount, intervalMinutes),
+                    messageBlocks
             );
+        });
+    }
+
+    // summary goes to the channel of the suppressed events, node name is null when not in cluster
+    public void sendSuppressionSummary(
+            final List<SlackSuppressedEvents> suppressedEvents,
+            final long windowSeconds,
+            final String nodeName) {
+        groupByDestination(suppressedEvents, events -> destinationOf(events.getFirstEvent())).forEach((destination, channelEvents) -> {
+            final List<LayoutBlock> messageBlocks = SlackSuppressionSummaryMessage.getSummaryMessageBlocks(channelEvents, windowSeconds, nodeName);
+            final long suppressedCount = channelEvents.stream()
+                    .mapToLong(SlackSuppressedEvents::getSuppressedCount)
+                    .sum();
 
-            sendSlackMessage(SlackEventMessage.adminEventTitle(host), messageBlocks);
-        } catch (SlackApiException | IOException e) {
-            log.error("An error occurred while sending admin event message to Slack!", e);
+            sendSlackMessage(
+                    destination,
+                    SlackSuppressionSummaryMessage.summaryTitle(channelEvents.get(0).getFirstEvent().getHost(), suppressedCount, windowSeconds, nodeName),
+                    messageBlocks
+            );
+        });
+    }
+
+    // summary goes to the channel and token the shed messages were meant for
+    public void sendShedSummary(final SlackShedCounts shedCounts) {
+        final List<LayoutBlock> messageBlocks = SlackShedSummaryMessage.getSummaryMessageBlocks(shedCounts.getCounts());
+        final long shedCount = shedCounts.getCounts().values().stream()
+                .mapToLong(Long::longValue)
+                .sum();
+
+        sendSlackMessage(
+                new Destination(shedCounts.getTokenRealm(), shedCounts.getChannel()),
+                SlackShedSummaryMessage.summaryTitle(shedCount),
+                messageBlocks
+        );
+    }
+
+    // realm can have its own routes and token, which is referred to by realm name, so it's never stored with message
+    private Destination destinationOf(final SlackEventSnapshot snapshot) {
+        final SlackRealmConfiguration realmConfiguration = snapshot.getRealmConfiguration();
+        final SlackRoutingTable routingTable = realmConfiguration == null
+                ? slackConfiguration.getRoutingTable()
+                : realmConfiguration.getRoutingTable();
+
+        return new Destination(
+                realmConfiguration == null || realmConfiguration.getToken() == null ? null : snapshot.getRealmName(),
+                routingTable.channelOf(
+                        snapshot.getEventType(),
+                        snapshot.getOperationType(),
+                        snapshot.getRealmName(),
+                        snapshot.getClientId(),
+                        snapshot.getResourceType()
+                )
+        );
+    }
+
+    private Destination destinationOf(final SlackDigestEntry entry) {
+        return new Destination(
+                entry.getTokenRealm(),
+                entry.getChannel() != null ? entry.getChannel() : slackConfiguration.getRoutingTable().getDefaultChannel()
+        );
+    }
+
+    // events of the same user, session, ip address or admin resource go to one thread per realm and channel
+    private String threadKeyOf(final Destination destination, final SlackEventSnapshot snapshot) {
+        if (!slackConfiguration.isThreadingEnabled()) {
+            return null;
+        }
+
+        final String keyValue;
+        switch (slackConfiguration.getThreadKey()) {
+            case USER:
+                keyValue = snapshot.getUserId();
+                break;
+            case SESSION:
+                keyValue = snapshot.getSessionId();
+                break;
+            case IP_ADDRESS:
+                keyValue = snapshot.getIpAddress();
+                break;
+            case RESOURCE_PATH:
+                keyValue = snapshot.getResourcePath();
+                break;
+            default:
+                keyValue = null;
+        }
+
+        return keyValue == null
+                ? null
+                : destination.getChannel() + '\n' + snapshot.getRealmName() + '\n' + keyValue;
+    }
+
+    private static <T> Map<Destination, List<T>> groupByDestination(final List<T> items, final Function<T, Destination> destinationOf) {
+        final Map<Destination, List<T>> itemsByDestination = new LinkedHashMap<>();
+        for (T item : items) {
+            itemsByDestination.computeIfAbsent(destinationOf.apply(item), destination -> new ArrayList<>()).add(item);
         }
+
+        return itemsByDestination;
     }
 
-    private void sendSlackMessage(final String title, final List<LayoutBlock> messageBlocks) throws SlackApiException, IOException {
-        final ChatPostMessageRequest request = ChatPostMessageRequest.builder()
-                .channel(slackConfiguration.getChannel())
+    private void sendSlackMessage(final Destination destination, final String title, final List<LayoutBlock> messageBlocks) {
+        slackChannelScheduler.submit(request(destination, title, messageBlocks), destination.getTokenRealm());
+    }
+
+    // events are passed along, so overload policy knows what it sheds
+    private void sendSlackMessage(
+            final Destination destination,
+            final String title,
+            final List<LayoutBlock> messageBlocks,
+            final List<SlackEventSnapshot> snapshots,
+            final String threadKey) {
+        slackChannelScheduler.submit(request(destination, title, messageBlocks), destination.getTokenRealm(), snapshots, threadKey);
+    }
+
+    private static ChatPostMessageRequest request(final Destination destination, final String title, final List<LayoutBlock> messageBlocks) {
+        return ChatPostMessageRequest.builder()
+                .channel(destination.getChannel())
                 .text(title)
                 .blocks(messageBlocks)
                 .build();
-
-        final ChatPostMessageResponse response = slack.methods(slackConfiguration.getToken())
-                .chatPostMessage(request);
-
-        if (!response.isOk()) {
-            log.warn("Failed to send message to Slack! Error = {}", response.getError());
-        }
     }
 
-    private String getKeycloakHost(final KeycloakContext context) {
-        return context.getUri().getBaseUri().toString();
+    @Value
+    private static class Destination {
+
+        // null when token of the listener is used
+        String tokenRealm;
+        String channel;
     }
 }
@@ -0,0 +1,137 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.slack.api.model.block.SectionBlock;
+import com.slack.api.model.block.composition.MarkdownTextObject;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.OperationType;
+import org.keycloak.util.JsonSerialization;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Fixed parts of event messages, built once and shared between messages, and size budgeted
+ * representation text. Blocks returned from here are shared instances, so they must never be modified.
+ */
+final class SlackMessageTemplates {
+
+    // host comes from request, so the number of cached headers is bounded
+    static final int MAX_CACHED_HOSTS = 64;
+
+    static final String TRUNCATED_MARKER = "\n... truncated";
+
+    private static final String CODE_BLOCK = "```";
+    private static final int MAX_REPRESENTATION_LENGTH = SlackBatchEventMessage.MAX_SECTION_TEXT_LENGTH
+            - 2 * CODE_BLOCK.length()
+            - TRUNCATED_MARKER.length();
+    private static final String WHEN_PREFIX = "*When:*\n";
+    private static final int DATE_TOKEN_LENGTH = 80;
+    private static final ObjectWriter REPRESENTATION_WRITER = JsonSerialization.mapper.writer();
+    private static final MarkdownTextObject[] EVENT_TYPE_FIELDS = new MarkdownTextObject[EventType.values().length];
+    private static final MarkdownTextObject[] ADMIN_EVENT_TYPE_FIELDS = new MarkdownTextObject[OperationType.values().length];
+    private static final Map<String, SectionBlock> EVENT_HEADERS = new ConcurrentHashMap<>();
+    private static final Map<String, SectionBlock> ADMIN_EVENT_HEADERS = new ConcurrentHashMap<>();
+
+    static {
+        for (EventType eventType : EventType.values()) {
+            EVENT_TYPE_FIELDS[eventType.ordinal()] = eventTypeFieldOf(eventType.name());
+        }
+        for (OperationType operationType : OperationType.values()) {
+            ADMIN_EVENT_TYPE_FIELDS[operationType.ordinal()] = eventTypeFieldOf(operationType.name());
+        }
+    }
+
+    private SlackMessageTemplates() {
+    }
+
+    static SectionBlock headerBlock(final SlackEventSnapshot snapshot) {
+        return snapshot.isAdminEvent()
+                ? cachedHeader(ADMIN_EVENT_HEADERS, snapshot.getHost(), SlackEventMessage::adminEventTitle)
+                : cachedHeader(EVENT_HEADERS, snapshot.getHost(), SlackEventMessage::eventTitle);
+    }
+
+    static MarkdownTextObject eventTypeField(final SlackEventSnapshot snapshot) {
+        return snapshot.isAdminEvent()
+                ? ADMIN_EVENT_TYPE_FIELDS[snapshot.getOperationType().ordinal()]
+                : EVENT_TYPE_FIELDS[snapshot.getEventType().ordinal()];
+    }
+
+    static String dateToken(final long epochMillis) {
+        return appendDateToken(new StringBuilder(DATE_TOKEN_LENGTH), epochMillis).toString();
+    }
+
+    static String whenField(final long epochMillis) {
+        return appendDateToken(new StringBuilder(WHEN_PREFIX.length() + DATE_TOKEN_LENGTH).append(WHEN_PREFIX), epochMillis).toString();
+    }
+
+    // rendered by Slack in reader's time zone, fallback is only shown by clients which can't do it
+    private static StringBuilder appendDateToken(final StringBuilder builder, final long epochMillis) {
+        builder.append("<!date^").append(epochMillis / 1000).append("^{date_short_pretty} {time_secs}|");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(epochMillis), builder);
+
+        return builder.append('>');
+    }
+
+    // serialization stops at the budget, so large admin representations are never written whole
+    static String representationText(final Object representation) throws JsonProcessingException {
+        final SlackBudgetWriter writer = new SlackBudgetWriter(MAX_REPRESENTATION_LENGTH);
+        try {
+            REPRESENTATION_WRITER.writeValue(writer, representation);
+        } catch (SlackBudgetWriter.BudgetExceededException e) {
+            // written part is kept
+        } catch (JsonProcessingException e) {
+            if (!writer.isExceeded()) {
+                throw e;
+            }
+        } catch (IOException e) {
+            throw JsonMappingException.fromUnexpectedIOE(e);
+        }
+
+        return writer.isExceeded()
+                ? CODE_BLOCK + writer + TRUNCATED_MARKER + CODE_BLOCK
+                : CODE_BLOCK + writer + CODE_BLOCK;
+    }
+
+    static int cachedHosts() {
+        return EVENT_HEADERS.size() + ADMIN_EVENT_HEADERS.size();
+    }
+
+    private static SectionBlock cachedHeader(
+            final Map<String, SectionBlock> headers,
+            final String host,
+            final Function<String, String> title) {
+        if (host == null) {
+            return textBlock(title.apply(null));
+        }
+        final SectionBlock header = headers.get(host);
+        if (header != null) {
+            return header;
+        }
+        if (headers.size() >= MAX_CACHED_HOSTS) {
+            return textBlock(title.apply(host));
+        }
+
+        return headers.computeIfAbsent(host, key -> textBlock(title.apply(key)));
+    }
+
+    private static SectionBlock textBlock(final String text) {
+        return SectionBlock.builder()
+                .text(MarkdownTextObject.builder()
+                        .text(text)
+                        .build()
+                ).build();
+    }
+
+    private static MarkdownTextObject eventTypeFieldOf(final String typeName) {
+        return MarkdownTextObject.builder()
+                .text("*Event type:*\n" + typeName)
+                .build();
+    }
+}
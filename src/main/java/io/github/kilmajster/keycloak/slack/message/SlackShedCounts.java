@@ -0,0 +1,15 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import lombok.Value;
+
+import java.util.Map;
+
+@Value
+public class SlackShedCounts {
+
+    // channel and token of the shed messages, so summary goes where they would have gone
+    String channel;
+    // null when token of the listener is used
+    String tokenRealm;
+    Map<String, Long> counts;
+}
@@ -0,0 +1,26 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import com.slack.api.model.block.LayoutBlock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class SlackShedSummaryMessage {
+
+    public static String summaryTitle(final long shedCount) {
+        return shedCount + " events from Keycloak were dropped while Slack delivery was overloaded";
+    }
+
+    public static List<LayoutBlock> getSummaryMessageBlocks(final Map<String, Long> shedCounts) {
+        final List<String> summaryLines = new ArrayList<>(shedCounts.size());
+        long shedCount = 0;
+
+        for (Map.Entry<String, Long> shed : shedCounts.entrySet()) {
+            summaryLines.add("`" + shed.getKey() + "` " + shed.getValue() + " dropped");
+            shedCount += shed.getValue();
+        }
+
+        return SlackBatchEventMessage.getLinesMessageBlocks(summaryTitle(shedCount), summaryLines, "event types");
+    }
+}
@@ -0,0 +1,15 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import io.github.kilmajster.keycloak.slack.config.SlackSuppressionKeyField;
+import lombok.Value;
+
+import java.util.Set;
+
+@Value
+public class SlackSuppressedEvents {
+
+    SlackEventSnapshot firstEvent;
+    // only these fields are the same for all folded events
+    Set<SlackSuppressionKeyField> keyFields;
+    long suppressedCount;
+}
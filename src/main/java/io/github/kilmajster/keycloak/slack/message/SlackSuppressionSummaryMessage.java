@@ -0,0 +1,63 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import com.slack.api.model.block.LayoutBlock;
+import io.github.kilmajster.keycloak.slack.config.SlackSuppressionKeyField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public final class SlackSuppressionSummaryMessage {
+
+    // counts aren't shared in cluster, so the node is named to make clear other nodes may report more
+    public static String summaryTitle(final String host, final long suppressedCount, final long windowSeconds, final String nodeName) {
+        final String title = suppressedCount + " more occurrences of repeated events in the last " + windowSeconds + " seconds in Keycloak at " + host;
+
+        return nodeName != null ? title + ", counted on node " + nodeName + " only" : title;
+    }
+
+    public static List<LayoutBlock> getSummaryMessageBlocks(
+            final List<SlackSuppressedEvents> suppressedEvents,
+            final long windowSeconds,
+            final String nodeName) {
+        final List<String> summaryLines = new ArrayList<>(suppressedEvents.size());
+        long suppressedCount = 0;
+
+        for (SlackSuppressedEvents events : suppressedEvents) {
+            summaryLines.add(summaryLine(events));
+            suppressedCount += events.getSuppressedCount();
+        }
+
+        return SlackBatchEventMessage.getLinesMessageBlocks(
+                summaryTitle(suppressedEvents.get(0).getFirstEvent().getHost(), suppressedCount, windowSeconds, nodeName),
+                summaryLines,
+                "repeated events"
+        );
+    }
+
+    private static String summaryLine(final SlackSuppressedEvents events) {
+        final SlackEventSnapshot event = events.getFirstEvent();
+        final Set<SlackSuppressionKeyField> keyFields = events.getKeyFields();
+        final StringBuilder line = new StringBuilder();
+
+        if (keyFields.contains(SlackSuppressionKeyField.TYPE)) {
+            line.append('`').append(event.getTypeName()).append("` ");
+        }
+        if (keyFields.contains(SlackSuppressionKeyField.REALM)) {
+            line.append("realm *").append(event.getRealmName()).append("*, ");
+        }
+        if (keyFields.contains(SlackSuppressionKeyField.CLIENT)) {
+            line.append(event.isAdminEvent() ? "resource *" : "client *")
+                    .append(event.isAdminEvent() ? event.getResourceType() : event.getClientId())
+                    .append("*, ");
+        }
+        if (keyFields.contains(SlackSuppressionKeyField.ERROR) && event.getError() != null) {
+            line.append("error *").append(event.getError()).append("*, ");
+        }
+        if (keyFields.contains(SlackSuppressionKeyField.IP_ADDRESS) && event.getIpAddress() != null) {
+            line.append("ip *").append(event.getIpAddress()).append("*, ");
+        }
+
+        return line.append(events.getSuppressedCount()).append(" more occurrences").toString();
+    }
+}
@@ -0,0 +1,190 @@
+package io.github.kilmajster.keycloak.slack.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.commons.lang.StringUtils;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.OperationType;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntSupplier;
+
+/**
+ * Micrometer backed metrics, published through global registry which Keycloak Quarkus distribution
+ * exposes on its Prometheus endpoint. Event counters are registered lazily on first use and cached by
+ * enum ordinal, so event path only does an array read and a counter increment.
+ */
+public final class MicrometerSlackMetrics implements SlackMetrics {
+
+    static final String EVENTS_METRIC = "keycloak.slack.events";
+    static final String SEND_METRIC = "keycloak.slack.send";
+    static final String ERRORS_METRIC = "keycloak.slack.errors";
+    static final String RETRIES_METRIC = "keycloak.slack.retries";
+    static final String RATE_LIMITED_METRIC = "keycloak.slack.rate.limited";
+    static final String DROPPED_METRIC = "keycloak.slack.dropped";
+    static final String QUEUE_DEPTH_METRIC = "keycloak.slack.queue.depth";
+
+    private static final String KIND_TAG = "kind";
+    private static final String TYPE_TAG = "type";
+    private static final String RESULT_TAG = "result";
+    private static final String OUTCOME_TAG = "outcome";
+    private static final String ERROR_TAG = "error";
+    private static final String REASON_TAG = "reason";
+    private static final String UNKNOWN_ERROR = "unknown";
+
+    private final MeterRegistry registry;
+    private final Queue<Meter> meters = new ConcurrentLinkedQueue<>();
+    private final AtomicReferenceArray<Counter> acceptedEvents = new AtomicReferenceArray<>(EventType.values().length);
+    private final AtomicReferenceArray<Counter> rejectedEvents = new AtomicReferenceArray<>(EventType.values().length);
+    private final AtomicReferenceArray<Counter> sampledOutEvents = new AtomicReferenceArray<>(EventType.values().length);
+    private final AtomicReferenceArray<Counter> acceptedAdminEvents = new AtomicReferenceArray<>(OperationType.values().length);
+    private final AtomicReferenceArray<Counter> rejectedAdminEvents = new AtomicReferenceArray<>(OperationType.values().length);
+    private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+    private final Counter[] dropped = new Counter[DropReason.values().length];
+    private final Timer sendSuccess;
+    private final Timer sendFailure;
+    private final Counter retries;
+    private final Counter rateLimited;
+
+    public MicrometerSlackMetrics(final MeterRegistry registry) {
+        this.registry = registry;
+        this.sendSuccess = sendTimer("success");
+        this.sendFailure = sendTimer("failure");
+        this.retries = register(Counter.builder(RETRIES_METRIC)
+                .description("Slack messages scheduled for another attempt")
+                .register(registry));
+        this.rateLimited = register(Counter.builder(RATE_LIMITED_METRIC)
+                .description("Slack responses with rate limit error")
+                .register(registry));
+        for (final DropReason reason : DropReason.values()) {
+            dropped[reason.ordinal()] = register(Counter.builder(DROPPED_METRIC)
+                    .description("Slack messages which were never delivered")
+                    .tag(REASON_TAG, reason.name().toLowerCase())
+                    .register(registry));
+        }
+    }
+
+    static SlackMetrics global() {
+        return new MicrometerSlackMetrics(Metrics.globalRegistry);
+    }
+
+    @Override
+    public void eventAccepted(final EventType eventType) {
+        eventCounter(acceptedEvents, eventType.ordinal(), "user", eventType.name(), "accepted").increment();
+    }
+
+    @Override
+    public void eventRejected(final EventType eventType) {
+        eventCounter(rejectedEvents, eventType.ordinal(), "user", eventType.name(), "rejected").increment();
+    }
+
+    @Override
+    public void eventSampledOut(final EventType eventType) {
+        eventCounter(sampledOutEvents, eventType.ordinal(), "user", eventType.name(), "sampled_out").increment();
+    }
+
+    @Override
+    public void adminEventAccepted(final OperationType operationType) {
+        eventCounter(acceptedAdminEvents, operationType.ordinal(), "admin", operationType.name(), "accepted").increment();
+    }
+
+    @Override
+    public void adminEventRejected(final OperationType operationType) {
+        eventCounter(rejectedAdminEvents, operationType.ordinal(), "admin", operationType.name(), "rejected").increment();
+    }
+
+    @Override
+    public void messageSent(final long latencyNanos) {
+        sendSuccess.record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void messageFailed(final String error, final long latencyNanos) {
+        sendFailure.record(latencyNanos, TimeUnit.NANOSECONDS);
+        errors.computeIfAbsent(StringUtils.defaultIfEmpty(error, UNKNOWN_ERROR), this::errorCounter).increment();
+    }
+
+    @Override
+    public void messageRetried() {
+        retries.increment();
+    }
+
+    @Override
+    public void messageRateLimited() {
+        rateLimited.increment();
+    }
+
+    @Override
+    public void messageDropped(final DropReason reason) {
+        dropped[reason.ordinal()].increment();
+    }
+
+    @Override
+    public void registerQueueDepth(final IntSupplier pendingMessages) {
+        register(Gauge.builder(QUEUE_DEPTH_METRIC, pendingMessages::getAsInt)
+                .description("Slack messages waiting for delivery worker, rate limit or retry")
+                .strongReference(true)
+                .register(registry));
+    }
+
+    // meters are removed, so redeployed provider doesn't report stale values
+    @Override
+    public void close() {
+        Meter meter;
+        while ((meter = meters.poll()) != null) {
+            registry.remove(meter);
+        }
+    }
+
+    private Counter eventCounter(
+            final AtomicReferenceArray<Counter> counters,
+            final int ordinal,
+            final String kind,
+            final String type,
+            final String result) {
+        final Counter counter = counters.get(ordinal);
+        if (counter != null) {
+            return counter;
+        }
+
+        // concurrent registration returns the same counter from registry
+        final Counter registered = register(Counter.builder(EVENTS_METRIC)
+                .description("Keycloak events seen by Slack listener")
+                .tag(KIND_TAG, kind)
+                .tag(TYPE_TAG, type)
+                .tag(RESULT_TAG, result)
+                .register(registry));
+        counters.set(ordinal, registered);
+
+        return registered;
+    }
+
+    private Counter errorCounter(final String error) {
+        return register(Counter.builder(ERRORS_METRIC)
+                .description("Failed Slack API calls by error code")
+                .tag(ERROR_TAG, error)
+                .register(registry));
+    }
+
+    private Timer sendTimer(final String outcome) {
+        return register(Timer.builder(SEND_METRIC)
+                .description("Latency of chat.postMessage calls")
+                .tag(OUTCOME_TAG, outcome)
+                .publishPercentileHistogram()
+                .register(registry));
+    }
+
+    private <M extends Meter> M register(final M meter) {
+        meters.add(meter);
+        return meter;
+    }
+}
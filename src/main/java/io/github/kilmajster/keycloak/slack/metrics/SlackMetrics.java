@@ -0,0 +1,81 @@
+package io.github.kilmajster.keycloak.slack.metrics;
+
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.OperationType;
+
+import java.util.function.IntSupplier;
+
+/**
+ * Operational metrics of Slack pipeline. Calls on event path must stay cheap, implementations
+ * are expected to resolve meters once and only increment them afterwards.
+ */
+public interface SlackMetrics extends AutoCloseable {
+
+    String MICROMETER_CLASS = "io.micrometer.core.instrument.Metrics";
+
+    SlackMetrics NOOP = new SlackMetrics() {
+    };
+
+    default void eventAccepted(final EventType eventType) {
+    }
+
+    default void eventRejected(final EventType eventType) {
+    }
+
+    default void eventSampledOut(final EventType eventType) {
+    }
+
+    default void adminEventAccepted(final OperationType operationType) {
+    }
+
+    default void adminEventRejected(final OperationType operationType) {
+    }
+
+    default void messageSent(final long latencyNanos) {
+    }
+
+    default void messageFailed(final String error, final long latencyNanos) {
+    }
+
+    default void messageRetried() {
+    }
+
+    default void messageRateLimited() {
+    }
+
+    default void messageDropped(final DropReason reason) {
+    }
+
+    default void registerQueueDepth(final IntSupplier pendingMessages) {
+    }
+
+    @Override
+    default void close() {
+    }
+
+    // micrometer is provided by Keycloak Quarkus distribution, it's only touched when present
+    static SlackMetrics of(final SlackConfiguration slackConfiguration) {
+        if (!slackConfiguration.isMetricsEnabled() || !isMicrometerPresent()) {
+            return NOOP;
+        }
+
+        return MicrometerSlackMetrics.global();
+    }
+
+    private static boolean isMicrometerPresent() {
+        try {
+            Class.forName(MICROMETER_CLASS, false, SlackMetrics.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    enum DropReason {
+        QUEUE_FULL,
+        ASYNC_QUEUE_FULL,
+        DEAD_LETTER,
+        SHUTDOWN
+    }
+}
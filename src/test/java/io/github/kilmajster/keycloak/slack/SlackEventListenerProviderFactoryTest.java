@@ -0,0 +1,54 @@
+package io.github.kilmajster.keycloak.slack;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackEventListenerProviderFactoryTest {
+
+    @Test
+    void close_should_stop_all_threads_started_by_factory() throws Exception {
+        // given
+        final Set<Thread> threadsBeforeInit = liveThreads();
+        final SlackEventListenerProviderFactory factory = withEnvironmentVariable("SLACK_ASYNC_ENABLED", "true")
+                .and("SLACK_BATCH_ENABLED", "true")
+                .and("SLACK_SUPPRESSION_ENABLED", "true")
+                .and("SLACK_DIGEST_EVENTS", "LOGIN")
+                .execute(SlackEventListenerProviderFactory::new);
+        factory.init(null);
+        factory.postInit(null);
+
+        // when
+        factory.close();
+
+        // then
+        assertThat(awaitThreadsStopped(threadsBeforeInit)).isEmpty();
+    }
+
+    private static Set<Thread> awaitThreadsStopped(Set<Thread> threadsBeforeInit) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        Set<Thread> startedThreads;
+
+        do {
+            startedThreads = liveThreads();
+            startedThreads.removeAll(threadsBeforeInit);
+            if (startedThreads.isEmpty()) {
+                break;
+            }
+            Thread.sleep(10);
+        } while (System.nanoTime() < deadline);
+
+        return startedThreads;
+    }
+
+    private static Set<Thread> liveThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(Thread::isAlive)
+                .collect(Collectors.toSet());
+    }
+}
@@ -1,6 +1,10 @@
 package io.github.kilmajster.keycloak.slack;
 
-import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfigurations;
+import io.github.kilmajster.keycloak.slack.config.SlackSamplingRate;
+import io.github.kilmajster.keycloak.slack.delivery.SlackEventSampler;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -9,23 +13,40 @@ import org.keycloak.events.Event;
 import org.keycloak.events.EventType;
 import org.keycloak.events.admin.AdminEvent;
 import org.keycloak.events.admin.OperationType;
+import org.keycloak.events.admin.ResourceType;
+import org.keycloak.models.KeycloakSession;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Collections;
+import java.util.Map;
 
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class SlackEventListenerProviderTest {
 
+    private static final String TEST_REALM_ID = "realm-id";
+
+    @Mock
+    private SlackRealmConfigurations slackRealmConfigurations;
+
+    @Mock
+    private SlackRealmConfiguration slackRealmConfiguration;
+
     @Mock
-    private SlackConfiguration slackConfiguration;
+    private KeycloakSession session;
 
     @Mock
     private SlackEventListenerTransaction slackEventListenerTransaction;
 
+    @Mock
+    private SlackMetrics slackMetrics;
+
+    @Spy
+    private SlackEventSampler slackEventSampler = new SlackEventSampler(Map.of(EventType.REFRESH_TOKEN, SlackSamplingRate.oneIn(2)));
+
     @InjectMocks
     private SlackEventListenerProvider slackEventListenerProvider;
 
@@ -43,18 +64,38 @@ class SlackEventListenerProviderTest {
         verify(slackEventListenerTransaction).addEvent(
                 eq(event)
         );
+        verify(slackMetrics).eventAccepted(eventType);
+    }
+
+    @Test
+    void onEvent_should_send_only_sampled_events_of_sampled_type() {
+        // given
+        final Event event = mockEventForType(EventType.REFRESH_TOKEN);
+        mockSupportedEventType(EventType.REFRESH_TOKEN);
+
+        // when
+        slackEventListenerProvider.onEvent(event);
+        slackEventListenerProvider.onEvent(event);
+        slackEventListenerProvider.onEvent(event);
+
+        // then
+        verify(slackEventListenerTransaction, times(2)).addEvent(event);
+        verify(slackMetrics, times(2)).eventAccepted(EventType.REFRESH_TOKEN);
+        verify(slackMetrics).eventSampledOut(EventType.REFRESH_TOKEN);
     }
 
     private Event mockEventForType(EventType type) {
         final Event event = mock(Event.class);
         when(event.getType()).thenReturn(type);
+        when(event.getRealmId()).thenReturn(TEST_REALM_ID);
 
         return event;
     }
 
     private void mockSupportedEventType(EventType eventType) {
-        when(slackConfiguration.getSupportedEvents())
-                .thenReturn(Collections.singletonList(eventType));
+        when(slackRealmConfigurations.get(TEST_REALM_ID, session)).thenReturn(slackRealmConfiguration);
+        when(slackRealmConfiguration.isEventSupported(any(EventType.class)))
+                .thenAnswer(invocation -> eventType.equals(invocation.getArgument(0)));
     }
 
     @Test
@@ -68,6 +109,7 @@ class SlackEventListenerProviderTest {
 
         // then
         verifyNoInteractions(slackEventListenerTransaction);
+        verify(slackMetrics).eventRejected(EventType.LOGIN);
     }
 
     @ParameterizedTest
@@ -86,18 +128,21 @@ class SlackEventListenerProviderTest {
                 eq(event),
                 eq(includeRepresentation)
         );
+        verify(slackMetrics).adminEventAccepted(operationType);
     }
 
     private AdminEvent mockEventForType(OperationType type) {
         final AdminEvent event = mock(AdminEvent.class);
         when(event.getOperationType()).thenReturn(type);
+        when(event.getRealmId()).thenReturn(TEST_REALM_ID);
 
         return event;
     }
 
     private void mockSupportedAdminEventType(OperationType type) {
-        when(slackConfiguration.getSupportedAdminEvents())
-                .thenReturn(Collections.singletonList(type));
+        when(slackRealmConfigurations.get(TEST_REALM_ID, session)).thenReturn(slackRealmConfiguration);
+        when(slackRealmConfiguration.isAdminEventSupported(any(OperationType.class)))
+                .thenAnswer(invocation -> type.equals(invocation.getArgument(0)));
     }
 
     @ParameterizedTest
@@ -112,5 +157,36 @@ class SlackEventListenerProviderTest {
 
         // then
         verifyNoInteractions(slackEventListenerTransaction);
+        verify(slackMetrics).adminEventRejected(OperationType.CREATE);
+    }
+
+    @Test
+    void onEvent_should_invalidate_realm_configuration_on_commit_of_realm_update() {
+        // given
+        final AdminEvent event = mockEventForType(OperationType.UPDATE);
+        when(event.getResourceType()).thenReturn(ResourceType.REALM);
+        mockSupportedAdminEventType(OperationType.DELETE);
+
+        // when
+        slackEventListenerProvider.onEvent(event, false);
+
+        // then
+        verify(slackEventListenerTransaction).invalidateRealmConfigurationOnCommit(TEST_REALM_ID);
+        verify(slackEventListenerTransaction, never()).addAdminEvent(any(), anyBoolean());
+    }
+
+    @Test
+    void onEvent_should_keep_realm_configuration_when_other_resource_is_updated() {
+        // given
+        final AdminEvent event = mockEventForType(OperationType.UPDATE);
+        when(event.getResourceType()).thenReturn(ResourceType.USER);
+        mockSupportedAdminEventType(OperationType.UPDATE);
+
+        // when
+        slackEventListenerProvider.onEvent(event, false);
+
+        // then
+        verify(slackEventListenerTransaction, never()).invalidateRealmConfigurationOnCommit(any());
+        verify(slackEventListenerTransaction).addAdminEvent(event, false);
     }
 }
@@ -0,0 +1,141 @@
+package io.github.kilmajster.keycloak.slack.cluster;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackClusterTest {
+
+    private static final String WORK_CACHE = "work";
+    private static final long INTERVAL_MILLIS = 1_000;
+    private static final long TOLERANCE_MILLIS = 2 * INTERVAL_MILLIS;
+    private static final long NOW_MILLIS = System.currentTimeMillis();
+
+    private final List<DefaultCacheManager> cacheManagers = new ArrayList<>();
+    private final String clusterName = "slack-test-" + UUID.randomUUID();
+    private SlackCluster firstNode;
+    private SlackCluster secondNode;
+
+    @BeforeEach
+    void startCluster() throws InterruptedException {
+        firstNode = node();
+        secondNode = node();
+        awaitMembers(2);
+    }
+
+    @AfterEach
+    void stopCluster() {
+        cacheManagers.forEach(DefaultCacheManager::stop);
+    }
+
+    @Test
+    void claim_should_succeed_on_only_one_node() {
+        // when
+        final boolean firstClaimed = firstNode.claim("dedup:LOGIN_ERROR", 60_000);
+        final boolean secondClaimed = secondNode.claim("dedup:LOGIN_ERROR", 60_000);
+
+        // then
+        assertThat(firstClaimed).isTrue();
+        assertThat(secondClaimed).isFalse();
+        assertThat(secondNode.claim("dedup:LOGOUT", 60_000)).isTrue();
+    }
+
+    @Test
+    void acquire_should_share_rate_limit_between_nodes() {
+        // when
+        final long first = firstNode.acquire("rate:#alerts", INTERVAL_MILLIS, TOLERANCE_MILLIS, NOW_MILLIS);
+        final long second = secondNode.acquire("rate:#alerts", INTERVAL_MILLIS, TOLERANCE_MILLIS, NOW_MILLIS);
+        final long third = firstNode.acquire("rate:#alerts", INTERVAL_MILLIS, TOLERANCE_MILLIS, NOW_MILLIS);
+        final long fourth = secondNode.acquire("rate:#alerts", INTERVAL_MILLIS, TOLERANCE_MILLIS, NOW_MILLIS);
+
+        // then
+        assertThat(List.of(first, second, third)).containsOnly(0L);
+        assertThat(fourth).isEqualTo(INTERVAL_MILLIS);
+        assertThat(secondNode.acquire("rate:#alerts", INTERVAL_MILLIS, TOLERANCE_MILLIS, NOW_MILLIS + INTERVAL_MILLIS)).isZero();
+        assertThat(firstNode.acquire("rate:#other", INTERVAL_MILLIS, TOLERANCE_MILLIS, NOW_MILLIS)).isZero();
+    }
+
+    @Test
+    void block_should_hold_back_all_nodes() {
+        // when
+        firstNode.block("rate:#alerts", INTERVAL_MILLIS, TOLERANCE_MILLIS, NOW_MILLIS, 30_000);
+
+        // then
+        assertThat(secondNode.acquire("rate:#alerts", INTERVAL_MILLIS, TOLERANCE_MILLIS, NOW_MILLIS)).isEqualTo(30_000);
+        assertThat(secondNode.acquire("rate:#alerts", INTERVAL_MILLIS, TOLERANCE_MILLIS, NOW_MILLIS + 30_000)).isZero();
+    }
+
+    @Test
+    void take_should_return_published_values_only_once() {
+        // given
+        secondNode.publish("digest:node-b:1", "[1]", 60_000);
+        secondNode.publish("digest:node-b:2", "[2]", 60_000);
+        secondNode.publish("other:node-b:1", "[3]", 60_000);
+
+        // when
+        final List<String> taken = firstNode.take("digest:");
+
+        // then
+        assertThat(taken).containsExactlyInAnyOrder("[1]", "[2]");
+        assertThat(secondNode.take("digest:")).isEmpty();
+        assertThat(secondNode.take("other:")).containsExactly("[3]");
+    }
+
+    @Test
+    void isSender_should_elect_single_node() {
+        // when & then
+        assertThat(firstNode.isSender()).isNotEqualTo(secondNode.isSender());
+        assertThat(firstNode.getNodeName()).isNotEqualTo(secondNode.getNodeName());
+    }
+
+    @Test
+    void not_connected_node_should_act_on_its_own() {
+        // given
+        final SlackCluster standalone = new SlackCluster();
+
+        // when & then
+        assertThat(standalone.isConnected()).isFalse();
+        assertThat(standalone.isSender()).isTrue();
+        assertThat(standalone.claim("dedup:LOGIN_ERROR", 60_000)).isTrue();
+        assertThat(standalone.claim("dedup:LOGIN_ERROR", 60_000)).isTrue();
+        assertThat(standalone.getNodeName()).isEqualTo(SlackCluster.LOCAL_NODE);
+    }
+
+    private SlackCluster node() {
+        final GlobalConfigurationBuilder global = GlobalConfigurationBuilder.defaultClusteredBuilder();
+        global.transport()
+                .clusterName(clusterName)
+                .addProperty("configurationFile", "slack-cluster-jgroups.xml");
+        final DefaultCacheManager cacheManager = new DefaultCacheManager(global.build());
+        cacheManager.defineConfiguration(WORK_CACHE, new ConfigurationBuilder()
+                .clustering().cacheMode(CacheMode.REPL_SYNC)
+                .build());
+        cacheManagers.add(cacheManager);
+
+        final Cache<String, Object> cache = cacheManager.getCache(WORK_CACHE);
+        final SlackCluster slackCluster = new SlackCluster();
+        slackCluster.connect(cache);
+
+        return slackCluster;
+    }
+
+    private void awaitMembers(final int members) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (cacheManagers.stream().anyMatch(manager -> manager.getMembers().size() < members)) {
+            assertThat(System.nanoTime()).as("cluster of %d nodes formed", members).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
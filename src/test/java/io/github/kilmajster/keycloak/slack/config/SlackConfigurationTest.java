@@ -8,6 +8,7 @@ import org.keycloak.events.admin.OperationType;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
@@ -305,4 +306,398 @@ class SlackConfigurationTest {
                 OperationType.values()
         );
     }
+
+    @Test
+    void getConfig_should_return_async_disabled_with_default_queue_settings_by_default() {
+        final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+
+        assertThat(slackConfiguration.isAsyncEnabled()).isFalse();
+        assertThat(slackConfiguration.getAsyncQueueCapacity()).isEqualTo(10000);
+        assertThat(slackConfiguration.getAsyncWorkerThreads()).isEqualTo(2);
+        assertThat(slackConfiguration.isAsyncVirtualThreadsEnabled()).isTrue();
+    }
+
+    @Test
+    void getConfig_should_return_async_settings_from_SLACK_ASYNC_envs() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_ASYNC_ENABLED", "true")
+                .and("SLACK_ASYNC_QUEUE_CAPACITY", "500")
+                .and("SLACK_ASYNC_WORKER_THREADS", " 4 ")
+                .and("SLACK_ASYNC_VIRTUAL_THREADS_ENABLED", "false")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isAsyncEnabled()).isTrue();
+        assertThat(slackConfiguration.getAsyncQueueCapacity()).isEqualTo(500);
+        assertThat(slackConfiguration.getAsyncWorkerThreads()).isEqualTo(4);
+        assertThat(slackConfiguration.isAsyncVirtualThreadsEnabled()).isFalse();
+    }
+
+    @Test
+    void getConfig_should_return_default_async_queue_capacity_when_SLACK_ASYNC_QUEUE_CAPACITY_env_is_invalid() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable(
+                "SLACK_ASYNC_QUEUE_CAPACITY",
+                "-1"
+        ).execute(SlackConfiguration::getConfig);
+
+        assertThat(
+                slackConfiguration.getAsyncQueueCapacity()
+        ).isEqualTo(10000);
+    }
+
+    @Test
+    void getConfig_should_return_batch_settings_from_SLACK_BATCH_envs() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_BATCH_ENABLED", "true")
+                .and("SLACK_BATCH_WINDOW_MILLIS", "1000")
+                .and("SLACK_BATCH_MAX_EVENTS", "30")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isBatchEnabled()).isTrue();
+        assertThat(slackConfiguration.getBatchWindowMillis()).isEqualTo(1000);
+        assertThat(slackConfiguration.getBatchMaxEvents()).isEqualTo(30);
+    }
+
+    @Test
+    void getConfig_should_limit_batch_max_events_when_SLACK_BATCH_MAX_EVENTS_env_is_too_high() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable(
+                "SLACK_BATCH_MAX_EVENTS",
+                "100000"
+        ).execute(SlackConfiguration::getConfig);
+
+        assertThat(
+                slackConfiguration.getBatchMaxEvents()
+        ).isEqualTo(200);
+    }
+
+    @Test
+    void getConfig_should_return_outbox_disabled_by_default() {
+        final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+
+        assertThat(slackConfiguration.isOutboxEnabled()).isFalse();
+        assertThat(slackConfiguration.getOutboxSegmentSizeMb()).isEqualTo(16);
+        assertThat(slackConfiguration.getOutboxFsyncIntervalMillis()).isEqualTo(100);
+    }
+
+    @Test
+    void getConfig_should_return_outbox_settings_from_SLACK_OUTBOX_envs() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_OUTBOX_DIR", " /var/lib/keycloak/slack ")
+                .and("SLACK_OUTBOX_SEGMENT_SIZE_MB", "4")
+                .and("SLACK_OUTBOX_FSYNC_INTERVAL_MILLIS", "20")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isOutboxEnabled()).isTrue();
+        assertThat(slackConfiguration.getOutboxDir()).isEqualTo("/var/lib/keycloak/slack");
+        assertThat(slackConfiguration.getOutboxSegmentSizeMb()).isEqualTo(4);
+        assertThat(slackConfiguration.getOutboxFsyncIntervalMillis()).isEqualTo(20);
+    }
+
+    @Test
+    void getConfig_should_return_retry_settings_from_SLACK_RETRY_envs() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_RETRY_MAX_ATTEMPTS", "3")
+                .and("SLACK_RETRY_INITIAL_BACKOFF_MILLIS", "200")
+                .and("SLACK_RETRY_MAX_BACKOFF_MILLIS", "5000")
+                .and("SLACK_DEAD_LETTER_CAPACITY", "10")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.getRetryMaxAttempts()).isEqualTo(3);
+        assertThat(slackConfiguration.getRetryInitialBackoffMillis()).isEqualTo(200);
+        assertThat(slackConfiguration.getRetryMaxBackoffMillis()).isEqualTo(5000);
+        assertThat(slackConfiguration.getDeadLetterCapacity()).isEqualTo(10);
+    }
+
+    @Test
+    void getConfig_should_return_suppression_disabled_with_all_key_fields_by_default() {
+        final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+
+        assertThat(slackConfiguration.isSuppressionEnabled()).isFalse();
+        assertThat(slackConfiguration.getSuppressionKeyFields()).containsExactlyInAnyOrder(SlackSuppressionKeyField.values());
+        assertThat(slackConfiguration.getSuppressionWindowSeconds()).isEqualTo(60);
+        assertThat(slackConfiguration.getSuppressionMaxKeys()).isEqualTo(10000);
+    }
+
+    @Test
+    void getConfig_should_return_suppression_settings_from_SLACK_SUPPRESSION_envs() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_SUPPRESSION_ENABLED", "true")
+                .and("SLACK_SUPPRESSION_KEY_FIELDS", "TYPE, REALM, IP_ADDRESS, NOT_A_FIELD")
+                .and("SLACK_SUPPRESSION_WINDOW_SECONDS", "300")
+                .and("SLACK_SUPPRESSION_MAX_KEYS", "500")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isSuppressionEnabled()).isTrue();
+        assertThat(slackConfiguration.getSuppressionKeyFields()).containsExactlyInAnyOrder(
+                SlackSuppressionKeyField.TYPE,
+                SlackSuppressionKeyField.REALM,
+                SlackSuppressionKeyField.IP_ADDRESS
+        );
+        assertThat(slackConfiguration.getSuppressionWindowSeconds()).isEqualTo(300);
+        assertThat(slackConfiguration.getSuppressionMaxKeys()).isEqualTo(500);
+    }
+
+    @Test
+    void getConfig_should_return_digest_events_as_supported_events() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_INCLUDE_EVENTS", "LOGIN_ERROR")
+                .and("SLACK_DIGEST_EVENTS", "LOGIN, REFRESH_TOKEN")
+                .and("SLACK_DIGEST_ADMIN_EVENTS", "UPDATE")
+                .and("SLACK_DIGEST_INTERVAL_MINUTES", "5")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isDigestEnabled()).isTrue();
+        assertThat(slackConfiguration.isDigestEvent(EventType.LOGIN)).isTrue();
+        assertThat(slackConfiguration.isDigestEvent(EventType.LOGIN_ERROR)).isFalse();
+        assertThat(slackConfiguration.isDigestAdminEvent(OperationType.UPDATE)).isTrue();
+        assertThat(slackConfiguration.getSupportedEvents()).containsExactlyInAnyOrder(
+                EventType.LOGIN_ERROR,
+                EventType.LOGIN,
+                EventType.REFRESH_TOKEN
+        );
+        assertThat(slackConfiguration.getSupportedAdminEvents()).containsExactly(OperationType.UPDATE);
+        assertThat(slackConfiguration.getDigestIntervalMinutes()).isEqualTo(5);
+    }
+
+    @Test
+    void getConfig_should_return_metrics_enabled_by_default() {
+        final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+
+        assertThat(slackConfiguration.isMetricsEnabled()).isTrue();
+    }
+
+    @Test
+    void getConfig_should_return_metrics_disabled_when_SLACK_METRICS_ENABLED_is_false() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_METRICS_ENABLED", "false")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isMetricsEnabled()).isFalse();
+    }
+
+    @Test
+    void getConfig_should_route_events_to_SLACK_CHANNEL_by_default() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_CHANNEL", "#keycloak")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.getRoutingTable().getRoutesCount()).isZero();
+        assertThat(slackConfiguration.getRoutingTable().channelOf(EventType.LOGIN_ERROR, null, "master", null, null)).isEqualTo("#keycloak");
+    }
+
+    @Test
+    void getConfig_should_return_routing_table_compiled_from_SLACK_ROUTES() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_CHANNEL", "#keycloak")
+                .and("SLACK_ROUTES", "type:LOGIN_ERROR=#sec-alerts; operation:DELETE=#iam-audit")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.getRoutingTable().getRoutesCount()).isEqualTo(2);
+        assertThat(slackConfiguration.getRoutingTable().channelOf(EventType.LOGIN_ERROR, null, "master", null, null)).isEqualTo("#sec-alerts");
+        assertThat(slackConfiguration.getRoutingTable().channelOf(null, OperationType.DELETE, "master", null, "USER")).isEqualTo("#iam-audit");
+        assertThat(slackConfiguration.getRoutingTable().channelOf(EventType.LOGIN, null, "master", null, null)).isEqualTo("#keycloak");
+    }
+
+    @Test
+    void forRealm_should_override_configuration_with_realm_attributes() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_CHANNEL", "#keycloak")
+                .and("SLACK_INCLUDE_EVENTS", "LOGIN_ERROR")
+                .and("SLACK_INCLUDE_ADMIN_EVENTS", "DELETE")
+                .and("SLACK_DIGEST_EVENTS", "REFRESH_TOKEN")
+                .and("SLACK_ROUTES", "type:LOGIN_ERROR=#sec-alerts")
+                .execute(SlackConfiguration::getConfig);
+
+        final SlackRealmConfiguration realmConfiguration = slackConfiguration.forRealm(Map.of(
+                "slack.token", "xoxb-customers",
+                "slack.channel", "#customers",
+                "slack.includeEvents", "LOGIN, LOGOUT",
+                "slack.includeAdminEventRepresentation", "false"
+        ));
+
+        assertThat(realmConfiguration.getToken()).isEqualTo("xoxb-customers");
+        assertThat(realmConfiguration.getRoutingTable().channelOf(EventType.LOGIN, null, "customers", null, null)).isEqualTo("#customers");
+        assertThat(realmConfiguration.getRoutingTable().channelOf(EventType.LOGIN_ERROR, null, "customers", null, null)).isEqualTo("#sec-alerts");
+        assertThat(realmConfiguration.getSupportedEvents()).containsExactlyInAnyOrder(EventType.LOGIN, EventType.LOGOUT, EventType.REFRESH_TOKEN);
+        assertThat(realmConfiguration.getSupportedAdminEvents()).containsExactly(OperationType.DELETE);
+        assertThat(realmConfiguration.isIncludeEventRepresentationEnabled()).isTrue();
+        assertThat(realmConfiguration.isIncludeAdminEventRepresentationEnabled()).isFalse();
+    }
+
+    @Test
+    void forRealm_should_share_listener_configuration_without_realm_attributes() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_CHANNEL", "#keycloak")
+                .execute(SlackConfiguration::getConfig);
+
+        final SlackRealmConfiguration realmConfiguration = slackConfiguration.forRealm(Map.of("frontendUrl", "https://sso"));
+
+        assertThat(realmConfiguration.getToken()).isNull();
+        assertThat(realmConfiguration.getRoutingTable()).isSameAs(slackConfiguration.getRoutingTable());
+        assertThat(realmConfiguration.getSupportedEvents()).isSameAs(slackConfiguration.getSupportedEvents());
+    }
+
+    @Test
+    void getConfig_should_return_cluster_disabled_by_default() {
+        final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+
+        assertThat(slackConfiguration.isClusterEnabled()).isFalse();
+    }
+
+    @Test
+    void getConfig_should_return_cluster_enabled_when_SLACK_CLUSTER_ENABLED_is_true() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_CLUSTER_ENABLED", "true")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isClusterEnabled()).isTrue();
+    }
+
+    @Test
+    void getConfig_should_return_web_api_transport_by_default() {
+        final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+
+        assertThat(slackConfiguration.getTransport()).isEqualTo(SlackTransportType.WEB_API);
+        assertThat(slackConfiguration.getWebhookUrl()).isNull();
+        assertThat(slackConfiguration.getWebhookUrls()).isEmpty();
+        assertThat(slackConfiguration.getFilePath()).isEqualTo("slack-messages.jsonl");
+    }
+
+    @Test
+    void getConfig_should_return_webhook_settings_from_SLACK_WEBHOOK_envs() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_TRANSPORT", " webhook ")
+                .and("SLACK_WEBHOOK_URL", "https://hooks.slack.com/services/T0/B0/default")
+                .and("SLACK_WEBHOOK_URLS", "#alerts = https://hooks.slack.com/services/T0/B1/alerts; #audit; =https://hooks.slack.com/services/T0/B2/x")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.getTransport()).isEqualTo(SlackTransportType.WEBHOOK);
+        assertThat(slackConfiguration.getWebhookUrl()).isEqualTo("https://hooks.slack.com/services/T0/B0/default");
+        assertThat(slackConfiguration.getWebhookUrls()).containsExactly(Map.entry("#alerts", "https://hooks.slack.com/services/T0/B1/alerts"));
+    }
+
+    @Test
+    void getConfig_should_return_default_transport_when_SLACK_TRANSPORT_is_invalid() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_TRANSPORT", "carrier-pigeon")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.getTransport()).isEqualTo(SlackTransportType.WEB_API);
+    }
+
+    @Test
+    void getConfig_should_return_drop_newest_overload_policy_by_default() {
+        final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+
+        assertThat(slackConfiguration.getOverloadPolicy()).isEqualTo(SlackOverloadPolicy.DROP_NEWEST);
+        assertThat(slackConfiguration.getOverloadBlockTimeoutMillis()).isEqualTo(500);
+        assertThat(slackConfiguration.getOverloadSummaryIntervalSeconds()).isEqualTo(30);
+    }
+
+    @Test
+    void getConfig_should_return_overload_settings_from_SLACK_OVERLOAD_envs() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_OVERLOAD_POLICY", "shed_info")
+                .and("SLACK_OVERLOAD_BLOCK_TIMEOUT_MILLIS", "250")
+                .and("SLACK_OVERLOAD_SUMMARY_INTERVAL_SECONDS", "60")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.getOverloadPolicy()).isEqualTo(SlackOverloadPolicy.SHED_INFO);
+        assertThat(slackConfiguration.getOverloadBlockTimeoutMillis()).isEqualTo(250);
+        assertThat(slackConfiguration.getOverloadSummaryIntervalSeconds()).isEqualTo(60);
+    }
+
+    @Test
+    void getConfig_should_return_default_overload_policy_when_SLACK_OVERLOAD_POLICY_is_invalid() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_OVERLOAD_POLICY", "panic")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.getOverloadPolicy()).isEqualTo(SlackOverloadPolicy.DROP_NEWEST);
+    }
+
+    @Test
+    void getConfig_should_return_no_sampling_by_default() {
+        final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+
+        assertThat(slackConfiguration.getSamplingRates()).isEmpty();
+        assertThat(slackConfiguration.getSamplingRate(EventType.LOGIN)).isNull();
+    }
+
+    @Test
+    void getConfig_should_return_sampling_rates_from_SLACK_SAMPLING_skipping_errors_and_invalid_rates() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable(
+                "SLACK_SAMPLING",
+                "LOGIN=1/100; refresh_token = 10/min; LOGIN_ERROR=1/10; LOGOUT=2/3; CODE_TO_TOKEN=0/min; NOT_AN_EVENT=1/2;"
+        ).execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.getSamplingRates()).containsOnly(
+                Map.entry(EventType.LOGIN, SlackSamplingRate.oneIn(100)),
+                Map.entry(EventType.REFRESH_TOKEN, SlackSamplingRate.perMinute(10))
+        );
+    }
+
+    @Test
+    void getConfig_should_return_threading_disabled_by_default() {
+        final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+
+        assertThat(slackConfiguration.isThreadingEnabled()).isFalse();
+        assertThat(slackConfiguration.getThreadCacheSize()).isEqualTo(10000);
+        assertThat(slackConfiguration.getThreadIdleMinutes()).isEqualTo(60);
+    }
+
+    @Test
+    void getConfig_should_return_thread_settings_from_SLACK_THREAD_envs() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_THREAD_KEY", "ip_address")
+                .and("SLACK_THREAD_CACHE_SIZE", "500")
+                .and("SLACK_THREAD_IDLE_MINUTES", "5")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isThreadingEnabled()).isTrue();
+        assertThat(slackConfiguration.getThreadKey()).isEqualTo(SlackThreadKey.IP_ADDRESS);
+        assertThat(slackConfiguration.getThreadCacheSize()).isEqualTo(500);
+        assertThat(slackConfiguration.getThreadIdleMinutes()).isEqualTo(5);
+    }
+
+    @Test
+    void getConfig_should_return_live_counter_events_as_supported_events() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_INCLUDE_EVENTS", "LOGIN")
+                .and("SLACK_LIVE_COUNTER_EVENTS", "LOGIN_ERROR")
+                .and("SLACK_LIVE_COUNTER_WINDOW_MINUTES", "30")
+                .and("SLACK_LIVE_COUNTER_UPDATE_SECONDS", "5")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isLiveCounterEnabled()).isTrue();
+        assertThat(slackConfiguration.isLiveCounterEvent(EventType.LOGIN_ERROR)).isTrue();
+        assertThat(slackConfiguration.isLiveCounterEvent(EventType.LOGIN)).isFalse();
+        assertThat(slackConfiguration.getSupportedEvents()).containsExactlyInAnyOrder(EventType.LOGIN, EventType.LOGIN_ERROR);
+        assertThat(slackConfiguration.forRealm(Map.of(SlackRealmConfiguration.INCLUDE_EVENTS_ATTRIBUTE, "LOGOUT")).getSupportedEvents())
+                .containsExactlyInAnyOrder(EventType.LOGOUT, EventType.LOGIN_ERROR);
+        assertThat(slackConfiguration.getLiveCounterWindowMinutes()).isEqualTo(30);
+        assertThat(slackConfiguration.getLiveCounterUpdateSeconds()).isEqualTo(5);
+    }
+
+    @Test
+    void getConfig_should_return_ring_buffer_disabled_with_blocking_wait_strategy_by_default() {
+        final SlackConfiguration slackConfiguration = SlackConfiguration.getConfig();
+
+        assertThat(slackConfiguration.isAsyncRingBufferEnabled()).isFalse();
+        assertThat(slackConfiguration.getAsyncWaitStrategy()).isEqualTo(SlackWaitStrategy.BLOCKING);
+    }
+
+    @Test
+    void getConfig_should_return_ring_buffer_settings_from_SLACK_ASYNC_envs() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_ASYNC_RING_BUFFER_ENABLED", "true")
+                .and("SLACK_ASYNC_WAIT_STRATEGY", "yielding")
+                .execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isAsyncRingBufferEnabled()).isTrue();
+        assertThat(slackConfiguration.getAsyncWaitStrategy()).isEqualTo(SlackWaitStrategy.YIELDING);
+    }
+
+    @Test
+    void isEventSupported_should_check_compiled_supported_events() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable(
+                "SLACK_INCLUDE_EVENTS",
+                "LOGIN, LOGOUT"
+        ).execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isEventSupported(EventType.LOGIN)).isTrue();
+        assertThat(slackConfiguration.isEventSupported(EventType.LOGIN_ERROR)).isFalse();
+        assertThat(slackConfiguration.isEventSupported(null)).isFalse();
+    }
+
+    @Test
+    void isAdminEventSupported_should_check_compiled_supported_admin_events() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable(
+                "SLACK_INCLUDE_ADMIN_EVENTS",
+                "DELETE"
+        ).execute(SlackConfiguration::getConfig);
+
+        assertThat(slackConfiguration.isAdminEventSupported(OperationType.DELETE)).isTrue();
+        assertThat(slackConfiguration.isAdminEventSupported(OperationType.CREATE)).isFalse();
+    }
 }
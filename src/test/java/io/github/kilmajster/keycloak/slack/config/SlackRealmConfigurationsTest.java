@@ -0,0 +1,139 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.events.EventType;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakSessionFactory;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.RealmProvider;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlackRealmConfigurationsTest {
+
+    private static final String REALM_ID = "realm-id";
+    private static final String REALM_NAME = "realm-name";
+
+    @Mock
+    private KeycloakSession session;
+
+    @Mock
+    private RealmProvider realms;
+
+    @Mock
+    private RealmModel realm;
+
+    @Mock
+    private KeycloakSessionFactory sessionFactory;
+
+    private SlackRealmConfigurations realmConfigurations;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_CHANNEL", "#keycloak")
+                .and("SLACK_INCLUDE_EVENTS", "LOGIN_ERROR")
+                .execute(SlackConfiguration::getConfig);
+        realmConfigurations = new SlackRealmConfigurations(slackConfiguration);
+    }
+
+    @Test
+    void get_should_read_realm_attributes_only_once() {
+        // given
+        mockRealmAttributes(Map.of(SlackRealmConfiguration.INCLUDE_EVENTS_ATTRIBUTE, "LOGIN"));
+
+        // when
+        final SlackRealmConfiguration first = realmConfigurations.get(REALM_ID, session);
+        final SlackRealmConfiguration second = realmConfigurations.get(REALM_ID, session);
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(first.isEventSupported(EventType.LOGIN)).isTrue();
+        assertThat(first.isEventSupported(EventType.LOGIN_ERROR)).isFalse();
+        verify(realm, times(1)).getAttributes();
+    }
+
+    @Test
+    void invalidate_should_reload_realm_attributes_on_next_event() {
+        // given
+        mockRealmAttributes(Map.of(SlackRealmConfiguration.CHANNEL_ATTRIBUTE, "#customers"));
+        final SlackRealmConfiguration before = realmConfigurations.get(REALM_ID, session);
+        when(realm.getAttributes()).thenReturn(Map.of(SlackRealmConfiguration.CHANNEL_ATTRIBUTE, "#customers-quiet"));
+
+        // when
+        realmConfigurations.invalidate(REALM_ID);
+        final SlackRealmConfiguration after = realmConfigurations.get(REALM_ID, session);
+
+        // then
+        assertThat(before.getRoutingTable().getDefaultChannel()).isEqualTo("#customers");
+        assertThat(after.getRoutingTable().getDefaultChannel()).isEqualTo("#customers-quiet");
+    }
+
+    @Test
+    void expire_should_keep_realm_configuration_until_max_age() {
+        // given
+        mockRealmAttributes(Map.of());
+        realmConfigurations.get(REALM_ID, session);
+
+        // when
+        realmConfigurations.expire();
+
+        // then
+        assertThat(realmConfigurations.size()).isEqualTo(1);
+        assertThat(realmConfigurations.getMaxAgeMillis()).isEqualTo(60_000);
+    }
+
+    @Test
+    void getToken_should_return_token_of_cached_realm_without_opening_session() {
+        // given
+        mockRealmAttributes(Map.of(SlackRealmConfiguration.TOKEN_ATTRIBUTE, "xoxb-customers"));
+        realmConfigurations.get(REALM_ID, session);
+
+        // when
+        final String token = realmConfigurations.getToken(REALM_NAME, sessionFactory);
+
+        // then
+        assertThat(token).isEqualTo("xoxb-customers");
+        verifyNoInteractions(sessionFactory);
+    }
+
+    @Test
+    void get_should_use_listener_configuration_for_unknown_realm() {
+        // given
+        when(session.realms()).thenReturn(realms);
+
+        // when
+        final SlackRealmConfiguration realmConfiguration = realmConfigurations.get("removed-realm", session);
+
+        // then
+        assertThat(realmConfiguration.getToken()).isNull();
+        assertThat(realmConfiguration.getRoutingTable().getDefaultChannel()).isEqualTo("#keycloak");
+        assertThat(realmConfiguration.isEventSupported(EventType.LOGIN_ERROR)).isTrue();
+    }
+
+    @Test
+    void get_should_use_listener_configuration_without_realm() {
+        // when
+        final SlackRealmConfiguration realmConfiguration = realmConfigurations.get(null, session);
+
+        // then
+        assertThat(realmConfiguration.isEventSupported(EventType.LOGIN_ERROR)).isTrue();
+        assertThat(realmConfigurations.size()).isZero();
+        verifyNoInteractions(session);
+    }
+
+    private void mockRealmAttributes(final Map<String, String> attributes) {
+        when(session.realms()).thenReturn(realms);
+        when(realms.getRealm(REALM_ID)).thenReturn(realm);
+        when(realm.getName()).thenReturn(REALM_NAME);
+        when(realm.getAttributes()).thenReturn(attributes);
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.kilmajster.keycloak.slack.config;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.OperationType;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackRoutingTableTest {
+
+    private static final String DEFAULT_CHANNEL = "#keycloak";
+    private static final String ROUTES = "type:LOGIN_ERROR, UPDATE_PASSWORD_ERROR=#sec-alerts;"
+            + " operation:DELETE & resource:USER,CLIENT=#iam-audit;"
+            + " realm:customers & client:shop=#shop;"
+            + " realm:customers=#customers";
+
+    private final SlackRoutingTable routingTable = SlackRoutingTable.parse(ROUTES, DEFAULT_CHANNEL);
+
+    @Test
+    void channelOf_should_route_user_events_by_type() {
+        assertThat(routingTable.channelOf(EventType.LOGIN_ERROR, null, "master", "web-app", null)).isEqualTo("#sec-alerts");
+        assertThat(routingTable.channelOf(EventType.UPDATE_PASSWORD_ERROR, null, "master", null, null)).isEqualTo("#sec-alerts");
+        assertThat(routingTable.channelOf(EventType.LOGIN, null, "master", "web-app", null)).isEqualTo(DEFAULT_CHANNEL);
+    }
+
+    @Test
+    void channelOf_should_route_admin_events_only_when_all_conditions_match() {
+        assertThat(routingTable.channelOf(null, OperationType.DELETE, "master", null, "USER")).isEqualTo("#iam-audit");
+        assertThat(routingTable.channelOf(null, OperationType.DELETE, "master", null, "CLIENT")).isEqualTo("#iam-audit");
+        assertThat(routingTable.channelOf(null, OperationType.DELETE, "master", null, "GROUP")).isEqualTo(DEFAULT_CHANNEL);
+        assertThat(routingTable.channelOf(null, OperationType.CREATE, "master", null, "USER")).isEqualTo(DEFAULT_CHANNEL);
+    }
+
+    @Test
+    void channelOf_should_use_first_matching_route() {
+        assertThat(routingTable.channelOf(EventType.LOGIN, null, "customers", "shop", null)).isEqualTo("#shop");
+        assertThat(routingTable.channelOf(EventType.LOGIN, null, "customers", "web-app", null)).isEqualTo("#customers");
+        assertThat(routingTable.channelOf(EventType.LOGIN_ERROR, null, "customers", "shop", null)).isEqualTo("#sec-alerts");
+        assertThat(routingTable.channelOf(null, OperationType.UPDATE, "customers", null, "USER")).isEqualTo("#customers");
+    }
+
+    @Test
+    void parse_should_skip_invalid_routes() {
+        // when
+        final SlackRoutingTable table = SlackRoutingTable.parse(
+                "type:NOT_AN_EVENT=#a; color:red=#b; #c; type:LOGIN=; operation:DELETE=#iam-audit",
+                DEFAULT_CHANNEL
+        );
+
+        // then
+        assertThat(table.getRoutesCount()).isEqualTo(1);
+        assertThat(table.channelOf(null, OperationType.DELETE, "master", null, "USER")).isEqualTo("#iam-audit");
+    }
+
+    @Test
+    void parse_should_use_default_channel_without_routes() {
+        // when
+        final SlackRoutingTable table = SlackRoutingTable.parse(null, DEFAULT_CHANNEL);
+
+        // then
+        assertThat(table.getRoutesCount()).isZero();
+        assertThat(table.getDefaultChannel()).isEqualTo(DEFAULT_CHANNEL);
+        assertThat(table.channelOf(EventType.LOGIN, null, "master", null, null)).isEqualTo(DEFAULT_CHANNEL);
+    }
+
+    @Test
+    void parse_should_ignore_routes_above_limit() {
+        // given
+        final String routes = IntStream.rangeClosed(1, SlackRoutingTable.MAX_ROUTES + 1)
+                .mapToObj(i -> "realm:realm-" + i + "=#channel-" + i)
+                .collect(Collectors.joining(";"));
+
+        // when
+        final SlackRoutingTable table = SlackRoutingTable.parse(routes, DEFAULT_CHANNEL);
+
+        // then
+        assertThat(table.getRoutesCount()).isEqualTo(SlackRoutingTable.MAX_ROUTES);
+        assertThat(table.channelOf(EventType.LOGIN, null, "realm-64", null, null)).isEqualTo("#channel-64");
+        assertThat(table.channelOf(EventType.LOGIN, null, "realm-65", null, null)).isEqualTo(DEFAULT_CHANNEL);
+    }
+}
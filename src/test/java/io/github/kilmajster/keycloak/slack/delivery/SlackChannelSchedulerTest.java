@@ -0,0 +1,611 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.SlackApiTextResponse;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import io.github.kilmajster.keycloak.slack.cluster.SlackCluster;
+import io.github.kilmajster.keycloak.slack.config.SlackOverloadPolicy;
+import io.github.kilmajster.keycloak.slack.message.SlackEventSnapshot;
+import io.github.kilmajster.keycloak.slack.message.SlackShedCounts;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics.DropReason;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.keycloak.events.Event;
+import org.keycloak.events.EventType;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlackChannelSchedulerTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<String> postedMessages = new CopyOnWriteArrayList<>();
+    private final SlackRetryPolicy retryPolicy = new SlackRetryPolicy(3, 10, 20);
+    private final SlackDeadLetterStore deadLetterStore = new SlackDeadLetterStore(10);
+    private final SlackMetrics metrics = mock(SlackMetrics.class);
+
+    @AfterEach
+    void shutdownScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void submit_should_post_message_right_away_on_sender_thread_when_token_is_available() {
+        // given
+        final List<String> senderThreads = new CopyOnWriteArrayList<>();
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            senderThreads.add(Thread.currentThread().getName());
+            return postOk(request);
+        }, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 60, 1, 10);
+
+        // when
+        channelScheduler.submit(request("#general", "first"));
+
+        // then
+        awaitUntil(() -> channelScheduler.getPendingMessages() == 0 && !postedMessages.isEmpty());
+        assertThat(postedMessages).containsExactly("first");
+        assertThat(senderThreads).singleElement().asString().startsWith(SlackChannelScheduler.SENDER_THREAD_NAME_PREFIX);
+        assertThat(channelScheduler.getPendingMessages()).isZero();
+        verify(metrics).messageSent(anyLong());
+    }
+
+    @Test
+    void submit_should_post_message_on_virtual_sender_thread_when_runtime_supports_them() {
+        assumeTrue(SlackVirtualThreads.isAvailable(), "virtual threads require Java 21+");
+
+        // given
+        final List<String> senderThreads = new CopyOnWriteArrayList<>();
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            senderThreads.add(Thread.currentThread().toString());
+            return postOk(request);
+        }, null, retryPolicy, deadLetterStore, metrics, null, null, scheduler, 60, 1, 10, SlackOverloadPolicy.DROP_NEWEST, 0,
+                realmName -> null, true);
+
+        // when
+        channelScheduler.submit(request("#general", "first"));
+
+        // then
+        awaitUntil(() -> !postedMessages.isEmpty());
+        assertThat(senderThreads).singleElement().asString()
+                .startsWith("VirtualThread")
+                .contains(SlackChannelScheduler.SENDER_THREAD_NAME_PREFIX);
+        channelScheduler.close();
+    }
+
+    @Test
+    void submit_should_pace_messages_above_burst_and_keep_their_order() {
+        // given
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(this::postOk, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 600, 1, 10);
+
+        // when
+        channelScheduler.submit(request("#general", "first"));
+        channelScheduler.submit(request("#general", "second"));
+        channelScheduler.submit(request("#general", "third"));
+
+        // then
+        awaitUntil(() -> !postedMessages.isEmpty());
+        assertThat(postedMessages).containsExactly("first");
+        awaitUntil(() -> postedMessages.size() == 3);
+        assertThat(postedMessages).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    void submit_should_not_delay_other_channels() {
+        // given
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(this::postOk, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 1, 1, 10);
+
+        // when
+        channelScheduler.submit(request("#general", "first"));
+        channelScheduler.submit(request("#general", "second"));
+        channelScheduler.submit(request("#alerts", "alert"));
+
+        // then
+        awaitUntil(() -> postedMessages.size() == 2);
+        assertThat(postedMessages).containsExactlyInAnyOrder("first", "alert");
+        assertThat(channelScheduler.getPendingMessages()).isOne();
+    }
+
+    @Test
+    void submit_should_deliver_to_other_channels_while_one_channel_hangs() throws InterruptedException {
+        // given
+        final CountDownLatch hanging = new CountDownLatch(1);
+        final CompletableFuture<Void> released = new CompletableFuture<>();
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            if ("#general".equals(request.getChannel())) {
+                hanging.countDown();
+                released.join();
+            }
+            return postOk(request);
+        }, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 600, 10, 10);
+        channelScheduler.submit(request("#general", "stuck"));
+        hanging.await();
+
+        // when
+        channelScheduler.submit(request("#alerts", "first alert"));
+        channelScheduler.submit(request("#alerts", "second alert"));
+
+        // then
+        awaitUntil(() -> postedMessages.size() == 2);
+        assertThat(postedMessages).containsExactly("first alert", "second alert");
+        released.complete(null);
+        awaitUntil(() -> postedMessages.size() == 3);
+        assertThat(postedMessages).last().isEqualTo("stuck");
+    }
+
+    @Test
+    void submit_should_not_wait_for_cluster_rate_limit_round_trip() throws InterruptedException {
+        // given
+        final SlackCluster slackCluster = mock(SlackCluster.class);
+        final CountDownLatch acquiring = new CountDownLatch(1);
+        final CountDownLatch acquired = new CountDownLatch(1);
+        when(slackCluster.isConnected()).thenReturn(true);
+        when(slackCluster.acquire(anyString(), anyLong(), anyLong(), anyLong())).thenAnswer(invocation -> {
+            acquiring.countDown();
+            acquired.await();
+            return 0L;
+        });
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(this::postOk, null, retryPolicy, deadLetterStore, metrics, slackCluster, scheduler, 60, 1, 10);
+        channelScheduler.submit(request("#general", "first"));
+        acquiring.await();
+
+        // when
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> channelScheduler.submit(request("#general", "second")));
+
+        // then
+        assertThat(channelScheduler.getPendingMessages()).isEqualTo(2);
+        acquired.countDown();
+        awaitUntil(() -> postedMessages.size() == 2);
+        assertThat(postedMessages).containsExactly("first", "second");
+    }
+
+    @Test
+    void submit_should_drop_message_when_channel_queue_is_full() {
+        // given
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(this::postOk, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 1, 1, 1);
+        channelScheduler.submit(request("#general", "first"));
+        awaitUntil(() -> !postedMessages.isEmpty());
+        channelScheduler.submit(request("#general", "second"));
+
+        // when
+        channelScheduler.submit(request("#general", "third"));
+
+        // then
+        assertThat(channelScheduler.getPendingMessages()).isOne();
+    }
+
+    @Test
+    void submit_should_drop_oldest_queued_message_with_drop_oldest_policy() {
+        // given
+        final SlackChannelScheduler channelScheduler = overloadedScheduler(SlackOverloadPolicy.DROP_OLDEST, 0);
+        channelScheduler.submit(request("#general", "first"));
+        awaitUntil(() -> !postedMessages.isEmpty());
+        channelScheduler.submit(request("#general", "second"));
+        channelScheduler.submit(request("#general", "third"));
+
+        // when
+        channelScheduler.submit(request("#general", "fourth"));
+
+        // then
+        awaitUntil(() -> postedMessages.size() == 3);
+        assertThat(postedMessages).containsExactly("first", "third", "fourth");
+        verify(metrics).messageDropped(DropReason.QUEUE_FULL);
+    }
+
+    @Test
+    void submit_should_shed_informational_events_and_keep_errors_with_shed_info_policy() {
+        // given
+        final SlackChannelScheduler channelScheduler = overloadedScheduler(SlackOverloadPolicy.SHED_INFO, 0);
+        channelScheduler.submit(request("#general", "first"), events(EventType.LOGIN));
+        awaitUntil(() -> !postedMessages.isEmpty());
+        channelScheduler.submit(request("#general", "login"), events(EventType.LOGIN, EventType.LOGOUT));
+        channelScheduler.submit(request("#general", "error"), events(EventType.LOGIN_ERROR));
+
+        // when
+        channelScheduler.submit(request("#general", "another error"), events(EventType.UPDATE_PASSWORD_ERROR));
+        channelScheduler.submit(request("#general", "another login"), events(EventType.LOGIN));
+
+        // then
+        awaitUntil(() -> postedMessages.size() == 3);
+        assertThat(postedMessages).containsExactly("first", "error", "another error");
+        assertThat(channelScheduler.takeShedEventsWhenRelieved(0)).containsExactly(
+                new SlackShedCounts("#general", null, Map.of("LOGIN", 2L, "LOGOUT", 1L))
+        );
+        assertThat(channelScheduler.takeShedEventsWhenRelieved(0)).isEmpty();
+    }
+
+    @Test
+    void submit_should_wait_for_room_in_queue_with_block_policy() {
+        // given
+        final SlackChannelScheduler channelScheduler = overloadedScheduler(SlackOverloadPolicy.BLOCK, 5000);
+        channelScheduler.submit(request("#general", "first"));
+        awaitUntil(() -> !postedMessages.isEmpty());
+        channelScheduler.submit(request("#general", "second"));
+        channelScheduler.submit(request("#general", "third"));
+
+        // when
+        channelScheduler.submit(request("#general", "fourth"));
+
+        // then
+        awaitUntil(() -> postedMessages.size() == 4);
+        assertThat(postedMessages).containsExactly("first", "second", "third", "fourth");
+        verify(metrics, never()).messageDropped(DropReason.QUEUE_FULL);
+    }
+
+    @Test
+    void submit_should_drop_message_when_block_policy_times_out() {
+        // given
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(
+                this::postOk, null, retryPolicy, deadLetterStore, metrics, null, null, scheduler, 1, 1, 1, SlackOverloadPolicy.BLOCK, 10);
+        channelScheduler.submit(request("#general", "first"));
+        awaitUntil(() -> !postedMessages.isEmpty());
+        channelScheduler.submit(request("#general", "second"));
+
+        // when
+        channelScheduler.submit(request("#general", "third"), events(EventType.LOGIN));
+
+        // then
+        assertThat(channelScheduler.getPendingMessages()).isOne();
+        verify(metrics).messageDropped(DropReason.QUEUE_FULL);
+    }
+
+    @Test
+    void takeShedEventsWhenRelieved_should_keep_counts_while_events_are_still_shed() {
+        // given
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(
+                this::postOk, null, retryPolicy, deadLetterStore, metrics, null, null, scheduler, 1, 1, 1, SlackOverloadPolicy.DROP_NEWEST, 0);
+        channelScheduler.submit(request("#general", "first"));
+        awaitUntil(() -> !postedMessages.isEmpty());
+        channelScheduler.submit(request("#general", "second"));
+        channelScheduler.submit(request("#general", "third"));
+
+        // when
+        final List<SlackShedCounts> whileQueueIsFull = channelScheduler.takeShedEventsWhenRelieved(0);
+
+        // then
+        assertThat(whileQueueIsFull).isEmpty();
+        assertThat(channelScheduler.takeShedEventsWhenRelieved(TimeUnit.HOURS.toNanos(1))).isEmpty();
+    }
+
+    @Test
+    void submit_should_post_related_messages_as_replies_in_thread() {
+        // given
+        final List<String> threadTimestamps = new CopyOnWriteArrayList<>();
+        final AtomicInteger posted = new AtomicInteger();
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            threadTimestamps.add(String.valueOf(request.getThreadTs()));
+            final ChatPostMessageResponse response = postOk(request);
+            response.setTs("1700000000.00000" + posted.incrementAndGet());
+            return response;
+        }, null, retryPolicy, deadLetterStore, metrics, null, new SlackThreadCache(10, 60000), scheduler, 600, 10, 10, SlackOverloadPolicy.DROP_NEWEST, 0);
+
+        // when
+        channelScheduler.submit(request("#general", "john failed"), null, List.of(), "#general\njohn");
+        channelScheduler.submit(request("#general", "jane failed"), null, List.of(), "#general\njane");
+        channelScheduler.submit(request("#general", "john failed again"), null, List.of(), "#general\njohn");
+        channelScheduler.submit(request("#general", "anonymous"), null, List.of(), null);
+
+        // then
+        awaitUntil(() -> postedMessages.size() == 4);
+        assertThat(postedMessages).containsExactly("john failed", "jane failed", "john failed again", "anonymous");
+        assertThat(threadTimestamps).containsExactly("null", "null", "1700000000.000001", "null");
+    }
+
+    @Test
+    void submit_should_not_pace_messages_when_transport_is_not_rate_limited() {
+        // given
+        final SlackTransport notRateLimitedTransport = new SlackTransport() {
+            @Override
+            public ChatPostMessageResponse post(ChatPostMessageRequest request) {
+                return postOk(request);
+            }
+
+            @Override
+            public boolean isRateLimited() {
+                return false;
+            }
+        };
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(notRateLimitedTransport, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 1, 1, 10);
+
+        // when
+        channelScheduler.submit(request("#general", "first"));
+        channelScheduler.submit(request("#general", "second"));
+        channelScheduler.submit(request("#general", "third"));
+
+        // then
+        awaitUntil(() -> postedMessages.size() == 3);
+        assertThat(postedMessages).containsExactly("first", "second", "third");
+        assertThat(channelScheduler.getPendingMessages()).isZero();
+    }
+
+    @Test
+    void submit_should_retry_rate_limited_message_after_retry_after_delay() {
+        // given
+        final AtomicInteger attempts = new AtomicInteger();
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new SlackApiException(rateLimitedResponse("1"), "{\"ok\":false,\"error\":\"ratelimited\"}");
+            }
+            return postOk(request);
+        }, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 600, 5, 10);
+
+        // when
+        channelScheduler.submit(request("#general", "first"));
+        channelScheduler.submit(request("#general", "second"));
+
+        // then
+        assertThat(postedMessages).isEmpty();
+        awaitUntil(() -> postedMessages.size() == 2);
+        assertThat(postedMessages).containsExactly("first", "second");
+    }
+
+    @Test
+    void submitLive_should_queue_live_message_once_and_retry_it_with_its_latest_state() {
+        // given
+        final AtomicInteger attempts = new AtomicInteger();
+        final AtomicInteger count = new AtomicInteger(1);
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            if (attempts.incrementAndGet() == 1) {
+                count.set(2);
+                throw new SlackApiException(rateLimitedResponse("1"), "{\"ok\":false,\"error\":\"ratelimited\"}");
+            }
+            return postOk(request);
+        }, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 600, 5, 10);
+        final SlackLiveMessage liveMessage = new SlackLiveMessage("#general", null) {
+            @Override
+            SlackApiTextResponse send(final SlackTransport slackTransport, final String token) throws IOException, SlackApiException {
+                getRequest().setText("count " + count.get());
+                return slackTransport.post(getRequest());
+            }
+        };
+
+        // when
+        channelScheduler.submitLive(liveMessage);
+        awaitUntil(() -> attempts.get() == 1);
+        channelScheduler.submitLive(liveMessage);
+
+        // then
+        awaitUntil(() -> postedMessages.size() == 1 && channelScheduler.getPendingMessages() == 0);
+        assertThat(postedMessages).containsExactly("count 2");
+        assertThat(attempts).hasValue(2);
+        assertThat(liveMessage.markQueued()).isTrue();
+        verify(metrics).messageRateLimited();
+    }
+
+    @Test
+    void submit_should_acknowledge_stored_message_after_it_was_posted(@TempDir Path outboxDir) throws IOException {
+        // given
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024)) {
+            final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(this::postOk, outbox, retryPolicy, deadLetterStore, metrics, null, scheduler, 60, 1, 10);
+
+            // when
+            channelScheduler.submit(request("#general", "first"));
+
+            // then
+            awaitUntil(() -> outbox.getPendingMessages() == 0);
+            assertThat(postedMessages).containsExactly("first");
+        }
+    }
+
+    @Test
+    void submit_should_keep_stored_message_while_it_waits_for_retry(@TempDir Path outboxDir) throws IOException {
+        // given
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024)) {
+            final AtomicInteger attempts = new AtomicInteger();
+            final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+                attempts.incrementAndGet();
+                throw new ConnectException("Connection refused");
+            }, outbox, new SlackRetryPolicy(3, 60000, 60000), deadLetterStore, metrics, null, scheduler, 60, 1, 10);
+
+            // when
+            channelScheduler.submit(request("#general", "first"));
+
+            // then
+            awaitUntil(() -> attempts.get() == 1 && channelScheduler.getPendingMessages() == 1);
+            assertThat(outbox.getPendingMessages()).isOne();
+        }
+    }
+
+    @Test
+    void submit_should_retry_transient_failure_with_backoff() {
+        // given
+        final AtomicInteger attempts = new AtomicInteger();
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new ConnectException("Connection refused");
+            }
+            return postOk(request);
+        }, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 600, 5, 10);
+
+        // when
+        channelScheduler.submit(request("#general", "first"));
+
+        // then
+        assertThat(postedMessages).isEmpty();
+        awaitUntil(() -> postedMessages.size() == 1);
+        assertThat(attempts).hasValue(2);
+        assertThat(deadLetterStore.getDeadLetters()).isEmpty();
+    }
+
+    @Test
+    void submit_should_move_message_to_dead_letters_when_retries_are_exhausted() {
+        // given
+        final AtomicInteger attempts = new AtomicInteger();
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            attempts.incrementAndGet();
+            return error("service_unavailable");
+        }, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 600, 5, 10);
+
+        // when
+        channelScheduler.submit(request("#general", "first"));
+
+        // then
+        awaitUntil(() -> !deadLetterStore.getDeadLetters().isEmpty());
+        assertThat(attempts).hasValue(3);
+        assertThat(deadLetterStore.getDeadLetters().get(0).getReason()).isEqualTo("service_unavailable");
+        assertThat(deadLetterStore.getDeadLetters().get(0).getAttempts()).isEqualTo(3);
+        verify(metrics, times(3)).messageFailed(eq("service_unavailable"), anyLong());
+        verify(metrics, times(2)).messageRetried();
+        verify(metrics).messageDropped(DropReason.DEAD_LETTER);
+    }
+
+    @Test
+    void submit_should_not_retry_permanent_error() {
+        // given
+        final AtomicInteger attempts = new AtomicInteger();
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            attempts.incrementAndGet();
+            return error("channel_not_found");
+        }, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 600, 5, 10);
+
+        // when
+        channelScheduler.submit(request("#general", "first"));
+
+        // then
+        awaitUntil(() -> !deadLetterStore.getDeadLetters().isEmpty());
+        assertThat(attempts).hasValue(1);
+        assertThat(deadLetterStore.getDeadLetters())
+                .extracting(SlackDeadLetter::getReason)
+                .containsExactly("channel_not_found");
+    }
+
+    @Test
+    void submit_should_not_retry_read_timeout_to_avoid_duplicated_message() {
+        // given
+        final AtomicInteger attempts = new AtomicInteger();
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            attempts.incrementAndGet();
+            throw new SocketTimeoutException("timeout");
+        }, null, retryPolicy, deadLetterStore, metrics, null, scheduler, 600, 5, 10);
+
+        // when
+        channelScheduler.submit(request("#general", "first"));
+
+        // then
+        awaitUntil(() -> !deadLetterStore.getDeadLetters().isEmpty());
+        assertThat(attempts).hasValue(1);
+        assertThat(deadLetterStore.getDeadLetters()).hasSize(1);
+    }
+
+    @Test
+    void submit_should_post_with_realm_token_without_keeping_it_in_dead_letters() {
+        // given
+        final List<String> tokens = new CopyOnWriteArrayList<>();
+        final SlackChannelScheduler channelScheduler = new SlackChannelScheduler(request -> {
+            tokens.add(request.getToken());
+            return error("channel_not_found");
+        }, null, retryPolicy, deadLetterStore, metrics, null, null, scheduler, 600, 5, 10, SlackOverloadPolicy.DROP_NEWEST, 0,
+                realmName -> "customers".equals(realmName) ? "xoxb-customers" : null);
+
+        // when
+        channelScheduler.submit(request("#customers", "first"), "customers");
+
+        // then
+        awaitUntil(() -> !deadLetterStore.getDeadLetters().isEmpty());
+        assertThat(tokens).containsExactly("xoxb-customers");
+        assertThat(deadLetterStore.getDeadLetters().get(0).getRequest().getToken()).isNull();
+    }
+
+    @Test
+    void retryAfterSeconds_should_fallback_to_default_when_header_is_missing_or_invalid() {
+        assertThat(SlackChannelScheduler.retryAfterSeconds("30")).isEqualTo(30);
+        assertThat(SlackChannelScheduler.retryAfterSeconds(null)).isEqualTo(1);
+        assertThat(SlackChannelScheduler.retryAfterSeconds("soon")).isEqualTo(1);
+    }
+
+    private ChatPostMessageResponse postOk(ChatPostMessageRequest request) {
+        postedMessages.add(request.getText());
+
+        final ChatPostMessageResponse response = new ChatPostMessageResponse();
+        response.setOk(true);
+
+        return response;
+    }
+
+    private static ChatPostMessageResponse error(String error) {
+        final ChatPostMessageResponse response = new ChatPostMessageResponse();
+        response.setOk(false);
+        response.setError(error);
+
+        return response;
+    }
+
+    // one message every 100 ms with room for two of them in queue
+    private SlackChannelScheduler overloadedScheduler(SlackOverloadPolicy overloadPolicy, long blockTimeoutMillis) {
+        return new SlackChannelScheduler(
+                this::postOk, null, retryPolicy, deadLetterStore, metrics, null, null, scheduler, 600, 1, 2, overloadPolicy, blockTimeoutMillis);
+    }
+
+    private static List<SlackEventSnapshot> events(EventType... types) {
+        return Stream.of(types)
+                .map(type -> {
+                    final Event event = new Event();
+                    event.setType(type);
+                    return SlackEventSnapshot.of(event, "master", "localhost", false);
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static ChatPostMessageRequest request(String channel, String text) {
+        return ChatPostMessageRequest.builder()
+                .channel(channel)
+                .text(text)
+                .build();
+    }
+
+    private static Response rateLimitedResponse(String retryAfter) {
+        return new Response.Builder()
+                .request(new Request.Builder().url("https://slack.com/api/chat.postMessage").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(429)
+                .message("Too Many Requests")
+                .header("Retry-After", retryAfter)
+                .build();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5 seconds").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.cluster.SlackCluster;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlackClusterRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Mock
+    private SlackCluster slackCluster;
+
+    @Test
+    void tryAcquire_should_use_cluster_wide_limit_when_connected() {
+        // given
+        final SlackClusterRateLimiter rateLimiter = new SlackClusterRateLimiter(slackCluster, "#alerts", 60, 3, 0);
+        when(slackCluster.isConnected()).thenReturn(true);
+        when(slackCluster.acquire(eq("rate:#alerts"), eq(1_000L), eq(2_000L), anyLong())).thenReturn(250L);
+
+        // when
+        final long waitNanos = rateLimiter.tryAcquire(0);
+
+        // then
+        assertThat(waitNanos).isEqualTo(TimeUnit.MILLISECONDS.toNanos(250));
+    }
+
+    @Test
+    void tryAcquire_should_fall_back_to_local_limit_when_cluster_fails() {
+        // given
+        final SlackClusterRateLimiter rateLimiter = new SlackClusterRateLimiter(slackCluster, "#alerts", 60, 1, 0);
+        when(slackCluster.isConnected()).thenReturn(true);
+        when(slackCluster.acquire(anyString(), anyLong(), anyLong(), anyLong())).thenThrow(new IllegalStateException("cache stopped"));
+
+        // when & then
+        assertThat(rateLimiter.tryAcquire(0)).isZero();
+        assertThat(rateLimiter.tryAcquire(0)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void blockFor_should_block_local_limit_and_whole_cluster() {
+        // given
+        final SlackClusterRateLimiter rateLimiter = new SlackClusterRateLimiter(slackCluster, "#alerts", 60, 1, 0);
+        when(slackCluster.isConnected()).thenReturn(true, false);
+
+        // when
+        rateLimiter.blockFor(0, 30 * SECOND);
+
+        // then
+        verify(slackCluster).block(eq("rate:#alerts"), eq(1_000L), eq(0L), anyLong(), eq(30_000L));
+        assertThat(rateLimiter.tryAcquire(10 * SECOND)).isEqualTo(20 * SECOND);
+    }
+}
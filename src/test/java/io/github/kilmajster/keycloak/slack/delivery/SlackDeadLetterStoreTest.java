@@ -0,0 +1,33 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackDeadLetterStoreTest {
+
+    @Test
+    void add_should_evict_oldest_dead_letter_when_store_is_full() {
+        // given
+        final SlackDeadLetterStore deadLetterStore = new SlackDeadLetterStore(2);
+
+        // when
+        deadLetterStore.add(request("first"), "channel_not_found", 1);
+        deadLetterStore.add(request("second"), "service_unavailable", 5);
+        deadLetterStore.add(request("third"), "invalid_auth", 1);
+
+        // then
+        assertThat(deadLetterStore.getDeadLetters())
+                .extracting(deadLetter -> deadLetter.getRequest().getText())
+                .containsExactly("second", "third");
+        assertThat(deadLetterStore.getEvictedDeadLetters()).isOne();
+    }
+
+    private static ChatPostMessageRequest request(String text) {
+        return ChatPostMessageRequest.builder()
+                .channel("#general")
+                .text(text)
+                .build();
+    }
+}
@@ -0,0 +1,206 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackWaitStrategy;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics;
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics.DropReason;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SlackDeliveryExecutorTest {
+
+    @Test
+    void execute_should_run_delivery_on_calling_thread_when_async_is_disabled() {
+        // given
+        final SlackDeliveryExecutor slackDeliveryExecutor = SlackDeliveryExecutor.of(mockConfig(false, 1, 1));
+        final AtomicReference<Thread> deliveryThread = new AtomicReference<>();
+
+        // when
+        slackDeliveryExecutor.execute(() -> deliveryThread.set(Thread.currentThread()));
+
+        // then
+        assertThat(slackDeliveryExecutor.isAsync()).isFalse();
+        assertThat(deliveryThread.get()).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    void execute_should_run_delivery_on_worker_thread_when_async_is_enabled() throws InterruptedException {
+        // given
+        final SlackDeliveryExecutor slackDeliveryExecutor = SlackDeliveryExecutor.of(mockConfig(true, 10, 1));
+        final AtomicReference<Thread> deliveryThread = new AtomicReference<>();
+        final CountDownLatch delivered = new CountDownLatch(1);
+
+        // when
+        slackDeliveryExecutor.execute(() -> {
+            deliveryThread.set(Thread.currentThread());
+            delivered.countDown();
+        });
+
+        // then
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(deliveryThread.get()).isNotSameAs(Thread.currentThread());
+        assertThat(deliveryThread.get().getName()).startsWith("slack-delivery");
+
+        slackDeliveryExecutor.close();
+    }
+
+    @Test
+    void execute_should_drop_delivery_without_blocking_and_count_it_when_queue_is_full() throws InterruptedException {
+        // given
+        final SlackMetrics slackMetrics = mock(SlackMetrics.class);
+        final SlackDeliveryExecutor slackDeliveryExecutor = SlackDeliveryExecutor.of(mockConfig(true, 1, 1), slackMetrics);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch workerBusy = new CountDownLatch(1);
+        final AtomicInteger deliveries = new AtomicInteger();
+
+        slackDeliveryExecutor.execute(() -> {
+            workerBusy.countDown();
+            awaitQuietly(release);
+            deliveries.incrementAndGet();
+        });
+        assertThat(workerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+        slackDeliveryExecutor.execute(deliveries::incrementAndGet);
+
+        // when
+        slackDeliveryExecutor.execute(deliveries::incrementAndGet);
+
+        // then
+        assertThat(slackDeliveryExecutor.getPendingDeliveries()).isEqualTo(1);
+        verify(slackMetrics).messageDropped(DropReason.ASYNC_QUEUE_FULL);
+        release.countDown();
+        slackDeliveryExecutor.close();
+        assertThat(deliveries).hasValue(2);
+    }
+
+    @Test
+    void execute_should_run_delivery_on_virtual_thread_when_runtime_supports_them() throws InterruptedException {
+        // given
+        final SlackConfiguration slackConfiguration = mockConfig(true, 10, 1);
+        when(slackConfiguration.isAsyncVirtualThreadsEnabled()).thenReturn(true);
+        final SlackDeliveryExecutor slackDeliveryExecutor = SlackDeliveryExecutor.of(slackConfiguration);
+        final AtomicReference<Thread> deliveryThread = new AtomicReference<>();
+        final CountDownLatch delivered = new CountDownLatch(1);
+
+        // when
+        slackDeliveryExecutor.execute(() -> {
+            deliveryThread.set(Thread.currentThread());
+            delivered.countDown();
+        });
+
+        // then
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slackDeliveryExecutor.isVirtual()).isEqualTo(Runtime.version().feature() >= 21);
+        assertThat(deliveryThread.get()).isNotSameAs(Thread.currentThread());
+        assertThat(deliveryThread.get().getName()).startsWith("slack-delivery-");
+
+        slackDeliveryExecutor.close();
+    }
+
+    @Test
+    void execute_should_drop_delivery_when_all_virtual_thread_permits_are_taken() throws InterruptedException {
+        assumeTrue(SlackVirtualThreads.isAvailable(), "virtual threads require Java 21+");
+
+        // given
+        final SlackConfiguration slackConfiguration = mockConfig(true, 1, 1);
+        when(slackConfiguration.isAsyncVirtualThreadsEnabled()).thenReturn(true);
+        final SlackDeliveryExecutor slackDeliveryExecutor = SlackDeliveryExecutor.of(slackConfiguration);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CountDownLatch workerBusy = new CountDownLatch(1);
+        final AtomicInteger deliveries = new AtomicInteger();
+
+        slackDeliveryExecutor.execute(() -> {
+            workerBusy.countDown();
+            awaitQuietly(release);
+            deliveries.incrementAndGet();
+        });
+        assertThat(workerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // when
+        slackDeliveryExecutor.execute(deliveries::incrementAndGet);
+
+        // then
+        release.countDown();
+        slackDeliveryExecutor.close();
+        assertThat(deliveries).hasValue(1);
+    }
+
+    @Test
+    void execute_should_hand_events_over_to_worker_threads_through_ring_buffer() throws InterruptedException {
+        // given
+        final SlackConfiguration slackConfiguration = mockConfig(true, 1000, 2);
+        when(slackConfiguration.isAsyncRingBufferEnabled()).thenReturn(true);
+        when(slackConfiguration.getAsyncWaitStrategy()).thenReturn(SlackWaitStrategy.BLOCKING);
+        final SlackDeliveryExecutor slackDeliveryExecutor = SlackDeliveryExecutor.of(slackConfiguration);
+        final Set<String> deliveryThreads = ConcurrentHashMap.newKeySet();
+        final CountDownLatch delivered = new CountDownLatch(100);
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            slackDeliveryExecutor.execute(latch -> {
+                deliveryThreads.add(Thread.currentThread().getName());
+                latch.countDown();
+            }, delivered);
+        }
+
+        // then
+        assertThat(delivered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(slackDeliveryExecutor.isRingBuffer()).isTrue();
+        assertThat(slackDeliveryExecutor.isVirtual()).isFalse();
+        assertThat(deliveryThreads).allSatisfy(name -> assertThat(name).startsWith("slack-delivery-"));
+
+        slackDeliveryExecutor.close();
+    }
+
+    @Test
+    void close_should_drain_ring_buffer_before_workers_stop() {
+        // given
+        final SlackConfiguration slackConfiguration = mockConfig(true, 1000, 1);
+        when(slackConfiguration.isAsyncRingBufferEnabled()).thenReturn(true);
+        when(slackConfiguration.getAsyncWaitStrategy()).thenReturn(SlackWaitStrategy.SLEEPING);
+        final SlackDeliveryExecutor slackDeliveryExecutor = SlackDeliveryExecutor.of(slackConfiguration);
+        final AtomicInteger deliveries = new AtomicInteger();
+
+        for (int i = 0; i < 500; i++) {
+            slackDeliveryExecutor.execute(deliveries::incrementAndGet);
+        }
+
+        // when
+        slackDeliveryExecutor.close();
+        slackDeliveryExecutor.execute(deliveries::incrementAndGet);
+
+        // then
+        assertThat(deliveries).hasValue(500);
+    }
+
+    private static SlackConfiguration mockConfig(boolean asyncEnabled, int queueCapacity, int workerThreads) {
+        final SlackConfiguration slackConfiguration = mock(SlackConfiguration.class);
+
+        when(slackConfiguration.isAsyncEnabled()).thenReturn(asyncEnabled);
+        if (asyncEnabled) {
+            when(slackConfiguration.getAsyncQueueCapacity()).thenReturn(queueCapacity);
+            when(slackConfiguration.getAsyncWorkerThreads()).thenReturn(workerThreads);
+        }
+
+        return slackConfiguration;
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.cluster.SlackCluster;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfiguration;
+import io.github.kilmajster.keycloak.slack.message.SlackDigestEntry;
+import io.github.kilmajster.keycloak.slack.message.SlackMessageSender;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_HOST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlackEventDigestTest {
+
+    @Mock
+    private SlackMessageSender slackMessageSender;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private SlackCluster slackCluster;
+
+    @Captor
+    private ArgumentCaptor<List<SlackDigestEntry>> entries;
+
+    @Captor
+    private ArgumentCaptor<String> publishedEntries;
+
+    @Test
+    void flush_should_send_counters_sorted_by_realm_client_and_type() {
+        // given
+        final SlackEventDigest digest = new SlackEventDigest(slackMessageSender, scheduler, null, 15);
+        digest.record("master", () -> TEST_HOST, null, "web-app", "REFRESH_TOKEN");
+        digest.record("master", () -> TEST_HOST, null, "web-app", "LOGIN");
+        digest.record("master", () -> TEST_HOST, null, "web-app", "LOGIN");
+        digest.record("customers", () -> TEST_HOST, null, null, "LOGIN");
+
+        // when
+        digest.flush();
+
+        // then
+        verify(slackMessageSender).sendDigestMessage(entries.capture(), eq(15L));
+        assertThat(entries.getValue()).containsExactly(
+                new SlackDigestEntry("customers", TEST_HOST, "-", "LOGIN", 1, null, null),
+                new SlackDigestEntry("master", TEST_HOST, "web-app", "LOGIN", 2, null, null),
+                new SlackDigestEntry("master", TEST_HOST, "web-app", "REFRESH_TOKEN", 1, null, null)
+        );
+    }
+
+    @Test
+    void flush_should_reset_counters_and_skip_digest_without_new_events() {
+        // given
+        final SlackEventDigest digest = new SlackEventDigest(slackMessageSender, scheduler, null, 15);
+        digest.record("master", () -> TEST_HOST, null, "web-app", "LOGIN");
+        digest.flush();
+
+        // when
+        digest.flush();
+
+        // then
+        verify(slackMessageSender, times(1)).sendDigestMessage(anyList(), anyLong());
+    }
+
+    @Test
+    void flush_should_remove_counters_without_events_for_whole_interval() {
+        // given
+        final SlackEventDigest digest = new SlackEventDigest(slackMessageSender, scheduler, null, 15);
+        digest.record("master", () -> TEST_HOST, null, "web-app", "LOGIN");
+        digest.record("master", () -> TEST_HOST, null, "made-up-client", "LOGIN_ERROR");
+        digest.flush();
+        digest.record("master", () -> TEST_HOST, null, "web-app", "LOGIN");
+
+        // when
+        digest.flush();
+
+        // then
+        assertThat(digest.countersSize()).isEqualTo(1);
+        digest.record("master", () -> TEST_HOST, null, "made-up-client", "LOGIN_ERROR");
+        digest.flush();
+        verify(slackMessageSender, times(3)).sendDigestMessage(entries.capture(), eq(15L));
+        assertThat(entries.getValue()).containsExactly(new SlackDigestEntry("master", TEST_HOST, "made-up-client", "LOGIN_ERROR", 1, null, null));
+    }
+
+    @Test
+    void record_should_resolve_host_only_for_new_realm() {
+        // given
+        final SlackEventDigest digest = new SlackEventDigest(slackMessageSender, scheduler, null, 15);
+        final AtomicInteger hostLookups = new AtomicInteger();
+
+        // when
+        for (int i = 0; i < 10; i++) {
+            digest.record("master", () -> {
+                hostLookups.incrementAndGet();
+                return TEST_HOST;
+            }, null, "web-app", "LOGIN");
+        }
+
+        // then
+        assertThat(hostLookups).hasValue(1);
+    }
+
+    @Test
+    void flush_should_route_counters_of_realm_to_its_own_channel_and_token() throws Exception {
+        // given
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_CHANNEL", "#general")
+                .execute(SlackConfiguration::getConfig);
+        final SlackRealmConfiguration realmConfiguration = slackConfiguration.forRealm(Map.of(
+                SlackRealmConfiguration.TOKEN_ATTRIBUTE, "xoxb-customers",
+                SlackRealmConfiguration.CHANNEL_ATTRIBUTE, "#customers"
+        ));
+        final SlackEventDigest digest = new SlackEventDigest(slackMessageSender, scheduler, null, 15);
+        digest.record("customers", () -> TEST_HOST, realmConfiguration, "shop", "LOGIN");
+        digest.record("master", () -> TEST_HOST, slackConfiguration.forRealm(Map.of()), "web-app", "LOGIN");
+
+        // when
+        digest.flush();
+
+        // then
+        verify(slackMessageSender).sendDigestMessage(entries.capture(), eq(15L));
+        assertThat(entries.getValue()).containsExactly(
+                new SlackDigestEntry("customers", TEST_HOST, "shop", "LOGIN", 1, "#customers", "customers"),
+                new SlackDigestEntry("master", TEST_HOST, "web-app", "LOGIN", 1, "#general", null)
+        );
+    }
+
+    @Test
+    void flush_should_publish_counters_to_cluster_when_node_is_not_sender() {
+        // given
+        final SlackEventDigest digest = new SlackEventDigest(slackMessageSender, scheduler, slackCluster, 15);
+        when(slackCluster.isConnected()).thenReturn(true);
+        when(slackCluster.isSender()).thenReturn(false);
+        when(slackCluster.getNodeName()).thenReturn("node-b");
+        digest.record("master", () -> TEST_HOST, null, "web-app", "LOGIN");
+
+        // when
+        digest.flush();
+
+        // then
+        verifyNoInteractions(slackMessageSender);
+        verify(slackCluster).publish(eq("digest:node-b:1"), publishedEntries.capture(), eq(TimeUnit.MINUTES.toMillis(45)));
+        assertThat(publishedEntries.getValue()).contains("\"realmName\":\"master\"", "\"count\":1");
+    }
+
+    @Test
+    void flush_should_merge_counters_published_by_other_nodes_when_node_is_sender() {
+        // given
+        final SlackEventDigest otherNodeDigest = new SlackEventDigest(slackMessageSender, scheduler, slackCluster, 15);
+        final SlackEventDigest digest = new SlackEventDigest(slackMessageSender, scheduler, slackCluster, 15);
+        when(slackCluster.isConnected()).thenReturn(true);
+        when(slackCluster.isSender()).thenReturn(false, true);
+        otherNodeDigest.record("master", () -> TEST_HOST, null, "web-app", "LOGIN");
+        otherNodeDigest.record("customers", () -> TEST_HOST, null, "shop", "LOGIN");
+        otherNodeDigest.flush();
+        verify(slackCluster).publish(anyString(), publishedEntries.capture(), anyLong());
+        when(slackCluster.take(SlackEventDigest.CLUSTER_KEY_PREFIX)).thenReturn(List.of(publishedEntries.getValue()));
+        digest.record("master", () -> TEST_HOST, null, "web-app", "LOGIN");
+
+        // when
+        digest.flush();
+
+        // then
+        verify(slackMessageSender).sendDigestMessage(entries.capture(), eq(15L));
+        assertThat(entries.getValue()).containsExactly(
+                new SlackDigestEntry("customers", TEST_HOST, "shop", "LOGIN", 1, null, null),
+                new SlackDigestEntry("master", TEST_HOST, "web-app", "LOGIN", 2, null, null)
+        );
+    }
+}
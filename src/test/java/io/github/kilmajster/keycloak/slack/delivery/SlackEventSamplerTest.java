@@ -0,0 +1,109 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackSamplingRate;
+import org.junit.jupiter.api.Test;
+import org.keycloak.events.EventType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackEventSamplerTest {
+
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    @Test
+    void isSampled_should_pick_every_nth_event_of_sampled_type() {
+        // given
+        final SlackEventSampler sampler = new SlackEventSampler(Map.of(EventType.LOGIN, SlackSamplingRate.oneIn(3)));
+
+        // when
+        final long sampledCount = IntStream.range(0, 9)
+                .filter(i -> sampler.isSampled(EventType.LOGIN, "realm", 0))
+                .count();
+
+        // then
+        assertThat(sampledCount).isEqualTo(3);
+        assertThat(sampler.isSampled(EventType.LOGIN_ERROR, "realm", 0)).isTrue();
+        assertThat(sampler.isSampled(EventType.LOGOUT, "realm", 0)).isTrue();
+    }
+
+    @Test
+    void isSampled_should_pick_events_per_minute_for_each_realm() {
+        // given
+        final SlackEventSampler sampler = new SlackEventSampler(Map.of(EventType.REFRESH_TOKEN, SlackSamplingRate.perMinute(2)));
+        final long minute = 1000 * MINUTE_MILLIS;
+
+        // when & then
+        assertThat(sampler.isSampled(EventType.REFRESH_TOKEN, "first", minute)).isTrue();
+        assertThat(sampler.isSampled(EventType.REFRESH_TOKEN, "first", minute + 1)).isTrue();
+        assertThat(sampler.isSampled(EventType.REFRESH_TOKEN, "first", minute + 2)).isFalse();
+        assertThat(sampler.isSampled(EventType.REFRESH_TOKEN, "second", minute + 2)).isTrue();
+        // late event of previous minute counts towards the current one
+        assertThat(sampler.isSampled(EventType.REFRESH_TOKEN, "first", minute - 1)).isFalse();
+        assertThat(sampler.isSampled(EventType.REFRESH_TOKEN, "first", minute + MINUTE_MILLIS)).isTrue();
+    }
+
+    @Test
+    void isSampled_should_not_exceed_rate_when_called_concurrently() throws Exception {
+        // given
+        final SlackEventSampler sampler = new SlackEventSampler(Map.of(
+                EventType.LOGIN, SlackSamplingRate.oneIn(10),
+                EventType.REFRESH_TOKEN, SlackSamplingRate.perMinute(50)
+        ));
+        final ExecutorService threads = Executors.newFixedThreadPool(4);
+
+        try {
+            // when
+            final List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(threads.submit(() -> {
+                    final int[] sampled = new int[2];
+                    for (int i = 0; i < 1000; i++) {
+                        sampled[0] += sampler.isSampled(EventType.LOGIN, "realm", 0) ? 1 : 0;
+                        sampled[1] += sampler.isSampled(EventType.REFRESH_TOKEN, "realm", 0) ? 1 : 0;
+                    }
+                    return sampled;
+                }));
+            }
+
+            // then
+            int sampledLogins = 0;
+            int sampledRefreshes = 0;
+            for (Future<int[]> result : results) {
+                sampledLogins += result.get()[0];
+                sampledRefreshes += result.get()[1];
+            }
+            assertThat(sampledLogins).isEqualTo(400);
+            assertThat(sampledRefreshes).isEqualTo(50);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void of_should_never_sample_digest_events() throws Exception {
+        // given
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_SAMPLING", "LOGIN=1/2; LOGOUT=1/2")
+                .and("SLACK_DIGEST_EVENTS", "LOGOUT")
+                .execute(SlackConfiguration::getConfig);
+
+        // when
+        final SlackEventSampler sampler = SlackEventSampler.of(slackConfiguration);
+
+        // then
+        assertThat(sampler.isSampled(EventType.LOGIN, "realm", 0)).isTrue();
+        assertThat(sampler.isSampled(EventType.LOGIN, "realm", 0)).isFalse();
+        assertThat(sampler.isSampled(EventType.LOGOUT, "realm", 0)).isTrue();
+        assertThat(sampler.isSampled(EventType.LOGOUT, "realm", 0)).isTrue();
+    }
+}
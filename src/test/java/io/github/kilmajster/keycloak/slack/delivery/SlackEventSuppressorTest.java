@@ -0,0 +1,241 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.cluster.SlackCluster;
+import io.github.kilmajster.keycloak.slack.config.SlackSuppressionKeyField;
+import io.github.kilmajster.keycloak.slack.message.SlackEventSnapshot;
+import io.github.kilmajster.keycloak.slack.message.SlackMessageSender;
+import io.github.kilmajster.keycloak.slack.message.SlackSuppressedEvents;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.events.Event;
+import org.keycloak.events.EventType;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_HOST;
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_REALM_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlackEventSuppressorTest {
+
+    private final List<SlackEventSnapshot> sentEvents = new CopyOnWriteArrayList<>();
+
+    @Mock
+    private SlackMessageSender slackMessageSender;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private SlackCluster slackCluster;
+
+    @Captor
+    private ArgumentCaptor<List<SlackSuppressedEvents>> suppressedEvents;
+
+    @Test
+    void accept_should_send_first_occurrence_and_fold_repeated_ones_into_summary() {
+        // given
+        final SlackEventSuppressor suppressor = suppressor(EnumSet.allOf(SlackSuppressionKeyField.class), 60_000, 100);
+
+        // when
+        suppressor.accept(loginError("10.0.0.1"));
+        suppressor.accept(loginError("10.0.0.1"));
+        suppressor.accept(loginError("10.0.0.1"));
+        suppressor.flush();
+
+        // then
+        assertThat(sentEvents).hasSize(1);
+        verify(slackMessageSender).sendSuppressionSummary(suppressedEvents.capture(), eq(60L), isNull());
+        assertThat(suppressedEvents.getValue())
+                .extracting(SlackSuppressedEvents::getSuppressedCount)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void accept_should_track_events_separately_by_configured_key_fields() {
+        // given
+        final SlackEventSuppressor suppressor = suppressor(EnumSet.of(SlackSuppressionKeyField.TYPE, SlackSuppressionKeyField.IP_ADDRESS), 60_000, 100);
+
+        // when
+        suppressor.accept(loginError("10.0.0.1"));
+        suppressor.accept(loginError("10.0.0.2"));
+        suppressor.accept(loginError("10.0.0.2"));
+
+        // then
+        assertThat(sentEvents)
+                .extracting(SlackEventSnapshot::getIpAddress)
+                .containsExactly("10.0.0.1", "10.0.0.2");
+        assertThat(suppressor.getTrackedEvents()).isEqualTo(2);
+    }
+
+    @Test
+    void accept_should_track_new_events_by_type_and_realm_only_when_max_keys_is_reached() {
+        // given
+        final SlackEventSuppressor suppressor = suppressor(EnumSet.allOf(SlackSuppressionKeyField.class), 60_000, 1);
+
+        // when
+        suppressor.accept(loginError("10.0.0.1"));
+        suppressor.accept(loginError("10.0.0.2"));
+        suppressor.accept(loginError("10.0.0.3"));
+        suppressor.accept(loginError("10.0.0.4"));
+        suppressor.flush();
+
+        // then
+        assertThat(sentEvents).hasSize(2);
+        assertThat(suppressor.getTrackedEvents()).isEqualTo(2);
+        verify(slackMessageSender).sendSuppressionSummary(suppressedEvents.capture(), anyLong(), isNull());
+        assertThat(suppressedEvents.getValue()).singleElement().satisfies(events -> {
+            assertThat(events.getSuppressedCount()).isEqualTo(2);
+            assertThat(events.getKeyFields()).containsExactlyInAnyOrder(SlackSuppressionKeyField.TYPE, SlackSuppressionKeyField.REALM);
+        });
+    }
+
+    @Test
+    void flush_should_report_every_repeated_occurrence_once_while_events_keep_coming() throws InterruptedException {
+        // given
+        final SlackEventSuppressor suppressor = suppressor(EnumSet.allOf(SlackSuppressionKeyField.class), 60_000, 100);
+        final Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(() -> {
+                for (int event = 0; event < 10_000; event++) {
+                    suppressor.accept(loginError("10.0.0.1"));
+                }
+            });
+        }
+
+        // when
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            while (producer.isAlive()) {
+                suppressor.flush();
+            }
+            producer.join();
+        }
+        suppressor.flush();
+
+        // then
+        verify(slackMessageSender, atLeastOnce()).sendSuppressionSummary(suppressedEvents.capture(), anyLong(), isNull());
+        assertThat(suppressedEvents.getAllValues().stream()
+                .flatMap(List::stream)
+                .mapToLong(SlackSuppressedEvents::getSuppressedCount)
+                .sum()).isEqualTo(40_000 - sentEvents.size());
+    }
+
+    @Test
+    void flush_should_not_lose_occurrences_counted_while_it_removes_their_event() throws InterruptedException {
+        // given
+        final SlackEventSuppressor suppressor = suppressor(EnumSet.allOf(SlackSuppressionKeyField.class), 0, 100);
+        final Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(() -> {
+                for (int event = 0; event < 10_000; event++) {
+                    suppressor.accept(loginError("10.0.0.1"));
+                }
+            });
+        }
+
+        // when
+        for (Thread producer : producers) {
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            while (producer.isAlive()) {
+                suppressor.flush();
+            }
+            producer.join();
+        }
+        suppressor.flush();
+
+        // then
+        verify(slackMessageSender, atLeastOnce()).sendSuppressionSummary(suppressedEvents.capture(), anyLong(), isNull());
+        assertThat(sentEvents.size() + suppressedEvents.getAllValues().stream()
+                .flatMap(List::stream)
+                .mapToLong(SlackSuppressedEvents::getSuppressedCount)
+                .sum()).isEqualTo(40_000);
+        assertThat(suppressor.getTrackedEvents()).isZero();
+    }
+
+    @Test
+    void flush_should_forget_events_which_did_not_repeat_within_window() throws InterruptedException {
+        // given
+        final SlackEventSuppressor suppressor = suppressor(EnumSet.allOf(SlackSuppressionKeyField.class), 10, 100);
+        suppressor.accept(loginError("10.0.0.1"));
+        Thread.sleep(20);
+
+        // when
+        suppressor.flush();
+        suppressor.accept(loginError("10.0.0.1"));
+
+        // then
+        assertThat(sentEvents).hasSize(2);
+        verifyNoInteractions(slackMessageSender);
+    }
+
+    @Test
+    void accept_should_only_count_first_occurrence_already_claimed_by_other_cluster_node() {
+        // given
+        final SlackEventSuppressor suppressor = new SlackEventSuppressor(
+                sentEvents::add, slackMessageSender, scheduler, slackCluster, EnumSet.allOf(SlackSuppressionKeyField.class), 60_000, 100
+        );
+        when(slackCluster.claim(startsWith("dedup:"), eq(60_000L))).thenReturn(false);
+        when(slackCluster.isConnected()).thenReturn(true);
+        when(slackCluster.getNodeName()).thenReturn("node-2");
+
+        // when
+        suppressor.accept(loginError("10.0.0.1"));
+        suppressor.accept(loginError("10.0.0.1"));
+        suppressor.flush();
+
+        // then
+        assertThat(sentEvents).isEmpty();
+        verify(slackCluster, times(1)).claim(anyString(), anyLong());
+        verify(slackMessageSender).sendSuppressionSummary(suppressedEvents.capture(), eq(60L), eq("node-2"));
+        assertThat(suppressedEvents.getValue())
+                .extracting(SlackSuppressedEvents::getSuppressedCount)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void accept_should_send_first_occurrence_when_cluster_claim_fails() {
+        // given
+        final SlackEventSuppressor suppressor = new SlackEventSuppressor(
+                sentEvents::add, slackMessageSender, scheduler, slackCluster, EnumSet.allOf(SlackSuppressionKeyField.class), 60_000, 100
+        );
+        when(slackCluster.claim(anyString(), anyLong())).thenThrow(new IllegalStateException("cache stopped"));
+
+        // when
+        suppressor.accept(loginError("10.0.0.1"));
+
+        // then
+        assertThat(sentEvents).hasSize(1);
+    }
+
+    private SlackEventSuppressor suppressor(final Set<SlackSuppressionKeyField> keyFields, final long windowMillis, final int maxKeys) {
+        return new SlackEventSuppressor(sentEvents::add, slackMessageSender, scheduler, null, keyFields, windowMillis, maxKeys);
+    }
+
+    private static SlackEventSnapshot loginError(final String ipAddress) {
+        final Event event = new Event();
+        event.setType(EventType.LOGIN_ERROR);
+        event.setClientId("account-console");
+        event.setError("invalid_user_credentials");
+        event.setIpAddress(ipAddress);
+
+        return SlackEventSnapshot.of(event, TEST_REALM_NAME, TEST_HOST, false);
+    }
+}
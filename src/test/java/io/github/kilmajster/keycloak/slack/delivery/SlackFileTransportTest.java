@@ -0,0 +1,85 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_SLACK_TOKEN;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackFileTransportTest {
+
+    @Test
+    void post_should_append_message_as_json_line(@TempDir Path directory) throws IOException {
+        // given
+        final Path file = directory.resolve("messages/slack.jsonl");
+
+        try (SlackFileTransport transport = SlackFileTransport.open(file)) {
+
+            // when
+            final ChatPostMessageResponse first = transport.post(request("#general", "first"));
+            final ChatPostMessageResponse second = transport.post(request("#alerts", "second"));
+
+            // then
+            assertThat(first.isOk()).isTrue();
+            assertThat(first.getChannel()).isEqualTo("#general");
+            assertThat(first.getTs()).isNotEqualTo(second.getTs());
+        }
+
+        final List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0)).startsWith("{").contains("\"channel\":\"#general\"", "\"text\":\"first\"").doesNotContain(TEST_SLACK_TOKEN);
+        assertThat(lines.get(1)).contains("\"channel\":\"#alerts\"", "\"text\":\"second\"");
+    }
+
+    @Test
+    void open_should_append_to_existing_file(@TempDir Path directory) throws IOException {
+        // given
+        final Path file = directory.resolve("slack.jsonl");
+        try (SlackFileTransport transport = SlackFileTransport.open(file)) {
+            transport.post(request("#general", "first"));
+        }
+
+        // when
+        try (SlackFileTransport transport = SlackFileTransport.open(file)) {
+            transport.post(request("#general", "second"));
+        }
+
+        // then
+        assertThat(Files.readAllLines(file)).hasSize(2);
+    }
+
+    @Test
+    void transport_should_be_neither_rate_limited_nor_batched(@TempDir Path directory) throws Exception {
+        // given
+        final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_TRANSPORT", "file")
+                .and("SLACK_FILE_PATH", directory.resolve("slack.jsonl").toString())
+                .execute(SlackConfiguration::getConfig);
+
+        // when
+        try (SlackTransport transport = SlackTransport.of(slackConfiguration)) {
+
+            // then
+            assertThat(transport).isInstanceOf(SlackFileTransport.class);
+            assertThat(transport.isRateLimited()).isFalse();
+            assertThat(transport.isBatchingSupported()).isFalse();
+            assertThat(transport.isUpdateSupported()).isFalse();
+        }
+    }
+
+    private static ChatPostMessageRequest request(String channel, String text) {
+        return ChatPostMessageRequest.builder()
+                .token(TEST_SLACK_TOKEN)
+                .channel(channel)
+                .text(text)
+                .build();
+    }
+}
@@ -0,0 +1,272 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.request.chat.ChatUpdateRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.methods.response.chat.ChatUpdateResponse;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.events.EventType;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_HOST;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlackLiveCountersTest {
+
+    private static final long WINDOW_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Mock
+    private SlackTransport slackTransport;
+
+    @Mock
+    private SlackChannelScheduler slackChannelScheduler;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Captor
+    private ArgumentCaptor<ChatPostMessageRequest> postRequest;
+
+    @Captor
+    private ArgumentCaptor<ChatUpdateRequest> updateRequest;
+
+    private SlackConfiguration slackConfiguration;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        slackConfiguration = withEnvironmentVariable("SLACK_CHANNEL", "#general")
+                .and("SLACK_ROUTES", "type:LOGIN_ERROR=#security")
+                .and("SLACK_LIVE_COUNTER_EVENTS", "LOGIN_ERROR")
+                .execute(SlackConfiguration::getConfig);
+        // channel scheduler sends live message right away, with token named after its realm
+        lenient().doAnswer(this::sendRightAway).when(slackChannelScheduler).submitLive(any());
+    }
+
+    @Test
+    void flush_should_post_counter_once_and_then_update_it_in_place() throws Exception {
+        // given
+        final SlackLiveCounters liveCounters = new SlackLiveCounters(slackChannelScheduler, slackConfiguration, scheduler, WINDOW_MILLIS, 10_000);
+        when(slackTransport.post(any())).thenReturn(postResponse(true, null));
+        when(slackTransport.update(any())).thenReturn(updateResponse(true, null));
+
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, "web-app", NOW);
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, "web-app", NOW + 1);
+        liveCounters.flush(NOW + 2);
+
+        // when
+        for (int i = 0; i < 1431; i++) {
+            liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, "admin-console", NOW + 3);
+        }
+        liveCounters.flush(NOW + 4);
+
+        // then
+        verify(slackTransport).post(postRequest.capture());
+        assertThat(postRequest.getValue().getChannel()).isEqualTo("#security");
+        assertThat(postRequest.getValue().getText()).isEqualTo("LOGIN_ERROR in realm master: 2 so far, last from client web-app");
+
+        verify(slackTransport).update(updateRequest.capture());
+        assertThat(updateRequest.getValue().getChannel()).isEqualTo("C0FAKE");
+        assertThat(updateRequest.getValue().getTs()).isEqualTo("1700000000.000100");
+        assertThat(updateRequest.getValue().getText()).isEqualTo("LOGIN_ERROR in realm master: 1,433 so far, last from client admin-console");
+        assertThat(updateRequest.getValue().getBlocks()).hasSize(2);
+    }
+
+    @Test
+    void flush_should_not_call_slack_when_count_did_not_change() throws Exception {
+        // given
+        final SlackLiveCounters liveCounters = new SlackLiveCounters(slackChannelScheduler, slackConfiguration, scheduler, WINDOW_MILLIS, 10_000);
+        when(slackTransport.post(any())).thenReturn(postResponse(true, null));
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW);
+
+        // when
+        liveCounters.flush(NOW + 1);
+        liveCounters.flush(NOW + 2);
+
+        // then
+        verify(slackTransport).post(postRequest.capture());
+        assertThat(postRequest.getValue().getText()).isEqualTo("LOGIN_ERROR in realm master: 1 so far");
+        verify(slackTransport, never()).update(any());
+    }
+
+    @Test
+    void record_should_keep_separate_counters_per_realm_with_realm_token_and_routes() throws Exception {
+        // given
+        final SlackLiveCounters liveCounters = new SlackLiveCounters(slackChannelScheduler, slackConfiguration, scheduler, WINDOW_MILLIS, 10_000);
+        final SlackRealmConfiguration realmConfiguration = slackConfiguration.forRealm(Map.of(
+                SlackRealmConfiguration.TOKEN_ATTRIBUTE, "stored-customers-token",
+                SlackRealmConfiguration.CHANNEL_ATTRIBUTE, "#customers",
+                SlackRealmConfiguration.ROUTES_ATTRIBUTE, ""
+        ));
+        when(slackTransport.post(any())).thenReturn(postResponse(true, null));
+
+        // when
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW);
+        liveCounters.record("customers", () -> TEST_HOST, realmConfiguration, EventType.LOGIN_ERROR, null, NOW);
+        liveCounters.flush(NOW + 1);
+
+        // then
+        verify(slackTransport, times(2)).post(postRequest.capture());
+        assertThat(postRequest.getAllValues())
+                .extracting(ChatPostMessageRequest::getChannel, ChatPostMessageRequest::getToken)
+                .containsExactlyInAnyOrder(tuple("#security", null), tuple("#customers", "customers-token"));
+    }
+
+    @Test
+    void flush_should_close_counter_after_window_and_post_next_window_as_new_message() throws Exception {
+        // given
+        final SlackLiveCounters liveCounters = new SlackLiveCounters(slackChannelScheduler, slackConfiguration, scheduler, WINDOW_MILLIS, 10_000);
+        when(slackTransport.post(any())).thenReturn(postResponse(true, null));
+        when(slackTransport.update(any())).thenReturn(updateResponse(true, null));
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW);
+        liveCounters.flush(NOW + 1);
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW + 2);
+
+        // when
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW + WINDOW_MILLIS);
+        liveCounters.flush(NOW + WINDOW_MILLIS + 1);
+
+        // then
+        verify(slackTransport).update(updateRequest.capture());
+        assertThat(updateRequest.getValue().getText()).isEqualTo("LOGIN_ERROR in realm master: 2 in total");
+        verify(slackTransport, times(2)).post(postRequest.capture());
+        assertThat(postRequest.getAllValues().get(1).getText()).isEqualTo("LOGIN_ERROR in realm master: 1 so far");
+    }
+
+    @Test
+    void flush_should_close_counter_without_new_events_once_window_is_over() throws Exception {
+        // given
+        final SlackLiveCounters liveCounters = new SlackLiveCounters(slackChannelScheduler, slackConfiguration, scheduler, WINDOW_MILLIS, 10_000);
+        when(slackTransport.post(any())).thenReturn(postResponse(true, null));
+        when(slackTransport.update(any())).thenReturn(updateResponse(true, null));
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW);
+        liveCounters.flush(NOW + 1);
+
+        // when
+        liveCounters.flush(NOW + WINDOW_MILLIS);
+        liveCounters.flush(NOW + WINDOW_MILLIS + 1);
+
+        // then
+        verify(slackTransport).update(updateRequest.capture());
+        assertThat(updateRequest.getValue().getText()).isEqualTo("LOGIN_ERROR in realm master: 1 in total");
+        verify(slackTransport).post(any());
+    }
+
+    @Test
+    void flush_should_retry_failed_post_and_post_again_when_message_was_deleted() throws Exception {
+        // given
+        final SlackLiveCounters liveCounters = new SlackLiveCounters(slackChannelScheduler, slackConfiguration, scheduler, WINDOW_MILLIS, 10_000);
+        when(slackTransport.post(any())).thenReturn(postResponse(false, "ratelimited"), postResponse(true, null));
+        when(slackTransport.update(any())).thenReturn(updateResponse(false, SlackLiveCounters.MESSAGE_NOT_FOUND));
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW);
+
+        // when
+        liveCounters.flush(NOW + 1);
+        liveCounters.flush(NOW + 2);
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW + 3);
+        liveCounters.flush(NOW + 4);
+        liveCounters.flush(NOW + 5);
+
+        // then
+        verify(slackTransport, times(3)).post(any());
+        verify(slackTransport).update(any());
+    }
+
+    @Test
+    void flush_should_drop_counter_once_slack_failed_it_permanently() throws Exception {
+        // given
+        final SlackLiveCounters liveCounters = new SlackLiveCounters(slackChannelScheduler, slackConfiguration, scheduler, WINDOW_MILLIS, 10_000);
+        when(slackTransport.post(any())).thenReturn(postResponse(false, "channel_not_found"));
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW);
+        liveCounters.flush(NOW + 1);
+
+        // when
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW + 2);
+        liveCounters.flush(NOW + 3);
+        liveCounters.flush(NOW + WINDOW_MILLIS);
+        liveCounters.flush(NOW + WINDOW_MILLIS + 1);
+
+        // then
+        verify(slackChannelScheduler).submitLive(any());
+        verify(slackTransport).post(any());
+    }
+
+    @Test
+    void flush_should_queue_closed_counter_again_when_its_previous_update_was_still_being_sent() throws Exception {
+        // given
+        final SlackLiveCounters liveCounters = new SlackLiveCounters(slackChannelScheduler, slackConfiguration, scheduler, WINDOW_MILLIS, 10_000);
+        when(slackTransport.post(any())).thenReturn(postResponse(true, null));
+        doReturn(false).doAnswer(this::sendRightAway).when(slackChannelScheduler).submitLive(any());
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, NOW);
+
+        // when
+        liveCounters.flush(NOW + WINDOW_MILLIS);
+        liveCounters.flush(NOW + WINDOW_MILLIS + 1);
+        liveCounters.flush(NOW + WINDOW_MILLIS + 2);
+
+        // then
+        verify(slackChannelScheduler, times(2)).submitLive(any());
+        verify(slackTransport).post(postRequest.capture());
+        assertThat(postRequest.getValue().getText()).isEqualTo("LOGIN_ERROR in realm master: 1 in total");
+    }
+
+    @Test
+    void close_should_cancel_updates_and_send_last_counts() throws Exception {
+        // given
+        final ScheduledFuture<?> scheduledUpdate = mock(ScheduledFuture.class);
+        doReturn(scheduledUpdate).when(scheduler).scheduleWithFixedDelay(any(), eq(10_000L), eq(10_000L), eq(TimeUnit.MILLISECONDS));
+        final SlackLiveCounters liveCounters = new SlackLiveCounters(slackChannelScheduler, slackConfiguration, scheduler, WINDOW_MILLIS, 10_000);
+        when(slackTransport.post(any())).thenReturn(postResponse(true, null));
+        liveCounters.record("master", () -> TEST_HOST, null, EventType.LOGIN_ERROR, null, System.currentTimeMillis());
+
+        // when
+        liveCounters.close();
+
+        // then
+        verify(scheduledUpdate).cancel(false);
+        verify(slackTransport).post(any());
+    }
+
+    private Object sendRightAway(final InvocationOnMock invocation) throws Exception {
+        final SlackLiveMessage message = invocation.getArgument(0);
+        message.send(slackTransport, message.getTokenRealm() == null ? null : message.getTokenRealm() + "-token");
+
+        return true;
+    }
+
+    private static ChatPostMessageResponse postResponse(final boolean ok, final String error) {
+        final ChatPostMessageResponse response = new ChatPostMessageResponse();
+        response.setOk(ok);
+        response.setError(error);
+        response.setChannel("C0FAKE");
+        response.setTs("1700000000.000100");
+
+        return response;
+    }
+
+    private static ChatUpdateResponse updateResponse(final boolean ok, final String error) {
+        final ChatUpdateResponse response = new ChatUpdateResponse();
+        response.setOk(ok);
+        response.setError(error);
+
+        return response;
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.message.SlackEventSnapshot;
+import io.github.kilmajster.keycloak.slack.message.SlackMessageSender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlackMessageBatcherTest {
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @Mock
+    private SlackMessageSender slackMessageSender;
+
+    @AfterEach
+    void shutdownScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void accept_should_send_batch_immediately_when_max_events_is_reached() {
+        // given
+        final SlackMessageBatcher batcher = new SlackMessageBatcher(slackMessageSender, scheduler, 60_000, 3);
+        final SlackEventSnapshot first = mock(SlackEventSnapshot.class);
+        final SlackEventSnapshot second = mock(SlackEventSnapshot.class);
+        final SlackEventSnapshot third = mock(SlackEventSnapshot.class);
+
+        // when
+        batcher.accept(first);
+        batcher.accept(second);
+        batcher.accept(third);
+
+        // then
+        verify(slackMessageSender).sendBatchMessage(List.of(first, second, third));
+        verifyNoMoreInteractions(slackMessageSender);
+    }
+
+    @Test
+    void accept_should_send_batch_when_window_elapses() {
+        // given
+        final SlackMessageBatcher batcher = new SlackMessageBatcher(slackMessageSender, scheduler, 50, 100);
+        final SlackEventSnapshot first = mock(SlackEventSnapshot.class);
+        final SlackEventSnapshot second = mock(SlackEventSnapshot.class);
+
+        // when
+        batcher.accept(first);
+        batcher.accept(second);
+
+        // then
+        verify(slackMessageSender, timeout(5000)).sendBatchMessage(List.of(first, second));
+    }
+
+    @Test
+    void flush_should_send_single_event_as_regular_message() {
+        // given
+        final SlackMessageBatcher batcher = new SlackMessageBatcher(slackMessageSender, scheduler, 60_000, 100);
+        final SlackEventSnapshot snapshot = mock(SlackEventSnapshot.class);
+        batcher.accept(snapshot);
+
+        // when
+        batcher.close();
+
+        // then
+        verify(slackMessageSender).sendEventMessage(snapshot);
+        verifyNoMoreInteractions(slackMessageSender);
+    }
+
+    @Test
+    void flush_should_not_send_anything_when_there_are_no_pending_events() {
+        // given
+        final SlackMessageBatcher batcher = new SlackMessageBatcher(slackMessageSender, scheduler, 60_000, 100);
+
+        // when
+        batcher.flush();
+
+        // then
+        verifyNoInteractions(slackMessageSender);
+    }
+}
@@ -0,0 +1,203 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.model.block.SectionBlock;
+import com.slack.api.model.block.composition.MarkdownTextObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackOutboxTest {
+
+    @TempDir
+    Path outboxDir;
+
+    @Test
+    void open_should_recover_messages_which_were_not_acknowledged() throws IOException {
+        // given
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024 * 1024)) {
+            outbox.ack(outbox.append(request("first"), null));
+            outbox.append(request("second"), null);
+            outbox.append(request("third"), null);
+        }
+
+        // when
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024 * 1024)) {
+
+            // then
+            final List<SlackOutgoingMessage> recoveredMessages = outbox.takeRecoveredMessages();
+            assertThat(recoveredMessages)
+                    .extracting(message -> message.getRequest().getText())
+                    .containsExactly("second", "third");
+            assertThat(recoveredMessages).allMatch(SlackOutgoingMessage::isStored);
+            assertThat(outbox.getPendingMessages()).isEqualTo(2);
+            assertThat(outbox.takeRecoveredMessages()).isEmpty();
+        }
+    }
+
+    @Test
+    void open_should_recover_message_blocks() throws IOException {
+        // given
+        final ChatPostMessageRequest request = ChatPostMessageRequest.builder()
+                .channel("#general")
+                .text("title")
+                .blocks(Collections.singletonList(SectionBlock.builder()
+                        .text(MarkdownTextObject.builder().text("*Realm*: master").build())
+                        .build()))
+                .build();
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024 * 1024)) {
+            outbox.append(request, null);
+        }
+
+        // when
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024 * 1024)) {
+
+            // then
+            final ChatPostMessageRequest recovered = outbox.takeRecoveredMessages().get(0).getRequest();
+            assertThat(recovered.getChannel()).isEqualTo("#general");
+            assertThat(recovered.getText()).isEqualTo("title");
+            assertThat(recovered.getBlocks()).hasSize(1);
+            assertThat(((SectionBlock) recovered.getBlocks().get(0)).getText().getText()).isEqualTo("*Realm*: master");
+        }
+    }
+
+    @Test
+    void open_should_recover_realm_of_token_without_the_token() throws IOException {
+        // given
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024 * 1024)) {
+            outbox.append(request("first"), "customers");
+        }
+
+        // when
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024 * 1024)) {
+
+            // then
+            final SlackOutgoingMessage recovered = outbox.takeRecoveredMessages().get(0);
+            assertThat(recovered.getTokenRealm()).isEqualTo("customers");
+            assertThat(recovered.getRequest().getToken()).isNull();
+        }
+    }
+
+    @Test
+    void open_should_ignore_torn_record_at_the_end_of_segment() throws IOException {
+        // given
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024 * 1024)) {
+            outbox.append(request("first"), null);
+        }
+        Files.write(segments().get(0), new byte[]{0, 0, 1, 0, 1, 0}, StandardOpenOption.APPEND);
+
+        // when
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024 * 1024)) {
+
+            // then
+            assertThat(outbox.takeRecoveredMessages())
+                    .extracting(message -> message.getRequest().getText())
+                    .containsExactly("first");
+        }
+    }
+
+    @Test
+    void ack_should_delete_segments_without_pending_messages() throws IOException {
+        // given
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1)) {
+            final long first = outbox.append(request("first"), null);
+            final long second = outbox.append(request("second"), null);
+            outbox.append(request("third"), null);
+            assertThat(segments()).hasSize(3);
+
+            // when
+            outbox.ack(first);
+            outbox.ack(second);
+
+            // then
+            assertThat(segments()).hasSize(1);
+        }
+    }
+
+    @Test
+    void ack_should_keep_segment_with_acknowledgements_of_messages_in_older_segment() throws IOException {
+        // given
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1000)) {
+            outbox.append(paddedRequest("pending"), null);
+            final long ackedLater = outbox.append(paddedRequest("acked later"), null);
+            final long third = outbox.append(paddedRequest("third"), null);
+            final long fourth = outbox.append(paddedRequest("fourth"), null);
+
+            // when
+            outbox.ack(ackedLater);
+            outbox.ack(third);
+            outbox.ack(fourth);
+            outbox.append(paddedRequest("fifth"), null);
+        }
+
+        // then
+        try (SlackOutbox outbox = SlackOutbox.open(outboxDir, 1000)) {
+            assertThat(outbox.takeRecoveredMessages())
+                    .extracting(message -> message.getRequest().getText())
+                    .containsExactly("pending", "fifth");
+        }
+    }
+
+    @Test
+    void sync_should_do_nothing_once_outbox_is_closed() throws IOException {
+        // given
+        final SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024 * 1024);
+        outbox.append(request("first"), null);
+        outbox.close();
+
+        // when
+        outbox.sync();
+
+        // then
+        try (SlackOutbox reopened = SlackOutbox.open(outboxDir, 1024 * 1024)) {
+            assertThat(reopened.takeRecoveredMessages())
+                    .extracting(message -> message.getRequest().getText())
+                    .containsExactly("first");
+        }
+    }
+
+    @Test
+    void close_should_delete_segment_when_all_messages_were_acknowledged() throws IOException {
+        // given
+        final SlackOutbox outbox = SlackOutbox.open(outboxDir, 1024 * 1024);
+        outbox.ack(outbox.append(request("first"), null));
+
+        // when
+        outbox.close();
+
+        // then
+        assertThat(segments()).isEmpty();
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(outboxDir)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    // username makes the record a bit over half of 1000 bytes, so two messages fit in a segment
+    private static ChatPostMessageRequest paddedRequest(String text) {
+        return ChatPostMessageRequest.builder()
+                .channel("#general")
+                .text(text)
+                .username("x".repeat(500))
+                .build();
+    }
+
+    private static ChatPostMessageRequest request(String text) {
+        return ChatPostMessageRequest.builder()
+                .channel("#general")
+                .text(text)
+                .build();
+    }
+}
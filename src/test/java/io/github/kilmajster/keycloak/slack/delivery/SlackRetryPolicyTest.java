@@ -0,0 +1,56 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackRetryPolicyTest {
+
+    private final SlackRetryPolicy retryPolicy = new SlackRetryPolicy(5, 1000, 8000);
+
+    @Test
+    void isTransientError_should_recognize_transient_slack_errors() {
+        assertThat(retryPolicy.isTransientError("service_unavailable")).isTrue();
+        assertThat(retryPolicy.isTransientError("internal_error")).isTrue();
+        assertThat(retryPolicy.isTransientError("channel_not_found")).isFalse();
+        assertThat(retryPolicy.isTransientError("invalid_auth")).isFalse();
+        assertThat(retryPolicy.isTransientError(null)).isFalse();
+    }
+
+    @Test
+    void isTransientStatus_should_recognize_server_errors() {
+        assertThat(retryPolicy.isTransientStatus(503)).isTrue();
+        assertThat(retryPolicy.isTransientStatus(500)).isTrue();
+        assertThat(retryPolicy.isTransientStatus(404)).isFalse();
+    }
+
+    @Test
+    void isTransient_should_retry_only_failures_before_request_was_sent() {
+        assertThat(retryPolicy.isTransient(new ConnectException("Connection refused"))).isTrue();
+        assertThat(retryPolicy.isTransient(new UnknownHostException("slack.com"))).isTrue();
+        assertThat(retryPolicy.isTransient(new SocketTimeoutException("connect timed out"))).isTrue();
+        assertThat(retryPolicy.isTransient(new SocketTimeoutException("timeout"))).isFalse();
+        assertThat(retryPolicy.isTransient(new IOException("unexpected end of stream"))).isFalse();
+    }
+
+    @Test
+    void canRetry_should_limit_number_of_attempts() {
+        assertThat(retryPolicy.canRetry(4)).isTrue();
+        assertThat(retryPolicy.canRetry(5)).isFalse();
+    }
+
+    @Test
+    void backoffMillis_should_grow_exponentially_with_jitter_up_to_max_backoff() {
+        for (int i = 0; i < 100; i++) {
+            assertThat(retryPolicy.backoffMillis(1)).isBetween(500L, 1000L);
+            assertThat(retryPolicy.backoffMillis(3)).isBetween(2000L, 4000L);
+            assertThat(retryPolicy.backoffMillis(10)).isBetween(4000L, 8000L);
+            assertThat(retryPolicy.backoffMillis(100)).isBetween(4000L, 8000L);
+        }
+    }
+}
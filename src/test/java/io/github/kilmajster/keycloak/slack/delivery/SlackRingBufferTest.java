@@ -0,0 +1,142 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import io.github.kilmajster.keycloak.slack.config.SlackWaitStrategy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackRingBufferTest {
+
+    @Test
+    void capacity_should_be_rounded_up_to_power_of_two() {
+        assertThat(new SlackRingBuffer(1, SlackWaitStrategy.BLOCKING).capacity()).isEqualTo(2);
+        assertThat(new SlackRingBuffer(3, SlackWaitStrategy.BLOCKING).capacity()).isEqualTo(4);
+        assertThat(new SlackRingBuffer(1024, SlackWaitStrategy.BLOCKING).capacity()).isEqualTo(1024);
+        assertThat(new SlackRingBuffer(10000, SlackWaitStrategy.BLOCKING).capacity()).isEqualTo(16384);
+    }
+
+    @Test
+    void offer_should_reject_delivery_when_full_and_take_it_once_slot_is_free() {
+        // given
+        final SlackRingBuffer ringBuffer = new SlackRingBuffer(2, SlackWaitStrategy.BLOCKING);
+        final List<String> delivered = new ArrayList<>();
+
+        // when
+        final boolean first = ringBuffer.offer(delivered::add, "first");
+        final boolean second = ringBuffer.offer(delivered::add, "second");
+        final boolean third = ringBuffer.offer(delivered::add, "third");
+        final int sizeWhenFull = ringBuffer.size();
+        ringBuffer.runNext();
+        final boolean fourth = ringBuffer.offer(delivered::add, "fourth");
+        while (ringBuffer.runNext()) {
+        }
+
+        // then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(sizeWhenFull).isEqualTo(2);
+        assertThat(fourth).isTrue();
+        assertThat(delivered).containsExactly("first", "second", "fourth");
+        assertThat(ringBuffer.isEmpty()).isTrue();
+    }
+
+    @Test
+    void runNext_should_keep_consuming_when_delivery_fails() {
+        // given
+        final SlackRingBuffer ringBuffer = new SlackRingBuffer(4, SlackWaitStrategy.BLOCKING);
+        final List<String> delivered = new ArrayList<>();
+        ringBuffer.offer(event -> {
+            throw new IllegalStateException(event);
+        }, "failing");
+        ringBuffer.offer(delivered::add, "next");
+
+        // when
+        final boolean failedRun = ringBuffer.runNext();
+        final boolean nextRun = ringBuffer.runNext();
+
+        // then
+        assertThat(failedRun).isTrue();
+        assertThat(nextRun).isTrue();
+        assertThat(delivered).containsExactly("next");
+    }
+
+    @Test
+    void offer_should_reject_delivery_once_closed() {
+        // given
+        final SlackRingBuffer ringBuffer = new SlackRingBuffer(4, SlackWaitStrategy.BLOCKING);
+
+        // when
+        ringBuffer.close();
+
+        // then
+        assertThat(ringBuffer.offer(event -> {
+        }, "late")).isFalse();
+        assertThat(ringBuffer.isClosed()).isTrue();
+    }
+
+    @ParameterizedTest
+    @EnumSource(SlackWaitStrategy.class)
+    void ring_buffer_should_deliver_every_event_exactly_once_with_many_producers_and_consumers(final SlackWaitStrategy waitStrategy) throws InterruptedException {
+        // given
+        final int producers = 4;
+        final int eventsPerProducer = 20_000;
+        final SlackRingBuffer ringBuffer = new SlackRingBuffer(64, waitStrategy);
+        final AtomicReferenceArray<AtomicLong> deliveries = new AtomicReferenceArray<>(producers * eventsPerProducer);
+        for (int i = 0; i < deliveries.length(); i++) {
+            deliveries.set(i, new AtomicLong());
+        }
+        final CountDownLatch produced = new CountDownLatch(producers);
+        final List<Thread> threads = new ArrayList<>();
+
+        for (int consumer = 0; consumer < 2; consumer++) {
+            threads.add(new Thread(() -> {
+                int idleRounds = 0;
+                try {
+                    while (!ringBuffer.isClosed() || !ringBuffer.isEmpty()) {
+                        if (ringBuffer.runNext()) {
+                            idleRounds = 0;
+                        } else {
+                            ringBuffer.await(idleRounds++);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+        }
+        for (int producer = 0; producer < producers; producer++) {
+            final int firstEvent = producer * eventsPerProducer;
+            threads.add(new Thread(() -> {
+                for (int event = firstEvent; event < firstEvent + eventsPerProducer; event++) {
+                    while (!ringBuffer.offer(AtomicLong::incrementAndGet, deliveries.get(event))) {
+                        Thread.yield();
+                    }
+                }
+                produced.countDown();
+            }));
+        }
+
+        // when
+        threads.forEach(Thread::start);
+        assertThat(produced.await(30, TimeUnit.SECONDS)).isTrue();
+        ringBuffer.close();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        // then
+        for (int i = 0; i < deliveries.length(); i++) {
+            assertThat(deliveries.get(i).get()).as("deliveries of event %d", i).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackThreadCacheTest {
+
+    private static final long IDLE_MILLIS = 1000;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(IDLE_MILLIS);
+
+    @Test
+    void get_should_return_ts_of_thread_parent_message() {
+        // given
+        final SlackThreadCache threadCache = new SlackThreadCache(10, IDLE_MILLIS);
+        threadCache.put("#general\nmaster\njohn", "1700000000.000100", 0);
+
+        // when & then
+        assertThat(threadCache.get("#general\nmaster\njohn", 1)).isEqualTo("1700000000.000100");
+        assertThat(threadCache.get("#general\nmaster\njane", 1)).isNull();
+    }
+
+    @Test
+    void get_should_forget_thread_without_reply_for_idle_time() {
+        // given
+        final SlackThreadCache threadCache = new SlackThreadCache(10, IDLE_MILLIS);
+        threadCache.put("john", "1.000100", 0);
+
+        // when
+        final String repliedBeforeIdle = threadCache.get("john", IDLE_NANOS - 1);
+        final String repliedAfterIdleSinceLastReply = threadCache.get("john", 2 * IDLE_NANOS - 2);
+        final String idle = threadCache.get("john", 3 * IDLE_NANOS);
+
+        // then
+        assertThat(repliedBeforeIdle).isEqualTo("1.000100");
+        assertThat(repliedAfterIdleSinceLastReply).isEqualTo("1.000100");
+        assertThat(idle).isNull();
+        assertThat(threadCache.size()).isZero();
+    }
+
+    @Test
+    void put_should_evict_least_recently_used_thread_when_cache_is_full() {
+        // given
+        final SlackThreadCache threadCache = new SlackThreadCache(2, IDLE_MILLIS);
+        threadCache.put("john", "1.000100", 0);
+        threadCache.put("jane", "1.000200", 0);
+        threadCache.get("john", 1);
+
+        // when
+        threadCache.put("joe", "1.000300", 2);
+
+        // then
+        assertThat(threadCache.size()).isEqualTo(2);
+        assertThat(threadCache.get("jane", 3)).isNull();
+        assertThat(threadCache.get("john", 3)).isEqualTo("1.000100");
+        assertThat(threadCache.get("joe", 3)).isEqualTo("1.000300");
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackTokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_should_allow_burst_and_then_pace_at_configured_rate() {
+        // given
+        final SlackTokenBucket tokenBucket = new SlackTokenBucket(60, 2, 0);
+
+        // when & then
+        assertThat(tokenBucket.tryAcquire(0)).isZero();
+        assertThat(tokenBucket.tryAcquire(0)).isZero();
+        assertThat(tokenBucket.tryAcquire(0)).isEqualTo(SECOND);
+        assertThat(tokenBucket.tryAcquire(SECOND / 2)).isEqualTo(SECOND / 2);
+        assertThat(tokenBucket.tryAcquire(SECOND)).isZero();
+    }
+
+    @Test
+    void tryAcquire_should_wait_until_block_expires() {
+        // given
+        final SlackTokenBucket tokenBucket = new SlackTokenBucket(60, 5, 0);
+
+        // when
+        tokenBucket.blockFor(0, 30 * SECOND);
+
+        // then
+        assertThat(tokenBucket.tryAcquire(10 * SECOND)).isEqualTo(20 * SECOND);
+        assertThat(tokenBucket.tryAcquire(30 * SECOND)).isZero();
+    }
+}
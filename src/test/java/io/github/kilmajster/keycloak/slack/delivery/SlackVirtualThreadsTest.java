@@ -0,0 +1,23 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class SlackVirtualThreadsTest {
+
+    @Test
+    void isAvailable_should_report_virtual_threads_only_from_java_21() {
+        assertThat(SlackVirtualThreads.isAvailable()).isEqualTo(Runtime.version().feature() >= SlackVirtualThreads.MIN_JAVA_VERSION);
+    }
+
+    @Test
+    void newThreadPerTaskExecutor_should_refuse_to_start_when_virtual_threads_are_not_available() {
+        assumeFalse(SlackVirtualThreads.isAvailable(), "virtual threads are available on this runtime");
+
+        assertThatThrownBy(() -> SlackVirtualThreads.newThreadPerTaskExecutor("slack-test"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+}
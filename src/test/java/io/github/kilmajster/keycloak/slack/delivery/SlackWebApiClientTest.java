@@ -0,0 +1,122 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.Slack;
+import com.slack.api.methods.MethodsClient;
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.request.chat.ChatUpdateRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.methods.response.chat.ChatUpdateResponse;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.fake.FakeSlackApiServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_SLACK_TOKEN;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.*;
+
+class SlackWebApiClientTest {
+
+    @Test
+    void post_should_reuse_single_methods_client() throws SlackApiException, IOException {
+        // given
+        final Slack slack = mock(Slack.class);
+        final MethodsClient methodsClient = mock(MethodsClient.class);
+        final ChatPostMessageResponse response = new ChatPostMessageResponse();
+        when(slack.methods(TEST_SLACK_TOKEN)).thenReturn(methodsClient);
+        when(methodsClient.chatPostMessage(any(ChatPostMessageRequest.class))).thenReturn(response);
+
+        final SlackWebApiClient slackWebApiClient = new SlackWebApiClient(slack, TEST_SLACK_TOKEN);
+
+        // when
+        slackWebApiClient.post(ChatPostMessageRequest.builder().build());
+        final ChatPostMessageResponse secondResponse = slackWebApiClient.post(ChatPostMessageRequest.builder().build());
+
+        // then
+        assertThat(secondResponse).isSameAs(response);
+        verify(slack, times(1)).methods(TEST_SLACK_TOKEN);
+        verify(methodsClient, times(2)).chatPostMessage(any(ChatPostMessageRequest.class));
+    }
+
+    @Test
+    void update_should_edit_posted_message_with_chat_update() throws SlackApiException, IOException {
+        // given
+        final Slack slack = mock(Slack.class);
+        final MethodsClient methodsClient = mock(MethodsClient.class);
+        final ChatUpdateResponse response = new ChatUpdateResponse();
+        final ChatUpdateRequest request = ChatUpdateRequest.builder().channel("C0FAKE").ts("1.000100").text("2 so far").build();
+        when(slack.methods(TEST_SLACK_TOKEN)).thenReturn(methodsClient);
+        when(methodsClient.chatUpdate(request)).thenReturn(response);
+
+        final SlackWebApiClient slackWebApiClient = new SlackWebApiClient(slack, TEST_SLACK_TOKEN);
+
+        // when
+        final ChatUpdateResponse updateResponse = slackWebApiClient.update(request);
+
+        // then
+        assertThat(slackWebApiClient.isUpdateSupported()).isTrue();
+        assertThat(updateResponse).isSameAs(response);
+    }
+
+    @Test
+    void close_should_close_slack_http_client() throws Exception {
+        // given
+        final Slack slack = mock(Slack.class);
+        final SlackWebApiClient slackWebApiClient = new SlackWebApiClient(slack, TEST_SLACK_TOKEN);
+
+        // when
+        slackWebApiClient.close();
+
+        // then
+        verify(slack).close();
+    }
+
+    @Test
+    void of_should_send_messages_to_configured_api_url() throws Exception {
+        // given
+        try (FakeSlackApiServer server = FakeSlackApiServer.builder().build().start()) {
+            final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_API_URL", server.getApiUrl())
+                    .and("SLACK_TOKEN", TEST_SLACK_TOKEN)
+                    .execute(SlackConfiguration::getConfig);
+
+            try (SlackWebApiClient slackWebApiClient = SlackWebApiClient.of(slackConfiguration)) {
+
+                // when
+                final ChatPostMessageResponse response = slackWebApiClient.post(ChatPostMessageRequest.builder()
+                        .channel("#general")
+                        .text("hello")
+                        .build());
+
+                // then
+                assertThat(response.isOk()).isTrue();
+                assertThat(server.getReceivedMessages()).singleElement()
+                        .satisfies(message -> assertThat(message.getBody()).contains("channel=#general", "text=hello"));
+            }
+        }
+    }
+
+    @Test
+    void post_should_throw_exception_with_retry_after_when_slack_rate_limits_request() throws Exception {
+        // given
+        try (FakeSlackApiServer server = FakeSlackApiServer.builder().rateLimitRate(1).retryAfterSeconds(7).build().start()) {
+            final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_API_URL", server.getApiUrl())
+                    .execute(SlackConfiguration::getConfig);
+
+            try (SlackWebApiClient slackWebApiClient = SlackWebApiClient.of(slackConfiguration)) {
+
+                // when
+                final Throwable thrown = catchThrowable(() -> slackWebApiClient.post(ChatPostMessageRequest.builder().build()));
+
+                // then
+                assertThat(thrown).isInstanceOfSatisfying(SlackApiException.class, e -> {
+                    assertThat(e.getResponse().code()).isEqualTo(429);
+                    assertThat(e.getResponse().header("Retry-After")).isEqualTo("7");
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package io.github.kilmajster.keycloak.slack.delivery;
+
+import com.slack.api.methods.SlackApiException;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.model.block.SectionBlock;
+import com.slack.api.model.block.composition.MarkdownTextObject;
+import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.fake.FakeSlackApiServer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_SLACK_TOKEN;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class SlackWebhookTransportTest {
+
+    @Test
+    void post_should_send_message_to_webhook_of_its_channel() throws Exception {
+        // given
+        try (FakeSlackApiServer server = FakeSlackApiServer.builder().build().start()) {
+            final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_TRANSPORT", "webhook")
+                    .and("SLACK_WEBHOOK_URL", server.getWebhookUrl("default"))
+                    .and("SLACK_WEBHOOK_URLS", "#alerts=" + server.getWebhookUrl("alerts"))
+                    .execute(SlackConfiguration::getConfig);
+
+            try (SlackTransport transport = SlackTransport.of(slackConfiguration)) {
+
+                // when
+                final ChatPostMessageResponse alertsResponse = transport.post(request("#alerts", "alert"));
+                final ChatPostMessageResponse generalResponse = transport.post(request("#general", "hello"));
+
+                // then
+                assertThat(transport).isInstanceOf(SlackWebhookTransport.class);
+                assertThat(alertsResponse.isOk()).isTrue();
+                assertThat(generalResponse.isOk()).isTrue();
+                assertThat(server.getReceivedMessages()).hasSize(2);
+                assertThat(server.getReceivedMessages().get(0).getPath()).isEqualTo("/services/alerts");
+                assertThat(server.getReceivedMessages().get(0).getBody()).contains("\"text\":\"alert\"", "\"type\":\"section\"");
+                assertThat(server.getReceivedMessages().get(1).getPath()).isEqualTo("/services/default");
+                assertThat(server.getReceivedMessages().get(1).getBody()).contains("\"text\":\"hello\"").doesNotContain(TEST_SLACK_TOKEN);
+            }
+        }
+    }
+
+    @Test
+    void post_should_return_error_when_channel_has_no_webhook() throws Exception {
+        // given
+        try (FakeSlackApiServer server = FakeSlackApiServer.builder().build().start()) {
+            final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_TRANSPORT", "webhook")
+                    .and("SLACK_WEBHOOK_URLS", "#alerts=" + server.getWebhookUrl("alerts"))
+                    .execute(SlackConfiguration::getConfig);
+
+            try (SlackTransport transport = SlackTransport.of(slackConfiguration)) {
+
+                // when
+                final ChatPostMessageResponse response = transport.post(request("#general", "hello"));
+
+                // then
+                assertThat(response.isOk()).isFalse();
+                assertThat(response.getError()).isEqualTo(SlackWebhookTransport.NO_WEBHOOK_ERROR);
+                assertThat(server.getRequests()).isZero();
+            }
+        }
+    }
+
+    @Test
+    void post_should_throw_exception_with_retry_after_when_webhook_is_rate_limited() throws Exception {
+        // given
+        try (FakeSlackApiServer server = FakeSlackApiServer.builder().rateLimitRate(1).retryAfterSeconds(7).build().start()) {
+            final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_TRANSPORT", "webhook")
+                    .and("SLACK_WEBHOOK_URL", server.getWebhookUrl("default"))
+                    .execute(SlackConfiguration::getConfig);
+
+            try (SlackTransport transport = SlackTransport.of(slackConfiguration)) {
+
+                // when
+                final Throwable thrown = catchThrowable(() -> transport.post(request("#general", "hello")));
+
+                // then
+                assertThat(thrown).isInstanceOfSatisfying(SlackApiException.class, e -> {
+                    assertThat(e.getResponse().code()).isEqualTo(429);
+                    assertThat(e.getResponse().header("Retry-After")).isEqualTo("7");
+                    assertThat(e.getError().getError()).isEqualTo("rate_limited");
+                });
+            }
+        }
+    }
+
+    @Test
+    void post_should_not_use_error_page_as_error_code() throws Exception {
+        // given
+        try (FakeSlackApiServer server = FakeSlackApiServer.builder().errorRate(1).build().start()) {
+            final SlackConfiguration slackConfiguration = withEnvironmentVariable("SLACK_TRANSPORT", "webhook")
+                    .and("SLACK_WEBHOOK_URL", server.getWebhookUrl("default"))
+                    .execute(SlackConfiguration::getConfig);
+
+            try (SlackTransport transport = SlackTransport.of(slackConfiguration)) {
+
+                // when
+                final Throwable thrown = catchThrowable(() -> transport.post(request("#general", "hello")));
+
+                // then
+                assertThat(thrown).isInstanceOfSatisfying(SlackApiException.class, e -> {
+                    assertThat(e.getResponse().code()).isEqualTo(503);
+                    assertThat(e.getError().getError()).isNull();
+                });
+            }
+        }
+    }
+
+    private static ChatPostMessageRequest request(String channel, String text) {
+        return ChatPostMessageRequest.builder()
+                .token(TEST_SLACK_TOKEN)
+                .channel(channel)
+                .text(text)
+                .blocks(List.of(SectionBlock.builder().text(MarkdownTextObject.builder().text(text).build()).build()))
+                .build();
+    }
+}
@@ -0,0 +1,216 @@
+package io.github.kilmajster.keycloak.slack.fake;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Embedded Slack Web API implementing {@code chat.postMessage} and incoming webhooks, with configurable latency,
+ * server errors and rate limiting. Listener is pointed to it with {@code SLACK_API_URL} env variable set to
+ * {@link #getApiUrl()}, or with webhook urls from {@link #getWebhookUrl(String)}.
+ */
+public class FakeSlackApiServer implements AutoCloseable {
+
+    private static final String CHAT_POST_MESSAGE_PATH = "/api/chat.postMessage";
+    private static final String WEBHOOK_PATH = "/services/";
+    private static final int DEFAULT_RETRY_AFTER_SECONDS = 1;
+    private static final int DEFAULT_THREADS = 16;
+    private static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+
+    static {
+        // otherwise headers and body go in separate packets and delayed ack adds ~40 ms to every response
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final long latencyMillis;
+    private final double errorRate;
+    private final double rateLimitRate;
+    private final int retryAfterSeconds;
+    private final int threads;
+
+    private final List<ReceivedMessage> receivedMessages = new ArrayList<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong messageTs = new AtomicLong();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    @Builder
+    private FakeSlackApiServer(
+            final long latencyMillis,
+            final double errorRate,
+            final double rateLimitRate,
+            final int retryAfterSeconds,
+            final int threads) {
+        this.latencyMillis = latencyMillis;
+        this.errorRate = errorRate;
+        this.rateLimitRate = rateLimitRate;
+        this.retryAfterSeconds = retryAfterSeconds > 0 ? retryAfterSeconds : DEFAULT_RETRY_AFTER_SECONDS;
+        this.threads = threads > 0 ? threads : DEFAULT_THREADS;
+    }
+
+    public FakeSlackApiServer start() throws IOException {
+        executor = Executors.newFixedThreadPool(threads);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(CHAT_POST_MESSAGE_PATH, this::chatPostMessage);
+        server.createContext(WEBHOOK_PATH, this::incomingWebhook);
+        server.setExecutor(executor);
+        server.start();
+
+        return this;
+    }
+
+    public String getApiUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/api/";
+    }
+
+    public String getWebhookUrl(final String webhookId) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + WEBHOOK_PATH + webhookId;
+    }
+
+    public List<ReceivedMessage> getReceivedMessages() {
+        synchronized (receivedMessages) {
+            return new ArrayList<>(receivedMessages);
+        }
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.get();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void chatPostMessage(final HttpExchange exchange) throws IOException {
+        final String body = URLDecoder.decode(readBody(exchange), StandardCharsets.UTF_8);
+
+        switch (nextOutcome()) {
+            case RATE_LIMITED:
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+                respond(exchange, 429, JSON_CONTENT_TYPE, "{\"ok\":false,\"error\":\"ratelimited\"}");
+                break;
+            case ERROR:
+                respond(exchange, 503, JSON_CONTENT_TYPE, "{\"ok\":false,\"error\":\"service_unavailable\"}");
+                break;
+            default:
+                received(exchange, body);
+                respond(exchange, 200, JSON_CONTENT_TYPE, "{\"ok\":true,\"channel\":\"C0FAKE\",\"ts\":\"" + nextTs() + "\"}");
+        }
+    }
+
+    // webhooks take json and answer with plain text
+    private void incomingWebhook(final HttpExchange exchange) throws IOException {
+        final String body = readBody(exchange);
+
+        switch (nextOutcome()) {
+            case RATE_LIMITED:
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+                respond(exchange, 429, TEXT_CONTENT_TYPE, "rate_limited");
+                break;
+            case ERROR:
+                respond(exchange, 503, TEXT_CONTENT_TYPE, "<html><body>Service Unavailable</body></html>");
+                break;
+            default:
+                received(exchange, body);
+                respond(exchange, 200, TEXT_CONTENT_TYPE, "ok");
+        }
+    }
+
+    private Outcome nextOutcome() {
+        requests.incrementAndGet();
+
+        if (latencyMillis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        final double random = ThreadLocalRandom.current().nextDouble();
+        if (random < rateLimitRate) {
+            rateLimited.incrementAndGet();
+            return Outcome.RATE_LIMITED;
+        } else if (random < rateLimitRate + errorRate) {
+            errors.incrementAndGet();
+            return Outcome.ERROR;
+        }
+
+        return Outcome.OK;
+    }
+
+    private void received(final HttpExchange exchange, final String body) {
+        synchronized (receivedMessages) {
+            receivedMessages.add(new ReceivedMessage(System.nanoTime(), body, exchange.getRequestURI().getPath()));
+        }
+    }
+
+    private String nextTs() {
+        final long sequence = messageTs.incrementAndGet();
+
+        return TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + "." + String.format("%06d", sequence % 1_000_000);
+    }
+
+    private static String readBody(final HttpExchange exchange) throws IOException {
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String contentType, final String body) throws IOException {
+        final byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, response.length);
+
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(response);
+        }
+    }
+
+    @Value
+    public static class ReceivedMessage {
+
+        long receivedAtNanos;
+        // form parameters url decoded, or json of webhook
+        String body;
+        String path;
+    }
+
+    private enum Outcome {
+        OK,
+        RATE_LIMITED,
+        ERROR
+    }
+}
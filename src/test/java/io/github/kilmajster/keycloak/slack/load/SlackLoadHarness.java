@@ -0,0 +1,316 @@
+package io.github.kilmajster.keycloak.slack.load;
+
+import com.github.stefanbirkner.systemlambda.SystemLambda.WithEnvironmentVariables;
+import io.github.kilmajster.keycloak.slack.SlackEventListenerProviderFactory;
+import io.github.kilmajster.keycloak.slack.fake.FakeSlackApiServer;
+import lombok.Builder;
+import lombok.Value;
+import org.keycloak.events.Event;
+import org.keycloak.events.EventListenerProvider;
+import org.keycloak.events.EventListenerTransaction;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.AdminEvent;
+import org.keycloak.events.admin.AuthDetails;
+import org.keycloak.events.admin.OperationType;
+import org.keycloak.models.KeycloakContext;
+import org.keycloak.models.KeycloakSession;
+import org.keycloak.models.KeycloakTransactionManager;
+import org.keycloak.models.KeycloakUriInfo;
+import org.keycloak.models.RealmModel;
+import org.keycloak.models.RealmProvider;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Pushes synthetic events through {@link SlackEventListenerProviderFactory} at a target rate against
+ * {@link FakeSlackApiServer}, and reports delivery latency, time spent on the Keycloak thread and lost events.
+ * <p>
+ * Options are passed as {@code key=value} arguments, see {@link LoadOptions}. Listener itself is configured
+ * with the usual {@code SLACK_*} env variables, token, channel and api url are set by the harness.
+ */
+public class SlackLoadHarness {
+
+    private static final String REALM_NAME = "load-realm";
+    private static final String EVENT_ID_PREFIX = "load-event-";
+    private static final Pattern EVENT_ID_PATTERN = Pattern.compile(EVENT_ID_PREFIX + "(\\d+)");
+    private static final EventType[] EVENT_TYPES = {EventType.LOGIN, EventType.LOGIN_ERROR, EventType.LOGOUT, EventType.UPDATE_PASSWORD};
+    private static final OperationType[] OPERATION_TYPES = {OperationType.CREATE, OperationType.UPDATE, OperationType.DELETE};
+
+    public static void main(String[] args) throws Exception {
+        final Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            final String[] option = arg.split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "");
+        }
+
+        final LoadReport report = new SlackLoadHarness().run(LoadOptions.builder()
+                .eventsPerSecond(Integer.parseInt(options.getOrDefault("eventsPerSecond", "200")))
+                .durationSeconds(Integer.parseInt(options.getOrDefault("durationSeconds", "10")))
+                .adminEventRatio(Double.parseDouble(options.getOrDefault("adminEventRatio", "0.1")))
+                .latencyMillis(Long.parseLong(options.getOrDefault("latencyMillis", "50")))
+                .errorRate(Double.parseDouble(options.getOrDefault("errorRate", "0")))
+                .rateLimitRate(Double.parseDouble(options.getOrDefault("rateLimitRate", "0")))
+                .drainTimeoutSeconds(Integer.parseInt(options.getOrDefault("drainTimeoutSeconds", "30")))
+                .build());
+
+        System.out.println(report);
+    }
+
+    public LoadReport run(final LoadOptions options) throws Exception {
+        try (FakeSlackApiServer server = FakeSlackApiServer.builder()
+                .latencyMillis(options.getLatencyMillis())
+                .errorRate(options.getErrorRate())
+                .rateLimitRate(options.getRateLimitRate())
+                .build()
+                .start()) {
+            final SlackEventListenerProviderFactory factory = environment(server.getApiUrl())
+                    .execute(SlackEventListenerProviderFactory::new);
+            factory.init(null);
+            factory.postInit(null);
+
+            final int totalEvents = options.getEventsPerSecond() * options.getDurationSeconds();
+            final long[] sentAtNanos = new long[totalEvents];
+            final long[] blockingNanos = new long[totalEvents];
+            final AtomicReference<EventListenerTransaction> transaction = new AtomicReference<>();
+            final KeycloakSession session = session(transaction);
+
+            final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.getEventsPerSecond();
+            final long startNanos = System.nanoTime();
+
+            for (int i = 0; i < totalEvents; i++) {
+                final long scheduledNanos = startNanos + i * intervalNanos;
+                long nowNanos;
+                while ((nowNanos = System.nanoTime()) < scheduledNanos) {
+                    LockSupport.parkNanos(scheduledNanos - nowNanos);
+                }
+
+                // what Keycloak does for every event: provider call, then commit of the enlisted transaction
+                sentAtNanos[i] = System.nanoTime();
+                final EventListenerProvider provider = factory.create(session);
+                if (i % 100 < options.getAdminEventRatio() * 100) {
+                    provider.onEvent(adminEvent(i), true);
+                } else {
+                    provider.onEvent(event(i));
+                }
+                transaction.get().begin();
+                transaction.get().commit();
+                blockingNanos[i] = System.nanoTime() - sentAtNanos[i];
+            }
+            final long sendingNanos = System.nanoTime() - startNanos;
+
+            final long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.getDrainTimeoutSeconds());
+            while (deliveredEvents(server, sentAtNanos).cardinality() < totalEvents && System.nanoTime() < drainDeadline) {
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            factory.close();
+
+            final long[] latencyNanos = new long[totalEvents];
+            final BitSet delivered = deliveredEvents(server, sentAtNanos, latencyNanos);
+
+            return LoadReport.builder()
+                    .sentEvents(totalEvents)
+                    .achievedEventsPerSecond(totalEvents / (sendingNanos / (double) TimeUnit.SECONDS.toNanos(1)))
+                    .deliveredEvents(delivered.cardinality())
+                    .lostEvents(totalEvents - delivered.cardinality())
+                    .slackMessages(server.getReceivedMessages().size())
+                    .slackRequests(server.getRequests())
+                    .slackErrors(server.getErrors())
+                    .slackRateLimited(server.getRateLimited())
+                    .latencyMillis(Percentiles.of(delivered(latencyNanos, delivered), TimeUnit.MILLISECONDS))
+                    .blockingMicros(Percentiles.of(blockingNanos, TimeUnit.MICROSECONDS))
+                    .build();
+        }
+    }
+
+    private static WithEnvironmentVariables environment(final String apiUrl) {
+        final Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put("SLACK_TOKEN", "xoxb-load-test");
+        defaults.put("SLACK_CHANNEL", "#load-test");
+        defaults.put("SLACK_INCLUDE_ALL_EVENTS", "true");
+        defaults.put("SLACK_INCLUDE_ALL_ADMIN_EVENTS", "true");
+        defaults.put("SLACK_ASYNC_ENABLED", "true");
+        defaults.put("SLACK_RATE_LIMIT_MESSAGES_PER_MINUTE", "600000");
+        defaults.put("SLACK_RATE_LIMIT_BURST", "1000");
+        defaults.put("SLACK_CHANNEL_QUEUE_CAPACITY", "100000");
+        defaults.put("SLACK_RETRY_INITIAL_BACKOFF_MILLIS", "100");
+
+        WithEnvironmentVariables environment = withEnvironmentVariable("SLACK_API_URL", apiUrl);
+        for (Map.Entry<String, String> variable : defaults.entrySet()) {
+            final String value = System.getenv(variable.getKey());
+            environment = environment.and(variable.getKey(), value != null ? value : variable.getValue());
+        }
+
+        return environment;
+    }
+
+    private static KeycloakSession session(final AtomicReference<EventListenerTransaction> transaction) {
+        final RealmModel realm = mock(RealmModel.class, withSettings().stubOnly());
+        when(realm.getName()).thenReturn(REALM_NAME);
+        when(realm.getAttributes()).thenReturn(Map.of());
+        final RealmProvider realms = mock(RealmProvider.class, withSettings().stubOnly());
+        when(realms.getRealm(any())).thenReturn(realm);
+        final KeycloakUriInfo uri = mock(KeycloakUriInfo.class, withSettings().stubOnly());
+        when(uri.getBaseUri()).thenReturn(URI.create("http://localhost:8080/auth/"));
+        final KeycloakContext context = mock(KeycloakContext.class, withSettings().stubOnly());
+        when(context.getRealm()).thenReturn(realm);
+        when(context.getUri()).thenReturn(uri);
+
+        final KeycloakTransactionManager transactionManager = mock(KeycloakTransactionManager.class, withSettings().stubOnly());
+        doAnswer(invocation -> {
+            transaction.set(invocation.getArgument(0));
+            return null;
+        }).when(transactionManager).enlistAfterCompletion(any());
+
+        final KeycloakSession session = mock(KeycloakSession.class, withSettings().stubOnly());
+        when(session.getContext()).thenReturn(context);
+        when(session.getTransactionManager()).thenReturn(transactionManager);
+        when(session.realms()).thenReturn(realms);
+
+        return session;
+    }
+
+    private static Event event(final int id) {
+        final Event event = new Event();
+        event.setType(EVENT_TYPES[id % EVENT_TYPES.length]);
+        event.setTime(System.currentTimeMillis());
+        event.setRealmId(REALM_NAME);
+        event.setClientId(EVENT_ID_PREFIX + id);
+        event.setUserId("load-user-" + id % 1000);
+        event.setIpAddress("10.0." + id % 256 + "." + id / 256 % 256);
+
+        return event;
+    }
+
+    private static AdminEvent adminEvent(final int id) {
+        final AuthDetails authDetails = new AuthDetails();
+        authDetails.setRealmId(REALM_NAME);
+        authDetails.setIpAddress("10.0.0.1");
+
+        final AdminEvent adminEvent = new AdminEvent();
+        adminEvent.setOperationType(OPERATION_TYPES[id % OPERATION_TYPES.length]);
+        adminEvent.setTime(System.currentTimeMillis());
+        adminEvent.setRealmId(REALM_NAME);
+        adminEvent.setAuthDetails(authDetails);
+        adminEvent.setResourceTypeAsString(EVENT_ID_PREFIX + id);
+        adminEvent.setResourcePath("users/load-user-" + id % 1000);
+
+        return adminEvent;
+    }
+
+    private static BitSet deliveredEvents(final FakeSlackApiServer server, final long[] sentAtNanos) {
+        return deliveredEvents(server, sentAtNanos, null);
+    }
+
+    // batched message carries many events, event id is also repeated in representation
+    private static BitSet deliveredEvents(final FakeSlackApiServer server, final long[] sentAtNanos, final long[] latencyNanos) {
+        final BitSet delivered = new BitSet(sentAtNanos.length);
+
+        for (FakeSlackApiServer.ReceivedMessage message : server.getReceivedMessages()) {
+            final Matcher matcher = EVENT_ID_PATTERN.matcher(message.getBody());
+            while (matcher.find()) {
+                final int id = Integer.parseInt(matcher.group(1));
+                if (id < sentAtNanos.length && !delivered.get(id)) {
+                    delivered.set(id);
+                    if (latencyNanos != null) {
+                        latencyNanos[id] = message.getReceivedAtNanos() - sentAtNanos[id];
+                    }
+                }
+            }
+        }
+
+        return delivered;
+    }
+
+    private static long[] delivered(final long[] values, final BitSet delivered) {
+        return delivered.stream()
+                .mapToLong(id -> values[id])
+                .toArray();
+    }
+
+    @Value
+    @Builder
+    public static class LoadOptions {
+
+        int eventsPerSecond;
+        int durationSeconds;
+        double adminEventRatio;
+        long latencyMillis;
+        double errorRate;
+        double rateLimitRate;
+        int drainTimeoutSeconds;
+    }
+
+    @Value
+    @Builder
+    public static class LoadReport {
+
+        int sentEvents;
+        double achievedEventsPerSecond;
+        int deliveredEvents;
+        int lostEvents;
+        int slackMessages;
+        long slackRequests;
+        long slackErrors;
+        long slackRateLimited;
+        Percentiles latencyMillis;
+        Percentiles blockingMicros;
+
+        @Override
+        public String toString() {
+            return String.format("events sent: %d (%.1f/s), delivered: %d, lost: %d%n"
+                            + "slack messages: %d, requests: %d, errors: %d, rate limited: %d%n"
+                            + "end to end latency [ms]: %s%n"
+                            + "keycloak thread blocking [us]: %s",
+                    sentEvents, achievedEventsPerSecond, deliveredEvents, lostEvents,
+                    slackMessages, slackRequests, slackErrors, slackRateLimited,
+                    latencyMillis, blockingMicros);
+        }
+    }
+
+    @Value
+    public static class Percentiles {
+
+        long p50;
+        long p95;
+        long p99;
+        long max;
+
+        static Percentiles of(final long[] nanos, final TimeUnit unit) {
+            if (nanos.length == 0) {
+                return new Percentiles(0, 0, 0, 0);
+            }
+
+            final long[] sorted = nanos.clone();
+            Arrays.sort(sorted);
+
+            return new Percentiles(
+                    unit.convert(percentile(sorted, 0.50), TimeUnit.NANOSECONDS),
+                    unit.convert(percentile(sorted, 0.95), TimeUnit.NANOSECONDS),
+                    unit.convert(percentile(sorted, 0.99), TimeUnit.NANOSECONDS),
+                    unit.convert(sorted[sorted.length - 1], TimeUnit.NANOSECONDS)
+            );
+        }
+
+        private static long percentile(final long[] sorted, final double percentile) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1)];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("p50=%d p95=%d p99=%d max=%d", p50, p95, p99, max);
+        }
+    }
+}
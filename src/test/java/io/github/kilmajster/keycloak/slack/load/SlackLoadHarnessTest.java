@@ -0,0 +1,30 @@
+package io.github.kilmajster.keycloak.slack.load;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackLoadHarnessTest {
+
+    @Test
+    void run_should_deliver_all_events_to_fake_slack_api_despite_server_errors() throws Exception {
+        // given
+        final SlackLoadHarness.LoadOptions options = SlackLoadHarness.LoadOptions.builder()
+                .eventsPerSecond(100)
+                .durationSeconds(1)
+                .adminEventRatio(0.2)
+                .latencyMillis(5)
+                .errorRate(0.05)
+                .drainTimeoutSeconds(20)
+                .build();
+
+        // when
+        final SlackLoadHarness.LoadReport report = new SlackLoadHarness().run(options);
+
+        // then
+        assertThat(report.getSentEvents()).isEqualTo(100);
+        assertThat(report.getLostEvents()).isZero();
+        assertThat(report.getDeliveredEvents()).isEqualTo(100);
+        assertThat(report.getLatencyMillis().getP50()).isPositive();
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import com.slack.api.model.block.ContextBlock;
+import com.slack.api.model.block.LayoutBlock;
+import com.slack.api.model.block.SectionBlock;
+import com.slack.api.model.block.composition.MarkdownTextObject;
+import org.junit.jupiter.api.Test;
+import org.keycloak.events.Event;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.AdminEvent;
+import org.keycloak.events.admin.OperationType;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_HOST;
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_REALM_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackBatchEventMessageTest {
+
+    @Test
+    void batchTitle_should_build_title_with_events_count() {
+        // when
+        final String title = SlackBatchEventMessage.batchTitle(TEST_HOST, 12);
+
+        // then
+        assertThat(title).isEqualTo("12 new events have just occurred in Keycloak at " + TEST_HOST);
+    }
+
+    @Test
+    void getBatchMessageBlocks_should_render_all_events_in_single_section() {
+        // given
+        final List<SlackEventSnapshot> snapshots = List.of(
+                eventSnapshot(EventType.LOGIN, TEST_REALM_NAME),
+                eventSnapshot(EventType.LOGIN_ERROR, TEST_REALM_NAME),
+                adminEventSnapshot(OperationType.DELETE)
+        );
+
+        // when
+        final List<LayoutBlock> blocks = SlackBatchEventMessage.getBatchMessageBlocks(snapshots);
+
+        // then
+        assertThat(blocks).hasSize(2);
+        assertThat(((SectionBlock) blocks.get(1)).getText().getText())
+                .contains("`LOGIN` realm", "`LOGIN_ERROR` realm", "`DELETE` realm", "resource *USER*");
+    }
+
+    @Test
+    void getBatchMessageBlocks_should_never_exceed_slack_blocks_limit() {
+        // given
+        final String longRealmName = "r".repeat(1350);
+        final List<SlackEventSnapshot> snapshots = IntStream.range(0, 200)
+                .mapToObj(i -> eventSnapshot(EventType.LOGIN, longRealmName))
+                .collect(Collectors.toList());
+
+        // when
+        final List<LayoutBlock> blocks = SlackBatchEventMessage.getBatchMessageBlocks(snapshots);
+
+        // then
+        assertThat(blocks).hasSize(SlackBatchEventMessage.MAX_MESSAGE_BLOCKS);
+        assertThat(blocks.subList(1, blocks.size() - 1))
+                .allSatisfy(block -> assertThat(((SectionBlock) block).getText().getText().length())
+                        .isLessThanOrEqualTo(SlackBatchEventMessage.MAX_SECTION_TEXT_LENGTH));
+        assertThat(((MarkdownTextObject) ((ContextBlock) blocks.get(blocks.size() - 1)).getElements().get(0)).getText())
+                .isEqualTo("...and 104 more events");
+    }
+
+    @Test
+    void getBatchMessageBlocks_should_cut_event_too_long_for_section_without_adding_empty_one() {
+        // given
+        final String tooLongRealmName = "r".repeat(SlackBatchEventMessage.MAX_SECTION_TEXT_LENGTH);
+        final List<SlackEventSnapshot> snapshots = List.of(
+                eventSnapshot(EventType.LOGIN, tooLongRealmName),
+                eventSnapshot(EventType.LOGIN_ERROR, TEST_REALM_NAME)
+        );
+
+        // when
+        final List<LayoutBlock> blocks = SlackBatchEventMessage.getBatchMessageBlocks(snapshots);
+
+        // then
+        assertThat(blocks).hasSize(3);
+        assertThat(blocks.subList(1, blocks.size()))
+                .allSatisfy(block -> assertThat(((SectionBlock) block).getText().getText()).isNotEmpty());
+        assertThat(((SectionBlock) blocks.get(1)).getText().getText()).hasSize(SlackBatchEventMessage.MAX_SECTION_TEXT_LENGTH);
+        assertThat(((SectionBlock) blocks.get(2)).getText().getText()).contains("`LOGIN_ERROR` realm");
+    }
+
+    private static SlackEventSnapshot eventSnapshot(EventType type, String realmName) {
+        final Event event = new Event();
+        event.setType(type);
+        event.setTime(System.currentTimeMillis());
+        event.setClientId("account-console");
+
+        return SlackEventSnapshot.of(event, realmName, TEST_HOST, false);
+    }
+
+    private static SlackEventSnapshot adminEventSnapshot(OperationType type) {
+        final AdminEvent adminEvent = new AdminEvent();
+        adminEvent.setOperationType(type);
+        adminEvent.setTime(System.currentTimeMillis());
+        adminEvent.setResourceTypeAsString("USER");
+
+        return SlackEventSnapshot.of(adminEvent, TEST_REALM_NAME, TEST_HOST, false);
+    }
+}
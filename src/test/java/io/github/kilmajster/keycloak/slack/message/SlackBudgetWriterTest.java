@@ -0,0 +1,52 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SlackBudgetWriterTest {
+
+    @Test
+    void write_should_keep_text_which_fits_into_budget() throws IOException {
+        // given
+        final SlackBudgetWriter writer = new SlackBudgetWriter(10);
+
+        // when
+        writer.write("hello");
+        writer.write(' ');
+        writer.write("world".toCharArray(), 0, 4);
+
+        // then
+        assertThat(writer).hasToString("hello worl");
+        assertThat(writer.isExceeded()).isFalse();
+    }
+
+    @Test
+    void write_should_keep_text_up_to_budget_and_fail_write_which_goes_over_it() throws IOException {
+        // given
+        final SlackBudgetWriter writer = new SlackBudgetWriter(8);
+        writer.write("hello");
+
+        // when & then
+        assertThatThrownBy(() -> writer.write(" world"))
+                .isInstanceOf(SlackBudgetWriter.BudgetExceededException.class);
+        assertThatThrownBy(() -> writer.write('!'))
+                .isInstanceOf(SlackBudgetWriter.BudgetExceededException.class);
+        assertThat(writer).hasToString("hello wo");
+        assertThat(writer.isExceeded()).isTrue();
+    }
+
+    @Test
+    void write_should_not_leave_half_of_surrogate_pair_when_budget_is_exceeded() {
+        // given
+        final SlackBudgetWriter writer = new SlackBudgetWriter(4);
+
+        // when & then
+        assertThatThrownBy(() -> writer.write("abc😀"))
+                .isInstanceOf(SlackBudgetWriter.BudgetExceededException.class);
+        assertThat(writer).hasToString("abc");
+    }
+}
@@ -1,7 +1,11 @@
 package io.github.kilmajster.keycloak.slack.message;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.slack.api.model.block.ContextBlock;
 import com.slack.api.model.block.LayoutBlock;
+import com.slack.api.model.block.SectionBlock;
+import com.slack.api.model.block.composition.MarkdownTextObject;
+import io.github.kilmajster.keycloak.slack.config.SlackSamplingRate;
 import org.junit.jupiter.api.Test;
 import org.keycloak.events.Event;
 import org.keycloak.events.EventType;
@@ -36,6 +40,27 @@ class SlackEventMessageTest {
         assertThat(title).isEqualTo("New admin event has just occurred in Keycloak at " + TEST_HOST);
     }
 
+    @Test
+    void title_should_build_title_matching_snapshot_kind() {
+        // given
+        final SlackEventSnapshot eventSnapshot = SlackEventSnapshot.of(
+                mockEventForTypeAndTime(EventType.LOGIN, System.currentTimeMillis()),
+                TEST_REALM_NAME,
+                TEST_HOST,
+                false
+        );
+        final SlackEventSnapshot adminEventSnapshot = SlackEventSnapshot.of(
+                mockEventForTypeAndTime(OperationType.CREATE, System.currentTimeMillis()),
+                TEST_REALM_NAME,
+                TEST_HOST,
+                false
+        );
+
+        // when & then
+        assertThat(SlackEventMessage.title(eventSnapshot)).isEqualTo(SlackEventMessage.eventTitle(TEST_HOST));
+        assertThat(SlackEventMessage.title(adminEventSnapshot)).isEqualTo(SlackEventMessage.adminEventTitle(TEST_HOST));
+    }
+
     @Test
     void getEventMessageBlocks_should_build_event_message_blocks_when_include_representation_is_enabled() throws JsonProcessingException {
         // given
@@ -46,10 +71,12 @@ class SlackEventMessageTest {
 
         // when
         final List<LayoutBlock> eventMessageBlocks = SlackEventMessage.getEventMessageBlocks(
-                event,
-                TEST_REALM_NAME,
-                TEST_HOST,
-                true
+                SlackEventSnapshot.of(
+                        event,
+                        TEST_REALM_NAME,
+                        TEST_HOST,
+                        true
+                )
         );
 
         // then
@@ -66,10 +93,12 @@ class SlackEventMessageTest {
 
         // when
         final List<LayoutBlock> eventMessageBlocks = SlackEventMessage.getEventMessageBlocks(
-                event,
-                TEST_REALM_NAME,
-                TEST_HOST,
-                false
+                SlackEventSnapshot.of(
+                        event,
+                        TEST_REALM_NAME,
+                        TEST_HOST,
+                        false
+                )
         );
 
         // then
@@ -87,10 +116,12 @@ class SlackEventMessageTest {
 
         // when
         final List<LayoutBlock> eventMessageBlocks = SlackEventMessage.getEventMessageBlocks(
-                event,
-                TEST_REALM_NAME,
-                TEST_HOST,
-                true
+                SlackEventSnapshot.of(
+                        event,
+                        TEST_REALM_NAME,
+                        TEST_HOST,
+                        true
+                )
         );
 
         // then
@@ -107,14 +138,35 @@ class SlackEventMessageTest {
 
         // when
         final List<LayoutBlock> eventMessageBlocks = SlackEventMessage.getEventMessageBlocks(
-                event,
+                SlackEventSnapshot.of(
+                        event,
+                        TEST_REALM_NAME,
+                        TEST_HOST,
+                        false
+                )
+        );
+
+        // then
+        assertThat(eventMessageBlocks).hasSize(3);
+    }
+
+    @Test
+    void getEventMessageBlocks_should_end_with_sampling_rate_of_sampled_event() throws JsonProcessingException {
+        // given
+        final SlackEventSnapshot snapshot = SlackEventSnapshot.of(
+                mockEventForTypeAndTime(EventType.LOGIN, System.currentTimeMillis()),
                 TEST_REALM_NAME,
                 TEST_HOST,
                 false
-        );
+        ).withSamplingRate(SlackSamplingRate.oneIn(100));
+
+        // when
+        final List<LayoutBlock> eventMessageBlocks = SlackEventMessage.getEventMessageBlocks(snapshot);
 
         // then
-        assertThat(eventMessageBlocks).hasSize(3);
+        assertThat(eventMessageBlocks).hasSize(4);
+        assertThat(((MarkdownTextObject) ((ContextBlock) eventMessageBlocks.get(3)).getElements().get(0)).getText())
+                .isEqualTo("`LOGIN` events are sampled: 1 in 100 sent");
     }
 
     private Event mockEventForTypeAndTime(EventType type, long time) {
@@ -134,4 +186,26 @@ class SlackEventMessageTest {
 
         return event;
     }
-}
\ No newline at end of file
+
+    @Test
+    void getDigestMessageBlocks_should_render_one_line_per_realm_and_client() {
+        // given
+        final List<SlackDigestEntry> entries = List.of(
+                new SlackDigestEntry("customers", TEST_HOST, "-", "LOGIN", 1, null, null),
+                new SlackDigestEntry("master", TEST_HOST, "web-app", "LOGIN", 2, null, null),
+                new SlackDigestEntry("master", TEST_HOST, "web-app", "REFRESH_TOKEN", 40, null, null)
+        );
+
+        // when
+        final List<LayoutBlock> blocks = SlackEventMessage.getDigestMessageBlocks(entries, 15);
+
+        // then
+        assertThat(blocks).hasSize(2);
+        assertThat(((SectionBlock) blocks.get(0)).getText().getText())
+                .isEqualTo("43 events have occurred in Keycloak at " + TEST_HOST + " in the last 15 minutes");
+        assertThat(((SectionBlock) blocks.get(1)).getText().getText()).isEqualTo(
+                "realm *customers*, client *-*: `LOGIN` 1\n"
+                        + "realm *master*, client *web-app*: `LOGIN` 2, `REFRESH_TOKEN` 40"
+        );
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import org.junit.jupiter.api.Test;
+import org.keycloak.events.Event;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.AdminEvent;
+import org.keycloak.events.admin.OperationType;
+import org.keycloak.representations.idm.AdminEventRepresentation;
+import org.keycloak.representations.idm.EventRepresentation;
+
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_HOST;
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_REALM_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackEventSnapshotTest {
+
+    @Test
+    void of_should_copy_event_fields_and_representation() {
+        // given
+        final Event event = new Event();
+        event.setType(EventType.LOGIN);
+        event.setTime(123L);
+        event.setClientId("account-console");
+        event.setUserId("user-id");
+        event.setError("invalid_user_credentials");
+        event.setIpAddress("10.0.0.1");
+
+        // when
+        final SlackEventSnapshot snapshot = SlackEventSnapshot.of(event, TEST_REALM_NAME, TEST_HOST, true);
+        event.setClientId("changed-later");
+
+        // then
+        assertThat(snapshot.isAdminEvent()).isFalse();
+        assertThat(snapshot.getTypeName()).isEqualTo("LOGIN");
+        assertThat(snapshot.getTime()).isEqualTo(123L);
+        assertThat(snapshot.getRealmName()).isEqualTo(TEST_REALM_NAME);
+        assertThat(snapshot.getHost()).isEqualTo(TEST_HOST);
+        assertThat(snapshot.getClientId()).isEqualTo("account-console");
+        assertThat(snapshot.getError()).isEqualTo("invalid_user_credentials");
+        assertThat(snapshot.getIpAddress()).isEqualTo("10.0.0.1");
+        assertThat(snapshot.getRepresentation())
+                .isInstanceOfSatisfying(EventRepresentation.class,
+                        representation -> assertThat(representation.getUserId()).isEqualTo("user-id"));
+    }
+
+    @Test
+    void of_should_skip_representation_when_disabled() {
+        // given
+        final Event event = new Event();
+        event.setType(EventType.LOGOUT);
+
+        // when
+        final SlackEventSnapshot snapshot = SlackEventSnapshot.of(event, TEST_REALM_NAME, TEST_HOST, false);
+
+        // then
+        assertThat(snapshot.hasRepresentation()).isFalse();
+    }
+
+    @Test
+    void of_should_copy_admin_event_fields_and_representation() {
+        // given
+        final AdminEvent adminEvent = new AdminEvent();
+        adminEvent.setOperationType(OperationType.DELETE);
+        adminEvent.setTime(456L);
+        adminEvent.setResourceTypeAsString("USER");
+        adminEvent.setResourcePath("users/123");
+
+        // when
+        final SlackEventSnapshot snapshot = SlackEventSnapshot.of(adminEvent, TEST_REALM_NAME, TEST_HOST, true);
+
+        // then
+        assertThat(snapshot.isAdminEvent()).isTrue();
+        assertThat(snapshot.getTypeName()).isEqualTo("DELETE");
+        assertThat(snapshot.getTime()).isEqualTo(456L);
+        assertThat(snapshot.getResourceType()).isEqualTo("USER");
+        assertThat(snapshot.getRepresentation())
+                .isInstanceOfSatisfying(AdminEventRepresentation.class,
+                        representation -> assertThat(representation.getResourcePath()).isEqualTo("users/123"));
+    }
+}
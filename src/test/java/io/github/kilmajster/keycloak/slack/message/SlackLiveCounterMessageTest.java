@@ -0,0 +1,48 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import com.slack.api.model.block.ContextBlock;
+import com.slack.api.model.block.LayoutBlock;
+import com.slack.api.model.block.SectionBlock;
+import com.slack.api.model.block.composition.MarkdownTextObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_HOST;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackLiveCounterMessageTest {
+
+    @Test
+    void getMessageBlocks_should_render_running_count_with_last_client() {
+        // given
+        final SlackLiveCount liveCount = new SlackLiveCount("master", TEST_HOST, "LOGIN_ERROR", 1432, "web-app", 1000, 2000, 3000, false);
+
+        // when
+        final List<LayoutBlock> blocks = SlackLiveCounterMessage.getMessageBlocks(liveCount);
+
+        // then
+        assertThat(SlackLiveCounterMessage.title(liveCount)).isEqualTo("LOGIN_ERROR in realm master: 1,432 so far, last from client web-app");
+        assertThat(blocks).hasSize(2);
+        assertThat(((SectionBlock) blocks.get(0)).getText().getText())
+                .isEqualTo("`LOGIN_ERROR` in realm *master*: *1,432 so far*, last from client *web-app*");
+        assertThat(((MarkdownTextObject) ((ContextBlock) blocks.get(1)).getElements().get(0)).getText())
+                .startsWith("Keycloak at " + TEST_HOST + ", counting since <!date^1^")
+                .contains("last event at <!date^2^", "updated until <!date^3^");
+    }
+
+    @Test
+    void getMessageBlocks_should_render_total_of_closed_counter() {
+        // given
+        final SlackLiveCount liveCount = new SlackLiveCount("master", TEST_HOST, "LOGIN_ERROR", 7, null, 1000, 2000, 3000, true);
+
+        // when
+        final List<LayoutBlock> blocks = SlackLiveCounterMessage.getMessageBlocks(liveCount);
+
+        // then
+        assertThat(SlackLiveCounterMessage.title(liveCount)).isEqualTo("LOGIN_ERROR in realm master: 7 in total");
+        assertThat(((MarkdownTextObject) ((ContextBlock) blocks.get(1)).getElements().get(0)).getText())
+                .contains("counted from <!date^1^", " to <!date^2^")
+                .doesNotContain("updated until");
+    }
+}
@@ -1,36 +1,36 @@
 package io.github.kilmajster.keycloak.slack.message;
 
-import com.slack.api.Slack;
-import com.slack.api.methods.MethodsClient;
-import com.slack.api.methods.SlackApiException;
 import com.slack.api.methods.request.chat.ChatPostMessageRequest;
-import com.slack.api.methods.response.chat.ChatPostMessageResponse;
 import com.slack.api.model.block.LayoutBlock;
 import io.github.kilmajster.keycloak.slack.config.SlackConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRealmConfiguration;
+import io.github.kilmajster.keycloak.slack.config.SlackRoutingTable;
+import io.github.kilmajster.keycloak.slack.delivery.SlackChannelScheduler;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.keycloak.events.Event;
-import org.keycloak.events.admin.AdminEvent;
-import org.keycloak.models.KeycloakContext;
-import org.keycloak.models.KeycloakUriInfo;
-import org.keycloak.models.RealmModel;
+import org.keycloak.events.EventType;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.io.IOException;
-import java.net.URI;
 import java.util.List;
+import java.util.Map;
 
+import static com.github.stefanbirkner.systemlambda.SystemLambda.withEnvironmentVariable;
 import static io.github.kilmajster.keycloak.slack.TestData.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class SlackMessageSenderTest {
 
+    private static final String TEST_CHANNEL = "#keycloak";
+
     @Mock
-    private Slack slack;
+    private SlackChannelScheduler slackChannelScheduler;
 
     @Mock
     private SlackConfiguration slackConfiguration;
@@ -39,120 +39,179 @@ class SlackMessageSenderTest {
     private SlackMessageSender slackMessageSender;
 
     @Test
-    void sendEventMessage_should_send_event_to_slack() throws SlackApiException, IOException {
+    void sendEventMessage_should_submit_event_message_to_configured_channel() {
         // given
-        final KeycloakContext context = mock(KeycloakContext.class);
-        mockContextForHostFinding(context);
-        mockContextForRealmNameFinding(context);
-
-        final Event event = mock(Event.class);
+        final SlackEventSnapshot snapshot = mock(SlackEventSnapshot.class);
 
         try (MockedStatic<SlackEventMessage> slackEventMessageMockedStatic = mockStatic(SlackEventMessage.class)) {
-            final List<?> messageBlocks = mock(List.class);
+            final List<LayoutBlock> messageBlocks = List.of(mock(LayoutBlock.class));
             slackEventMessageMockedStatic.when(
                     () -> SlackEventMessage.getEventMessageBlocks(
-                            eq(event),
-                            eq(TEST_REALM_NAME),
-                            eq(TEST_HOST),
-                            anyBoolean()
+                            eq(snapshot)
                     )
             ).thenReturn(messageBlocks);
 
             slackEventMessageMockedStatic.when(
-                    () -> SlackEventMessage.eventTitle(
-                            eq(TEST_HOST)
+                    () -> SlackEventMessage.title(
+                            eq(snapshot)
                     )
             ).thenReturn(TEST_MESSAGE_TITLE);
 
-            when(slackConfiguration.getToken()).thenReturn(TEST_SLACK_TOKEN);
-
-            final MethodsClient methodsClient = mock(MethodsClient.class);
-
-            when(slack.methods(
-                    eq(TEST_SLACK_TOKEN)
-            )).thenReturn(methodsClient);
-
-            final ChatPostMessageResponse chatPostMessageResponse = mock(ChatPostMessageResponse.class);
-
-            when(methodsClient.chatPostMessage(
-                    any(ChatPostMessageRequest.class)
-            )).thenReturn(chatPostMessageResponse);
-
-            when(chatPostMessageResponse.isOk())
-                    .thenReturn(true);
+            when(slackConfiguration.getRoutingTable()).thenReturn(SlackRoutingTable.parse(null, TEST_CHANNEL));
 
             // when
-            slackMessageSender.sendEventMessage(context, event);
+            slackMessageSender.sendEventMessage(snapshot);
 
             // then
-            verify(chatPostMessageResponse).isOk();
+            final ArgumentCaptor<ChatPostMessageRequest> request = ArgumentCaptor.forClass(ChatPostMessageRequest.class);
+            verify(slackChannelScheduler).submit(request.capture(), isNull(), eq(List.of(snapshot)), isNull());
+            assertThat(request.getValue().getChannel()).isEqualTo(TEST_CHANNEL);
+            assertThat(request.getValue().getText()).isEqualTo(TEST_MESSAGE_TITLE);
+            assertThat(request.getValue().getBlocks()).isEqualTo(messageBlocks);
         }
     }
 
     @Test
-    void sendAdminEventMessage_should_send_admin_event_to_slack() throws SlackApiException, IOException {
+    void sendBatchMessage_should_submit_single_message_for_all_events() {
         // given
-        final KeycloakContext context = mock(KeycloakContext.class);
-        mockContextForHostFinding(context);
-        mockContextForRealmNameFinding(context);
-
-        final AdminEvent adminEvent = mock(AdminEvent.class);
-
-        try (MockedStatic<SlackEventMessage> slackEventMessageMockedStatic = mockStatic(SlackEventMessage.class)) {
-            final List<?> messageBlocks = mock(List.class);
-            slackEventMessageMockedStatic.when(
-                    () -> SlackEventMessage.getEventMessageBlocks(
-                            eq(adminEvent),
-                            eq(TEST_REALM_NAME),
-                            eq(TEST_HOST),
-                            anyBoolean()
+        final SlackEventSnapshot first = mock(SlackEventSnapshot.class);
+        final SlackEventSnapshot second = mock(SlackEventSnapshot.class);
+        when(first.getHost()).thenReturn(TEST_HOST);
+        when(slackConfiguration.getRoutingTable()).thenReturn(SlackRoutingTable.parse(null, TEST_CHANNEL));
+
+        try (MockedStatic<SlackBatchEventMessage> batchEventMessageMockedStatic = mockStatic(SlackBatchEventMessage.class)) {
+            final List<LayoutBlock> messageBlocks = List.of(mock(LayoutBlock.class));
+            batchEventMessageMockedStatic.when(
+                    () -> SlackBatchEventMessage.getBatchMessageBlocks(
+                            eq(List.of(first, second))
                     )
             ).thenReturn(messageBlocks);
 
-            slackEventMessageMockedStatic.when(
-                    () -> SlackEventMessage.eventTitle(
-                            eq(TEST_HOST)
+            batchEventMessageMockedStatic.when(
+                    () -> SlackBatchEventMessage.batchTitle(
+                            eq(TEST_HOST),
+                            eq(2)
                     )
             ).thenReturn(TEST_MESSAGE_TITLE);
 
-            when(slackConfiguration.getToken()).thenReturn(TEST_SLACK_TOKEN);
-
-            final MethodsClient methodsClient = mock(MethodsClient.class);
-
-            when(slack.methods(
-                    eq(TEST_SLACK_TOKEN)
-            )).thenReturn(methodsClient);
-
-            final ChatPostMessageResponse chatPostMessageResponse = mock(ChatPostMessageResponse.class);
-
-            when(methodsClient.chatPostMessage(
-                    any(ChatPostMessageRequest.class)
-            )).thenReturn(chatPostMessageResponse);
-
-            when(chatPostMessageResponse.isOk())
-                    .thenReturn(true);
-
             // when
-            slackMessageSender.sendAdminEventMessage(context, adminEvent);
+            slackMessageSender.sendBatchMessage(List.of(first, second));
 
             // then
-            verify(chatPostMessageResponse).isOk();
+            final ArgumentCaptor<ChatPostMessageRequest> request = ArgumentCaptor.forClass(ChatPostMessageRequest.class);
+            verify(slackChannelScheduler).submit(request.capture(), isNull(), eq(List.of(first, second)), isNull());
+            assertThat(request.getValue().getText()).isEqualTo(TEST_MESSAGE_TITLE);
+            assertThat(request.getValue().getBlocks()).isEqualTo(messageBlocks);
         }
     }
 
-    private void mockContextForRealmNameFinding(KeycloakContext context) {
-        final RealmModel realm = mock(RealmModel.class);
+    @Test
+    void sendBatchMessage_should_split_batch_by_routed_channel_keeping_order_of_events() {
+        // given
+        when(slackConfiguration.getRoutingTable()).thenReturn(SlackRoutingTable.parse("type:LOGIN_ERROR=#sec-alerts", TEST_CHANNEL));
+        final SlackEventSnapshot firstLogin = snapshot(EventType.LOGIN, 1);
+        final SlackEventSnapshot loginError = snapshot(EventType.LOGIN_ERROR, 2);
+        final SlackEventSnapshot secondLogin = snapshot(EventType.LOGIN, 3);
+
+        // when
+        slackMessageSender.sendBatchMessage(List.of(firstLogin, loginError, secondLogin));
+
+        // then
+        final ArgumentCaptor<ChatPostMessageRequest> request = ArgumentCaptor.forClass(ChatPostMessageRequest.class);
+        verify(slackChannelScheduler, times(2)).submit(request.capture(), isNull(), anyList(), isNull());
+        assertThat(request.getAllValues())
+                .extracting(ChatPostMessageRequest::getChannel)
+                .containsExactly(TEST_CHANNEL, "#sec-alerts");
+        assertThat(request.getAllValues().get(0).getText()).isEqualTo(SlackBatchEventMessage.batchTitle(TEST_HOST, 2));
+        assertThat(request.getAllValues().get(1).getText()).isEqualTo(SlackEventMessage.title(loginError));
+    }
+
+    private static SlackEventSnapshot snapshot(final EventType type, final long time) {
+        final Event event = new Event();
+        event.setType(type);
+        event.setTime(time);
 
-        when(realm.getName()).thenReturn(TEST_REALM_NAME);
-        when(context.getRealm()).thenReturn(realm);
+        return SlackEventSnapshot.of(event, TEST_REALM_NAME, TEST_HOST, false);
     }
 
-    private void mockContextForHostFinding(KeycloakContext context) {
-        final KeycloakUriInfo keycloakUriInfo = mock(KeycloakUriInfo.class);
-        final URI baseUri = mock(URI.class);
+    @Test
+    void sendEventMessage_should_use_routes_and_refer_to_token_of_event_realm() throws Exception {
+        // given
+        final SlackConfiguration listenerConfiguration = withEnvironmentVariable("SLACK_CHANNEL", TEST_CHANNEL)
+                .execute(SlackConfiguration::getConfig);
+        final SlackRealmConfiguration realmConfiguration = listenerConfiguration.forRealm(Map.of(
+                SlackRealmConfiguration.TOKEN_ATTRIBUTE, "xoxb-customers",
+                SlackRealmConfiguration.CHANNEL_ATTRIBUTE, "#customers"
+        ));
+        final Event event = new Event();
+        event.setType(EventType.LOGIN);
+
+        // when
+        slackMessageSender.sendEventMessage(SlackEventSnapshot.of(event, TEST_REALM_NAME, TEST_HOST, realmConfiguration));
+
+        // then
+        final ArgumentCaptor<ChatPostMessageRequest> request = ArgumentCaptor.forClass(ChatPostMessageRequest.class);
+        verify(slackChannelScheduler).submit(request.capture(), eq(TEST_REALM_NAME), anyList(), isNull());
+        assertThat(request.getValue().getChannel()).isEqualTo("#customers");
+        assertThat(request.getValue().getToken()).isNull();
+        verify(slackConfiguration, never()).getRoutingTable();
+    }
 
-        when(keycloakUriInfo.getBaseUri()).thenReturn(baseUri);
-        when(baseUri.toString()).thenReturn(TEST_HOST);
-        when(context.getUri()).thenReturn(keycloakUriInfo);
+    @Test
+    void sendShedSummary_should_submit_counts_of_shed_events_to_channel_and_token_they_were_meant_for() {
+        // when
+        slackMessageSender.sendShedSummary(new SlackShedCounts("#customers", TEST_REALM_NAME, Map.of("LOGIN", 120L, "other messages", 2L)));
+
+        // then
+        final ArgumentCaptor<ChatPostMessageRequest> request = ArgumentCaptor.forClass(ChatPostMessageRequest.class);
+        verify(slackChannelScheduler).submit(request.capture(), eq(TEST_REALM_NAME));
+        assertThat(request.getValue().getChannel()).isEqualTo("#customers");
+        assertThat(request.getValue().getText()).isEqualTo(SlackShedSummaryMessage.summaryTitle(122));
+        verify(slackConfiguration, never()).getRoutingTable();
+    }
+
+    @Test
+    void sendDigestMessage_should_submit_separate_digest_to_channel_and_token_of_each_realm() {
+        // given
+        when(slackConfiguration.getRoutingTable()).thenReturn(SlackRoutingTable.parse(null, TEST_CHANNEL));
+
+        // when
+        slackMessageSender.sendDigestMessage(List.of(
+                new SlackDigestEntry("customers", TEST_HOST, "shop", "LOGIN", 3, "#customers", "customers"),
+                new SlackDigestEntry("master", TEST_HOST, "web-app", "LOGIN", 2, null, null),
+                new SlackDigestEntry("master", TEST_HOST, "web-app", "LOGOUT", 2, null, null)
+        ), 15);
+
+        // then
+        final ArgumentCaptor<ChatPostMessageRequest> customersRequest = ArgumentCaptor.forClass(ChatPostMessageRequest.class);
+        verify(slackChannelScheduler).submit(customersRequest.capture(), eq("customers"));
+        assertThat(customersRequest.getValue().getChannel()).isEqualTo("#customers");
+        assertThat(customersRequest.getValue().getText()).isEqualTo(SlackEventMessage.digestTitle(TEST_HOST, 3, 15));
+        final ArgumentCaptor<ChatPostMessageRequest> masterRequest = ArgumentCaptor.forClass(ChatPostMessageRequest.class);
+        verify(slackChannelScheduler).submit(masterRequest.capture(), (String) isNull());
+        assertThat(masterRequest.getValue().getChannel()).isEqualTo(TEST_CHANNEL);
+        assertThat(masterRequest.getValue().getText()).isEqualTo(SlackEventMessage.digestTitle(TEST_HOST, 4, 15));
+    }
+
+    @Test
+    void sendEventMessage_should_group_events_of_the_same_user_into_thread() throws Exception {
+        // given
+        final SlackConfiguration threadsConfiguration = withEnvironmentVariable("SLACK_CHANNEL", TEST_CHANNEL)
+                .and("SLACK_THREAD_KEY", "user")
+                .execute(SlackConfiguration::getConfig);
+        final SlackMessageSender threadsMessageSender = new SlackMessageSender(slackChannelScheduler, threadsConfiguration);
+        final Event event = new Event();
+        event.setType(EventType.LOGIN_ERROR);
+        event.setUserId("john");
+        final Event anonymousEvent = new Event();
+        anonymousEvent.setType(EventType.LOGIN_ERROR);
+
+        // when
+        threadsMessageSender.sendEventMessage(SlackEventSnapshot.of(event, TEST_REALM_NAME, TEST_HOST, false));
+        threadsMessageSender.sendEventMessage(SlackEventSnapshot.of(anonymousEvent, TEST_REALM_NAME, TEST_HOST, false));
+
+        // then
+        verify(slackChannelScheduler).submit(any(ChatPostMessageRequest.class), isNull(), anyList(), eq(TEST_CHANNEL + "\n" + TEST_REALM_NAME + "\njohn"));
+        verify(slackChannelScheduler).submit(any(ChatPostMessageRequest.class), isNull(), anyList(), isNull());
     }
 }
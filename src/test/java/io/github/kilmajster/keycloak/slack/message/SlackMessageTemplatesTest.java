@@ -0,0 +1,115 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.slack.api.model.block.SectionBlock;
+import org.junit.jupiter.api.Test;
+import org.keycloak.events.Event;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.AdminEvent;
+import org.keycloak.events.admin.OperationType;
+import org.keycloak.representations.idm.AdminEventRepresentation;
+
+import java.util.Map;
+
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_HOST;
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_REALM_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SlackMessageTemplatesTest {
+
+    @Test
+    void headerBlock_should_reuse_header_for_the_same_host_and_event_kind() {
+        // given
+        final SlackEventSnapshot first = eventSnapshot(EventType.LOGIN, TEST_HOST);
+        final SlackEventSnapshot second = eventSnapshot(EventType.LOGOUT, TEST_HOST);
+        final SlackEventSnapshot admin = adminEventSnapshot(OperationType.CREATE, TEST_HOST);
+
+        // when
+        final SectionBlock firstHeader = SlackMessageTemplates.headerBlock(first);
+        final SectionBlock secondHeader = SlackMessageTemplates.headerBlock(second);
+        final SectionBlock adminHeader = SlackMessageTemplates.headerBlock(admin);
+
+        // then
+        assertThat(secondHeader).isSameAs(firstHeader);
+        assertThat(firstHeader.getText().getText()).isEqualTo(SlackEventMessage.eventTitle(TEST_HOST));
+        assertThat(adminHeader.getText().getText()).isEqualTo(SlackEventMessage.adminEventTitle(TEST_HOST));
+    }
+
+    @Test
+    void headerBlock_should_build_header_without_caching_when_host_cache_is_full() {
+        // given
+        for (int i = 0; i < SlackMessageTemplates.MAX_CACHED_HOSTS; i++) {
+            SlackMessageTemplates.headerBlock(eventSnapshot(EventType.LOGIN, "host-" + i));
+        }
+        final SlackEventSnapshot snapshot = eventSnapshot(EventType.LOGIN, "one-too-many");
+
+        // when
+        final SectionBlock header = SlackMessageTemplates.headerBlock(snapshot);
+
+        // then
+        assertThat(header.getText().getText()).isEqualTo(SlackEventMessage.eventTitle("one-too-many"));
+        assertThat(SlackMessageTemplates.headerBlock(snapshot)).isNotSameAs(header);
+        assertThat(SlackMessageTemplates.cachedHosts()).isLessThanOrEqualTo(2 * SlackMessageTemplates.MAX_CACHED_HOSTS);
+    }
+
+    @Test
+    void eventTypeField_should_return_precompiled_field_per_type() {
+        // when & then
+        assertThat(SlackMessageTemplates.eventTypeField(eventSnapshot(EventType.LOGIN_ERROR, TEST_HOST)).getText())
+                .isEqualTo("*Event type:*\nLOGIN_ERROR");
+        assertThat(SlackMessageTemplates.eventTypeField(adminEventSnapshot(OperationType.DELETE, TEST_HOST)).getText())
+                .isEqualTo("*Event type:*\nDELETE");
+        assertThat(SlackMessageTemplates.eventTypeField(eventSnapshot(EventType.LOGIN_ERROR, TEST_HOST)))
+                .isSameAs(SlackMessageTemplates.eventTypeField(eventSnapshot(EventType.LOGIN_ERROR, "other-host")));
+    }
+
+    @Test
+    void dateToken_should_let_slack_format_time_with_utc_fallback() {
+        // when
+        final String token = SlackMessageTemplates.dateToken(1_700_000_000_123L);
+
+        // then
+        assertThat(token).isEqualTo("<!date^1700000000^{date_short_pretty} {time_secs}|2023-11-14T22:13:20.123Z>");
+        assertThat(SlackMessageTemplates.whenField(1_700_000_000_123L)).isEqualTo("*When:*\n" + token);
+    }
+
+    @Test
+    void representationText_should_write_compact_representation_in_code_block() throws JsonProcessingException {
+        // when
+        final String text = SlackMessageTemplates.representationText(Map.of("type", "LOGIN"));
+
+        // then
+        assertThat(text).isEqualTo("```{\"type\":\"LOGIN\"}```");
+    }
+
+    @Test
+    void representationText_should_truncate_representation_above_slack_text_limit() throws JsonProcessingException {
+        // given
+        final AdminEventRepresentation representation = new AdminEventRepresentation();
+        representation.setOperationType(OperationType.UPDATE.name());
+        representation.setRepresentation("{\"realm\":\"" + "x".repeat(500_000) + "\"}");
+
+        // when
+        final String text = SlackMessageTemplates.representationText(representation);
+
+        // then
+        assertThat(text).hasSize(SlackBatchEventMessage.MAX_SECTION_TEXT_LENGTH);
+        assertThat(text).startsWith("```{").endsWith(SlackMessageTemplates.TRUNCATED_MARKER + "```");
+    }
+
+    private static SlackEventSnapshot eventSnapshot(final EventType type, final String host) {
+        final Event event = mock(Event.class);
+        when(event.getType()).thenReturn(type);
+
+        return SlackEventSnapshot.of(event, TEST_REALM_NAME, host, false);
+    }
+
+    private static SlackEventSnapshot adminEventSnapshot(final OperationType type, final String host) {
+        final AdminEvent event = mock(AdminEvent.class);
+        when(event.getOperationType()).thenReturn(type);
+
+        return SlackEventSnapshot.of(event, TEST_REALM_NAME, host, false);
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import com.slack.api.model.block.LayoutBlock;
+import com.slack.api.model.block.SectionBlock;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackShedSummaryMessageTest {
+
+    @Test
+    void getSummaryMessageBlocks_should_render_count_of_every_shed_event_type() {
+        // given
+        final Map<String, Long> shedCounts = new TreeMap<>(Map.of(
+                "LOGIN", 1200L,
+                "REFRESH_TOKEN", 300L,
+                "other messages", 1L
+        ));
+
+        // when
+        final List<LayoutBlock> blocks = SlackShedSummaryMessage.getSummaryMessageBlocks(shedCounts);
+
+        // then
+        assertThat(blocks).hasSize(2);
+        assertThat(((SectionBlock) blocks.get(0)).getText().getText())
+                .isEqualTo("1501 events from Keycloak were dropped while Slack delivery was overloaded");
+        assertThat(((SectionBlock) blocks.get(1)).getText().getText()).isEqualTo(
+                "`LOGIN` 1200 dropped\n"
+                        + "`REFRESH_TOKEN` 300 dropped\n"
+                        + "`other messages` 1 dropped"
+        );
+    }
+}
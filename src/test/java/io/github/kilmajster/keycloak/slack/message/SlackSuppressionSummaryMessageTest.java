@@ -0,0 +1,50 @@
+package io.github.kilmajster.keycloak.slack.message;
+
+import com.slack.api.model.block.LayoutBlock;
+import com.slack.api.model.block.SectionBlock;
+import io.github.kilmajster.keycloak.slack.config.SlackSuppressionKeyField;
+import org.junit.jupiter.api.Test;
+import org.keycloak.events.Event;
+import org.keycloak.events.EventType;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_HOST;
+import static io.github.kilmajster.keycloak.slack.TestData.TEST_REALM_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlackSuppressionSummaryMessageTest {
+
+    @Test
+    void getSummaryMessageBlocks_should_render_only_key_fields_and_counts() {
+        // given
+        final Event event = new Event();
+        event.setType(EventType.LOGIN_ERROR);
+        event.setClientId("account-console");
+        event.setError("invalid_user_credentials");
+        event.setIpAddress("10.0.0.1");
+        final SlackEventSnapshot snapshot = SlackEventSnapshot.of(event, TEST_REALM_NAME, TEST_HOST, false);
+
+        // when
+        final List<LayoutBlock> blocks = SlackSuppressionSummaryMessage.getSummaryMessageBlocks(List.of(
+                new SlackSuppressedEvents(snapshot, EnumSet.allOf(SlackSuppressionKeyField.class), 120),
+                new SlackSuppressedEvents(snapshot, EnumSet.of(SlackSuppressionKeyField.TYPE, SlackSuppressionKeyField.REALM), 30)
+        ), 60, null);
+
+        // then
+        assertThat(blocks).hasSize(2);
+        assertThat(((SectionBlock) blocks.get(0)).getText().getText())
+                .isEqualTo("150 more occurrences of repeated events in the last 60 seconds in Keycloak at " + TEST_HOST);
+        assertThat(((SectionBlock) blocks.get(1)).getText().getText()).isEqualTo(
+                "`LOGIN_ERROR` realm *" + TEST_REALM_NAME + "*, client *account-console*, error *invalid_user_credentials*, ip *10.0.0.1*, 120 more occurrences\n"
+                        + "`LOGIN_ERROR` realm *" + TEST_REALM_NAME + "*, 30 more occurrences"
+        );
+    }
+
+    @Test
+    void summaryTitle_should_name_node_which_counted_events_in_cluster() {
+        assertThat(SlackSuppressionSummaryMessage.summaryTitle(TEST_HOST, 10, 60, "node-2"))
+                .isEqualTo("10 more occurrences of repeated events in the last 60 seconds in Keycloak at " + TEST_HOST + ", counted on node node-2 only");
+    }
+}
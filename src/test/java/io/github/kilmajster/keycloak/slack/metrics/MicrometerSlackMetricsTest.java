@@ -0,0 +1,101 @@
+package io.github.kilmajster.keycloak.slack.metrics;
+
+import io.github.kilmajster.keycloak.slack.metrics.SlackMetrics.DropReason;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.keycloak.events.EventType;
+import org.keycloak.events.admin.OperationType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MicrometerSlackMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MicrometerSlackMetrics metrics = new MicrometerSlackMetrics(registry);
+
+    @Test
+    void should_count_accepted_and_rejected_events_per_type() {
+        // when
+        metrics.eventAccepted(EventType.LOGIN_ERROR);
+        metrics.eventAccepted(EventType.LOGIN_ERROR);
+        metrics.eventRejected(EventType.CODE_TO_TOKEN);
+        metrics.adminEventAccepted(OperationType.DELETE);
+
+        // then
+        assertThat(eventsCount("user", "LOGIN_ERROR", "accepted")).isEqualTo(2);
+        assertThat(eventsCount("user", "CODE_TO_TOKEN", "rejected")).isEqualTo(1);
+        assertThat(eventsCount("admin", "DELETE", "accepted")).isEqualTo(1);
+        assertThat(registry.find(MicrometerSlackMetrics.EVENTS_METRIC).tag("type", "LOGIN").counter()).isNull();
+    }
+
+    @Test
+    void should_record_send_latency_and_errors() {
+        // when
+        metrics.messageSent(TimeUnit.MILLISECONDS.toNanos(20));
+        metrics.messageFailed("channel_not_found", TimeUnit.MILLISECONDS.toNanos(30));
+        metrics.messageFailed("channel_not_found", TimeUnit.MILLISECONDS.toNanos(30));
+        metrics.messageFailed(null, TimeUnit.MILLISECONDS.toNanos(30));
+
+        // then
+        assertThat(registry.get(MicrometerSlackMetrics.SEND_METRIC).tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.get(MicrometerSlackMetrics.SEND_METRIC).tag("outcome", "failure").timer().count()).isEqualTo(3);
+        assertThat(registry.get(MicrometerSlackMetrics.ERRORS_METRIC).tag("error", "channel_not_found").counter().count()).isEqualTo(2);
+        assertThat(registry.get(MicrometerSlackMetrics.ERRORS_METRIC).tag("error", "unknown").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void should_count_retries_rate_limits_and_drops() {
+        // when
+        metrics.messageRetried();
+        metrics.messageRateLimited();
+        metrics.messageDropped(DropReason.QUEUE_FULL);
+        metrics.messageDropped(DropReason.ASYNC_QUEUE_FULL);
+        metrics.messageDropped(DropReason.DEAD_LETTER);
+
+        // then
+        assertThat(registry.get(MicrometerSlackMetrics.RETRIES_METRIC).counter().count()).isEqualTo(1);
+        assertThat(registry.get(MicrometerSlackMetrics.RATE_LIMITED_METRIC).counter().count()).isEqualTo(1);
+        assertThat(registry.get(MicrometerSlackMetrics.DROPPED_METRIC).tag("reason", "queue_full").counter().count()).isEqualTo(1);
+        assertThat(registry.get(MicrometerSlackMetrics.DROPPED_METRIC).tag("reason", "async_queue_full").counter().count()).isEqualTo(1);
+        assertThat(registry.get(MicrometerSlackMetrics.DROPPED_METRIC).tag("reason", "dead_letter").counter().count()).isEqualTo(1);
+        assertThat(registry.get(MicrometerSlackMetrics.DROPPED_METRIC).tag("reason", "shutdown").counter().count()).isZero();
+    }
+
+    @Test
+    void should_report_current_queue_depth() {
+        // given
+        final AtomicInteger pendingMessages = new AtomicInteger();
+        metrics.registerQueueDepth(pendingMessages::get);
+
+        // when
+        pendingMessages.set(42);
+
+        // then
+        assertThat(registry.get(MicrometerSlackMetrics.QUEUE_DEPTH_METRIC).gauge().value()).isEqualTo(42);
+    }
+
+    @Test
+    void close_should_remove_registered_meters() {
+        // given
+        metrics.eventAccepted(EventType.LOGIN);
+        metrics.registerQueueDepth(() -> 1);
+
+        // when
+        metrics.close();
+
+        // then
+        assertThat(registry.getMeters()).isEmpty();
+    }
+
+    private double eventsCount(final String kind, final String type, final String result) {
+        return registry.get(MicrometerSlackMetrics.EVENTS_METRIC)
+                .tag("kind", kind)
+                .tag("type", type)
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}